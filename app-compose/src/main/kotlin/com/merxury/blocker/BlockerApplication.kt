@@ -35,6 +35,7 @@ import com.merxury.blocker.core.model.preference.RuleServerProvider.GITHUB
 import com.merxury.blocker.core.model.preference.RuleServerProvider.GITLAB
 import com.merxury.blocker.core.rule.work.CopyRulesToStorageWorker
 import com.merxury.blocker.core.utils.AppDebugChecker
+import com.merxury.blocker.feature.applist.impl.AppChangedReceiver
 import com.merxury.blocker.sync.initializers.Sync
 import dagger.hilt.android.HiltAndroidApp
 import kotlinx.coroutines.CoroutineScope
@@ -78,6 +79,9 @@ class BlockerApplication :
     @Inject
     lateinit var appDebugChecker: AppDebugChecker
 
+    @Inject
+    lateinit var appChangedReceiver: AppChangedReceiver
+
     override val workManagerConfiguration: Configuration
         get() = Configuration.Builder()
             .setWorkerFactory(workerFactory)
@@ -107,6 +111,7 @@ class BlockerApplication :
         addApiExemptions()
         profileVerifierLogger()
         Sync.initialize(context = this)
+        appChangedReceiver.register(this)
     }
 
     override fun newImageLoader(): ImageLoader = imageLoader.get()
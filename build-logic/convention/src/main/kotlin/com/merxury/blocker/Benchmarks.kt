@@ -0,0 +1,34 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker
+
+import org.gradle.api.Project
+import org.gradle.api.tasks.testing.Test
+import org.gradle.kotlin.dsl.withType
+
+/**
+ * Excludes the `*Benchmark` classes from the unit tests of the project.
+ * They take a while and only print their timings, run them with `-PrunBenchmarks=true`.
+ */
+fun Project.excludeBenchmarksFromTests() {
+    val runBenchmarks = providers.gradleProperty("runBenchmarks").map(String::toBoolean).getOrElse(false)
+    tasks.withType<Test>().configureEach {
+        if (!runBenchmarks) {
+            exclude("**/*Benchmark.class")
+        }
+    }
+}
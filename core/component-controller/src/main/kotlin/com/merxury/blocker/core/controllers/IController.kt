@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.controllers
 
+import android.content.ComponentName
 import com.merxury.blocker.core.model.ComponentState
 import com.merxury.blocker.core.model.data.ComponentInfo
 
@@ -43,6 +44,13 @@ interface IController {
 
     suspend fun disable(component: ComponentInfo): Boolean
 
+    /**
+     * Enable all components in [componentList].
+     *
+     * @param action invoked once for every component in [componentList] after it was
+     * processed, whether or not it succeeded, e.g. to report progress
+     * @return the number of components enabled successfully
+     */
     suspend fun batchEnable(
         componentList: List<ComponentInfo>,
         action: suspend (info: ComponentInfo) -> Unit,
@@ -57,6 +65,13 @@ interface IController {
         return succeededCount
     }
 
+    /**
+     * Disable all components in [componentList].
+     *
+     * @param action invoked once for every component in [componentList] after it was
+     * processed, whether or not it succeeded, e.g. to report progress
+     * @return the number of components disabled successfully
+     */
     suspend fun batchDisable(
         componentList: List<ComponentInfo>,
         action: suspend (info: ComponentInfo) -> Unit,
@@ -71,5 +86,47 @@ interface IController {
         return succeededCount
     }
 
+    /**
+     * Enable the components in [enableList] and disable the components in [disableList].
+     * Controllers that can apply many changes at once should override this to
+     * avoid one operation per component.
+     *
+     * @param action invoked for every component that was switched successfully
+     * @return the number of components switched successfully
+     */
+    suspend fun batchSwitch(
+        enableList: List<ComponentInfo>,
+        disableList: List<ComponentInfo>,
+        action: suspend (info: ComponentInfo) -> Unit,
+    ): Int {
+        var succeededCount = 0
+        enableList.forEach {
+            if (enable(it)) {
+                succeededCount++
+                action(it)
+            }
+        }
+        disableList.forEach {
+            if (disable(it)) {
+                succeededCount++
+                action(it)
+            }
+        }
+        return succeededCount
+    }
+
     suspend fun checkComponentEnableState(packageName: String, componentName: String): Boolean
+
+    /**
+     * Take a snapshot of the enable state of all components in [componentList].
+     * Controllers that can read the state of many components at once should override
+     * this to avoid one lookup per component.
+     *
+     * @return map of component to its enable state, true if the component is enabled
+     */
+    suspend fun checkComponentEnableState(
+        componentList: List<ComponentInfo>,
+    ): Map<ComponentName, Boolean> = componentList.associate {
+        ComponentName(it.packageName, it.name) to checkComponentEnableState(it.packageName, it.name)
+    }
 }
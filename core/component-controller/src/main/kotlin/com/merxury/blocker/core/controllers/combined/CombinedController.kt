@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.controllers.combined
 
+import android.content.ComponentName
 import com.merxury.blocker.core.controllers.IController
 import com.merxury.blocker.core.controllers.di.IfwControl
 import com.merxury.blocker.core.controllers.di.RootApiControl
@@ -110,4 +111,14 @@ internal class CombinedController @Inject constructor(
         val pmEnabled = pmController.checkComponentEnableState(packageName, componentName)
         return ifwEnabled || pmEnabled
     }
+
+    override suspend fun checkComponentEnableState(
+        componentList: List<ComponentInfo>,
+    ): Map<ComponentName, Boolean> {
+        val ifwStates = ifwController.checkComponentEnableState(componentList)
+        val pmStates = pmController.checkComponentEnableState(componentList)
+        return ifwStates.mapValues { (componentName, ifwEnabled) ->
+            ifwEnabled || pmStates[componentName] == true
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.merxury.blocker.core.controllers.IController
 import com.merxury.blocker.core.model.ComponentState
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.core.ifw.IIntentFirewall
+import com.merxury.core.ifw.model.IfwComponentType
 import timber.log.Timber
 import javax.inject.Inject
 import javax.inject.Singleton
@@ -94,8 +95,48 @@ internal class IfwController @Inject constructor(
         return succeededCount
     }
 
+    override suspend fun batchSwitch(
+        enableList: List<ComponentInfo>,
+        disableList: List<ComponentInfo>,
+        action: suspend (info: ComponentInfo) -> Unit,
+    ): Int {
+        if (enableList.isEmpty() && disableList.isEmpty()) {
+            Timber.w("No component to switch")
+            return 0
+        }
+        var succeededCount = 0
+        val components = (enableList + disableList).associateBy { ComponentName(it.packageName, it.name) }
+        // Rules of every package are written once for both lists
+        intentFirewall.updateComponentFilters(
+            add = disableList.map { ComponentName(it.packageName, it.name) },
+            remove = enableList.map { ComponentName(it.packageName, it.name) },
+        ) {
+            succeededCount++
+            components[it]?.let { component -> action(component) }
+        }
+        return succeededCount
+    }
+
     override suspend fun checkComponentEnableState(
         packageName: String,
         componentName: String,
     ): Boolean = intentFirewall.getComponentEnableState(packageName, componentName)
+
+    override suspend fun checkComponentEnableState(
+        componentList: List<ComponentInfo>,
+    ): Map<ComponentName, Boolean> {
+        val result = mutableMapOf<ComponentName, Boolean>()
+        // Load the rules once per package instead of once per component
+        componentList.groupBy { it.packageName }.forEach { (packageName, components) ->
+            val rules = intentFirewall.getRules(packageName)
+            val blockedNames = IfwComponentType.entries.flatMapTo(mutableSetOf()) { type ->
+                rules.componentFiltersFor(type)
+            }
+            components.forEach {
+                val componentName = ComponentName(packageName, it.name)
+                result[componentName] = "$packageName/${it.name}" !in blockedNames
+            }
+        }
+        return result
+    }
 }
@@ -32,6 +32,7 @@ import be.mygod.librootkotlinx.ParcelableStringList
 import be.mygod.librootkotlinx.RootCommand
 import be.mygod.librootkotlinx.systemContext
 import com.merxury.blocker.core.controllers.utils.ContextUtils.userId
+import com.merxury.blocker.core.model.ComponentState
 import com.merxury.blocker.core.utils.ApplicationUtil
 import kotlinx.parcelize.Parcelize
 import timber.log.Timber
@@ -77,26 +78,62 @@ internal data class SetComponentEnabledSettingCommand(
     private val state: Int,
 ) : RootCommand<ParcelableBoolean> {
     override suspend fun execute(): ParcelableBoolean {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
-            RootApiServices.pm.setComponentEnabledSetting(
-                ComponentName(packageName, componentName),
-                state,
-                0,
-                RootApiServices.userId,
-                RootApiServices.packageName,
-            )
-        } else {
-            RootApiServices.pm.setComponentEnabledSetting(
-                ComponentName(packageName, componentName),
-                state,
-                0,
-                RootApiServices.userId,
-            )
-        }
+        setComponentEnabledSetting(packageName, componentName, state)
         return ParcelableBoolean(true)
     }
 }
 
+private fun setComponentEnabledSetting(packageName: String, componentName: String, state: Int) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
+        RootApiServices.pm.setComponentEnabledSetting(
+            ComponentName(packageName, componentName),
+            state,
+            0,
+            RootApiServices.userId,
+            RootApiServices.packageName,
+        )
+    } else {
+        RootApiServices.pm.setComponentEnabledSetting(
+            ComponentName(packageName, componentName),
+            state,
+            0,
+            RootApiServices.userId,
+        )
+    }
+}
+
+/**
+ * Sets the state of many components of [packageName] in one root call.
+ * A component that fails, e.g. because it no longer exists, doesn't stop the others.
+ *
+ * @return the names of the components that were switched
+ */
+@Parcelize
+internal data class SetComponentEnabledSettingsCommand(
+    private val packageName: String,
+    private val enabledNames: List<String>,
+    private val disabledNames: List<String>,
+) : RootCommand<ParcelableStringList> {
+    override suspend fun execute(): ParcelableStringList {
+        val switched = mutableListOf<String>()
+        enabledNames.forEach {
+            if (trySetComponentEnabledSetting(it, ComponentState.ENABLED.pmValue)) switched.add(it)
+        }
+        disabledNames.forEach {
+            if (trySetComponentEnabledSetting(it, ComponentState.DISABLED.pmValue)) switched.add(it)
+        }
+        return ParcelableStringList(switched)
+    }
+
+    private fun trySetComponentEnabledSetting(componentName: String, state: Int): Boolean = try {
+        setComponentEnabledSetting(packageName, componentName, state)
+        true
+    } catch (e: Exception) {
+        Timber.w(e, "Cannot set state of $packageName/$componentName")
+        false
+    }
+}
+
 @Parcelize
 internal data class SetApplicationEnabledSettingCommand(
     private val packageName: String,
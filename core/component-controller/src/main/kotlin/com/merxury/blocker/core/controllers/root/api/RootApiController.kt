@@ -67,6 +67,62 @@ internal class RootApiController @Inject constructor(
         ComponentState.DISABLED,
     )
 
+    override suspend fun batchEnable(
+        componentList: List<ComponentInfo>,
+        action: suspend (info: ComponentInfo) -> Unit,
+    ): Int {
+        val switched = switchComponents(componentList, emptyList())
+        componentList.forEach { action(it) }
+        return switched.size
+    }
+
+    override suspend fun batchDisable(
+        componentList: List<ComponentInfo>,
+        action: suspend (info: ComponentInfo) -> Unit,
+    ): Int {
+        val switched = switchComponents(emptyList(), componentList)
+        componentList.forEach { action(it) }
+        return switched.size
+    }
+
+    override suspend fun batchSwitch(
+        enableList: List<ComponentInfo>,
+        disableList: List<ComponentInfo>,
+        action: suspend (info: ComponentInfo) -> Unit,
+    ): Int {
+        val switched = switchComponents(enableList, disableList)
+        switched.forEach { action(it) }
+        return switched.size
+    }
+
+    /**
+     * Switches the components with one root call per package instead of one per component.
+     *
+     * @return the components that were switched successfully
+     */
+    private suspend fun switchComponents(
+        enableList: List<ComponentInfo>,
+        disableList: List<ComponentInfo>,
+    ): List<ComponentInfo> {
+        val switched = mutableListOf<ComponentInfo>()
+        val enabledMap = enableList.groupBy { it.packageName }
+        val disabledMap = disableList.groupBy { it.packageName }
+        (enabledMap.keys + disabledMap.keys).forEach { packageName ->
+            val enabled = enabledMap[packageName].orEmpty()
+            val disabled = disabledMap[packageName].orEmpty()
+            Timber.d("Switch components of $packageName, enable ${enabled.size}, disable ${disabled.size}")
+            val switchedNames = rootCommandExecutor.execute(
+                SetComponentEnabledSettingsCommand(
+                    packageName = packageName,
+                    enabledNames = enabled.map { it.name },
+                    disabledNames = disabled.map { it.name },
+                ),
+            ).value.toHashSet()
+            (enabled + disabled).filterTo(switched) { it.name in switchedNames }
+        }
+        return switched
+    }
+
     override suspend fun checkComponentEnableState(
         packageName: String,
         componentName: String,
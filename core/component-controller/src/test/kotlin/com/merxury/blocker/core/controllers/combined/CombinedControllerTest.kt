@@ -117,6 +117,20 @@ class CombinedControllerTest {
         assertEquals(testComponent, callbackComponents.first())
     }
 
+    @Test
+    fun givenPartialFailure_whenDefaultBatchDisable_thenCallsActionForEveryComponent() = runTest {
+        val failComponent = testComponent.copy(name = ".FailComponent")
+        pmController.failForComponents.add(failComponent.name)
+
+        val components = listOf(testComponent, failComponent)
+        val callbackComponents = mutableListOf<ComponentInfo>()
+
+        val count = pmController.batchDisable(components) { callbackComponents.add(it) }
+
+        assertEquals(1, count)
+        assertEquals(components, callbackComponents)
+    }
+
     @Test
     fun givenEmptyList_whenBatchEnable_thenReturnsZero() = runTest {
         val count = combinedController.batchEnable(emptyList()) { }
@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.controllers.ifw
 
+import android.content.ComponentName
 import com.merxury.blocker.core.model.ComponentState
 import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.data.ComponentInfo
@@ -140,6 +141,21 @@ class IfwControllerTest {
         assertEquals(0, count)
     }
 
+    @Test
+    fun givenEnableAndDisableLists_whenBatchSwitch_thenAllComponentsAreSwitched() = runTest {
+        val blocked = componentInfo(".Service1", ComponentType.SERVICE)
+        val enabled = componentInfo(".Receiver1", ComponentType.RECEIVER)
+        controller.disable(blocked)
+
+        val callbackComponents = mutableListOf<ComponentInfo>()
+        val count = controller.batchSwitch(listOf(blocked), listOf(enabled)) { callbackComponents.add(it) }
+
+        assertEquals(2, count)
+        assertEquals(listOf(enabled, blocked), callbackComponents)
+        assertTrue(fakeIfw.getComponentEnableState(testPackage, blocked.name))
+        assertFalse(fakeIfw.getComponentEnableState(testPackage, enabled.name))
+    }
+
     @Test
     fun givenComponent_whenCheckEnableState_thenDelegatesToIntentFirewall() = runTest {
         assertTrue(controller.checkComponentEnableState(testPackage, ".MyReceiver"))
@@ -149,6 +165,19 @@ class IfwControllerTest {
         assertFalse(controller.checkComponentEnableState(testPackage, ".MyReceiver"))
     }
 
+    @Test
+    fun givenPartiallyBlockedComponents_whenCheckEnableStateInBulk_thenReturnsStateOfEach() = runTest {
+        val blocked = componentInfo(".Receiver1", ComponentType.RECEIVER)
+        val enabled = componentInfo(".Receiver2", ComponentType.RECEIVER)
+        controller.disable(blocked)
+
+        val states = controller.checkComponentEnableState(listOf(blocked, enabled))
+
+        assertEquals(2, states.size)
+        assertEquals(false, states[ComponentName(testPackage, blocked.name)])
+        assertEquals(true, states[ComponentName(testPackage, enabled.name)])
+    }
+
     private fun componentInfo(name: String, type: ComponentType) = ComponentInfo(
         packageName = testPackage,
         name = name,
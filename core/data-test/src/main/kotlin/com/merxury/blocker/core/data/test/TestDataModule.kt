@@ -17,6 +17,7 @@
 package com.merxury.blocker.core.data.test
 
 import com.merxury.blocker.core.data.appstate.IAppStateCache
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
 import com.merxury.blocker.core.data.di.DataModule
 import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
@@ -93,6 +94,11 @@ internal interface TestDataModule {
         appStateCache: TestAppStateCache,
     ): IAppStateCache
 
+    @Binds
+    fun bindsPackageInfoCache(
+        packageInfoCache: TestPackageInfoCache,
+    ): IPackageInfoCache
+
     @Binds
     fun bindsTimeZoneMonitor(impl: DefaultZoneIdTimeZoneMonitor): TimeZoneMonitor
 
@@ -14,15 +14,15 @@
  * limitations under the License.
  */
 
-package com.merxury.blocker.core.database.generalrule
+package com.merxury.blocker.core.data.test
 
-import androidx.room.Database
-import androidx.room.RoomDatabase
-import androidx.room.TypeConverters
-import com.merxury.blocker.core.database.util.ListConverter
+import android.content.pm.PackageInfo
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
+import javax.inject.Inject
+import kotlin.time.Instant
 
-@Database(entities = [GeneralRuleEntity::class], version = 3)
-@TypeConverters(ListConverter::class)
-internal abstract class GeneralRuleDatabase : RoomDatabase() {
-    abstract fun generalRuleDao(): GeneralRuleDao
+internal class TestPackageInfoCache @Inject constructor() : IPackageInfoCache {
+    override fun get(packageName: String, lastUpdateTime: Instant?): PackageInfo? = null
+
+    override fun invalidate(packageName: String) = Unit
 }
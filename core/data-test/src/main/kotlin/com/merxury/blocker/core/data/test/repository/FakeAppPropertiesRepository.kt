@@ -30,9 +30,17 @@ class FakeAppPropertiesRepository @Inject constructor(
 
     override suspend fun markComponentDatabaseInitialized() = appPropertiesDataSource.markComponentDatabaseInitialized()
 
+    override suspend fun addInitializedComponentPackages(packageNames: Collection<String>) = appPropertiesDataSource.addInitializedComponentPackages(packageNames)
+
     override suspend fun markGeneralRuleDatabaseInitialized() = appPropertiesDataSource.markGeneralRuleDatabaseInitialized()
 
     override suspend fun updateLastOpenedAppListHash(hash: String) = appPropertiesDataSource.updateLastOpenedAppListHash(hash)
 
     override suspend fun updateLastOpenedRuleHash(hash: String) = appPropertiesDataSource.updateLastOpenedRuleHash(hash)
+
+    override suspend fun updatePackageChangeSequence(bootCount: Int, sequenceNumber: Int) = appPropertiesDataSource.updatePackageChangeSequence(bootCount, sequenceNumber)
+
+    override suspend fun updateAppLabelLocale(locale: String) = appPropertiesDataSource.updateAppLabelLocale(locale)
+
+    override suspend fun addIndexedComponentDetailLanguage(language: String) = appPropertiesDataSource.addIndexedComponentDetailLanguage(language)
 }
@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.data.test.repository
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.result.Result
@@ -26,6 +27,8 @@ import javax.inject.Inject
 class FakeAppRepository @Inject constructor() : AppRepository {
     override fun getApplicationList(): Flow<List<InstalledApp>> = flowOf(emptyList())
 
+    override fun getPagedApplicationList(): Flow<PagingData<InstalledApp>> = flowOf(PagingData.empty())
+
     override fun updateApplication(packageName: String): Flow<Result<Unit>> = flowOf(Result.Success(Unit))
 
     override fun updateApplicationList(): Flow<Result<Unit>> = flowOf(Result.Success(Unit))
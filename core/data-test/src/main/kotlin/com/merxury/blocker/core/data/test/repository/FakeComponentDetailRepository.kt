@@ -30,5 +30,9 @@ class FakeComponentDetailRepository @Inject constructor() : ComponentDetailRepos
 
     override fun getLocalComponentDetail(name: String): Flow<ComponentDetail?> = flowOf(null)
 
+    override fun getLocalComponentDetails(names: Collection<String>): Flow<Map<String, ComponentDetail>> = flowOf(emptyMap())
+
     override fun saveComponentDetail(componentDetail: ComponentDetail): Flow<Boolean> = flowOf(true)
+
+    override suspend fun updateComponentDetailIndex(onlyIfMissing: Boolean) = Unit
 }
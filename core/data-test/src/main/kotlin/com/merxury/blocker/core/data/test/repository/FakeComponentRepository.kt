@@ -16,11 +16,16 @@
 
 package com.merxury.blocker.core.data.test.repository
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.ComponentType.ACTIVITY
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.ControllerType
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.SortingOrder
 import com.merxury.blocker.core.result.Result
 import com.merxury.blocker.core.result.Result.Success
 import kotlinx.coroutines.flow.Flow
@@ -37,6 +42,16 @@ class FakeComponentRepository @Inject constructor() : ComponentRepository {
         type: ComponentType,
     ): Flow<List<ComponentInfo>> = flowOf(emptyList())
 
+    override fun getPagedComponentList(
+        packageName: String,
+        type: ComponentType,
+        keywords: List<String>,
+        sorting: ComponentSorting,
+        order: SortingOrder,
+        priority: ComponentShowPriority,
+        transformPage: suspend (List<ComponentInfo>) -> List<ComponentInfo>,
+    ): Flow<PagingData<ComponentInfo>> = flowOf(PagingData.empty())
+
     override fun updateComponentList(packageName: String, type: ComponentType): Flow<Result<Unit>> = flowOf(
         Success(Unit),
     )
@@ -65,6 +80,13 @@ class FakeComponentRepository @Inject constructor() : ComponentRepository {
 
     override fun searchComponent(keyword: String): Flow<List<ComponentInfo>> = flowOf(emptyList())
 
+    override fun searchPagedComponent(keyword: String): Flow<PagingData<ComponentInfo>> = flowOf(PagingData.empty())
+
+    override fun searchComponentGroupByApp(
+        keyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledApp, List<ComponentInfo>>> = flowOf(emptyMap())
+
     override suspend fun saveComponents(components: List<ComponentInfo>) {
         /* no-op */
     }
@@ -17,6 +17,7 @@
 package com.merxury.blocker.core.data.test.repository
 
 import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
+import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.flow.Flow
@@ -138,4 +139,14 @@ class FakeGeneralRuleRepository @Inject constructor() : GeneralRuleRepository {
             rule.name.contains(keyword, ignoreCase = true) || rule.searchKeyword.contains(keyword)
         }
     }
+
+    override fun getMatchedAppCount(ruleId: Int, includeSystemApps: Boolean): Flow<Int> = flowOf(0)
+
+    override fun getMatchedComponents(includeSystemApps: Boolean): Flow<List<ComponentInfo>> = flowOf(emptyList())
+
+    override fun getMatchedComponents(packageName: String): Flow<Map<Int, List<ComponentInfo>>> = flowOf(emptyMap())
+
+    override suspend fun getMatchedRuleIds(packageName: String): List<Int> = emptyList()
+
+    override suspend fun adjustMatchedAppCount(ruleIds: List<Int>, delta: Int) = Unit
 }
@@ -63,6 +63,10 @@ class FakeUserDataRepository @Inject constructor(
         blockerPreferenceDataSource.setRestoreSystemApp(shouldRestore)
     }
 
+    override suspend fun setArchiveBackup(archive: Boolean) {
+        blockerPreferenceDataSource.setArchiveBackup(archive)
+    }
+
     override suspend fun setShowSystemApps(shouldShowSystemApps: Boolean) {
         blockerPreferenceDataSource.setShowSystemApps(shouldShowSystemApps)
     }
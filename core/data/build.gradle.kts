@@ -14,6 +14,9 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
+import com.merxury.blocker.excludeBenchmarksFromTests
+
 plugins {
     alias(libs.plugins.blocker.android.library)
     alias(libs.plugins.blocker.android.library.jacoco)
@@ -25,6 +28,9 @@ android {
     namespace = "com.merxury.blocker.core.data"
     testOptions.unitTests.isIncludeAndroidResources = true
 }
+
+excludeBenchmarksFromTests()
+
 dependencies {
     api(projects.core.common)
     api(projects.core.database)
@@ -39,5 +45,6 @@ dependencies {
     testImplementation(projects.core.testing)
     testImplementation(projects.core.datastoreTest)
     testImplementation(libs.mockito.kotlin)
+    testImplementation(libs.robolectric)
     testImplementation(libs.turbine)
 }
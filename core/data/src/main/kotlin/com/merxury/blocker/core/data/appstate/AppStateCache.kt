@@ -24,8 +24,10 @@ import com.merxury.blocker.core.controllers.di.RootApiControl
 import com.merxury.blocker.core.controllers.di.RootApiServiceControl
 import com.merxury.blocker.core.controllers.di.ShizukuServiceControl
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
+import com.merxury.blocker.core.database.app.AppComponentCountDao
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
+import com.merxury.blocker.core.model.ComponentType.SERVICE
 import com.merxury.blocker.core.model.data.AppServiceStatus
 import com.merxury.blocker.core.model.data.ControllerType.SHIZUKU
 import com.merxury.blocker.core.utils.PackageInfoDataSource
@@ -39,6 +41,7 @@ internal class AppStateCache @Inject constructor(
     private val userDataRepository: UserDataRepository,
     private val rootChecker: RootAvailabilityChecker,
     private val packageInfoDataSource: PackageInfoDataSource,
+    private val appComponentCountDao: AppComponentCountDao,
     @IfwControl private val ifwController: IController,
     @RootApiControl private val rootController: IController,
     @RootApiServiceControl private val rootServiceController: IServiceController,
@@ -64,26 +67,21 @@ internal class AppStateCache @Inject constructor(
     private suspend fun getServiceStatus(packageName: String): AppServiceStatus {
         val controllerType = userDataRepository.userData.first().controllerType
         val services = packageInfoDataSource.getServiceList(packageName)
-        var running = 0
-        var blocked = 0
-        for (service in services) {
-            val ifwState = if (rootChecker.isRootAvailable()) {
-                ifwController.checkComponentEnableState(packageName, service.name)
-            } else {
-                true
-            }
-            val pmState = rootController.checkComponentEnableState(packageName, service.name)
-            if (!ifwState || !pmState) {
-                blocked++
-            }
-            val currentServiceController = if (controllerType == SHIZUKU) {
-                shizukuServiceController
-            } else {
-                rootServiceController
-            }
-            if (currentServiceController.isServiceRunning(packageName, service.name)) {
-                running++
-            }
+        val currentServiceController = if (controllerType == SHIZUKU) {
+            shizukuServiceController
+        } else {
+            rootServiceController
+        }
+        val running = services.count { service ->
+            currentServiceController.isServiceRunning(packageName, service.name)
+        }
+        // The blocked services are counted in the database once the components are loaded,
+        // fall back to checking the controllers otherwise
+        val count = appComponentCountDao.getByPackageNameAndType(packageName, SERVICE)
+        val blocked = if (count != null && count.total == services.size) {
+            count.blocked
+        } else {
+            services.count { service -> isBlocked(packageName, service.name) }
         }
         return AppServiceStatus(
             packageName = packageName,
@@ -92,4 +90,14 @@ internal class AppStateCache @Inject constructor(
             total = services.count(),
         )
     }
+
+    private suspend fun isBlocked(packageName: String, serviceName: String): Boolean {
+        val ifwState = if (rootChecker.isRootAvailable()) {
+            ifwController.checkComponentEnableState(packageName, serviceName)
+        } else {
+            true
+        }
+        val pmState = rootController.checkComponentEnableState(packageName, serviceName)
+        return !ifwState || !pmState
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.appstate
+
+import android.content.pm.PackageInfo
+import kotlin.time.Instant
+
+/**
+ * Keeps the [PackageInfo] of installed apps, which is used to show the app icon,
+ * so that the app lists don't query the package manager on every update.
+ */
+interface IPackageInfoCache {
+    /**
+     * Returns the [PackageInfo] of [packageName], or null if the app is not installed.
+     * The cached value is loaded again if the app was updated since, which is
+     * detected by [lastUpdateTime] of the app in the database.
+     */
+    fun get(packageName: String, lastUpdateTime: Instant?): PackageInfo?
+
+    /**
+     * Removes the cached value of [packageName], e.g. when the app is removed or replaced.
+     */
+    fun invalidate(packageName: String)
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.appstate
+
+import android.content.pm.PackageInfo
+import android.content.pm.PackageManager
+import com.merxury.blocker.core.extension.getPackageInfoCompat
+import java.util.concurrent.ConcurrentHashMap
+import javax.inject.Inject
+import javax.inject.Singleton
+import kotlin.time.Instant
+
+@Singleton
+internal class PackageInfoCache @Inject constructor(
+    private val packageManager: PackageManager,
+) : IPackageInfoCache {
+    private val cache = ConcurrentHashMap<String, CachedPackageInfo>()
+
+    override fun get(packageName: String, lastUpdateTime: Instant?): PackageInfo? {
+        val cachedResult = cache[packageName]
+        if (cachedResult != null && cachedResult.lastUpdateTime == lastUpdateTime) {
+            return cachedResult.packageInfo
+        }
+        val packageInfo = packageManager.getPackageInfoCompat(packageName, 0)
+        cache[packageName] = CachedPackageInfo(lastUpdateTime, packageInfo)
+        return packageInfo
+    }
+
+    override fun invalidate(packageName: String) {
+        cache.remove(packageName)
+    }
+
+    // Uninstalled apps are cached as well, until they're removed from the database
+    private class CachedPackageInfo(
+        val lastUpdateTime: Instant?,
+        val packageInfo: PackageInfo?,
+    )
+}
@@ -18,9 +18,13 @@ package com.merxury.blocker.core.data.di
 
 import com.merxury.blocker.core.data.appstate.AppStateCache
 import com.merxury.blocker.core.data.appstate.IAppStateCache
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
+import com.merxury.blocker.core.data.appstate.PackageInfoCache
 import com.merxury.blocker.core.data.licenses.fetcher.AndroidLicensesFetcherImpl
 import com.merxury.blocker.core.data.licenses.fetcher.LicensesFetcher
+import com.merxury.blocker.core.data.respository.app.AppDataSource
 import com.merxury.blocker.core.data.respository.app.AppRepository
+import com.merxury.blocker.core.data.respository.app.LocalAppDataSource
 import com.merxury.blocker.core.data.respository.app.LocalAppRepository
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.component.LocalComponentRepository
@@ -82,6 +86,11 @@ abstract class DataModule {
         localComponentRepository: LocalComponentRepository,
     ): ComponentRepository
 
+    @Binds
+    internal abstract fun bindAppDataSource(
+        localAppDataSource: LocalAppDataSource,
+    ): AppDataSource
+
     @Binds
     internal abstract fun bindsLocalAppRepository(
         localAppRepository: LocalAppRepository,
@@ -102,6 +111,11 @@ abstract class DataModule {
         appStateCache: AppStateCache,
     ): IAppStateCache
 
+    @Binds
+    internal abstract fun bindPackageInfoCache(
+        packageInfoCache: PackageInfoCache,
+    ): IPackageInfoCache
+
     @Binds
     internal abstract fun bindTimeZoneMonitor(impl: TimeZoneBroadcastMonitor): TimeZoneMonitor
 
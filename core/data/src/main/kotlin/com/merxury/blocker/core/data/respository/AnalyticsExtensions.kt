@@ -65,6 +65,15 @@ internal fun AnalyticsHelper.logRestoreSystemAppPreferenceChanged(restoreSystemA
     ),
 )
 
+internal fun AnalyticsHelper.logArchiveBackupPreferenceChanged(archiveBackup: Boolean) = logEvent(
+    AnalyticsEvent(
+        type = "archive_backup_preference_changed",
+        extras = listOf(
+            Param(key = "archive_backup_preference", value = archiveBackup.toString()),
+        ),
+    ),
+)
+
 internal fun AnalyticsHelper.logRuleServerProviderChanged(ruleServerProviderName: String) = logEvent(
     AnalyticsEvent(
         type = "rule_server_provider_changed",
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository
+
+import androidx.paging.PagingConfig
+import androidx.paging.PagingSource
+import androidx.paging.PagingState
+
+/**
+ * Paging config shared by the paged lists, a page covers a couple of screens.
+ */
+internal val defaultPagingConfig = PagingConfig(
+    pageSize = 50,
+    enablePlaceholders = false,
+)
+
+/**
+ * Applies [transform] to every page loaded by [delegate] at once, e.g. to look up
+ * the extra data of a page in one query instead of one per item.
+ * [transform] has to keep the size and the order of the page.
+ */
+internal class TransformingPagingSource<From : Any, To : Any>(
+    private val delegate: PagingSource<Int, From>,
+    private val transform: suspend (List<From>) -> List<To>,
+) : PagingSource<Int, To>() {
+    init {
+        delegate.registerInvalidatedCallback { invalidate() }
+        registerInvalidatedCallback { delegate.invalidate() }
+    }
+
+    override val jumpingSupported: Boolean
+        get() = delegate.jumpingSupported
+
+    override suspend fun load(params: LoadParams<Int>): LoadResult<Int, To> =
+        when (val result = delegate.load(params)) {
+            is LoadResult.Page -> LoadResult.Page(
+                data = transform(result.data),
+                prevKey = result.prevKey,
+                nextKey = result.nextKey,
+                itemsBefore = result.itemsBefore,
+                itemsAfter = result.itemsAfter,
+            )
+
+            is LoadResult.Error -> LoadResult.Error(result.throwable)
+            is LoadResult.Invalid -> LoadResult.Invalid()
+        }
+
+    // Same as the offset based sources of Room, start loading around the last accessed item
+    override fun getRefreshKey(state: PagingState<Int, To>): Int? = state.anchorPosition?.let {
+        maxOf(0, it - state.config.initialLoadSize / 2)
+    }
+}
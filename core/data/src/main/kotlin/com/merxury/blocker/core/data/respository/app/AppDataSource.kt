@@ -20,7 +20,20 @@ import com.merxury.blocker.core.model.data.InstalledApp
 import kotlinx.coroutines.flow.Flow
 
 internal interface AppDataSource {
-    fun getApplicationList(): Flow<List<InstalledApp>>
+    /**
+     * Reads all installed apps from the system.
+     * If [reuseLabels] is true, the cached label of an app is kept as long as the app is not updated.
+     */
+    fun getApplicationList(reuseLabels: Boolean = true): Flow<List<InstalledApp>>
 
     fun getApplication(packageName: String): Flow<InstalledApp?>
+
+    fun getPackageChangeSequence(): PackageChangeSequence?
+
+    fun getChangedPackages(since: PackageChangeSequence): Flow<PackageChanges?>
+
+    /**
+     * Returns the language tag of the locale that app labels are loaded in.
+     */
+    fun getLabelLocale(): String
 }
@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.data.respository.app
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.flow.Flow
@@ -23,6 +24,11 @@ import kotlinx.coroutines.flow.Flow
 interface AppRepository {
     fun getApplicationList(): Flow<List<InstalledApp>>
 
+    /**
+     * Paged version of [getApplicationList], sorted by label.
+     */
+    fun getPagedApplicationList(): Flow<PagingData<InstalledApp>>
+
     fun updateApplication(packageName: String): Flow<Result<Unit>>
 
     fun updateApplicationList(): Flow<Result<Unit>>
@@ -16,8 +16,13 @@
 
 package com.merxury.blocker.core.data.respository.app
 
+import android.content.Context
+import android.content.pm.ApplicationInfo
 import android.content.pm.PackageInfo
 import android.content.pm.PackageManager
+import android.os.Build
+import android.provider.Settings
+import com.merxury.blocker.core.database.app.InstalledAppDao
 import com.merxury.blocker.core.di.AppPackageName
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
@@ -26,27 +31,57 @@ import com.merxury.blocker.core.extension.getPackageInfoCompat
 import com.merxury.blocker.core.extension.getVersionCode
 import com.merxury.blocker.core.minSdkVersionCompat
 import com.merxury.blocker.core.model.data.InstalledApp
-import com.merxury.blocker.core.utils.PackageInfoDataSource
+import dagger.hilt.android.qualifiers.ApplicationContext
 import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import timber.log.Timber
 import javax.inject.Inject
 import javax.inject.Singleton
 import kotlin.time.Instant
 
+private const val PARALLELISM = 8
+
 @Singleton
 internal class LocalAppDataSource @Inject constructor(
+    @ApplicationContext private val context: Context,
     @AppPackageName private val appPackageName: String,
     private val pm: PackageManager,
-    private val packageInfoDataSource: PackageInfoDataSource,
+    private val installedAppDao: InstalledAppDao,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) : AppDataSource {
-    override fun getApplicationList(): Flow<List<InstalledApp>> = flow {
-        val list = pm.getInstalledPackagesCompat(0)
-            .filterNot { it.packageName == appPackageName }
-            .distinctBy { it.packageName }
-            .map { it.toInstalledApp() }
+    override fun getApplicationList(reuseLabels: Boolean): Flow<List<InstalledApp>> = flow {
+        // Labels of the apps that haven't been updated since last time can be reused
+        val cachedApps = if (reuseLabels) {
+            installedAppDao.getAll().associateBy { it.packageName }
+        } else {
+            emptyMap()
+        }
+        val semaphore = Semaphore(PARALLELISM)
+        val list = coroutineScope {
+            pm.getInstalledPackagesCompat(0)
+                .filterNot { it.packageName == appPackageName }
+                .distinctBy { it.packageName }
+                .map { packageInfo ->
+                    async {
+                        semaphore.withPermit {
+                            val cachedApp = cachedApps[packageInfo.packageName]
+                            val cachedLabel = cachedApp?.label?.takeIf {
+                                it.isNotEmpty() &&
+                                    cachedApp.lastUpdateTime?.toEpochMilliseconds() == packageInfo.lastUpdateTime
+                            }
+                            packageInfo.toInstalledApp(cachedLabel)
+                        }
+                    }
+                }
+                .awaitAll()
+        }
         emit(list)
     }
         .flowOn(ioDispatcher)
@@ -57,7 +92,56 @@ internal class LocalAppDataSource @Inject constructor(
     }
         .flowOn(ioDispatcher)
 
-    private suspend fun PackageInfo.toInstalledApp() = InstalledApp(
+    override fun getPackageChangeSequence(): PackageChangeSequence? {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return null
+        }
+        val bootCount = Settings.Global.getInt(context.contentResolver, Settings.Global.BOOT_COUNT, -1)
+        if (bootCount < 0) {
+            Timber.w("Cannot read boot count, package change history is unavailable")
+            return null
+        }
+        // Returns null if nothing has been changed since boot
+        val sequenceNumber = pm.getChangedPackages(0)?.sequenceNumber ?: 0
+        return PackageChangeSequence(bootCount, sequenceNumber)
+    }
+
+    override fun getChangedPackages(since: PackageChangeSequence): Flow<PackageChanges?> = flow {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            emit(null)
+            return@flow
+        }
+        val current = getPackageChangeSequence()
+        if (current == null || current.bootCount != since.bootCount) {
+            // Sequence numbers were reset after reboot, history is not usable
+            emit(null)
+            return@flow
+        }
+        val changedPackages = pm.getChangedPackages(since.sequenceNumber)
+        if (changedPackages == null) {
+            emit(PackageChanges(since, emptyList()))
+            return@flow
+        }
+        val packageNames = changedPackages.packageNames
+            .filterNot { it == appPackageName }
+            .distinct()
+        val sequence = PackageChangeSequence(current.bootCount, changedPackages.sequenceNumber)
+        emit(PackageChanges(sequence, packageNames))
+    }
+        .flowOn(ioDispatcher)
+
+    override fun getLabelLocale(): String {
+        val configuration = context.resources.configuration
+        val locale = if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            configuration.locales[0]
+        } else {
+            @Suppress("DEPRECATION")
+            configuration.locale
+        }
+        return locale.toLanguageTag()
+    }
+
+    private fun PackageInfo.toInstalledApp(cachedLabel: String? = null) = InstalledApp(
         packageName = packageName,
         versionName = versionName.orEmpty(),
         versionCode = getVersionCode(),
@@ -66,7 +150,7 @@ internal class LocalAppDataSource @Inject constructor(
         firstInstallTime = Instant.fromEpochMilliseconds(firstInstallTime),
         lastUpdateTime = Instant.fromEpochMilliseconds(lastUpdateTime),
         isEnabled = applicationInfo?.enabled ?: false,
-        isSystem = packageInfoDataSource.isSystemApp(packageName),
-        label = applicationInfo?.loadLabel(pm).toString(),
+        isSystem = (applicationInfo?.flags ?: 0) and ApplicationInfo.FLAG_SYSTEM != 0,
+        label = cachedLabel ?: applicationInfo?.loadLabel(pm).toString(),
     )
 }
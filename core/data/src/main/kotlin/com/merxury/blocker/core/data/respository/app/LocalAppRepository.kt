@@ -16,7 +16,12 @@
 
 package com.merxury.blocker.core.data.respository.app
 
+import androidx.paging.Pager
+import androidx.paging.PagingData
+import androidx.paging.map
 import com.merxury.blocker.core.data.respository.component.LocalComponentRepository
+import com.merxury.blocker.core.data.respository.defaultPagingConfig
+import com.merxury.blocker.core.data.respository.userdata.AppPropertiesRepository
 import com.merxury.blocker.core.database.app.InstalledAppDao
 import com.merxury.blocker.core.database.app.asExternalModel
 import com.merxury.blocker.core.database.app.fromExternalModel
@@ -40,9 +45,10 @@ import timber.log.Timber
 import javax.inject.Inject
 
 internal class LocalAppRepository @Inject constructor(
-    private val localAppDataSource: LocalAppDataSource,
+    private val localAppDataSource: AppDataSource,
     private val componentRepository: LocalComponentRepository,
     private val installedAppDao: InstalledAppDao,
+    private val appPropertiesRepository: AppPropertiesRepository,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) : AppRepository {
     override fun getApplicationList(): Flow<List<InstalledApp>> = installedAppDao.getInstalledApps()
@@ -50,20 +56,15 @@ internal class LocalAppRepository @Inject constructor(
             emit(list.map { it.asExternalModel() })
         }
 
+    override fun getPagedApplicationList(): Flow<PagingData<InstalledApp>> = Pager(defaultPagingConfig) {
+        installedAppDao.pagingSourceOfInstalledApps()
+    }
+        .flow
+        .map { pagingData -> pagingData.map { it.asExternalModel() } }
+        .flowOn(ioDispatcher)
+
     override fun updateApplication(packageName: String): Flow<Result<Unit>> = flow<Result<Unit>> {
-        val app = localAppDataSource.getApplication(packageName)
-            .first()
-        if (app == null) {
-            // If we can't find the application, the application might be uninstalled
-            Timber.i("$packageName uninstalled, remove item in db.")
-            installedAppDao.deleteByPackageName(packageName)
-            componentRepository.deleteComponents(packageName)
-        } else {
-            installedAppDao.upsertInstalledApp(app.fromExternalModel())
-            componentRepository.updateComponentList(app.packageName)
-                .flowOn(ioDispatcher)
-                .first()
-        }
+        syncApplication(packageName)
         emit(Success(Unit))
     }
         .onStart {
@@ -76,32 +77,34 @@ internal class LocalAppRepository @Inject constructor(
         }
 
     override fun updateApplicationList(): Flow<Result<Unit>> = flow<Result<Unit>> {
-        val cacheList = getApplicationList().first()
-        val localList = localAppDataSource.getApplicationList().first()
-        // Filter the uninstalled app first
-        val uninstalledApp = cacheList.filter { cachedApp ->
-            localList.find { installedApp ->
-                installedApp.packageName == cachedApp.packageName
-            } == null
-        }
-            .map { it.fromExternalModel() }
-        if (uninstalledApp.isNotEmpty()) {
-            Timber.d("Remove uninstalled in the cache. $uninstalledApp")
-            installedAppDao.deleteApps(uninstalledApp)
-            uninstalledApp.forEach {
-                Timber.d("Remove components of ${it.packageName}")
-                componentRepository.deleteComponents(it.packageName)
-            }
+        val properties = appPropertiesRepository.appProperties.first()
+        val lastSequence = PackageChangeSequence(
+            bootCount = properties.packageChangeBootCount,
+            sequenceNumber = properties.packageChangeSequenceNumber,
+        )
+        // Cached labels were loaded in the previous locale, reload all of them after it changed
+        val labelLocale = localAppDataSource.getLabelLocale()
+        val localeChanged = properties.appLabelLocale != labelLocale
+        // Only trust the change history if the cache has been filled by a full sync before.
+        // The boot count is only saved by a finished sync, while the sequence number
+        // is legitimately 0 after a reboot without package changes.
+        val changes = if (!localeChanged && lastSequence.bootCount > 0 && installedAppDao.getCount() > 0) {
+            localAppDataSource.getChangedPackages(lastSequence).first()
+        } else {
+            null
         }
-        // Update the latest app info from system
-        val changedApps = localList.minus(cacheList.toSet())
-            .map { it.fromExternalModel() }
-        if (changedApps.isNotEmpty()) {
-            Timber.d("${changedApps.size} apps changed")
-            installedAppDao.upsertInstalledApps(changedApps)
-            changedApps.forEach {
-                componentRepository.updateComponentList(it.packageName)
-                    .first()
+        if (changes != null) {
+            Timber.d("${changes.packageNames.size} packages changed since last sync")
+            changes.packageNames.forEach { syncApplication(it) }
+            saveSequence(changes.sequence)
+        } else {
+            // Read the sequence before syncing, so changes during the sync will be picked up next time
+            val currentSequence = localAppDataSource.getPackageChangeSequence()
+            reconcileApplicationList(reuseLabels = !localeChanged)
+            currentSequence?.let { saveSequence(it) }
+            if (localeChanged) {
+                Timber.d("Reloaded app labels in $labelLocale")
+                appPropertiesRepository.updateAppLabelLocale(labelLocale)
             }
         }
         emit(Success(Unit))
@@ -121,4 +124,58 @@ internal class LocalAppRepository @Inject constructor(
 
     override fun getApplication(packageName: String): Flow<InstalledApp?> = installedAppDao.getInstalledApp(packageName)
         .map { it?.asExternalModel() }
+
+    private suspend fun syncApplication(packageName: String) {
+        val app = localAppDataSource.getApplication(packageName)
+            .first()
+        if (app == null) {
+            // If we can't find the application, the application might be uninstalled
+            Timber.i("$packageName uninstalled, remove item in db.")
+            installedAppDao.deleteByPackageName(packageName)
+            componentRepository.deleteComponents(packageName)
+        } else {
+            installedAppDao.upsertInstalledApp(app.fromExternalModel())
+            componentRepository.updateComponentList(app.packageName)
+                .flowOn(ioDispatcher)
+                .first()
+        }
+    }
+
+    private suspend fun reconcileApplicationList(reuseLabels: Boolean) {
+        val cachedApps = installedAppDao.getAll()
+            .associateBy { it.packageName }
+        val localApps = localAppDataSource.getApplicationList(reuseLabels)
+            .first()
+            .map { it.fromExternalModel() }
+        val localPackageNames = localApps.mapTo(HashSet(localApps.size)) { it.packageName }
+        // Filter the uninstalled app first
+        val uninstalledApps = cachedApps.values.filter { it.packageName !in localPackageNames }
+        if (uninstalledApps.isNotEmpty()) {
+            Timber.d("Remove ${uninstalledApps.size} uninstalled apps in the cache.")
+            installedAppDao.deleteApps(uninstalledApps)
+            uninstalledApps.forEach {
+                Timber.d("Remove components of ${it.packageName}")
+                componentRepository.deleteComponents(it.packageName)
+            }
+        }
+        // Update the latest app info from system
+        val changedApps = localApps.filter { cachedApps[it.packageName] != it }
+        if (changedApps.isNotEmpty()) {
+            Timber.d("${changedApps.size} apps changed")
+            installedAppDao.upsertInstalledApps(changedApps)
+            // A relabeled app still has the same components
+            changedApps.filter { cachedApps[it.packageName]?.copy(label = it.label) != it }
+                .forEach {
+                    componentRepository.updateComponentList(it.packageName)
+                        .first()
+                }
+        }
+    }
+
+    private suspend fun saveSequence(sequence: PackageChangeSequence) {
+        appPropertiesRepository.updatePackageChangeSequence(
+            bootCount = sequence.bootCount,
+            sequenceNumber = sequence.sequenceNumber,
+        )
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.app
+
+/**
+ * A position in the package change history of PackageManager.
+ * Sequence numbers are reset after reboot, so they are only comparable
+ * when they were recorded in the same boot.
+ */
+internal data class PackageChangeSequence(
+    val bootCount: Int,
+    val sequenceNumber: Int,
+)
+
+/**
+ * Packages that have been added, updated or removed since a [PackageChangeSequence].
+ */
+internal data class PackageChanges(
+    val sequence: PackageChangeSequence,
+    val packageNames: List<String>,
+)
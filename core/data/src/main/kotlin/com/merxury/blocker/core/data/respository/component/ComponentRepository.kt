@@ -16,9 +16,17 @@
 
 package com.merxury.blocker.core.data.respository.component
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.ControllerType
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.NONE
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.ComponentSorting.PACKAGE_NAME
+import com.merxury.blocker.core.model.preference.SortingOrder
+import com.merxury.blocker.core.model.preference.SortingOrder.ASCENDING
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.flow.Flow
 
@@ -30,6 +38,24 @@ interface ComponentRepository {
 
     fun getComponentList(packageName: String, type: ComponentType): Flow<List<ComponentInfo>>
 
+    /**
+     * Paged version of [getComponentList], filtered and sorted by the database.
+     * Only lists the components saved in the database.
+     *
+     * @param keywords component names have to contain one of them, all components are listed if empty
+     * @param transformPage applied to every loaded page at once, e.g. to add the descriptions
+     * of a page in one lookup. It has to keep the size and the order of the page.
+     */
+    fun getPagedComponentList(
+        packageName: String,
+        type: ComponentType,
+        keywords: List<String> = emptyList(),
+        sorting: ComponentSorting = PACKAGE_NAME,
+        order: SortingOrder = ASCENDING,
+        priority: ComponentShowPriority = NONE,
+        transformPage: suspend (List<ComponentInfo>) -> List<ComponentInfo> = { it },
+    ): Flow<PagingData<ComponentInfo>>
+
     fun updateComponentList(packageName: String, type: ComponentType): Flow<Result<Unit>>
 
     fun updateComponentList(packageName: String): Flow<Result<Unit>>
@@ -48,6 +74,22 @@ interface ComponentRepository {
 
     fun searchComponent(keyword: String): Flow<List<ComponentInfo>>
 
+    /**
+     * Paged version of [searchComponent], sorted by package name and component name.
+     */
+    fun searchPagedComponent(keyword: String): Flow<PagingData<ComponentInfo>>
+
+    /**
+     * Search components whose name contains [keyword], grouped by the app they belong to.
+     * Components of apps missing from the app list are skipped.
+     *
+     * @param includeSystemApps false to skip the components of system apps
+     */
+    fun searchComponentGroupByApp(
+        keyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledApp, List<ComponentInfo>>>
+
     suspend fun saveComponents(components: List<ComponentInfo>)
 
     suspend fun deleteComponents(packageName: String)
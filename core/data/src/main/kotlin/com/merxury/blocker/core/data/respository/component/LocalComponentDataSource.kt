@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.data.respository.component
 
+import android.content.ComponentName
 import android.content.pm.PackageManager
 import com.merxury.blocker.core.controllers.IController
 import com.merxury.blocker.core.controllers.di.IfwControl
@@ -54,7 +55,7 @@ internal class LocalComponentDataSource @Inject constructor(
                 ?.let { toComponentInfo(it, RECEIVER, packageName) }
             ?: list.providers?.find { it.name == componentName }
                 ?.let { toComponentInfo(it, PROVIDER, packageName) }
-        emit(component)
+        emit(component?.let { listOf(it).withBlockedState().first() })
     }
         .flowOn(ioDispatcher)
 
@@ -71,7 +72,8 @@ internal class LocalComponentDataSource @Inject constructor(
         emit(
             list.map {
                 toComponentInfo(it, type, packageName)
-            },
+            }
+                .withBlockedState(),
         )
     }
         .flowOn(ioDispatcher)
@@ -90,7 +92,7 @@ internal class LocalComponentDataSource @Inject constructor(
         val provider = packageInfo.providers
             ?.mapNotNull { toComponentInfo(it, PROVIDER, packageName) }
             ?: emptyList()
-        emit(activity + service + receiver + provider)
+        emit((activity + service + receiver + provider).withBlockedState())
     }
         .flowOn(ioDispatcher)
 
@@ -124,7 +126,7 @@ internal class LocalComponentDataSource @Inject constructor(
     }
         .flowOn(ioDispatcher)
 
-    private suspend fun toComponentInfo(
+    private fun toComponentInfo(
         info: android.content.pm.ComponentInfo,
         type: ComponentType,
         packageName: String,
@@ -134,7 +136,19 @@ internal class LocalComponentDataSource @Inject constructor(
         packageName = info.packageName,
         type = type,
         exported = info.exported,
-        pmBlocked = !pmController.checkComponentEnableState(packageName, info.name),
-        ifwBlocked = !ifwController.checkComponentEnableState(packageName, info.name),
     )
+
+    private suspend fun List<ComponentInfo>.withBlockedState(): List<ComponentInfo> {
+        if (isEmpty()) return this
+        // Take one snapshot per controller rather than checking the components one by one
+        val pmStates = pmController.checkComponentEnableState(this)
+        val ifwStates = ifwController.checkComponentEnableState(this)
+        return map {
+            val componentName = ComponentName(it.packageName, it.name)
+            it.copy(
+                pmBlocked = pmStates[componentName] == false,
+                ifwBlocked = ifwStates[componentName] == false,
+            )
+        }
+    }
 }
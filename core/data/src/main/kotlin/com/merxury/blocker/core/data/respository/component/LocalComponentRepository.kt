@@ -16,13 +16,25 @@
 
 package com.merxury.blocker.core.data.respository.component
 
+import android.content.ComponentName
+import androidx.paging.Pager
+import androidx.paging.PagingData
+import androidx.paging.map
 import com.merxury.blocker.core.controllers.IController
 import com.merxury.blocker.core.controllers.di.CombinedControl
 import com.merxury.blocker.core.controllers.di.IfwControl
 import com.merxury.blocker.core.controllers.di.RootApiControl
 import com.merxury.blocker.core.controllers.di.ShizukuControl
+import com.merxury.blocker.core.data.respository.TransformingPagingSource
+import com.merxury.blocker.core.data.respository.defaultPagingConfig
+import com.merxury.blocker.core.data.respository.generalrule.RuleMatcher
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.database.app.AppComponentDao
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.AppComponentKey
+import com.merxury.blocker.core.database.app.ComponentListQuery
+import com.merxury.blocker.core.database.app.ComponentSearchQuery
+import com.merxury.blocker.core.database.app.asExternalModel
 import com.merxury.blocker.core.database.app.toAppComponentEntity
 import com.merxury.blocker.core.database.app.toComponentInfo
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
@@ -34,6 +46,10 @@ import com.merxury.blocker.core.model.data.ControllerType.IFW
 import com.merxury.blocker.core.model.data.ControllerType.IFW_PLUS_PM
 import com.merxury.blocker.core.model.data.ControllerType.PM
 import com.merxury.blocker.core.model.data.ControllerType.SHIZUKU
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.SortingOrder
 import com.merxury.blocker.core.result.Result
 import com.merxury.blocker.core.result.Result.Success
 import kotlinx.coroutines.CoroutineDispatcher
@@ -50,6 +66,7 @@ import javax.inject.Inject
 internal class LocalComponentRepository @Inject constructor(
     private val localDataSource: LocalComponentDataSource,
     private val appComponentDao: AppComponentDao,
+    private val ruleMatcher: RuleMatcher,
     private val userDataRepository: UserDataRepository,
     @RootApiControl private val pmController: IController,
     @IfwControl private val ifwController: IController,
@@ -88,6 +105,23 @@ internal class LocalComponentRepository @Inject constructor(
         }
         .flowOn(ioDispatcher)
 
+    override fun getPagedComponentList(
+        packageName: String,
+        type: ComponentType,
+        keywords: List<String>,
+        sorting: ComponentSorting,
+        order: SortingOrder,
+        priority: ComponentShowPriority,
+        transformPage: suspend (List<ComponentInfo>) -> List<ComponentInfo>,
+    ): Flow<PagingData<ComponentInfo>> = Pager(defaultPagingConfig) {
+        val query = ComponentListQuery.paged(packageName, type, keywords, sorting, order, priority)
+        TransformingPagingSource(appComponentDao.pagingSource(query)) { page ->
+            transformPage(page.map { it.toComponentInfo() })
+        }
+    }
+        .flow
+        .flowOn(ioDispatcher)
+
     override fun updateComponentList(packageName: String, type: ComponentType): Flow<Result<Unit>> = flow {
         val cachedComponents = appComponentDao.getByPackageNameAndType(packageName, type)
             .first()
@@ -104,6 +138,7 @@ internal class LocalComponentRepository @Inject constructor(
             appComponentDao.delete(diff)
         }
         appComponentDao.upsertComponentList(latestComponents)
+        matchAddedComponents(latestComponents, cachedComponents)
         emit(Success(Unit))
     }
         .flowOn(ioDispatcher)
@@ -122,6 +157,7 @@ internal class LocalComponentRepository @Inject constructor(
             }
             Timber.d("Update component list for $packageName, size: ${latest.size}")
             appComponentDao.upsertComponentList(latest)
+            matchAddedComponents(latest, cached)
             Success(Unit)
         }
         .flowOn(ioDispatcher)
@@ -158,16 +194,24 @@ internal class LocalComponentRepository @Inject constructor(
             SHIZUKU -> shizukuController
             IFW_PLUS_PM -> combinedController
         }
+        // Components that were sent to the controllers
+        val pmTouched = mutableSetOf<ComponentName>()
+        val ifwTouched = mutableSetOf<ComponentName>()
+        // Components the controllers reported as switched, their new state is known
+        val pmSwitched = mutableSetOf<ComponentName>()
+        val ifwSwitched = mutableSetOf<ComponentName>()
         // Filter providers first in the list if preferred controller is IFW
         if (effectiveControllerType == IFW) {
             // IFW doesn't have the ability to enable/disable providers
             val providers = components.filter { it.type == ComponentType.PROVIDER }
             providers.forEach {
-                if (newState) {
+                val switched = if (newState) {
                     pmController.enable(it)
                 } else {
                     pmController.disable(it)
                 }
+                pmTouched += it.toComponentName()
+                if (switched) pmSwitched += it.toComponentName()
                 emit(it)
             }
             // if users want to enable the component, check if it's blocked by PM controller
@@ -176,44 +220,135 @@ internal class LocalComponentRepository @Inject constructor(
                     it.pmBlocked && it.type != ComponentType.PROVIDER
                 }
                 blockedByPm.forEach {
-                    pmController.enable(it)
+                    pmTouched += it.toComponentName()
+                    if (pmController.enable(it)) pmSwitched += it.toComponentName()
                 }
             }
         }
+        val controlsPm = effectiveControllerType != IFW
+        val controlsIfw = effectiveControllerType == IFW || effectiveControllerType == IFW_PLUS_PM
+        val controlledComponents = if (effectiveControllerType == IFW) {
+            components.filter { it.type != ComponentType.PROVIDER }
+        } else {
+            components
+        }
+        controlledComponents.forEach {
+            if (controlsPm) pmTouched += it.toComponentName()
+            if (controlsIfw) ifwTouched += it.toComponentName()
+        }
+        val switchedComponents = mutableSetOf<ComponentName>()
+        val onSwitched: suspend (ComponentInfo) -> Unit = {
+            val componentName = it.toComponentName()
+            switchedComponents += componentName
+            if (controlsPm) pmSwitched += componentName
+            if (controlsIfw) ifwSwitched += componentName
+            emit(it)
+        }
         if (newState) {
-            controller.batchEnable(components) {
-                emit(it)
-            }
+            controller.batchSwitch(controlledComponents, emptyList(), onSwitched)
         } else {
-            controller.batchDisable(components) {
-                emit(it)
+            controller.batchSwitch(emptyList(), controlledComponents, onSwitched)
+        }
+        // Report the failed components as well, so that the progress reaches the total
+        controlledComponents
+            .filterNot { it.toComponentName() in switchedComponents }
+            .forEach { emit(it) }
+        // Only read back the state of the components that failed, in one snapshot per controller
+        val pmSnapshot = pmController.checkComponentEnableState(
+            components.filter { it.toComponentName().let { name -> name in pmTouched && name !in pmSwitched } },
+        )
+        val ifwSnapshot = ifwController.checkComponentEnableState(
+            components.filter { it.toComponentName().let { name -> name in ifwTouched && name !in ifwSwitched } },
+        )
+        val changedComponents = components.mapNotNull {
+            val componentName = it.toComponentName()
+            val pmBlocked = if (componentName in pmSwitched) {
+                !newState
+            } else {
+                pmSnapshot[componentName]?.not() ?: it.pmBlocked
+            }
+            val ifwBlocked = if (componentName in ifwSwitched) {
+                !newState
+            } else {
+                ifwSnapshot[componentName]?.not() ?: it.ifwBlocked
+            }
+            if (pmBlocked == it.pmBlocked && ifwBlocked == it.ifwBlocked) {
+                null
+            } else {
+                it.copy(pmBlocked = pmBlocked, ifwBlocked = ifwBlocked).toAppComponentEntity()
             }
         }
-        val updatedComponents = components.map {
-            it.copy(
-                pmBlocked = !pmController.checkComponentEnableState(it.packageName, it.name),
-                ifwBlocked = !ifwController.checkComponentEnableState(it.packageName, it.name),
-            ).toAppComponentEntity()
+        if (changedComponents.isNotEmpty()) {
+            Timber.d("Update state of ${changedComponents.size} components after batch operation")
+            appComponentDao.upsertComponentList(changedComponents)
         }
-        appComponentDao.upsertComponentList(updatedComponents)
     }
         .flowOn(ioDispatcher)
 
-    override fun searchComponent(keyword: String) = appComponentDao.searchByKeyword(keyword)
+    override fun searchComponent(keyword: String) = ComponentSearchQuery.substringMatch(keyword)
+        .let { matchQuery ->
+            if (matchQuery != null) {
+                appComponentDao.searchBySubstring(matchQuery, keyword)
+            } else {
+                appComponentDao.searchByKeyword(keyword)
+            }
+        }
         .map { list ->
             list.map { it.toComponentInfo() }
         }
         .flowOn(ioDispatcher)
 
+    override fun searchComponentGroupByApp(
+        keyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledApp, List<ComponentInfo>>> = ComponentSearchQuery.substringMatch(keyword)
+        .let { matchQuery ->
+            if (matchQuery != null) {
+                appComponentDao.searchBySubstringGroupByApp(matchQuery, keyword, includeSystemApps)
+            } else {
+                appComponentDao.searchByKeywordGroupByApp(keyword, includeSystemApps)
+            }
+        }
+        .map { groups ->
+            groups.entries.associate { (app, components) ->
+                app.asExternalModel() to components.map { it.toComponentInfo() }
+            }
+        }
+        .flowOn(ioDispatcher)
+
+    override fun searchPagedComponent(keyword: String): Flow<PagingData<ComponentInfo>> {
+        val matchQuery = ComponentSearchQuery.substringMatch(keyword)
+        return Pager(defaultPagingConfig) {
+            if (matchQuery != null) {
+                appComponentDao.pagingSourceBySubstring(matchQuery, keyword)
+            } else {
+                appComponentDao.pagingSourceByKeyword(keyword)
+            }
+        }
+            .flow
+            .map { pagingData -> pagingData.map { it.toComponentInfo() } }
+            .flowOn(ioDispatcher)
+    }
+
     override suspend fun saveComponents(components: List<ComponentInfo>) {
         val entities = components.map { it.toAppComponentEntity() }
         appComponentDao.upsertComponentList(entities)
+        ruleMatcher.matchComponents(entities.map { it.toKey() })
     }
 
     override suspend fun deleteComponents(packageName: String) {
         appComponentDao.deleteByPackageName(packageName)
     }
 
+    private suspend fun matchAddedComponents(
+        latest: List<AppComponentEntity>,
+        cached: List<AppComponentEntity>,
+    ) {
+        val cachedNames = cached.mapTo(mutableSetOf()) { it.componentName }
+        val added = latest.filter { it.componentName !in cachedNames }
+        ruleMatcher.matchComponents(added.map { it.toKey() })
+    }
+
     private suspend fun controlInIfwMode(
         component: ComponentInfo,
         newState: Boolean,
@@ -293,3 +428,7 @@ internal class LocalComponentRepository @Inject constructor(
         return newState.toComponentInfo()
     }
 }
+
+private fun ComponentInfo.toComponentName() = ComponentName(packageName, name)
+
+private fun AppComponentEntity.toKey() = AppComponentKey(packageName, componentName)
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.componentdetail
+
+import com.merxury.blocker.core.model.data.ComponentDetail
+import timber.log.Timber
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val DEFAULT_MAX_SIZE = 4096
+
+/**
+ * Bounded in-memory cache of component detail lookups, keyed by language and component name.
+ *
+ * Components without a detail are cached as well, as most components have none and
+ * finding that out is the most expensive lookup. The least recently used entries
+ * are dropped once the cache holds [maxSize] entries.
+ */
+@Singleton
+internal class ComponentDetailCache(private val maxSize: Int) {
+    @Inject
+    constructor() : this(DEFAULT_MAX_SIZE)
+
+    private val entries = object : LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>?): Boolean = size > maxSize
+    }
+    private var hitCount = 0L
+    private var missCount = 0L
+
+    /**
+     * Returns the cached lookup of [name], or null if it's not cached.
+     * A cached lookup without a detail has a null [Entry.detail].
+     */
+    @Synchronized
+    fun get(language: String, name: String): Entry? {
+        val entry = entries[Key(language, name)]
+        if (entry != null) hitCount++ else missCount++
+        return entry
+    }
+
+    @Synchronized
+    fun put(language: String, name: String, detail: ComponentDetail?) {
+        entries[Key(language, name)] = Entry(detail)
+    }
+
+    /**
+     * Removes the lookups of [name] in every language, e.g. after the user edited its detail.
+     */
+    @Synchronized
+    fun invalidate(name: String) {
+        entries.keys.removeAll { it.name == name }
+    }
+
+    /**
+     * Removes every lookup, e.g. after the rules were updated.
+     */
+    @Synchronized
+    fun clear() {
+        Timber.d("Clear component detail cache, ${stats()}")
+        entries.clear()
+    }
+
+    @Synchronized
+    fun stats() = Stats(hitCount = hitCount, missCount = missCount, size = entries.size)
+
+    class Entry(val detail: ComponentDetail?)
+
+    data class Stats(val hitCount: Long, val missCount: Long, val size: Int)
+
+    private data class Key(val language: String, val name: String)
+}
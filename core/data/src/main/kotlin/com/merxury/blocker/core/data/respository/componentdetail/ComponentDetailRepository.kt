@@ -29,5 +29,23 @@ interface ComponentDetailRepository {
 
     fun getLocalComponentDetail(name: String): Flow<ComponentDetail?>
 
+    /**
+     * Bulk version of [getLocalComponentDetail], which reads the details with
+     * one folder listing per package instead of probing every component.
+     *
+     * @return the details found, keyed by component name. Components without
+     * a detail are not in the map.
+     */
+    fun getLocalComponentDetails(names: Collection<String>): Flow<Map<String, ComponentDetail>>
+
     fun saveComponentDetail(componentDetail: ComponentDetail): Flow<Boolean>
+
+    /**
+     * Packs the component details of the rule repository into an index, so that
+     * lookups don't open a file per component. Needs to run after the rules are
+     * copied from the assets or pulled from the server.
+     *
+     * @param onlyIfMissing true to only index the languages that are not indexed yet
+     */
+    suspend fun updateComponentDetailIndex(onlyIfMissing: Boolean = false)
 }
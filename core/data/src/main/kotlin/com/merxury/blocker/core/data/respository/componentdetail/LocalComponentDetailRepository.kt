@@ -18,6 +18,7 @@ package com.merxury.blocker.core.data.respository.componentdetail
 
 import com.merxury.blocker.core.data.respository.componentdetail.datasource.LocalComponentDetailDataSource
 import com.merxury.blocker.core.data.respository.componentdetail.datasource.UserGeneratedComponentDetailDataSource
+import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
 import com.merxury.blocker.core.model.data.ComponentDetail
@@ -26,40 +27,74 @@ import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
-import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onEach
 import javax.inject.Inject
 
 internal class LocalComponentDetailRepository @Inject constructor(
     private val localComponentDetailRepository: LocalComponentDetailDataSource,
     private val userGeneratedDataSource: UserGeneratedComponentDetailDataSource,
+    private val userDataRepository: UserDataRepository,
+    private val cache: ComponentDetailCache,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) : ComponentDetailRepository {
 
     override val updatedComponent: Flow<ComponentDetail>
         get() = userGeneratedDataSource.eventFlow
 
-    override fun hasUserGeneratedDetail(packageName: String): Flow<Boolean> = userGeneratedDataSource.getByPackageName(packageName)
-        .map { it.isNotEmpty() }
+    override fun hasUserGeneratedDetail(packageName: String): Flow<Boolean> = userGeneratedDataSource.hasByPackageName(packageName)
 
     override fun getUserGeneratedDetail(name: String): Flow<ComponentDetail?> = userGeneratedDataSource.getByComponentName(name)
 
     override fun getLocalComponentDetail(name: String): Flow<ComponentDetail?> = flow {
-        // Priority: user generated > db
-        val userGeneratedData = userGeneratedDataSource.getByComponentName(name)
-            .first()
-        if (userGeneratedData != null) {
-            emit(userGeneratedData)
+        val language = userDataRepository.getLibDisplayLanguage()
+        val cached = cache.get(language, name)
+        if (cached != null) {
+            emit(cached.detail)
             return@flow
         }
-        val localData = localComponentDetailRepository.getByComponentName(name)
-            .first()
-        if (localData != null) {
-            emit(localData)
-            return@flow
+        // Priority: user generated > db
+        val detail = userGeneratedDataSource.getByComponentName(name).first()
+            ?: localComponentDetailRepository.getByComponentName(name).first()
+        cache.put(language, name, detail)
+        emit(detail)
+    }
+        .flowOn(ioDispatcher)
+
+    override fun getLocalComponentDetails(names: Collection<String>): Flow<Map<String, ComponentDetail>> = flow {
+        val language = userDataRepository.getLibDisplayLanguage()
+        val result = mutableMapOf<String, ComponentDetail>()
+        val missingNames = mutableListOf<String>()
+        names.forEach { name ->
+            val cached = cache.get(language, name)
+            when {
+                cached == null -> missingNames.add(name)
+                cached.detail != null -> result[name] = cached.detail
+            }
+        }
+        if (missingNames.isNotEmpty()) {
+            // Priority: user generated > db
+            val userGeneratedData = userGeneratedDataSource.getByComponentNames(missingNames)
+                .first()
+            val remainingNames = missingNames.filterNot { it in userGeneratedData }
+            val localData = if (remainingNames.isEmpty()) {
+                emptyMap()
+            } else {
+                localComponentDetailRepository.getByComponentNames(remainingNames)
+                    .first()
+            }
+            val fetched = localData + userGeneratedData
+            missingNames.forEach { name -> cache.put(language, name, fetched[name]) }
+            result.putAll(fetched)
         }
-        emit(null)
+        emit(result)
     }
         .flowOn(ioDispatcher)
 
     override fun saveComponentDetail(componentDetail: ComponentDetail): Flow<Boolean> = userGeneratedDataSource.saveComponentData(componentDetail)
+        .onEach { cache.invalidate(componentDetail.name) }
+
+    override suspend fun updateComponentDetailIndex(onlyIfMissing: Boolean) {
+        localComponentDetailRepository.updateIndex(onlyIfMissing)
+        cache.clear()
+    }
 }
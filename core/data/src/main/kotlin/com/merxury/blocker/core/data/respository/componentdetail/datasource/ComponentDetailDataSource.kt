@@ -25,5 +25,7 @@ internal interface ComponentDetailDataSource {
 
     fun getByComponentName(name: String): Flow<ComponentDetail?>
 
+    fun getByComponentNames(names: Collection<String>): Flow<Map<String, ComponentDetail>>
+
     fun saveComponentData(component: ComponentDetail): Flow<Boolean>
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.componentdetail.datasource
+
+import com.merxury.blocker.core.model.data.ComponentDetail
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import timber.log.Timber
+import java.io.File
+
+private const val EXTENSION = "json"
+
+/**
+ * Reads the details of [names] stored under [baseDir], where the detail of
+ * `com.example.Component` is stored in `com/example/Component.json`.
+ *
+ * Names are grouped by folder and every folder is listed once, so looking up
+ * the components of an app costs one probe per package instead of one per component.
+ *
+ * @return the details found, keyed by component name
+ */
+internal fun readComponentDetails(
+    baseDir: File,
+    names: Collection<String>,
+    json: Json,
+): Map<String, ComponentDetail> {
+    val result = mutableMapOf<String, ComponentDetail>()
+    names.groupBy { it.substringBeforeLast('.', missingDelimiterValue = "") }
+        .forEach { (packagePath, componentNames) ->
+            val folder = baseDir.resolve(packagePath.replace(".", File.separator))
+            val fileNames = folder.list()?.toHashSet() ?: return@forEach
+            componentNames.forEach { name ->
+                val fileName = "${name.substringAfterLast('.')}.$EXTENSION"
+                if (fileName !in fileNames) return@forEach
+                val file = folder.resolve(fileName)
+                try {
+                    result[name] = json.decodeFromString<ComponentDetail>(file.readText())
+                } catch (e: SerializationException) {
+                    Timber.e(e, "Given JSON string is not a valid JSON input for the type, file path: $file")
+                } catch (e: IllegalArgumentException) {
+                    Timber.e(e, "Decoded input cannot be represented as a valid instance of type, file path: $file")
+                }
+            }
+        }
+    return result
+}
@@ -18,6 +18,10 @@ package com.merxury.blocker.core.data.respository.componentdetail.datasource
 
 import com.merxury.blocker.core.data.di.RuleBaseFolder
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailEntity
+import com.merxury.blocker.core.database.componentdetail.asEntity
+import com.merxury.blocker.core.database.componentdetail.asExternalModel
 import com.merxury.blocker.core.di.FilesDir
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
@@ -28,17 +32,29 @@ import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.withContext
 import kotlinx.serialization.SerializationException
 import kotlinx.serialization.json.Json
 import timber.log.Timber
 import java.io.File
 import javax.inject.Inject
+import kotlin.time.measureTimedValue
 
 private const val EXTENSION = "json"
 private const val COMPONENT_FOLDER = "components"
 
+// SQLite allows 999 parameters per statement on older devices
+private const val QUERY_CHUNK_SIZE = 500
+
+/**
+ * Reads the component details of the rule repository.
+ *
+ * The details are looked up in the index built by [updateIndex]. Until a language
+ * is indexed, e.g. right after updating the app, the JSON files are read instead.
+ */
 internal class LocalComponentDetailDataSource @Inject constructor(
     private val userDataRepository: UserDataRepository,
+    private val componentDetailDao: ComponentDetailDao,
     private val json: Json,
     @FilesDir private val filesDir: File,
     @RuleBaseFolder private val ruleBaseFolder: String,
@@ -84,6 +100,11 @@ internal class LocalComponentDetailDataSource @Inject constructor(
         .flowOn(ioDispatcher)
 
     override fun getByComponentName(name: String): Flow<ComponentDetail?> = flow {
+        val language = userDataRepository.getLibDisplayLanguage()
+        if (componentDetailDao.hasLanguage(language)) {
+            emit(componentDetailDao.getByName(language, name)?.asExternalModel())
+            return@flow
+        }
         if (!workingDir.exists()) {
             Timber.w("The component folder does not exist")
             emit(null)
@@ -92,7 +113,7 @@ internal class LocalComponentDetailDataSource @Inject constructor(
         val path = name.replace(".", File.separator)
             .plus(".$EXTENSION")
         val file = workingDir
-            .resolve(userDataRepository.getLibDisplayLanguage())
+            .resolve(language)
             .resolve(path)
         if (file.exists()) {
             try {
@@ -113,6 +134,68 @@ internal class LocalComponentDetailDataSource @Inject constructor(
     }
         .flowOn(ioDispatcher)
 
+    override fun getByComponentNames(names: Collection<String>): Flow<Map<String, ComponentDetail>> = flow {
+        val language = userDataRepository.getLibDisplayLanguage()
+        if (componentDetailDao.hasLanguage(language)) {
+            val details = names.toList()
+                .chunked(QUERY_CHUNK_SIZE)
+                .flatMap { chunk -> componentDetailDao.getByNames(language, chunk) }
+                .associate { it.name to it.asExternalModel() }
+            emit(details)
+            return@flow
+        }
+        if (!workingDir.exists()) {
+            Timber.w("The component folder does not exist")
+            emit(emptyMap())
+            return@flow
+        }
+        emit(readComponentDetails(workingDir.resolve(language), names, json))
+    }
+        .flowOn(ioDispatcher)
+
+    /**
+     * Packs the JSON files of every language into the database.
+     *
+     * @param onlyIfMissing true to skip the languages that are indexed already
+     */
+    suspend fun updateIndex(onlyIfMissing: Boolean) = withContext(ioDispatcher) {
+        val languageFolders = workingDir.listFiles()?.filter { it.isDirectory }
+        if (languageFolders.isNullOrEmpty()) {
+            Timber.w("No component details found in $workingDir")
+            return@withContext
+        }
+        languageFolders.forEach { folder ->
+            val language = folder.name
+            if (onlyIfMissing && componentDetailDao.hasLanguage(language)) {
+                Timber.v("Component details of $language are indexed already")
+                return@forEach
+            }
+            val (entities, readTime) = measureTimedValue { readLanguageFolder(folder) }
+            componentDetailDao.replaceLanguage(language, entities)
+            Timber.i("Indexed ${entities.size} component details of $language, read files in $readTime")
+        }
+    }
+
+    private fun readLanguageFolder(folder: File): List<ComponentDetailEntity> = folder.listFilesRecursively()
+        .filter { it.extension == EXTENSION }
+        .mapNotNull { file ->
+            // Lookups use the path of the file, which might differ from the name in the file
+            val name = file.relativeTo(folder).path
+                .removeSuffix(".$EXTENSION")
+                .replace(File.separator, ".")
+            try {
+                json.decodeFromString<ComponentDetail>(file.readText())
+                    .copy(name = name)
+                    .asEntity(folder.name)
+            } catch (e: SerializationException) {
+                Timber.e(e, "Given JSON string is not a valid JSON input for the type, file path: $file")
+                null
+            } catch (e: IllegalArgumentException) {
+                Timber.e(e, "Decoded input cannot be represented as a valid instance of type, file path: $file")
+                null
+            }
+        }
+
     override fun saveComponentData(component: ComponentDetail): Flow<Boolean> {
         Timber.e("Not support saving component detail in LocalComponentDetailDataSource")
         return flowOf(false)
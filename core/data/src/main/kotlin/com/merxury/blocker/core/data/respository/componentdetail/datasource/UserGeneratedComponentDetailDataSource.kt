@@ -17,8 +17,10 @@
 package com.merxury.blocker.core.data.respository.componentdetail.datasource
 
 import com.merxury.blocker.core.data.di.GeneratedRuleBaseFolder
-import com.merxury.blocker.core.data.respository.component.CacheComponentDataSource
+import com.merxury.blocker.core.data.respository.userdata.AppPropertiesRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailEntity
 import com.merxury.blocker.core.di.FilesDir
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
@@ -32,12 +34,15 @@ import kotlinx.coroutines.flow.asSharedFlow
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import kotlinx.serialization.SerializationException
 import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.Json
 import timber.log.Timber
 import java.io.File
 import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
 import javax.inject.Inject
 import javax.inject.Singleton
 
@@ -46,7 +51,8 @@ private const val EXTENSION = "json"
 @Singleton
 internal class UserGeneratedComponentDetailDataSource @Inject constructor(
     private val userDataRepository: UserDataRepository,
-    private val componentDataSource: CacheComponentDataSource,
+    private val appPropertiesRepository: AppPropertiesRepository,
+    private val userComponentDetailDao: UserComponentDetailDao,
     @FilesDir private val filesDir: File,
     @GeneratedRuleBaseFolder private val generatedRuleBaseFolder: String,
     private val json: Json,
@@ -57,45 +63,22 @@ internal class UserGeneratedComponentDetailDataSource @Inject constructor(
         MutableSharedFlow<ComponentDetail>(replay = 1, onBufferOverflow = DROP_OLDEST)
     val eventFlow = _eventFlow.asSharedFlow()
 
+    private val indexedLanguages = ConcurrentHashMap.newKeySet<String>()
+    private val indexMutex = Mutex()
+
     override fun getByPackageName(packageName: String): Flow<List<ComponentDetail>> = flow {
-        val workingDir = getWorkingDirWithLang()
-        val customizedComponents = workingDir.listFilesRecursively()
-            .map { file ->
-                val relativePath = file.relativeTo(workingDir)
-                val componentName = relativePath.path
-                    .replace(File.separator, ".")
-                    .removeSuffix(".$EXTENSION")
-                componentName
-            }
-            .mapNotNull { componentName ->
-                componentDataSource.getComponent(packageName, componentName).first()
-            }
-            .mapNotNull { componentInfo ->
-                val path = componentInfo.name.replace(".", File.separator)
-                    .plus(".$EXTENSION")
-                val file = workingDir.resolve(path)
-                if (!file.exists()) {
-                    return@mapNotNull null
-                }
-                return@mapNotNull try {
-                    json.decodeFromString<ComponentDetail>(file.readText())
-                } catch (e: SerializationException) {
-                    Timber.e(
-                        e,
-                        "Error in decoding contents in ${file.absolutePath} " +
-                            "for the ComponentDetail",
-                    )
-                    null
-                } catch (e: IllegalArgumentException) {
-                    Timber.e(
-                        e,
-                        "File ${file.absolutePath} " +
-                            "is not valid for a ComponentDetail class",
-                    )
-                    null
-                }
-            }
-        emit(customizedComponents)
+        val language = userDataRepository.getLibDisplayLanguage()
+        val workingDir = getWorkingDir(language)
+        ensureIndexed(language, workingDir)
+        val names = userComponentDetailDao.getNamesByPackageName(language, packageName)
+        emit(readComponentDetails(workingDir, names, json).values.toList())
+    }
+        .flowOn(ioDispatcher)
+
+    fun hasByPackageName(packageName: String): Flow<Boolean> = flow {
+        val language = userDataRepository.getLibDisplayLanguage()
+        ensureIndexed(language, getWorkingDir(language))
+        emit(userComponentDetailDao.hasPackageName(language, packageName))
     }
         .flowOn(ioDispatcher)
 
@@ -124,8 +107,14 @@ internal class UserGeneratedComponentDetailDataSource @Inject constructor(
     }
         .flowOn(ioDispatcher)
 
+    override fun getByComponentNames(names: Collection<String>): Flow<Map<String, ComponentDetail>> = flow {
+        emit(readComponentDetails(getWorkingDirWithLang(), names, json))
+    }
+        .flowOn(ioDispatcher)
+
     override fun saveComponentData(component: ComponentDetail): Flow<Boolean> = flow {
-        val workingDir = getWorkingDirWithLang()
+        val language = userDataRepository.getLibDisplayLanguage()
+        val workingDir = getWorkingDir(language)
         val name = component.name
         val path = name.replace(".", File.separator)
             .plus(".$EXTENSION")
@@ -139,6 +128,7 @@ internal class UserGeneratedComponentDetailDataSource @Inject constructor(
             }
             val content = json.encodeToString(component)
             file.writeText(content)
+            userComponentDetailDao.insert(UserComponentDetailEntity(language, name))
             val result = _eventFlow.tryEmit(component)
             if (result) {
                 Timber.d("Successfully emit event for component detail: $name")
@@ -153,6 +143,36 @@ internal class UserGeneratedComponentDetailDataSource @Inject constructor(
     }
         .flowOn(ioDispatcher)
 
-    private suspend fun getWorkingDirWithLang(): File = filesDir.resolve(generatedRuleBaseFolder)
-        .resolve(userDataRepository.getLibDisplayLanguage())
+    /**
+     * Builds the index of [language] from the files once, so that details written before
+     * the index existed are found as well. Details saved afterwards are added to the index
+     * by [saveComponentData], the languages that are indexed are kept in the app properties.
+     */
+    private suspend fun ensureIndexed(language: String, workingDir: File) {
+        if (language in indexedLanguages) return
+        indexMutex.withLock {
+            if (language in indexedLanguages) return
+            if (language in appPropertiesRepository.appProperties.first().indexedComponentDetailLanguages) {
+                indexedLanguages.add(language)
+                return
+            }
+            val entities = workingDir.listFilesRecursively()
+                .filter { it.extension == EXTENSION }
+                .map { file ->
+                    val name = file.relativeTo(workingDir).path
+                        .removeSuffix(".$EXTENSION")
+                        .replace(File.separator, ".")
+                    UserComponentDetailEntity(language, name)
+                }
+            userComponentDetailDao.replaceLanguage(language, entities)
+            appPropertiesRepository.addIndexedComponentDetailLanguage(language)
+            indexedLanguages.add(language)
+            Timber.d("Indexed ${entities.size} user generated component details of $language")
+        }
+    }
+
+    private suspend fun getWorkingDirWithLang(): File = getWorkingDir(userDataRepository.getLibDisplayLanguage())
+
+    private fun getWorkingDir(language: String): File = filesDir.resolve(generatedRuleBaseFolder)
+        .resolve(language)
 }
@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.data.respository.generalrule
 
+import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.flow.Flow
@@ -39,4 +40,33 @@ interface GeneralRuleRepository {
     suspend fun saveGeneralRule(rule: GeneralRule)
 
     fun searchGeneralRule(keyword: String): Flow<List<GeneralRule>>
+
+    /**
+     * Number of apps with a component matching the rule
+     *
+     * @param includeSystemApps false to skip system apps
+     */
+    fun getMatchedAppCount(ruleId: Int, includeSystemApps: Boolean): Flow<Int>
+
+    /**
+     * Components matching any of the rules, each component is listed once
+     *
+     * @param includeSystemApps false to skip the components of system apps
+     */
+    fun getMatchedComponents(includeSystemApps: Boolean): Flow<List<ComponentInfo>>
+
+    /**
+     * Components of an app matching the rules, grouped by rule id
+     */
+    fun getMatchedComponents(packageName: String): Flow<Map<Int, List<ComponentInfo>>>
+
+    /**
+     * Ids of the rules matching any component of an app
+     */
+    suspend fun getMatchedRuleIds(packageName: String): List<Int>
+
+    /**
+     * Adds [delta] to the cached matched app count of the rules in [ruleIds]
+     */
+    suspend fun adjustMatchedAppCount(ruleIds: List<Int>, delta: Int)
 }
@@ -16,12 +16,16 @@
 
 package com.merxury.blocker.core.data.respository.generalrule
 
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.toComponentInfo
 import com.merxury.blocker.core.database.generalrule.GeneralRuleDao
 import com.merxury.blocker.core.database.generalrule.GeneralRuleEntity
+import com.merxury.blocker.core.database.generalrule.RuleMatchDao
 import com.merxury.blocker.core.database.generalrule.asExternalModel
 import com.merxury.blocker.core.database.generalrule.fromExternalModel
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
+import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.CoroutineDispatcher
@@ -39,6 +43,8 @@ import javax.inject.Inject
 
 internal class OfflineFirstGeneralRuleRepository @Inject constructor(
     private val generalRuleDao: GeneralRuleDao,
+    private val ruleMatchDao: RuleMatchDao,
+    private val ruleMatcher: RuleMatcher,
     private val dataSource: GeneralRuleDataSource,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) : GeneralRuleRepository {
@@ -76,12 +82,38 @@ internal class OfflineFirstGeneralRuleRepository @Inject constructor(
         .flowOn(ioDispatcher)
 
     override suspend fun saveGeneralRule(rule: GeneralRule) {
-        generalRuleDao.upsertGeneralRule(rule.fromExternalModel())
+        val entity = rule.fromExternalModel()
+        generalRuleDao.upsertGeneralRule(entity)
+        ruleMatcher.updateKeywords(listOf(entity))
     }
 
     override fun searchGeneralRule(keyword: String): Flow<List<GeneralRule>> = generalRuleDao.searchGeneralRule(keyword)
         .map { it.map(GeneralRuleEntity::asExternalModel) }
 
+    override fun getMatchedAppCount(
+        ruleId: Int,
+        includeSystemApps: Boolean,
+    ): Flow<Int> = ruleMatchDao.getMatchedAppCount(ruleId, includeSystemApps)
+
+    override fun getMatchedComponents(
+        includeSystemApps: Boolean,
+    ): Flow<List<ComponentInfo>> = ruleMatchDao.getMatchedComponents(includeSystemApps)
+        .map { list -> list.map(AppComponentEntity::toComponentInfo) }
+
+    override fun getMatchedComponents(
+        packageName: String,
+    ): Flow<Map<Int, List<ComponentInfo>>> = ruleMatchDao.getMatchedComponents(packageName)
+        .map { matches ->
+            matches.mapValues { (_, components) -> components.map(AppComponentEntity::toComponentInfo) }
+        }
+
+    override suspend fun getMatchedRuleIds(packageName: String): List<Int> = ruleMatchDao.getMatchedRuleIds(packageName)
+
+    override suspend fun adjustMatchedAppCount(ruleIds: List<Int>, delta: Int) {
+        if (ruleIds.isEmpty() || delta == 0) return
+        generalRuleDao.adjustMatchedAppCount(ruleIds, delta)
+    }
+
     private fun compareAndUpdateCache(
         latestRules: List<GeneralRuleEntity>,
     ): Flow<Result<Unit>> = flow {
@@ -90,6 +122,8 @@ internal class OfflineFirstGeneralRuleRepository @Inject constructor(
             "Compare online rules with local rules.\n" +
                 " Online rule size: ${latestRules.size}. Local DB size: ${currentCache.size}",
         )
+        // Only the changed keywords are matched against the components
+        ruleMatcher.updateKeywords(latestRules)
         // Insert or update rules from the network
         latestRules.forEach { networkEntity ->
             val cachedEntity = currentCache.find { it.id == networkEntity.id }
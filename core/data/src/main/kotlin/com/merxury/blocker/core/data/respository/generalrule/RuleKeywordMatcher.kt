@@ -0,0 +1,215 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+/**
+ * Finds the rules with a keyword contained in a component name, ignoring case.
+ *
+ * The keywords of all rules are compiled into an Aho–Corasick automaton, so a name
+ * is checked against every keyword in a single pass over its characters.
+ * Only ASCII letters are case folded, the same as SQLite's `lower()`.
+ *
+ * The matcher is immutable and can be shared between threads, each thread
+ * needs its own [Matches] to collect the results.
+ */
+internal class RuleKeywordMatcher(keywords: Map<Int, Collection<String>>) {
+    private val ruleIds: IntArray = keywords.keys.toIntArray()
+
+    // The trie, children of a state are sorted by character
+    private val childStart: IntArray
+    private val childChars: CharArray
+    private val childStates: IntArray
+
+    // Children of the root, indexed by character for the common ASCII case
+    private val rootChildren = IntArray(ROOT_TABLE_SIZE) { NO_STATE }
+
+    private val fail: IntArray
+
+    // Rules whose keyword ends in a state, as indices in ruleIds
+    private val outputStart: IntArray
+    private val outputRules: IntArray
+
+    // The closest state along the failure links with an output, or ROOT if none
+    private val outputLink: IntArray
+
+    val isEmpty: Boolean
+
+    init {
+        val children = mutableListOf(sortedMapOf<Char, Int>())
+        val outputs = mutableListOf(mutableSetOf<Int>())
+        ruleIds.forEachIndexed { ruleIndex, ruleId ->
+            keywords.getValue(ruleId).forEach { keyword ->
+                var state = ROOT
+                keyword.forEach { char ->
+                    val folded = char.fold()
+                    state = children[state].getOrPut(folded) {
+                        children.add(sortedMapOf())
+                        outputs.add(mutableSetOf())
+                        children.lastIndex
+                    }
+                }
+                outputs[state].add(ruleIndex)
+            }
+        }
+        val stateCount = children.size
+        childStart = IntArray(stateCount + 1)
+        childChars = CharArray(stateCount - 1)
+        childStates = IntArray(stateCount - 1)
+        outputStart = IntArray(stateCount + 1)
+        outputRules = IntArray(outputs.sumOf { it.size })
+        var childCount = 0
+        var outputCount = 0
+        for (state in 0 until stateCount) {
+            childStart[state] = childCount
+            children[state].forEach { (char, child) ->
+                childChars[childCount] = char
+                childStates[childCount] = child
+                childCount++
+            }
+            outputStart[state] = outputCount
+            outputs[state].forEach { outputRules[outputCount++] = it }
+        }
+        childStart[stateCount] = childCount
+        outputStart[stateCount] = outputCount
+        children[ROOT].forEach { (char, child) ->
+            if (char.code < ROOT_TABLE_SIZE) rootChildren[char.code] = child
+        }
+
+        // Breadth first, the failure link of a state points to a shallower state
+        fail = IntArray(stateCount)
+        outputLink = IntArray(stateCount)
+        val queue = IntArray(stateCount)
+        var head = 0
+        var tail = 0
+        for (index in childStart[ROOT] until childStart[ROOT + 1]) {
+            queue[tail++] = childStates[index]
+        }
+        while (head < tail) {
+            val state = queue[head++]
+            for (index in childStart[state] until childStart[state + 1]) {
+                val child = childStates[index]
+                fail[child] = next(fail[state], childChars[index])
+                queue[tail++] = child
+            }
+            val failState = fail[state]
+            outputLink[state] = if (failState != ROOT && hasOutput(failState)) {
+                failState
+            } else {
+                outputLink[failState]
+            }
+        }
+        isEmpty = outputRules.isEmpty()
+    }
+
+    /**
+     * Creates a buffer for the results of [match], to be reused between calls.
+     */
+    fun newMatches() = Matches(ruleIds.size)
+
+    /**
+     * Finds the rules with a keyword contained in [name].
+     * Doesn't allocate, the results replace the content of [matches].
+     */
+    fun match(name: CharSequence, matches: Matches): Matches {
+        matches.clear()
+        // An empty keyword is contained in every name
+        addOutput(ROOT, matches)
+        var state = ROOT
+        for (index in 0 until name.length) {
+            state = next(state, name[index].fold())
+            var output = if (hasOutput(state)) state else outputLink[state]
+            while (output != ROOT) {
+                addOutput(output, matches)
+                output = outputLink[output]
+            }
+        }
+        return matches
+    }
+
+    private fun next(from: Int, char: Char): Int {
+        var state = from
+        while (true) {
+            val child = child(state, char)
+            if (child != NO_STATE) return child
+            if (state == ROOT) return ROOT
+            state = fail[state]
+        }
+    }
+
+    private fun child(state: Int, char: Char): Int {
+        if (state == ROOT && char.code < ROOT_TABLE_SIZE) return rootChildren[char.code]
+        var low = childStart[state]
+        var high = childStart[state + 1] - 1
+        while (low <= high) {
+            val mid = (low + high) ushr 1
+            val midChar = childChars[mid]
+            when {
+                midChar < char -> low = mid + 1
+                midChar > char -> high = mid - 1
+                else -> return childStates[mid]
+            }
+        }
+        return NO_STATE
+    }
+
+    private fun hasOutput(state: Int) = outputStart[state] < outputStart[state + 1]
+
+    private fun addOutput(state: Int, matches: Matches) {
+        for (index in outputStart[state] until outputStart[state + 1]) {
+            matches.add(outputRules[index])
+        }
+    }
+
+    private fun Char.fold(): Char = if (this in 'A'..'Z') this + ('a' - 'A') else this
+
+    /**
+     * Ids of the rules matched by the last call to [match], each rule is listed once.
+     */
+    inner class Matches internal constructor(capacity: Int) {
+        private val rules = IntArray(capacity)
+
+        // A rule is already in the list if its mark equals the current generation
+        private val marks = IntArray(capacity)
+        private var generation = 0
+
+        var size = 0
+            private set
+
+        operator fun get(index: Int): Int = ruleIds[rules[index]]
+
+        internal fun clear() {
+            size = 0
+            if (generation == Int.MAX_VALUE) {
+                marks.fill(0)
+                generation = 0
+            }
+            generation++
+        }
+
+        internal fun add(ruleIndex: Int) {
+            if (marks[ruleIndex] == generation) return
+            marks[ruleIndex] = generation
+            rules[size++] = ruleIndex
+        }
+    }
+
+    private companion object {
+        const val ROOT = 0
+        const val NO_STATE = -1
+        const val ROOT_TABLE_SIZE = 128
+    }
+}
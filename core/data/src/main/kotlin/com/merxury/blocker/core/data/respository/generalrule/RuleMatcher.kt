@@ -0,0 +1,166 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import com.merxury.blocker.core.database.app.AppComponentDao
+import com.merxury.blocker.core.database.app.AppComponentKey
+import com.merxury.blocker.core.database.generalrule.GeneralRuleEntity
+import com.merxury.blocker.core.database.generalrule.GeneralRuleKeywordEntity
+import com.merxury.blocker.core.database.generalrule.RuleMatchDao
+import com.merxury.blocker.core.database.generalrule.RuleMatchEntity
+import com.merxury.blocker.core.dispatchers.BlockerDispatchers.DEFAULT
+import com.merxury.blocker.core.dispatchers.Dispatcher
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
+import timber.log.Timber
+import javax.inject.Inject
+import javax.inject.Singleton
+
+private const val CHUNK_SIZE = 2_000
+
+/**
+ * Adds the matches between rule keywords and components to the database.
+ *
+ * Plain keywords are matched with a [RuleKeywordMatcher], and the keywords of rules
+ * using regular expressions with a [RuleRegexMatcher]. Both are kept in memory and
+ * rebuilt when the stored keywords change. Components are matched in parallel chunks.
+ * Removed components and keywords are cleaned up by the database.
+ */
+@Singleton
+internal class RuleMatcher @Inject constructor(
+    private val ruleMatchDao: RuleMatchDao,
+    private val appComponentDao: AppComponentDao,
+    @Dispatcher(DEFAULT) private val cpuDispatcher: CoroutineDispatcher,
+) {
+    // Serializes keyword updates with component matching, so that a component
+    // stored while the keywords change is matched against the new keywords
+    private val mutex = Mutex()
+    private var cachedKeywords: List<GeneralRuleKeywordEntity>? = null
+    private var cachedRules: CompiledRules? = null
+
+    /**
+     * Matches stored components against the keywords of all rules.
+     */
+    suspend fun matchComponents(components: List<AppComponentKey>) {
+        if (components.isEmpty()) return
+        mutex.withLock {
+            val rules = getCompiledRules()
+            if (rules.isEmpty) return
+            ruleMatchDao.insertMatches(findMatches(rules, components))
+        }
+    }
+
+    /**
+     * Replaces the keywords of [rules], and matches the added keywords against
+     * the stored components in a single pass.
+     *
+     * The matches of a regular expression can't be told apart from the matches of
+     * the other patterns of the rule, so a rule using regular expressions is matched
+     * again as a whole when its keywords change.
+     */
+    suspend fun updateKeywords(rules: List<GeneralRuleEntity>) = mutex.withLock {
+        val addedKeywords = rules.flatMap { rule ->
+            val regex = rule.useRegexSearch == true
+            val keywords = rule.searchKeyword.map { GeneralRuleKeywordEntity(rule.id, it, regex) }
+            val storedKeywords = ruleMatchDao.getKeywords(rule.id)
+            when {
+                keywords.toSet() == storedKeywords.toSet() -> emptyList()
+
+                regex || storedKeywords.any { it.regex } -> {
+                    ruleMatchDao.replaceKeywords(rule.id, keywords)
+                    keywords
+                }
+
+                else -> {
+                    ruleMatchDao.updateKeywords(rule.id, rule.searchKeyword)
+                    keywords - storedKeywords.toSet()
+                }
+            }
+        }
+        if (addedKeywords.isEmpty()) return@withLock
+        Timber.v("Match ${addedKeywords.size} added keywords")
+        val addedRules = withContext(cpuDispatcher) { CompiledRules(addedKeywords, cachedRules) }
+        ruleMatchDao.insertMatches(findMatches(addedRules, appComponentDao.getAllKeys()))
+    }
+
+    private suspend fun getCompiledRules(): CompiledRules {
+        val keywords = ruleMatchDao.getAllKeywords()
+        val rules = cachedRules
+        if (rules != null && keywords == cachedKeywords) return rules
+        return withContext(cpuDispatcher) { CompiledRules(keywords, rules) }.also {
+            cachedKeywords = keywords
+            cachedRules = it
+        }
+    }
+
+    private suspend fun findMatches(
+        rules: CompiledRules,
+        components: List<AppComponentKey>,
+    ): List<RuleMatchEntity> = coroutineScope {
+        components.chunked(CHUNK_SIZE)
+            .map { chunk -> async(cpuDispatcher) { rules.match(chunk) } }
+            .awaitAll()
+            .flatten()
+    }
+
+    /**
+     * The keywords of all rules, compiled for matching. Compiled patterns are reused
+     * from [previous].
+     */
+    private class CompiledRules(
+        keywords: List<GeneralRuleKeywordEntity>,
+        previous: CompiledRules?,
+    ) {
+        private val keywordMatcher = RuleKeywordMatcher(
+            keywords.filterNot { it.regex }.groupBy(
+                keySelector = GeneralRuleKeywordEntity::ruleId,
+                valueTransform = GeneralRuleKeywordEntity::keyword,
+            ),
+        )
+        private val regexMatcher = RuleRegexMatcher(
+            keywords.filter { it.regex }.groupBy(
+                keySelector = GeneralRuleKeywordEntity::ruleId,
+                valueTransform = GeneralRuleKeywordEntity::keyword,
+            ),
+            previous?.regexMatcher,
+        )
+
+        val isEmpty: Boolean
+            get() = keywordMatcher.isEmpty && regexMatcher.isEmpty
+
+        suspend fun match(components: List<AppComponentKey>): List<RuleMatchEntity> {
+            val matches = keywordMatcher.newMatches()
+            val regexMatches = regexMatcher.match(components.map { it.componentName })
+            return buildList {
+                components.forEachIndexed { componentIndex, component ->
+                    keywordMatcher.match(component.componentName, matches)
+                    for (index in 0 until matches.size) {
+                        add(RuleMatchEntity(matches[index], component.packageName, component.componentName))
+                    }
+                    regexMatches[componentIndex].forEach { ruleId ->
+                        add(RuleMatchEntity(ruleId, component.packageName, component.componentName))
+                    }
+                }
+            }
+        }
+    }
+}
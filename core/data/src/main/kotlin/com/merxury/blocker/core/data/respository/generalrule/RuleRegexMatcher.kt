@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.withTimeoutOrNull
+import timber.log.Timber
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.regex.Pattern
+import java.util.regex.PatternSyntaxException
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.milliseconds
+
+/**
+ * Finds the rules with a regular expression found in a component name, ignoring case.
+ *
+ * Patterns are compiled once, a matcher built with a previous one reuses its
+ * compiled patterns if their source is unchanged.
+ *
+ * Every pattern has [timeBudget] to search a name. Android copies the input and runs
+ * regular expressions in native code, so a running search can't be interrupted.
+ * The names are searched on a worker thread instead, and a pattern that is still
+ * searching a name after [timeBudget] is disabled until its source changes. The
+ * worker is left behind to finish, and the rest of the names are searched on a new one.
+ * Patterns with a nested quantifier, e.g. `(a+)+`, are rejected up front, as they
+ * are the usual cause of catastrophic backtracking. Invalid patterns are skipped.
+ *
+ * The matcher can be shared between threads.
+ */
+internal class RuleRegexMatcher(
+    patterns: Map<Int, Collection<String>>,
+    previous: RuleRegexMatcher? = null,
+    private val timeBudget: Duration = TIME_BUDGET,
+) {
+    private val compiled: Map<String, CompiledPattern> = patterns.values.flatten()
+        .toSet()
+        .associateWith { source -> previous?.compiled?.get(source) ?: CompiledPattern.compile(source) }
+
+    private val rules: List<Pair<Int, List<CompiledPattern>>> = patterns
+        .filterValues { it.isNotEmpty() }
+        .map { (ruleId, sources) -> ruleId to sources.map(compiled::getValue) }
+
+    val isEmpty: Boolean
+        get() = rules.isEmpty()
+
+    /**
+     * Ids of the rules with a pattern found in [name].
+     */
+    suspend fun match(name: String): List<Int> = match(listOf(name)).single()
+
+    /**
+     * Ids of the rules with a pattern found in each of [names], in the same order.
+     */
+    suspend fun match(names: List<String>): List<List<Int>> {
+        if (rules.isEmpty()) return names.map { emptyList() }
+        val results = ArrayList<List<Int>>(names.size)
+        while (results.size < names.size) {
+            val task = MatchTask(names, results.size)
+            executor.execute(task)
+            results += task.await()
+        }
+        return results
+    }
+
+    /**
+     * Searches [names] from [start] on, and tracks the pattern that is running,
+     * so that a pattern over the budget can be told apart from a long list.
+     */
+    private inner class MatchTask(
+        private val names: List<String>,
+        private val start: Int,
+    ) : Runnable {
+        private val results = mutableListOf<List<Int>>()
+        private val done = CompletableDeferred<Unit>()
+        private var abandoned = false
+
+        @Volatile
+        private var running: RunningPattern? = null
+
+        override fun run() {
+            try {
+                for (index in start until names.size) {
+                    val name = names[index]
+                    val matched = rules.mapNotNull { (ruleId, patterns) ->
+                        ruleId.takeIf { patterns.any { find(it, name) } }
+                    }
+                    synchronized(this) {
+                        if (abandoned) return
+                        results += matched
+                    }
+                }
+                done.complete(Unit)
+            } catch (e: Exception) {
+                done.completeExceptionally(e)
+            }
+        }
+
+        private fun find(pattern: CompiledPattern, name: String): Boolean {
+            if (pattern.disabled) return false
+            running = RunningPattern(pattern, name, System.nanoTime())
+            return pattern.find(name).also { running = null }
+        }
+
+        /**
+         * Waits for the task, or gives it up once a pattern runs over the budget.
+         *
+         * @return the results of the names searched so far
+         */
+        suspend fun await(): List<List<Int>> {
+            val budgetNanos = timeBudget.inWholeNanoseconds
+            while (withTimeoutOrNull(timeBudget) { done.await() } == null) {
+                val current = running ?: continue
+                val elapsed = System.nanoTime() - current.startNanos
+                if (elapsed < budgetNanos) continue
+                Timber.w("Pattern ${current.pattern.source} took over $timeBudget on ${current.name}, disable it")
+                current.pattern.disabled = true
+                synchronized(this) {
+                    abandoned = true
+                    return results.toList()
+                }
+            }
+            return results
+        }
+    }
+
+    private class RunningPattern(
+        val pattern: CompiledPattern,
+        val name: String,
+        val startNanos: Long,
+    )
+
+    private class CompiledPattern(val source: String, private val pattern: Pattern?) {
+        @Volatile
+        var disabled = pattern == null
+
+        fun find(name: String): Boolean = pattern?.matcher(name)?.find() == true
+
+        companion object {
+            fun compile(source: String): CompiledPattern {
+                if (hasNestedQuantifier(source)) {
+                    Timber.w("Pattern $source has a nested quantifier, skip it")
+                    return CompiledPattern(source, pattern = null)
+                }
+                val pattern = try {
+                    Pattern.compile(source, Pattern.CASE_INSENSITIVE)
+                } catch (e: PatternSyntaxException) {
+                    Timber.w(e, "Invalid pattern $source")
+                    null
+                }
+                return CompiledPattern(source, pattern)
+            }
+
+            /**
+             * Checks if a quantified group contains another quantifier.
+             * Bounded quantifiers are counted as well, e.g. `(.*a){20}`.
+             */
+            private fun hasNestedQuantifier(source: String): Boolean {
+                // Whether the enclosing groups contain a quantifier
+                val groups = ArrayDeque<Boolean>()
+                var groupHasQuantifier = false
+                var afterQuantifiedGroup = false
+                var inCharacterClass = false
+                var index = 0
+                while (index < source.length) {
+                    val char = source[index]
+                    var closesQuantifiedGroup = false
+                    when {
+                        char == '\\' -> index++
+
+                        inCharacterClass -> inCharacterClass = char != ']'
+
+                        char == '[' -> inCharacterClass = true
+
+                        char == '(' -> {
+                            groups.addLast(groupHasQuantifier)
+                            groupHasQuantifier = false
+                        }
+
+                        char == ')' -> {
+                            closesQuantifiedGroup = groupHasQuantifier
+                            groupHasQuantifier = (groups.removeLastOrNull() ?: false) || groupHasQuantifier
+                        }
+
+                        char == '*' || char == '+' || char == '{' -> {
+                            if (afterQuantifiedGroup) return true
+                            groupHasQuantifier = true
+                        }
+                    }
+                    afterQuantifiedGroup = closesQuantifiedGroup
+                    index++
+                }
+                return false
+            }
+        }
+    }
+
+    private companion object {
+        val TIME_BUDGET = 100.milliseconds
+
+        // Workers stuck in a search are left behind, they end when the search returns
+        val executor: ExecutorService = Executors.newCachedThreadPool { runnable ->
+            Thread(runnable, "RuleRegexMatcher").apply { isDaemon = true }
+        }
+    }
+}
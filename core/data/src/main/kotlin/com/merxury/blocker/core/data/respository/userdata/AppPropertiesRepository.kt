@@ -24,9 +24,17 @@ interface AppPropertiesRepository {
 
     suspend fun markComponentDatabaseInitialized()
 
+    suspend fun addInitializedComponentPackages(packageNames: Collection<String>)
+
     suspend fun markGeneralRuleDatabaseInitialized()
 
     suspend fun updateLastOpenedAppListHash(hash: String)
 
     suspend fun updateLastOpenedRuleHash(hash: String)
+
+    suspend fun updatePackageChangeSequence(bootCount: Int, sequenceNumber: Int)
+
+    suspend fun updateAppLabelLocale(locale: String)
+
+    suspend fun addIndexedComponentDetailLanguage(language: String)
 }
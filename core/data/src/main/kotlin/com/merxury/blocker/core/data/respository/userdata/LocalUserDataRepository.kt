@@ -20,6 +20,7 @@ import com.merxury.blocker.core.analytics.AnalyticsHelper
 import com.merxury.blocker.core.data.respository.logAppDisplayLanguageChanged
 import com.merxury.blocker.core.data.respository.logAppSortingChanged
 import com.merxury.blocker.core.data.respository.logAppSortingOrderChanged
+import com.merxury.blocker.core.data.respository.logArchiveBackupPreferenceChanged
 import com.merxury.blocker.core.data.respository.logBackupSystemAppPreferenceChanged
 import com.merxury.blocker.core.data.respository.logComponentShowPriorityPreferenceChanged
 import com.merxury.blocker.core.data.respository.logComponentSortingOrderPreferenceChanged
@@ -93,6 +94,11 @@ class LocalUserDataRepository @Inject constructor(
         analyticsHelper.logRestoreSystemAppPreferenceChanged(shouldRestore)
     }
 
+    override suspend fun setArchiveBackup(archive: Boolean) {
+        blockerPreferenceDataSource.setArchiveBackup(archive)
+        analyticsHelper.logArchiveBackupPreferenceChanged(archive)
+    }
+
     override suspend fun setShowSystemApps(shouldShowSystemApps: Boolean) {
         blockerPreferenceDataSource.setShowSystemApps(shouldShowSystemApps)
         analyticsHelper.logShowSystemAppPreferenceChanged(shouldShowSystemApps)
@@ -47,6 +47,8 @@ interface UserDataRepository {
 
     suspend fun setRestoreSystemApp(shouldRestore: Boolean)
 
+    suspend fun setArchiveBackup(archive: Boolean)
+
     suspend fun setShowSystemApps(shouldShowSystemApps: Boolean)
 
     suspend fun setShowServiceInfo(shouldShowServiceInfo: Boolean)
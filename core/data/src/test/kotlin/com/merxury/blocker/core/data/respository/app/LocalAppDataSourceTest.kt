@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.app
+
+import android.content.Context
+import android.content.pm.ApplicationInfo
+import android.content.pm.PackageInfo
+import android.content.pm.PackageManager
+import com.merxury.blocker.core.database.app.InstalledAppDao
+import com.merxury.blocker.core.database.app.InstalledAppEntity
+import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.robolectric.RobolectricTestRunner
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+import kotlin.time.Instant
+
+@RunWith(RobolectricTestRunner::class)
+class LocalAppDataSourceTest {
+
+    @get:Rule
+    val mainDispatcherRule = MainDispatcherRule()
+
+    @Test
+    fun givenAppNotUpdated_whenGetApplicationList_thenReuseCachedLabel() = runTest {
+        val dataSource = createDataSource(
+            packages = listOf(packageInfo(USER_PACKAGE, label = "New label")),
+            cachedApps = listOf(cachedApp(USER_PACKAGE, label = "Cached label", lastUpdateTime = LAST_UPDATE_TIME)),
+        )
+
+        val app = dataSource.getApplicationList(reuseLabels = true).first().single()
+
+        assertEquals("Cached label", app.label)
+    }
+
+    @Test
+    fun givenAppUpdated_whenGetApplicationList_thenLoadNewLabel() = runTest {
+        val dataSource = createDataSource(
+            packages = listOf(packageInfo(USER_PACKAGE, label = "New label")),
+            cachedApps = listOf(cachedApp(USER_PACKAGE, label = "Cached label", lastUpdateTime = LAST_UPDATE_TIME - 1)),
+        )
+
+        val app = dataSource.getApplicationList(reuseLabels = true).first().single()
+
+        assertEquals("New label", app.label)
+    }
+
+    @Test
+    fun givenLabelReuseDisabled_whenGetApplicationList_thenLoadNewLabel() = runTest {
+        val dataSource = createDataSource(
+            packages = listOf(packageInfo(USER_PACKAGE, label = "New label")),
+            cachedApps = listOf(cachedApp(USER_PACKAGE, label = "Cached label", lastUpdateTime = LAST_UPDATE_TIME)),
+        )
+
+        val app = dataSource.getApplicationList(reuseLabels = false).first().single()
+
+        assertEquals("New label", app.label)
+    }
+
+    @Test
+    fun givenSystemAndUserApps_whenGetApplicationList_thenSetSystemFlag() = runTest {
+        val dataSource = createDataSource(
+            packages = listOf(
+                packageInfo(USER_PACKAGE, label = "User app"),
+                packageInfo(SYSTEM_PACKAGE, label = "System app", flags = ApplicationInfo.FLAG_SYSTEM),
+                packageInfo(APP_PACKAGE, label = "Blocker"),
+            ),
+        )
+
+        val apps = dataSource.getApplicationList(reuseLabels = true).first()
+            .associateBy { it.packageName }
+
+        assertEquals(setOf(USER_PACKAGE, SYSTEM_PACKAGE), apps.keys)
+        assertFalse(apps.getValue(USER_PACKAGE).isSystem)
+        assertTrue(apps.getValue(SYSTEM_PACKAGE).isSystem)
+    }
+
+    private fun createDataSource(
+        packages: List<PackageInfo>,
+        cachedApps: List<InstalledAppEntity> = emptyList(),
+    ): LocalAppDataSource {
+        val pm: PackageManager = mock {
+            on { getInstalledPackages(any<Int>()) } doReturn packages
+            on { getInstalledPackages(any<PackageManager.PackageInfoFlags>()) } doReturn packages
+        }
+        val installedAppDao: InstalledAppDao = mock {
+            onBlocking { getAll() } doReturn cachedApps
+        }
+        return LocalAppDataSource(
+            context = mock<Context>(),
+            appPackageName = APP_PACKAGE,
+            pm = pm,
+            installedAppDao = installedAppDao,
+            ioDispatcher = mainDispatcherRule.testDispatcher,
+        )
+    }
+
+    private fun packageInfo(packageName: String, label: String, flags: Int = 0) = PackageInfo().apply {
+        this.packageName = packageName
+        lastUpdateTime = LAST_UPDATE_TIME
+        applicationInfo = ApplicationInfo().apply {
+            this.packageName = packageName
+            this.flags = flags
+            nonLocalizedLabel = label
+        }
+    }
+
+    private fun cachedApp(packageName: String, label: String, lastUpdateTime: Long) = InstalledAppEntity(
+        packageName = packageName,
+        label = label,
+        lastUpdateTime = Instant.fromEpochMilliseconds(lastUpdateTime),
+    )
+}
+
+private const val APP_PACKAGE = "com.merxury.blocker"
+private const val USER_PACKAGE = "com.example.app"
+private const val SYSTEM_PACKAGE = "com.android.settings"
+private const val LAST_UPDATE_TIME = 1_700_000_000_000L
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.app
+
+import com.merxury.blocker.core.data.respository.component.LocalComponentRepository
+import com.merxury.blocker.core.database.app.InstalledAppDao
+import com.merxury.blocker.core.database.app.fromExternalModel
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.AppPropertiesData
+import com.merxury.blocker.core.result.Result
+import com.merxury.blocker.core.testing.repository.TestAppPropertiesRepository
+import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.last
+import kotlinx.coroutines.test.runTest
+import org.junit.Rule
+import org.junit.Test
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.never
+import org.mockito.kotlin.stub
+import org.mockito.kotlin.verifyBlocking
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertIs
+import kotlin.test.assertTrue
+
+class LocalAppRepositoryTest {
+
+    @get:Rule
+    val mainDispatcherRule = MainDispatcherRule()
+
+    private val appDataSource = FakeAppDataSource()
+    private val appPropertiesRepository = TestAppPropertiesRepository()
+    private val installedAppDao: InstalledAppDao = mock {
+        onBlocking { getCount() } doReturn 2
+        onBlocking { getAll() } doReturn emptyList()
+    }
+    private val componentRepository: LocalComponentRepository = mock {
+        on { updateComponentList(any<String>()) } doReturn flowOf(Result.Success(Unit))
+    }
+
+    private val repository = LocalAppRepository(
+        localAppDataSource = appDataSource,
+        componentRepository = componentRepository,
+        installedAppDao = installedAppDao,
+        appPropertiesRepository = appPropertiesRepository,
+        ioDispatcher = mainDispatcherRule.testDispatcher,
+    )
+
+    @Test
+    fun givenSequenceOfSameBoot_whenUpdateApplicationList_thenSyncOnlyChangedPackages() = runTest {
+        appPropertiesRepository.sendAppProperties(propertiesWithSequence(bootCount = 3, sequenceNumber = 5))
+        appDataSource.changes = PackageChanges(PackageChangeSequence(3, 7), listOf(sampleApp.packageName))
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(0, appDataSource.applicationListRequests)
+        verifyBlocking(installedAppDao) { upsertInstalledApp(any()) }
+        assertEquals(PackageChangeSequence(3, 7), savedSequence())
+    }
+
+    @Test
+    fun givenRebootWithoutPackageChanges_whenUpdateApplicationList_thenSyncIncrementally() = runTest {
+        appPropertiesRepository.sendAppProperties(propertiesWithSequence(bootCount = 4, sequenceNumber = 0))
+        appDataSource.changes = PackageChanges(PackageChangeSequence(4, 0), emptyList())
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(0, appDataSource.applicationListRequests)
+        verifyBlocking(installedAppDao, never()) { upsertInstalledApp(any()) }
+    }
+
+    @Test
+    fun givenBootCountChanged_whenUpdateApplicationList_thenFallBackToFullSync() = runTest {
+        appPropertiesRepository.sendAppProperties(propertiesWithSequence(bootCount = 3, sequenceNumber = 5))
+        appDataSource.changes = null
+        appDataSource.currentSequence = PackageChangeSequence(4, 0)
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(1, appDataSource.applicationListRequests)
+        verifyBlocking(installedAppDao) { upsertInstalledApps(any()) }
+        assertEquals(PackageChangeSequence(4, 0), savedSequence())
+    }
+
+    @Test
+    fun givenNoSavedSequence_whenUpdateApplicationList_thenFullSync() = runTest {
+        appPropertiesRepository.sendAppProperties(AppPropertiesData())
+        appDataSource.changes = PackageChanges(PackageChangeSequence(4, 2), emptyList())
+        appDataSource.currentSequence = PackageChangeSequence(4, 2)
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(1, appDataSource.applicationListRequests)
+        assertEquals(PackageChangeSequence(4, 2), savedSequence())
+    }
+
+    @Test
+    fun givenSameLocale_whenFullSync_thenReuseLabels() = runTest {
+        appPropertiesRepository.sendAppProperties(AppPropertiesData(appLabelLocale = LABEL_LOCALE))
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(1, appDataSource.applicationListRequests)
+        assertTrue(appDataSource.reuseLabels)
+    }
+
+    @Test
+    fun givenLocaleChanged_whenUpdateApplicationList_thenReloadLabelsWithoutRescanningComponents() = runTest {
+        appPropertiesRepository.sendAppProperties(
+            propertiesWithSequence(bootCount = 3, sequenceNumber = 5).copy(appLabelLocale = "zh-CN"),
+        )
+        appDataSource.changes = PackageChanges(PackageChangeSequence(3, 5), emptyList())
+        appDataSource.currentSequence = PackageChangeSequence(3, 5)
+        installedAppDao.stub {
+            onBlocking { getAll() } doReturn listOf(sampleApp.copy(label = "Beispiel").fromExternalModel())
+        }
+
+        assertIs<Result.Success<Unit>>(repository.updateApplicationList().last())
+
+        assertEquals(1, appDataSource.applicationListRequests)
+        assertFalse(appDataSource.reuseLabels)
+        verifyBlocking(installedAppDao) { upsertInstalledApps(listOf(sampleApp.fromExternalModel())) }
+        verifyBlocking(componentRepository, never()) { updateComponentList(any<String>()) }
+        assertEquals(LABEL_LOCALE, appPropertiesRepository.appProperties.first().appLabelLocale)
+    }
+
+    private fun propertiesWithSequence(bootCount: Int, sequenceNumber: Int) = AppPropertiesData(
+        packageChangeBootCount = bootCount,
+        packageChangeSequenceNumber = sequenceNumber,
+        appLabelLocale = LABEL_LOCALE,
+    )
+
+    private suspend fun savedSequence(): PackageChangeSequence {
+        val properties = appPropertiesRepository.appProperties.first()
+        return PackageChangeSequence(properties.packageChangeBootCount, properties.packageChangeSequenceNumber)
+    }
+}
+
+private const val LABEL_LOCALE = "en-US"
+
+private val sampleApp = InstalledApp(packageName = "com.example.app", label = "Example")
+
+private class FakeAppDataSource : AppDataSource {
+    var changes: PackageChanges? = null
+    var currentSequence: PackageChangeSequence? = null
+    var applicationListRequests = 0
+        private set
+    var reuseLabels = false
+        private set
+
+    override fun getApplicationList(reuseLabels: Boolean): Flow<List<InstalledApp>> {
+        applicationListRequests++
+        this.reuseLabels = reuseLabels
+        return flowOf(listOf(sampleApp))
+    }
+
+    override fun getApplication(packageName: String): Flow<InstalledApp?> = flowOf(
+        sampleApp.copy(packageName = packageName),
+    )
+
+    override fun getPackageChangeSequence(): PackageChangeSequence? = currentSequence
+
+    override fun getChangedPackages(since: PackageChangeSequence): Flow<PackageChanges?> = flowOf(changes)
+
+    override fun getLabelLocale(): String = LABEL_LOCALE
+}
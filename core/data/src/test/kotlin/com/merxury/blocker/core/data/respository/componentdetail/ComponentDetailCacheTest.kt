@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.componentdetail
+
+import com.merxury.blocker.core.model.data.ComponentDetail
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class ComponentDetailCacheTest {
+    private val cache = ComponentDetailCache(maxSize = 2)
+    private val detail = ComponentDetail(name = "com.example.ui.MainActivity", description = "Main")
+
+    @Test
+    fun givenMissingDetail_whenPut_thenCacheNegativeResult() {
+        assertNull(cache.get(EN, detail.name))
+        cache.put(EN, detail.name, null)
+
+        val entry = assertNotNull(cache.get(EN, detail.name))
+        assertNull(entry.detail)
+        assertEquals(ComponentDetailCache.Stats(hitCount = 1, missCount = 1, size = 1), cache.stats())
+    }
+
+    @Test
+    fun givenDifferentLanguage_whenGet_thenReturnNull() {
+        cache.put(EN, detail.name, detail)
+
+        assertEquals(detail, cache.get(EN, detail.name)?.detail)
+        assertNull(cache.get(ZH, detail.name))
+    }
+
+    @Test
+    fun givenFullCache_whenPut_thenEvictLeastRecentlyUsed() {
+        cache.put(EN, "a", null)
+        cache.put(EN, "b", null)
+        cache.get(EN, "a")
+        cache.put(EN, "c", null)
+
+        assertNotNull(cache.get(EN, "a"))
+        assertNull(cache.get(EN, "b"))
+        assertNotNull(cache.get(EN, "c"))
+    }
+
+    @Test
+    fun givenCachedDetail_whenInvalidate_thenRemoveEveryLanguage() {
+        cache.put(EN, detail.name, detail)
+        cache.put(ZH, detail.name, null)
+
+        cache.invalidate(detail.name)
+
+        assertNull(cache.get(EN, detail.name))
+        assertNull(cache.get(ZH, detail.name))
+        assertEquals(0, cache.stats().size)
+    }
+
+    private companion object {
+        const val EN = "en"
+        const val ZH = "zh-CN"
+    }
+}
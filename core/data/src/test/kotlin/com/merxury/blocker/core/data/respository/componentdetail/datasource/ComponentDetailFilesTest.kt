@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.componentdetail.datasource
+
+import com.merxury.blocker.core.model.data.ComponentDetail
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import kotlin.test.assertEquals
+
+class ComponentDetailFilesTest {
+    @get:Rule
+    val tempFolder: TemporaryFolder = TemporaryFolder.builder()
+        .assureDeletion()
+        .build()
+
+    private val json = Json { ignoreUnknownKeys = true }
+
+    @Test
+    fun givenDetailFiles_whenReadComponentDetails_thenReturnFoundDetails() {
+        val baseDir = tempFolder.newFolder()
+        val activity = ComponentDetail(name = "com.example.ui.MainActivity", description = "Main")
+        val service = ComponentDetail(name = "com.example.push.PushService", description = "Push")
+        val receiver = ComponentDetail(name = "com.example.push.Receiver\$Inner", description = "Inner")
+        listOf(activity, service, receiver).forEach { baseDir.writeDetail(it) }
+        // Invalid files are skipped
+        baseDir.resolve("com/example/push/Broken.json").writeText("{")
+
+        val result = readComponentDetails(
+            baseDir,
+            listOf(
+                activity.name,
+                service.name,
+                receiver.name,
+                "com.example.push.Broken",
+                "com.example.push.Missing",
+                "com.missing.Component",
+                "NoPackage",
+            ),
+            json,
+        )
+
+        assertEquals(
+            mapOf(
+                activity.name to activity,
+                service.name to service,
+                receiver.name to receiver,
+            ),
+            result,
+        )
+    }
+
+    @Test
+    fun givenMissingFolder_whenReadComponentDetails_thenReturnEmptyMap() {
+        val baseDir = File(tempFolder.root, "missing")
+        assertEquals(emptyMap(), readComponentDetails(baseDir, listOf("com.example.Component"), json))
+    }
+
+    private fun File.writeDetail(detail: ComponentDetail) {
+        val file = resolve(detail.name.replace(".", File.separator) + ".json")
+        file.parentFile?.mkdirs()
+        file.writeText(json.encodeToString(detail))
+    }
+}
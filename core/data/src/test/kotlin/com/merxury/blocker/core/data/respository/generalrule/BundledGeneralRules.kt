@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import com.merxury.blocker.core.network.model.NetworkGeneralRule
+import kotlinx.serialization.json.Json
+import org.junit.Assume.assumeTrue
+import java.io.File
+import kotlin.random.Random
+
+// Relative to the module folder, the rules are a git submodule and might not be checked out
+private const val RULE_FILE = "../rule/src/main/assets/blocker-general-rules/rules/en/general.json"
+
+/**
+ * Keywords of the bundled general rules by rule id.
+ * Skips the test if the rules submodule isn't checked out.
+ */
+internal fun loadBundledRuleKeywords(): Map<Int, List<String>> {
+    val file = File(RULE_FILE)
+    assumeTrue("The general rules submodule isn't checked out", file.exists())
+    val json = Json { ignoreUnknownKeys = true }
+    return json.decodeFromString<List<NetworkGeneralRule>>(file.readText())
+        .associate { it.id to it.searchKeyword }
+}
+
+/**
+ * Component names of made up apps, every tenth one in the package of a [keywords] entry.
+ */
+internal fun syntheticComponentNames(keywords: List<String>, count: Int): List<String> {
+    val random = Random(1)
+    val words = listOf(
+        "Messaging", "Service", "Receiver", "Activity", "Job", "Worker",
+        "Init", "Push", "Sync", "Alarm", "Boot", "Core", "Manager",
+    )
+    return List(count) { index ->
+        // Most components belong to the app itself, some come from known SDKs
+        val prefix = if (random.nextInt(10) == 0) {
+            keywords.random(random).trimEnd('.')
+        } else {
+            "com.example.app${index % 600}.ui"
+        }
+        "$prefix.${words.random(random)}${words.random(random)}$index"
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.time.measureTimedValue
+
+private const val NAME_COUNT = 100_000
+
+/**
+ * Compares the automaton with checking every keyword of every rule, using the
+ * bundled general rules and 100k synthetic component names. Results are printed
+ * to the test output.
+ *
+ * Only runs with `-PrunBenchmarks=true`.
+ */
+class RuleKeywordMatcherBenchmark {
+
+    @Test
+    fun matcher_returnsSameResultAsContainsCheck() {
+        val keywords = loadBundledRuleKeywords()
+        val names = syntheticComponentNames(keywords.values.flatten(), NAME_COUNT)
+
+        val (matcher, buildTime) = measureTimedValue { RuleKeywordMatcher(keywords) }
+        val (actual, matcherTime) = measureTimedValue {
+            val matches = matcher.newMatches()
+            names.map { matcher.match(it, matches).toSet() }
+        }
+        val (expected, containsTime) = measureTimedValue {
+            names.map { name ->
+                keywords.filterValues { list -> list.any { name.contains(it, ignoreCase = true) } }.keys
+            }
+        }
+        println(
+            "${keywords.size} rules, ${names.size} names, ${expected.sumOf { it.size }} matches: " +
+                "build $buildTime, automaton $matcherTime, contains $containsTime",
+        )
+        assertEquals(expected, actual)
+    }
+}
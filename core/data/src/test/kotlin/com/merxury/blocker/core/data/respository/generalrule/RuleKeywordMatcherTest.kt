@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import org.junit.Test
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class RuleKeywordMatcherTest {
+
+    @Test
+    fun givenKeywordInDifferentCase_whenMatch_thenRuleIsMatched() {
+        val matcher = RuleKeywordMatcher(mapOf(1 to listOf("Firebase")))
+
+        assertEquals(setOf(1), matcher.matchAll("com.google.FIREBASE.MessagingService"))
+    }
+
+    @Test
+    fun givenOverlappingKeywords_whenMatch_thenAllRulesAreMatched() {
+        val matcher = RuleKeywordMatcher(
+            mapOf(
+                1 to listOf("google.firebase"),
+                2 to listOf("firebase.messaging"),
+                3 to listOf("base"),
+                4 to listOf("gms"),
+            ),
+        )
+
+        assertEquals(setOf(1, 2, 3), matcher.matchAll("com.google.firebase.messaging.Service"))
+    }
+
+    @Test
+    fun givenRuleWithSeveralMatchingKeywords_whenMatch_thenRuleIsListedOnce() {
+        val matcher = RuleKeywordMatcher(mapOf(1 to listOf("push", "tpush", "android.tpush")))
+
+        val matches = matcher.match("com.tencent.android.tpush.PushService", matcher.newMatches())
+
+        assertEquals(1, matches.size)
+        assertEquals(1, matches[0])
+    }
+
+    @Test
+    fun givenNoKeywordContained_whenMatch_thenNoRuleIsMatched() {
+        val matcher = RuleKeywordMatcher(mapOf(1 to listOf("umeng"), 2 to listOf("adjust")))
+
+        assertTrue(matcher.matchAll("com.example.ui.MainActivity").isEmpty())
+    }
+
+    @Test
+    fun givenNoKeyword_whenMatch_thenMatcherIsEmpty() {
+        val matcher = RuleKeywordMatcher(mapOf(1 to emptyList()))
+
+        assertTrue(matcher.isEmpty)
+        assertTrue(matcher.matchAll("com.example.ui.MainActivity").isEmpty())
+    }
+
+    @Test
+    fun givenReusedMatches_whenMatch_thenPreviousResultsAreCleared() {
+        val matcher = RuleKeywordMatcher(mapOf(1 to listOf("umeng"), 2 to listOf("adjust")))
+        val matches = matcher.newMatches()
+
+        matcher.match("com.umeng.message.PushService", matches)
+        matcher.match("com.adjust.sdk.Receiver", matches)
+
+        assertEquals(1, matches.size)
+        assertEquals(2, matches[0])
+    }
+
+    @Test
+    fun givenRandomKeywords_whenMatch_thenResultEqualsContainsCheck() {
+        val random = Random(1)
+        val alphabet = "abAB.c"
+        fun randomString(maxLength: Int) = buildString {
+            repeat(random.nextInt(1, maxLength)) { append(alphabet[random.nextInt(alphabet.length)]) }
+        }
+        val keywords = (0 until 50).associateWith { List(random.nextInt(1, 4)) { randomString(5) } }
+        val matcher = RuleKeywordMatcher(keywords)
+        val matches = matcher.newMatches()
+
+        repeat(1000) {
+            val name = randomString(30)
+            val expected = keywords.filterValues { list -> list.any { name.contains(it, ignoreCase = true) } }.keys
+            assertEquals(expected, matcher.match(name, matches).toSet(), name)
+        }
+    }
+
+    @Test
+    fun givenBundledRules_whenMatch_thenResultEqualsContainsCheck() {
+        val keywords = loadBundledRuleKeywords()
+        val matcher = RuleKeywordMatcher(keywords)
+        val matches = matcher.newMatches()
+
+        syntheticComponentNames(keywords.values.flatten(), count = 2_000).forEach { name ->
+            val expected = keywords.filterValues { list -> list.any { name.contains(it, ignoreCase = true) } }.keys
+            assertEquals(expected, matcher.match(name, matches).toSet(), name)
+        }
+    }
+}
+
+internal fun RuleKeywordMatcher.Matches.toSet(): Set<Int> = (0 until size).mapTo(mutableSetOf()) { get(it) }
+
+private fun RuleKeywordMatcher.matchAll(name: String): Set<Int> = match(name, newMatches()).toSet()
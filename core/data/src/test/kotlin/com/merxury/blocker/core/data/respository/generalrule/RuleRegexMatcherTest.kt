@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.data.respository.generalrule
+
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.test.runTest
+import kotlinx.coroutines.withContext
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
+import kotlin.time.measureTimedValue
+
+class RuleRegexMatcherTest {
+
+    @Test
+    fun givenPatternInDifferentCase_whenMatch_thenRuleIsMatched() = runTest {
+        val matcher = RuleRegexMatcher(mapOf(1 to listOf("firebase\\..*service$"), 2 to listOf("^androidx\\.")))
+
+        assertEquals(listOf(1), matcher.match("com.google.FIREBASE.messaging.MessagingService"))
+    }
+
+    @Test
+    fun givenInvalidPattern_whenMatch_thenPatternIsSkipped() = runTest {
+        val matcher = RuleRegexMatcher(mapOf(1 to listOf("([a-z"), 2 to listOf("tpush")))
+
+        assertEquals(listOf(2), matcher.match("com.tencent.android.tpush.PushService"))
+    }
+
+    @Test
+    fun givenNoPattern_whenMatch_thenMatcherIsEmpty() = runTest {
+        val matcher = RuleRegexMatcher(mapOf(1 to emptyList()))
+
+        assertTrue(matcher.isEmpty)
+        assertTrue(matcher.match("com.example.ui.MainActivity").isEmpty())
+    }
+
+    @Test
+    fun givenNestedQuantifier_whenMatch_thenPatternIsSkipped() = runTest {
+        val matcher = RuleRegexMatcher(mapOf(1 to listOf("(a+)+$", "(.*a){20}$"), 2 to listOf("(ads)+")))
+
+        assertEquals(listOf(2), matcher.match("com.ads." + "a".repeat(40) + "!"))
+    }
+
+    @Test
+    fun givenCatastrophicPattern_whenMatch_thenPatternIsDisabledWithinBudget() = runTest {
+        val matcher = RuleRegexMatcher(
+            mapOf(1 to listOf("(a|aa)+$"), 2 to listOf("ads")),
+            timeBudget = 50.milliseconds,
+        )
+        val name = "com.ads." + "a".repeat(40) + "!"
+
+        // The budget is measured in real time
+        val (matched, elapsed) = withContext(Dispatchers.Default) {
+            measureTimedValue { matcher.match(name) }
+        }
+        assertEquals(listOf(2), matched)
+        assertTrue(elapsed < 5.seconds, "Match took $elapsed")
+        // The disabled pattern is carried over to a matcher built from the same pattern
+        val rebuilt = RuleRegexMatcher(mapOf(1 to listOf("(a|aa)+$")), previous = matcher)
+        assertTrue(rebuilt.match("aaa").isEmpty())
+    }
+}
@@ -24,14 +24,22 @@ plugins {
 
 android {
     namespace = "com.merxury.blocker.core.database"
+    testOptions.unitTests.isIncludeAndroidResources = true
 }
 
 dependencies {
     api(projects.core.model)
+    api(libs.androidx.paging.common)
+    implementation(libs.room.paging)
     implementation(libs.kotlinx.datetime)
     implementation(libs.kotlinx.serialization.json)
 
+    testImplementation(libs.androidx.test.core)
+    testImplementation(libs.kotlinx.coroutines.test)
+    testImplementation(libs.robolectric)
+
     androidTestImplementation(libs.androidx.test.core)
     androidTestImplementation(libs.androidx.test.runner)
     androidTestImplementation(libs.kotlinx.coroutines.test)
+    androidTestImplementation(libs.room.testing)
 }
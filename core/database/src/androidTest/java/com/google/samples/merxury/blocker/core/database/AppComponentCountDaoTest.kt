@@ -0,0 +1,144 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.AppComponentCountDao
+import com.merxury.blocker.core.database.app.AppComponentCountEntity
+import com.merxury.blocker.core.database.app.AppComponentCountSummary
+import com.merxury.blocker.core.database.app.AppComponentCountTriggers
+import com.merxury.blocker.core.database.app.AppComponentDao
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.model.ComponentType
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class AppComponentCountDaoTest {
+    private lateinit var appComponentDao: AppComponentDao
+    private lateinit var appComponentCountDao: AppComponentCountDao
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        db = Room.inMemoryDatabaseBuilder(
+            context,
+            InstalledAppDatabase::class.java,
+        )
+            .addCallback(AppComponentCountTriggers)
+            .build()
+        appComponentDao = db.appComponentDao()
+        appComponentCountDao = db.appComponentCountDao()
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun givenUpsertedComponents_whenGetCounts_thenCountsMatch() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(
+                component(".a1", ACTIVITY, ifwBlocked = true),
+                component(".a2", ACTIVITY, pmBlocked = true),
+                component(".a3", ACTIVITY),
+                component(".s1", SERVICE, ifwBlocked = true, pmBlocked = true),
+            ),
+        )
+        assertEquals(
+            listOf(
+                AppComponentCountEntity(PACKAGE_NAME, ACTIVITY, total = 3, ifwBlocked = 1, pmBlocked = 1, blocked = 2),
+                AppComponentCountEntity(PACKAGE_NAME, SERVICE, total = 1, ifwBlocked = 1, pmBlocked = 1, blocked = 1),
+            ),
+            appComponentCountDao.getByPackageName(PACKAGE_NAME).first().sortedBy { it.type },
+        )
+    }
+
+    @Test
+    fun givenStateChanges_whenGetCounts_thenCountsFollow() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(component(".a1", ACTIVITY), component(".a2", ACTIVITY)),
+        )
+        // Upsert existing rows, replace a row and update a row
+        appComponentDao.upsertComponentList(listOf(component(".a1", ACTIVITY, pmBlocked = true)))
+        appComponentDao.insert(component(".a2", ACTIVITY, ifwBlocked = true))
+        appComponentDao.update(component(".a2", ACTIVITY, ifwBlocked = true, pmBlocked = true))
+        assertEquals(
+            AppComponentCountEntity(PACKAGE_NAME, ACTIVITY, total = 2, ifwBlocked = 1, pmBlocked = 2, blocked = 2),
+            appComponentCountDao.getByPackageNameAndType(PACKAGE_NAME, ACTIVITY),
+        )
+    }
+
+    @Test
+    fun givenDeletedComponents_whenGetCounts_thenEmptyCountsRemoved() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(component(".a1", ACTIVITY), component(".s1", SERVICE, ifwBlocked = true)),
+        )
+        appComponentDao.delete(component(".a1", ACTIVITY))
+        assertEquals(null, appComponentCountDao.getByPackageNameAndType(PACKAGE_NAME, ACTIVITY))
+        appComponentDao.deleteByPackageName(PACKAGE_NAME)
+        assertEquals(emptyList(), appComponentCountDao.getByPackageName(PACKAGE_NAME).first())
+    }
+
+    @Test
+    fun givenMultipleApps_whenGetSummaries_thenMostBlockedFirst() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(
+                component(".a1", ACTIVITY, ifwBlocked = true),
+                component(".a1", ACTIVITY, packageName = OTHER_PACKAGE_NAME, ifwBlocked = true),
+                component(".s1", SERVICE, packageName = OTHER_PACKAGE_NAME, pmBlocked = true),
+            ),
+        )
+        assertEquals(
+            listOf(
+                AppComponentCountSummary(OTHER_PACKAGE_NAME, total = 2, blocked = 2),
+                AppComponentCountSummary(PACKAGE_NAME, total = 1, blocked = 1),
+            ),
+            appComponentCountDao.getSummaries().first(),
+        )
+    }
+
+    private fun component(
+        componentName: String,
+        type: ComponentType,
+        packageName: String = PACKAGE_NAME,
+        ifwBlocked: Boolean = false,
+        pmBlocked: Boolean = false,
+    ) = AppComponentEntity(
+        packageName = packageName,
+        componentName = componentName,
+        ifwBlocked = ifwBlocked,
+        pmBlocked = pmBlocked,
+        type = type,
+        exported = false,
+    )
+
+    private companion object {
+        const val PACKAGE_NAME = "com.merxury.blocker.test"
+        const val OTHER_PACKAGE_NAME = "com.merxury.blocker.test2"
+    }
+}
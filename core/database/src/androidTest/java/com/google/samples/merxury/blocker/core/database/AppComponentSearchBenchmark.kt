@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import android.util.Log
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.AppComponentDao
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.ComponentSearchQuery
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.random.Random
+import kotlin.test.assertEquals
+import kotlin.time.measureTimedValue
+
+private const val TAG = "AppComponentSearchBenchmark"
+private const val PACKAGE_COUNT = 600
+private const val COMPONENTS_PER_PACKAGE = 250
+
+/**
+ * Compares the `LIKE` table scan with the full text index on a synthetic
+ * table of 150k components. Results are written to logcat.
+ */
+class AppComponentSearchBenchmark {
+    private lateinit var appComponentDao: AppComponentDao
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() = runTest {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        db = Room.inMemoryDatabaseBuilder(
+            context,
+            InstalledAppDatabase::class.java,
+        ).build()
+        appComponentDao = db.appComponentDao()
+        appComponentDao.upsertComponentList(syntheticComponents())
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun substringSearch_returnsSameResultAsTableScan() = runTest {
+        listOf(
+            "com.tencent.android.tpush",
+            "google.firebase",
+            "gms.ads",
+            ".Boot",
+            "firebase.messaging.Push",
+            "nomatch.xyz",
+        ).forEach { keyword ->
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(keyword))
+            val (expected, scanTime) = measureTimedValue {
+                appComponentDao.searchByKeyword(keyword).first()
+            }
+            val (actual, indexTime) = measureTimedValue {
+                appComponentDao.searchBySubstring(matchQuery, keyword).first()
+            }
+            Log.i(TAG, "$keyword: ${actual.size} rows, scan $scanTime, index $indexTime")
+            assertEquals(expected.toSet(), actual.toSet())
+        }
+    }
+
+    @Test
+    fun plainKeywordSearch_findsComponentsByTokenPrefix() = runTest {
+        listOf("firebase", "tpush", "Boot", "nomatch").forEach { keyword ->
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(keyword))
+            val (scanned, scanTime) = measureTimedValue {
+                appComponentDao.searchByKeyword(keyword).first()
+            }
+            val (actual, indexTime) = measureTimedValue {
+                appComponentDao.searchBySubstring(matchQuery, keyword).first()
+            }
+            Log.i(TAG, "$keyword: ${actual.size} rows, scan $scanTime, index $indexTime")
+            val tokenStart = Regex("(^|[^\\p{L}\\p{N}])$keyword", RegexOption.IGNORE_CASE)
+            val expected = scanned.filter { tokenStart.containsMatchIn(it.componentName) }
+            assertEquals(expected.toSet(), actual.toSet())
+        }
+    }
+
+    @Test
+    fun tokenSearch_findsComponentsByTokenPrefix() = runTest {
+        val matchQuery = requireNotNull(ComponentSearchQuery.tokenMatch("tpush Boot"))
+        val (actual, indexTime) = measureTimedValue {
+            appComponentDao.searchByToken(matchQuery).first()
+        }
+        Log.i(TAG, "Token search: ${actual.size} rows, index $indexTime")
+        val expected = appComponentDao.searchByKeyword(".tpush.").first()
+            .filter { it.componentName.contains(".Boot") }
+        assertEquals(expected.toSet(), actual.toSet())
+    }
+
+    private fun syntheticComponents(): List<AppComponentEntity> {
+        val random = Random(1)
+        val libraries = listOf(
+            "com.google.firebase.messaging",
+            "com.google.android.gms.ads",
+            "com.tencent.android.tpush",
+            "com.umeng.message",
+            "com.adjust.sdk",
+            "androidx.work.impl",
+        )
+        val words = listOf(
+            "Messaging", "Service", "Receiver", "Activity", "Job", "Worker",
+            "Init", "Push", "Sync", "Alarm", "Boot", "Core", "Manager",
+        )
+        return (0 until PACKAGE_COUNT).flatMap { packageIndex ->
+            val packageName = "com.example.app$packageIndex"
+            (0 until COMPONENTS_PER_PACKAGE).map { index ->
+                val prefix = if (random.nextBoolean()) libraries.random(random) else "$packageName.ui"
+                val className = words.random(random) + words.random(random) + index
+                AppComponentEntity(
+                    packageName = packageName,
+                    componentName = "$prefix.$className",
+                    ifwBlocked = false,
+                    pmBlocked = false,
+                    type = SERVICE,
+                    exported = false,
+                )
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailEntity
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ComponentDetailDaoTest {
+    private lateinit var componentDetailDao: ComponentDetailDao
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        db = Room.inMemoryDatabaseBuilder(
+            context,
+            InstalledAppDatabase::class.java,
+        ).build()
+        componentDetailDao = db.componentDetailDao()
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun replaceLanguage_replacesOnlyDetailsOfThatLanguage() = runTest {
+        componentDetailDao.replaceLanguage(
+            "en",
+            listOf(detail("en", "com.example.Old"), detail("en", "com.example.Kept")),
+        )
+        componentDetailDao.replaceLanguage("zh-CN", listOf(detail("zh-CN", "com.example.Old")))
+
+        componentDetailDao.replaceLanguage("en", listOf(detail("en", "com.example.New")))
+
+        assertNull(componentDetailDao.getByName("en", "com.example.Old"))
+        assertEquals(detail("en", "com.example.New"), componentDetailDao.getByName("en", "com.example.New"))
+        assertEquals(detail("zh-CN", "com.example.Old"), componentDetailDao.getByName("zh-CN", "com.example.Old"))
+    }
+
+    @Test
+    fun getByNames_returnsFoundDetailsOfLanguage() = runTest {
+        componentDetailDao.replaceLanguage(
+            "en",
+            listOf(detail("en", "com.example.A"), detail("en", "com.example.B")),
+        )
+        componentDetailDao.replaceLanguage("zh-CN", listOf(detail("zh-CN", "com.example.C")))
+
+        val result = componentDetailDao.getByNames(
+            "en",
+            listOf("com.example.A", "com.example.C", "com.example.Missing"),
+        )
+
+        assertEquals(listOf(detail("en", "com.example.A")), result)
+    }
+
+    @Test
+    fun hasLanguage_returnsTrueOnlyForIndexedLanguages() = runTest {
+        assertFalse(componentDetailDao.hasLanguage("en"))
+        componentDetailDao.replaceLanguage("en", listOf(detail("en", "com.example.A")))
+        assertTrue(componentDetailDao.hasLanguage("en"))
+        assertFalse(componentDetailDao.hasLanguage("zh-CN"))
+    }
+
+    private fun detail(language: String, name: String) = ComponentDetailEntity(
+        language = language,
+        name = name,
+        description = "$name in $language",
+    )
+}
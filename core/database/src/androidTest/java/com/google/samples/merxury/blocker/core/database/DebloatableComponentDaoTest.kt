@@ -19,9 +19,9 @@ package com.google.samples.merxury.blocker.core.database
 import android.content.Context
 import androidx.room.Room
 import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
 import com.merxury.blocker.core.database.debloater.DebloatableComponentDao
 import com.merxury.blocker.core.database.debloater.DebloatableComponentEntity
-import com.merxury.blocker.core.database.debloater.DebloaterDatabase
 import com.merxury.blocker.core.model.ComponentType
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.test.runTest
@@ -32,16 +32,16 @@ import kotlin.test.assertTrue
 
 class DebloatableComponentDaoTest {
     private lateinit var debloatableComponentDao: DebloatableComponentDao
-    private lateinit var db: DebloaterDatabase
+    private lateinit var db: InstalledAppDatabase
 
     @Before
     fun createDb() {
         val context = ApplicationProvider.getApplicationContext<Context>()
         db = Room.inMemoryDatabaseBuilder(
             context,
-            DebloaterDatabase::class.java,
+            InstalledAppDatabase::class.java,
         ).build()
-        debloatableComponentDao = db.DebloatableComponentDao()
+        debloatableComponentDao = db.debloatableComponentDao()
     }
 
     @Test
@@ -19,8 +19,8 @@ package com.google.samples.merxury.blocker.core.database
 import android.content.Context
 import androidx.room.Room
 import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
 import com.merxury.blocker.core.database.generalrule.GeneralRuleDao
-import com.merxury.blocker.core.database.generalrule.GeneralRuleDatabase
 import com.merxury.blocker.core.database.generalrule.GeneralRuleEntity
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.test.runTest
@@ -30,14 +30,14 @@ import kotlin.test.assertEquals
 
 class GeneralRuleDaoTest {
     private lateinit var generalRuleDao: GeneralRuleDao
-    private lateinit var db: GeneralRuleDatabase
+    private lateinit var db: InstalledAppDatabase
 
     @Before
     fun createDb() {
         val context = ApplicationProvider.getApplicationContext<Context>()
         db = Room.inMemoryDatabaseBuilder(
             context,
-            GeneralRuleDatabase::class.java,
+            InstalledAppDatabase::class.java,
         ).build()
         generalRuleDao = db.generalRuleDao()
     }
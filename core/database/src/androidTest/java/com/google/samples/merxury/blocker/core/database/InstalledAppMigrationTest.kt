@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import android.database.sqlite.SQLiteDatabase
+import androidx.room.testing.MigrationTestHelper
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.platform.app.InstrumentationRegistry
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.app.LegacyDatabaseCleaner
+import com.merxury.blocker.core.database.app.MIGRATION_10_11
+import com.merxury.blocker.core.database.app.MIGRATION_2_3
+import com.merxury.blocker.core.database.app.MIGRATION_3_4
+import com.merxury.blocker.core.database.app.MIGRATION_5_6
+import com.merxury.blocker.core.database.app.MIGRATION_6_7
+import com.merxury.blocker.core.database.app.MIGRATION_7_8
+import com.merxury.blocker.core.database.app.MIGRATION_8_9
+import com.merxury.blocker.core.database.app.MIGRATION_9_10
+import com.merxury.blocker.core.database.app.Migration4To5
+import org.junit.Rule
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class InstalledAppMigrationTest {
+    private val context = ApplicationProvider.getApplicationContext<Context>()
+
+    @get:Rule
+    val helper = MigrationTestHelper(
+        InstrumentationRegistry.getInstrumentation(),
+        InstalledAppDatabase::class.java,
+    )
+
+    @Test
+    fun givenComponents_whenMigrate2To3_thenComponentsAreSearchable() {
+        helper.createDatabase(TEST_DB, 2).use { db ->
+            db.insertComponent(PACKAGE_NAME, ".AdsService", "SERVICE")
+        }
+        val db = helper.runMigrationsAndValidate(TEST_DB, 3, true, MIGRATION_2_3)
+        assertEquals(
+            listOf(".AdsService"),
+            db.strings("SELECT `component_name` FROM `app_component_fts` WHERE `app_component_fts` MATCH 'Ads*'"),
+        )
+    }
+
+    @Test
+    fun givenVersion3_whenMigrate3To4_thenSchemaIsValid() {
+        helper.createDatabase(TEST_DB, 3).close()
+        helper.runMigrationsAndValidate(TEST_DB, 4, true, MIGRATION_3_4)
+    }
+
+    @Test
+    fun givenVersion4_whenMigrate4To5_thenSchemaIsValid() {
+        helper.createDatabase(TEST_DB, 4).close()
+        helper.runMigrationsAndValidate(TEST_DB, 5, true, Migration4To5(context))
+    }
+
+    @Test
+    fun givenLegacyDatabases_whenMigrate4To5_thenRowsAreCopiedAndDatabasesDeletedOnOpen() {
+        createLegacyDatabase(
+            Migration4To5.GENERAL_RULE_DATABASE,
+            "CREATE TABLE `general_rules` (`id` INTEGER NOT NULL, `name` TEXT NOT NULL, " +
+                "`iconUrl` TEXT, `company` TEXT, `searchKeyword` TEXT NOT NULL, " +
+                "`networkSignature` TEXT NOT NULL, `useRegexSearch` INTEGER, `description` TEXT, " +
+                "`safeToBlock` INTEGER, `sideEffect` TEXT, `website` TEXT, `contributors` TEXT NOT NULL, " +
+                "`matchedAppCount` INTEGER NOT NULL, PRIMARY KEY(`id`))",
+            "INSERT INTO `general_rules` (`id`, `name`, `searchKeyword`, `networkSignature`, " +
+                "`contributors`, `matchedAppCount`) VALUES (1, 'Firebase', '[]', '[]', '[]', 3)",
+        )
+        createLegacyDatabase(
+            Migration4To5.DEBLOATER_DATABASE,
+            "CREATE TABLE `debloatable_component` (`package_name` TEXT NOT NULL, " +
+                "`component_name` TEXT NOT NULL, `simple_name` TEXT NOT NULL, `display_name` TEXT NOT NULL, " +
+                "`ifw_blocked` INTEGER NOT NULL, `pm_blocked` INTEGER NOT NULL, `type` TEXT NOT NULL, " +
+                "`exported` INTEGER NOT NULL, `label` TEXT, `intent_filters` TEXT NOT NULL, " +
+                "`permission` TEXT, `foreground_service_type` TEXT, `grant_uri_permissions` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`package_name`, `component_name`))",
+            "INSERT INTO `debloatable_component` VALUES ('$PACKAGE_NAME', '.Share', 'Share', 'Share', " +
+                "0, 0, 'ACTIVITY', 1, NULL, '[]', NULL, NULL, 0)",
+        )
+        helper.createDatabase(TEST_DB, 4).close()
+
+        val db = helper.runMigrationsAndValidate(TEST_DB, 5, true, Migration4To5(context))
+
+        assertEquals(listOf("Firebase 3"), db.strings("SELECT `name` || ' ' || `matchedAppCount` FROM `general_rules`"))
+        assertEquals(listOf(".Share"), db.strings("SELECT `component_name` FROM `debloatable_component`"))
+        // Kept until the database is opened, in case the migration is rolled back
+        assertTrue(context.getDatabasePath(Migration4To5.GENERAL_RULE_DATABASE).exists())
+        LegacyDatabaseCleaner(context).onOpen(db)
+        assertFalse(context.getDatabasePath(Migration4To5.GENERAL_RULE_DATABASE).exists())
+        assertFalse(context.getDatabasePath(Migration4To5.DEBLOATER_DATABASE).exists())
+    }
+
+    @Test
+    fun givenComponents_whenMigrate5To6_thenCountsAreAddedAndKeptInSync() {
+        helper.createDatabase(TEST_DB, 5).use { db ->
+            db.insertComponent(PACKAGE_NAME, ".a1", "ACTIVITY", ifwBlocked = true)
+            db.insertComponent(PACKAGE_NAME, ".a2", "ACTIVITY")
+        }
+        val db = helper.runMigrationsAndValidate(TEST_DB, 6, true, MIGRATION_5_6)
+        assertEquals(listOf("ACTIVITY 2 1"), db.counts())
+        db.insertComponent(PACKAGE_NAME, ".s1", "SERVICE", pmBlocked = true)
+        db.execSQL("DELETE FROM `app_component` WHERE `component_name` = '.a1'")
+        assertEquals(listOf("ACTIVITY 1 0", "SERVICE 1 1"), db.counts())
+    }
+
+    @Test
+    fun givenKeyword_whenMigrate6To7AndInsertComponent_thenComponentIsMatched() {
+        helper.createDatabase(TEST_DB, 6).close()
+        val db = helper.runMigrationsAndValidate(TEST_DB, 7, true, MIGRATION_6_7)
+        db.execSQL("INSERT INTO `general_rule_keyword` VALUES (1, 'ads')")
+        db.insertComponent(PACKAGE_NAME, ".AdsService", "SERVICE")
+        assertEquals(listOf(".AdsService"), db.strings("SELECT `component_name` FROM `rule_match`"))
+    }
+
+    @Test
+    fun givenVersion7_whenMigrate7To8AndInsertComponent_thenComponentIsNotMatched() {
+        // Start from version 6 to have the triggers created by version 7
+        helper.createDatabase(TEST_DB, 6).close()
+        helper.runMigrationsAndValidate(TEST_DB, 7, true, MIGRATION_6_7).close()
+        val db = helper.runMigrationsAndValidate(TEST_DB, 8, true, MIGRATION_7_8)
+        db.execSQL("INSERT INTO `general_rule_keyword` VALUES (1, 'ads')")
+        db.insertComponent(PACKAGE_NAME, ".AdsService", "SERVICE")
+        assertEquals(emptyList(), db.strings("SELECT `component_name` FROM `rule_match`"))
+    }
+
+    @Test
+    fun givenMatches_whenMigrate8To9AndDeleteRegexKeyword_thenMatchesAreKept() {
+        helper.createDatabase(TEST_DB, 8).use { db ->
+            db.execSQL("INSERT INTO `general_rule_keyword` VALUES (1, 'ads')")
+        }
+        val db = helper.runMigrationsAndValidate(TEST_DB, 9, true, MIGRATION_8_9)
+        assertEquals(listOf("0"), db.strings("SELECT `regex` FROM `general_rule_keyword`"))
+        db.execSQL("INSERT INTO `general_rule_keyword` VALUES (1, '.*Ads.*', 1)")
+        db.execSQL("INSERT INTO `rule_match` VALUES (1, '$PACKAGE_NAME', '.AdsService')")
+        db.execSQL("DELETE FROM `general_rule_keyword` WHERE `regex` = 1")
+        assertEquals(listOf(".AdsService"), db.strings("SELECT `component_name` FROM `rule_match`"))
+        db.execSQL("DELETE FROM `general_rule_keyword` WHERE `regex` = 0")
+        assertEquals(emptyList(), db.strings("SELECT `component_name` FROM `rule_match`"))
+    }
+
+    @Test
+    fun givenVersion9_whenMigrate9To10_thenSchemaIsValid() {
+        helper.createDatabase(TEST_DB, 9).close()
+        helper.runMigrationsAndValidate(TEST_DB, 10, true, MIGRATION_9_10)
+    }
+
+    @Test
+    fun givenVersion10_whenMigrate10To11_thenSchemaIsValid() {
+        helper.createDatabase(TEST_DB, 10).close()
+        helper.runMigrationsAndValidate(TEST_DB, 11, true, MIGRATION_10_11)
+    }
+
+    @Test
+    fun givenComponents_whenMigrate2To11_thenComponentsAreKept() {
+        helper.createDatabase(TEST_DB, 2).use { db ->
+            db.insertComponent(PACKAGE_NAME, ".a1", "ACTIVITY", pmBlocked = true)
+        }
+        val db = helper.runMigrationsAndValidate(
+            TEST_DB,
+            11,
+            true,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            Migration4To5(context),
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+        )
+        assertEquals(listOf(".a1"), db.strings("SELECT `component_name` FROM `app_component`"))
+        assertEquals(listOf("ACTIVITY 1 1"), db.counts())
+    }
+
+    private fun createLegacyDatabase(name: String, vararg statements: String) {
+        context.deleteDatabase(name)
+        SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(name), null).use { db ->
+            statements.forEach(db::execSQL)
+        }
+    }
+
+    private fun SupportSQLiteDatabase.insertComponent(
+        packageName: String,
+        componentName: String,
+        type: String,
+        ifwBlocked: Boolean = false,
+        pmBlocked: Boolean = false,
+    ) = execSQL(
+        "INSERT OR REPLACE INTO `app_component` VALUES (?, ?, ?, ?, ?, 1)",
+        arrayOf(packageName, componentName, ifwBlocked, pmBlocked, type),
+    )
+
+    private fun SupportSQLiteDatabase.strings(sql: String): List<String> = query(sql).use { cursor ->
+        buildList {
+            while (cursor.moveToNext()) add(cursor.getString(0))
+        }
+    }
+
+    private fun SupportSQLiteDatabase.counts(): List<String> = strings(
+        "SELECT `type` || ' ' || `total` || ' ' || `blocked` FROM `app_component_count` ORDER BY `type`",
+    )
+
+    private companion object {
+        const val TEST_DB = "migration-test"
+        const val PACKAGE_NAME = "com.merxury.test"
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.AppComponentDao
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.app.InstalledAppEntity
+import com.merxury.blocker.core.database.generalrule.GeneralRuleDao
+import com.merxury.blocker.core.database.generalrule.GeneralRuleEntity
+import com.merxury.blocker.core.database.generalrule.GeneralRuleKeywordEntity
+import com.merxury.blocker.core.database.generalrule.RuleMatchDao
+import com.merxury.blocker.core.database.generalrule.RuleMatchEntity
+import com.merxury.blocker.core.database.generalrule.RuleMatchTriggers
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class RuleMatchDaoTest {
+    private lateinit var appComponentDao: AppComponentDao
+    private lateinit var generalRuleDao: GeneralRuleDao
+    private lateinit var ruleMatchDao: RuleMatchDao
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() = runTest {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        db = Room.inMemoryDatabaseBuilder(
+            context,
+            InstalledAppDatabase::class.java,
+        )
+            .addCallback(RuleMatchTriggers)
+            .build()
+        appComponentDao = db.appComponentDao()
+        generalRuleDao = db.generalRuleDao()
+        ruleMatchDao = db.ruleMatchDao()
+        db.installedAppDao().upsertInstalledApps(
+            listOf(
+                InstalledAppEntity(packageName = PACKAGE_NAME),
+                InstalledAppEntity(packageName = SYSTEM_PACKAGE_NAME, isSystem = true),
+            ),
+        )
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun givenKeywords_whenUpdated_thenOnlyChangedKeywordsStored() = runTest {
+        ruleMatchDao.updateKeywords(RULE_ID, listOf("tracker.sdk", "ads"))
+        ruleMatchDao.updateKeywords(RULE_ID, listOf("tracker.sdk", "push"))
+        assertEquals(listOf("push", "tracker.sdk"), ruleMatchDao.getKeywords(RULE_ID).map { it.keyword }.sorted())
+    }
+
+    @Test
+    fun givenMatches_whenKeywordRemoved_thenOnlyUnmatchedComponentsRemoved() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(
+                component("com.tracker.sdk.PushService"),
+                component("com.ads.sdk.AdService"),
+                component("com.ads.tracker.sdk.Service"),
+            ),
+        )
+        ruleMatchDao.updateKeywords(RULE_ID, listOf("tracker.sdk", "ads"))
+        insertMatches(
+            "com.tracker.sdk.PushService",
+            "com.ads.sdk.AdService",
+            "com.ads.tracker.sdk.Service",
+        )
+        // A component still containing a remaining keyword keeps its match
+        ruleMatchDao.updateKeywords(RULE_ID, listOf("tracker.sdk"))
+        assertEquals(
+            setOf("com.tracker.sdk.PushService", "com.ads.tracker.sdk.Service"),
+            matchedComponentNames(),
+        )
+    }
+
+    @Test
+    fun givenRegexMatches_whenKeywordsReplaced_thenAllMatchesOfRuleRemoved() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(component("com.tracker.PushService"), component("com.tracker.SyncService")),
+        )
+        ruleMatchDao.replaceKeywords(RULE_ID, listOf(GeneralRuleKeywordEntity(RULE_ID, "tracker\\..*Service", regex = true)))
+        insertMatches("com.tracker.PushService", "com.tracker.SyncService")
+        // Removing a pattern leaves its matches to the caller
+        ruleMatchDao.deleteKeywords(RULE_ID)
+        assertEquals(setOf("com.tracker.PushService", "com.tracker.SyncService"), matchedComponentNames())
+        ruleMatchDao.replaceKeywords(RULE_ID, listOf(GeneralRuleKeywordEntity(RULE_ID, "Push", regex = true)))
+        assertEquals(emptySet(), matchedComponentNames())
+        assertEquals(listOf("Push"), ruleMatchDao.getKeywords(RULE_ID).map { it.keyword })
+    }
+
+    @Test
+    fun givenMatches_whenComponentsAndRulesDeleted_thenMatchesRemoved() = runTest {
+        generalRuleDao.insert(GeneralRuleEntity(id = RULE_ID, name = "Tracker"))
+        ruleMatchDao.updateKeywords(RULE_ID, listOf("tracker"))
+        appComponentDao.upsertComponentList(
+            listOf(component("com.tracker.PushService"), component("com.tracker.SyncService")),
+        )
+        insertMatches("com.tracker.PushService", "com.tracker.SyncService")
+        appComponentDao.delete(component("com.tracker.PushService"))
+        assertEquals(setOf("com.tracker.SyncService"), matchedComponentNames())
+        generalRuleDao.deleteGeneralRules(listOf(RULE_ID))
+        assertEquals(emptySet(), matchedComponentNames())
+        assertEquals(emptyList(), ruleMatchDao.getKeywords(RULE_ID))
+    }
+
+    @Test
+    fun givenSystemApps_whenGetMatchedAppCount_thenSystemAppsFiltered() = runTest {
+        appComponentDao.upsertComponentList(
+            listOf(
+                component("com.tracker.PushService"),
+                component("com.tracker.SyncService", packageName = SYSTEM_PACKAGE_NAME),
+            ),
+        )
+        ruleMatchDao.insertMatches(
+            listOf(
+                RuleMatchEntity(RULE_ID, PACKAGE_NAME, "com.tracker.PushService"),
+                RuleMatchEntity(RULE_ID, SYSTEM_PACKAGE_NAME, "com.tracker.SyncService"),
+                RuleMatchEntity(OTHER_RULE_ID, PACKAGE_NAME, "com.tracker.PushService"),
+            ),
+        )
+        assertEquals(1, ruleMatchDao.getMatchedAppCount(RULE_ID, includeSystemApps = false).first())
+        assertEquals(2, ruleMatchDao.getMatchedAppCount(RULE_ID, includeSystemApps = true).first())
+        assertEquals(
+            listOf(component("com.tracker.PushService")),
+            ruleMatchDao.getMatchedComponents(includeSystemApps = false).first(),
+        )
+    }
+
+    private suspend fun insertMatches(vararg componentNames: String) = ruleMatchDao.insertMatches(
+        componentNames.map { RuleMatchEntity(RULE_ID, PACKAGE_NAME, it) },
+    )
+
+    private suspend fun matchedComponentNames(): Set<String> = ruleMatchDao.getMatchedComponents(PACKAGE_NAME)
+        .first()
+        .values
+        .flatten()
+        .mapTo(mutableSetOf()) { it.componentName }
+
+    private fun component(
+        componentName: String,
+        packageName: String = PACKAGE_NAME,
+    ) = AppComponentEntity(
+        packageName = packageName,
+        componentName = componentName,
+        ifwBlocked = false,
+        pmBlocked = false,
+        type = SERVICE,
+        exported = false,
+    )
+
+    private companion object {
+        const val RULE_ID = 1
+        const val OTHER_RULE_ID = 2
+        const val PACKAGE_NAME = "com.merxury.blocker.test"
+        const val SYSTEM_PACKAGE_NAME = "com.merxury.blocker.system"
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.samples.merxury.blocker.core.database
+
+import android.content.Context
+import androidx.room.Room
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailEntity
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class UserComponentDetailDaoTest {
+    private lateinit var userComponentDetailDao: UserComponentDetailDao
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() = runTest {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        db = Room.inMemoryDatabaseBuilder(
+            context,
+            InstalledAppDatabase::class.java,
+        ).build()
+        userComponentDetailDao = db.userComponentDetailDao()
+        db.appComponentDao().upsertComponentList(
+            listOf(
+                component("com.example.a", "com.library.Shared"),
+                component("com.example.a", "com.example.a.MainActivity"),
+                component("com.example.b", "com.library.Shared"),
+                component("com.example.b", "com.example.b.MainActivity"),
+            ),
+        )
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun getNamesByPackageName_returnsDetailsOfComponentsInPackage() = runTest {
+        userComponentDetailDao.insert(UserComponentDetailEntity("en", "com.library.Shared"))
+        userComponentDetailDao.insert(UserComponentDetailEntity("en", "com.example.b.MainActivity"))
+        userComponentDetailDao.insert(UserComponentDetailEntity("zh-CN", "com.example.a.MainActivity"))
+
+        assertEquals(
+            listOf("com.library.Shared"),
+            userComponentDetailDao.getNamesByPackageName("en", "com.example.a"),
+        )
+        assertEquals(
+            setOf("com.library.Shared", "com.example.b.MainActivity"),
+            userComponentDetailDao.getNamesByPackageName("en", "com.example.b").toSet(),
+        )
+    }
+
+    @Test
+    fun hasPackageName_returnsTrueOnlyForPackagesWithDetails() = runTest {
+        userComponentDetailDao.replaceLanguage(
+            "en",
+            listOf(UserComponentDetailEntity("en", "com.example.b.MainActivity")),
+        )
+
+        assertFalse(userComponentDetailDao.hasPackageName("en", "com.example.a"))
+        assertTrue(userComponentDetailDao.hasPackageName("en", "com.example.b"))
+        assertFalse(userComponentDetailDao.hasPackageName("zh-CN", "com.example.b"))
+    }
+
+    private fun component(packageName: String, componentName: String) = AppComponentEntity(
+        packageName = packageName,
+        componentName = componentName,
+        ifwBlocked = false,
+        pmBlocked = false,
+        type = ACTIVITY,
+        exported = false,
+    )
+}
@@ -16,13 +16,15 @@
 
 package com.merxury.blocker.core.database
 
+import com.merxury.blocker.core.database.app.AppComponentCountDao
 import com.merxury.blocker.core.database.app.AppComponentDao
 import com.merxury.blocker.core.database.app.InstalledAppDao
 import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailDao
 import com.merxury.blocker.core.database.debloater.DebloatableComponentDao
-import com.merxury.blocker.core.database.debloater.DebloaterDatabase
 import com.merxury.blocker.core.database.generalrule.GeneralRuleDao
-import com.merxury.blocker.core.database.generalrule.GeneralRuleDatabase
+import com.merxury.blocker.core.database.generalrule.RuleMatchDao
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
@@ -38,10 +40,22 @@ internal object DaosModule {
     @Provides
     fun provideAppComponentDao(database: InstalledAppDatabase): AppComponentDao = database.appComponentDao()
 
+    @Provides
+    fun provideAppComponentCountDao(database: InstalledAppDatabase): AppComponentCountDao = database.appComponentCountDao()
+
     @Provides
     @Singleton
-    fun provideGeneralRuleDao(database: GeneralRuleDatabase): GeneralRuleDao = database.generalRuleDao()
+    fun provideGeneralRuleDao(database: InstalledAppDatabase): GeneralRuleDao = database.generalRuleDao()
+
+    @Provides
+    fun provideRuleMatchDao(database: InstalledAppDatabase): RuleMatchDao = database.ruleMatchDao()
+
+    @Provides
+    fun provideDebloatableComponentDao(database: InstalledAppDatabase): DebloatableComponentDao = database.debloatableComponentDao()
+
+    @Provides
+    fun provideComponentDetailDao(database: InstalledAppDatabase): ComponentDetailDao = database.componentDetailDao()
 
     @Provides
-    fun provideDebloatableComponentDao(database: DebloaterDatabase): DebloatableComponentDao = database.DebloatableComponentDao()
+    fun provideUserComponentDetailDao(database: InstalledAppDatabase): UserComponentDetailDao = database.userComponentDetailDao()
 }
@@ -18,9 +18,19 @@ package com.merxury.blocker.core.database
 
 import android.content.Context
 import androidx.room.Room
+import com.merxury.blocker.core.database.app.AppComponentCountTriggers
 import com.merxury.blocker.core.database.app.InstalledAppDatabase
-import com.merxury.blocker.core.database.debloater.DebloaterDatabase
-import com.merxury.blocker.core.database.generalrule.GeneralRuleDatabase
+import com.merxury.blocker.core.database.app.LegacyDatabaseCleaner
+import com.merxury.blocker.core.database.app.MIGRATION_10_11
+import com.merxury.blocker.core.database.app.MIGRATION_2_3
+import com.merxury.blocker.core.database.app.MIGRATION_3_4
+import com.merxury.blocker.core.database.app.MIGRATION_5_6
+import com.merxury.blocker.core.database.app.MIGRATION_6_7
+import com.merxury.blocker.core.database.app.MIGRATION_7_8
+import com.merxury.blocker.core.database.app.MIGRATION_8_9
+import com.merxury.blocker.core.database.app.MIGRATION_9_10
+import com.merxury.blocker.core.database.app.Migration4To5
+import com.merxury.blocker.core.database.generalrule.RuleMatchTriggers
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
@@ -40,18 +50,20 @@ internal object DatabaseModule {
         InstalledAppDatabase::class.java,
         "installed_app",
     )
-        .fallbackToDestructiveMigration(true)
-        .build()
-
-    @Provides
-    @Singleton
-    fun provideGeneralRuleDatabase(@ApplicationContext context: Context): GeneralRuleDatabase = Room.databaseBuilder(context, GeneralRuleDatabase::class.java, "general_rule")
-        .fallbackToDestructiveMigration(true)
-        .build()
-
-    @Provides
-    @Singleton
-    fun provideDebloaterDatabase(@ApplicationContext context: Context): DebloaterDatabase = Room.databaseBuilder(context, DebloaterDatabase::class.java, "share_target")
+        .addMigrations(
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            Migration4To5(context),
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+        )
+        .addCallback(AppComponentCountTriggers)
+        .addCallback(RuleMatchTriggers)
+        .addCallback(LegacyDatabaseCleaner(context))
         .fallbackToDestructiveMigration(true)
         .build()
 }
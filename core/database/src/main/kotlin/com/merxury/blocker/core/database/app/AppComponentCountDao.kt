@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import androidx.room.Dao
+import androidx.room.Query
+import com.merxury.blocker.core.model.ComponentType
+import kotlinx.coroutines.flow.Flow
+
+@Dao
+interface AppComponentCountDao {
+    @Query("SELECT * FROM app_component_count WHERE package_name = :packageName")
+    fun getByPackageName(packageName: String): Flow<List<AppComponentCountEntity>>
+
+    @Query("SELECT * FROM app_component_count WHERE package_name = :packageName AND type = :type")
+    suspend fun getByPackageNameAndType(
+        packageName: String,
+        type: ComponentType,
+    ): AppComponentCountEntity?
+
+    /**
+     * Component counts of every app, the apps with the most blocked components first.
+     */
+    @Query(
+        "SELECT package_name, SUM(total) AS total, SUM(blocked) AS blocked " +
+            "FROM app_component_count GROUP BY package_name ORDER BY blocked DESC",
+    )
+    fun getSummaries(): Flow<List<AppComponentCountSummary>>
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import com.merxury.blocker.core.model.ComponentType
+
+/**
+ * Number of components of an app by type, and how many of them are blocked.
+ * The table is maintained by triggers on app_component, see [AppComponentCountTriggers].
+ */
+@Entity(
+    primaryKeys = ["package_name", "type"],
+    tableName = "app_component_count",
+)
+data class AppComponentCountEntity(
+    @ColumnInfo(name = "package_name") val packageName: String,
+    val type: ComponentType,
+    val total: Int,
+    @ColumnInfo(name = "ifw_blocked") val ifwBlocked: Int,
+    @ColumnInfo(name = "pm_blocked") val pmBlocked: Int,
+    /**
+     * Components blocked by IFW, PM or both
+     */
+    val blocked: Int,
+)
+
+/**
+ * Component counts of an app summed over all component types.
+ */
+data class AppComponentCountSummary(
+    @ColumnInfo(name = "package_name") val packageName: String,
+    val total: Int,
+    val blocked: Int,
+)
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Keeps app_component_count in sync with app_component.
+ *
+ * The counts are updated by triggers, so they change in the same transaction
+ * as the components. Room doesn't create triggers for regular tables, they are
+ * created when the database is created and in the migration adding the table.
+ */
+internal object AppComponentCountTriggers : RoomDatabase.Callback() {
+    override fun onCreate(db: SupportSQLiteDatabase) {
+        create(db)
+    }
+
+    override fun onDestructiveMigration(db: SupportSQLiteDatabase) {
+        create(db)
+    }
+
+    fun create(db: SupportSQLiteDatabase) {
+        // A replaced row isn't reported to the delete triggers,
+        // remove the counts of the existing row before inserting
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `app_component_count_BEFORE_INSERT` " +
+                "BEFORE INSERT ON `app_component` BEGIN " +
+                "UPDATE `app_component_count` SET `total` = `total` - 1, " +
+                "`ifw_blocked` = `ifw_blocked` - ${existing("`ifw_blocked`")}, " +
+                "`pm_blocked` = `pm_blocked` - ${existing("`pm_blocked`")}, " +
+                "`blocked` = `blocked` - ${existing("(`ifw_blocked` OR `pm_blocked`)")} " +
+                "WHERE `package_name` = NEW.`package_name` " +
+                "AND `type` = ${existing("`type`")}; END",
+        )
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_INSERT` " +
+                "AFTER INSERT ON `app_component` BEGIN " +
+                "${add("NEW")} " +
+                "${removeEmpty("NEW")} END",
+        )
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_UPDATE` " +
+                "AFTER UPDATE ON `app_component` BEGIN " +
+                "${subtract("OLD")} " +
+                "${add("NEW")} " +
+                "${removeEmpty("OLD")} END",
+        )
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_DELETE` " +
+                "AFTER DELETE ON `app_component` BEGIN " +
+                "${subtract("OLD")} " +
+                "${removeEmpty("OLD")} END",
+        )
+    }
+
+    // INSERT OR IGNORE can't be used here: the conflict clause of the statement
+    // firing the trigger, e.g. INSERT OR REPLACE, would override it
+    private fun add(row: String) = "INSERT INTO `app_component_count` " +
+        "SELECT $row.`package_name`, $row.`type`, 0, 0, 0, 0 " +
+        "WHERE NOT EXISTS (SELECT 1 FROM `app_component_count` " +
+        "WHERE `package_name` = $row.`package_name` AND `type` = $row.`type`); " +
+        "UPDATE `app_component_count` SET `total` = `total` + 1, " +
+        "`ifw_blocked` = `ifw_blocked` + $row.`ifw_blocked`, " +
+        "`pm_blocked` = `pm_blocked` + $row.`pm_blocked`, " +
+        "`blocked` = `blocked` + ($row.`ifw_blocked` OR $row.`pm_blocked`) " +
+        "WHERE `package_name` = $row.`package_name` AND `type` = $row.`type`;"
+
+    private fun subtract(row: String) = "UPDATE `app_component_count` SET `total` = `total` - 1, " +
+        "`ifw_blocked` = `ifw_blocked` - $row.`ifw_blocked`, " +
+        "`pm_blocked` = `pm_blocked` - $row.`pm_blocked`, " +
+        "`blocked` = `blocked` - ($row.`ifw_blocked` OR $row.`pm_blocked`) " +
+        "WHERE `package_name` = $row.`package_name` AND `type` = $row.`type`;"
+
+    private fun removeEmpty(row: String) = "DELETE FROM `app_component_count` " +
+        "WHERE `package_name` = $row.`package_name` AND `total` = 0;"
+
+    private fun existing(column: String) = "(SELECT $column FROM `app_component` " +
+        "WHERE `package_name` = NEW.`package_name` AND `component_name` = NEW.`component_name`)"
+}
@@ -16,14 +16,17 @@
 
 package com.merxury.blocker.core.database.app
 
+import androidx.paging.PagingSource
 import androidx.room.Dao
 import androidx.room.Delete
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.RawQuery
 import androidx.room.Transaction
 import androidx.room.Update
 import androidx.room.Upsert
+import androidx.sqlite.db.SupportSQLiteQuery
 import com.merxury.blocker.core.model.ComponentType
 import kotlinx.coroutines.flow.Flow
 
@@ -41,38 +44,151 @@ interface AppComponentDao {
     @Delete
     suspend fun delete(entities: List<AppComponentEntity>): Int
 
-    @Query("DELETE FROM app_component WHERE package_name LIKE :packageName")
+    @Query("DELETE FROM app_component WHERE package_name = :packageName")
     suspend fun deleteByPackageName(packageName: String): Int
 
     @Query("Delete FROM app_component")
     suspend fun deleteAll(): Int
 
-    @Query("SELECT * FROM app_component WHERE package_name LIKE :packageName")
+    @Query("SELECT * FROM app_component WHERE package_name = :packageName")
     fun getByPackageName(packageName: String): Flow<List<AppComponentEntity>>
 
     @Query(
-        "SELECT * FROM app_component WHERE package_name LIKE :packageName " +
-            "AND component_name LIKE :componentName",
+        "SELECT * FROM app_component WHERE package_name = :packageName " +
+            "AND component_name = :componentName",
     )
     fun getByPackageNameAndComponentName(
         packageName: String,
         componentName: String,
     ): Flow<AppComponentEntity?>
 
-    @Query("SELECT * FROM app_component WHERE package_name LIKE :packageName AND type = :type")
+    @Query("SELECT * FROM app_component WHERE package_name = :packageName AND type = :type")
     fun getByPackageNameAndType(
         packageName: String,
         type: ComponentType,
     ): Flow<List<AppComponentEntity>>
 
+    @Query("SELECT * FROM app_component WHERE package_name = :packageName ORDER BY component_name")
+    fun pagingSourceByPackageName(packageName: String): PagingSource<Int, AppComponentEntity>
+
+    @Query(
+        "SELECT * FROM app_component WHERE package_name = :packageName AND type = :type " +
+            "ORDER BY component_name",
+    )
+    fun pagingSourceByPackageNameAndType(
+        packageName: String,
+        type: ComponentType,
+    ): PagingSource<Int, AppComponentEntity>
+
+    /**
+     * Paged components of one app, filtered and sorted by the query.
+     *
+     * @param query see [ComponentListQuery.paged]
+     */
+    @RawQuery(observedEntities = [AppComponentEntity::class])
+    fun pagingSource(query: SupportSQLiteQuery): PagingSource<Int, AppComponentEntity>
+
     @Transaction
-    @Query("SELECT * FROM app_component WHERE component_name LIKE :name")
+    @Query("SELECT * FROM app_component WHERE component_name = :name")
     fun getByName(name: String): Flow<AppComponentEntity?>
 
     @Upsert
     suspend fun upsertComponentList(componentList: List<AppComponentEntity>)
 
+    @Query("SELECT package_name, component_name FROM app_component")
+    suspend fun getAllKeys(): List<AppComponentKey>
+
     @Transaction
     @Query("SELECT * FROM app_component WHERE component_name LIKE '%' || :searchKeyword || '%'")
     fun searchByKeyword(searchKeyword: String): Flow<List<AppComponentEntity>>
+
+    @Query(
+        "SELECT * FROM app_component WHERE component_name LIKE '%' || :searchKeyword || '%' " +
+            "ORDER BY package_name, component_name",
+    )
+    fun pagingSourceByKeyword(searchKeyword: String): PagingSource<Int, AppComponentEntity>
+
+    /**
+     * Search components through the full text index.
+     *
+     * @param matchQuery MATCH expression, see [ComponentSearchQuery.tokenMatch]
+     */
+    @Transaction
+    @Query(
+        "SELECT app_component.* FROM app_component " +
+            "JOIN app_component_fts ON app_component.rowid = app_component_fts.rowid " +
+            "WHERE app_component_fts MATCH :matchQuery",
+    )
+    fun searchByToken(matchQuery: String): Flow<List<AppComponentEntity>>
+
+    /**
+     * Search components whose name contains [searchKeyword], using the full text
+     * index to narrow down the rows to check.
+     *
+     * @param matchQuery MATCH expression, see [ComponentSearchQuery.substringMatch]
+     */
+    @Transaction
+    @Query(
+        "SELECT app_component.* FROM app_component " +
+            "JOIN app_component_fts ON app_component.rowid = app_component_fts.rowid " +
+            "WHERE app_component_fts MATCH :matchQuery " +
+            "AND app_component.component_name LIKE '%' || :searchKeyword || '%'",
+    )
+    fun searchBySubstring(
+        matchQuery: String,
+        searchKeyword: String,
+    ): Flow<List<AppComponentEntity>>
+
+    /**
+     * Paged version of [searchBySubstring].
+     */
+    @Query(
+        "SELECT app_component.* FROM app_component " +
+            "JOIN app_component_fts ON app_component.rowid = app_component_fts.rowid " +
+            "WHERE app_component_fts MATCH :matchQuery " +
+            "AND app_component.component_name LIKE '%' || :searchKeyword || '%' " +
+            "ORDER BY app_component.package_name, app_component.component_name",
+    )
+    fun pagingSourceBySubstring(
+        matchQuery: String,
+        searchKeyword: String,
+    ): PagingSource<Int, AppComponentEntity>
+
+    /**
+     * Search components whose name contains [searchKeyword], grouped by the app they belong to.
+     *
+     * @param includeSystemApps false to skip the components of system apps
+     */
+    @Transaction
+    @Query(
+        "SELECT app_component.*, installed_app.* FROM app_component " +
+            "JOIN installed_app ON installed_app.package_name = app_component.package_name " +
+            "WHERE app_component.component_name LIKE '%' || :searchKeyword || '%' " +
+            "AND (:includeSystemApps OR installed_app.is_system = 0)",
+    )
+    fun searchByKeywordGroupByApp(
+        searchKeyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledAppEntity, List<AppComponentEntity>>>
+
+    /**
+     * Same as [searchByKeywordGroupByApp], using the full text index to narrow down
+     * the rows to check.
+     *
+     * @param matchQuery MATCH expression, see [ComponentSearchQuery.substringMatch]
+     */
+    @Transaction
+    @Query(
+        "SELECT app_component.*, installed_app.* FROM app_component " +
+            "JOIN app_component_fts ON app_component.rowid = app_component_fts.rowid " +
+            "JOIN installed_app ON installed_app.package_name = app_component.package_name " +
+            "WHERE app_component_fts MATCH :matchQuery " +
+            "AND app_component.component_name LIKE '%' || :searchKeyword || '%' " +
+            "AND (:includeSystemApps OR installed_app.is_system = 0)",
+    )
+    fun searchBySubstringGroupByApp(
+        matchQuery: String,
+        searchKeyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledAppEntity, List<AppComponentEntity>>>
 }
@@ -22,10 +22,17 @@ import androidx.room.Index
 import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.data.ComponentInfo
 
+/**
+ * The primary key also serves the lookups by package name.
+ * Additional indices cover the lookups by component type and by component name.
+ */
 @Entity(
     primaryKeys = ["package_name", "component_name"],
     tableName = "app_component",
-    indices = [Index(value = ["package_name", "component_name"])],
+    indices = [
+        Index(value = ["package_name", "type"]),
+        Index(value = ["component_name"]),
+    ],
 )
 data class AppComponentEntity(
     @ColumnInfo(name = "package_name") val packageName: String,
@@ -36,6 +43,14 @@ data class AppComponentEntity(
     val exported: Boolean,
 )
 
+/**
+ * Primary key of an [AppComponentEntity], for queries that only need the names.
+ */
+data class AppComponentKey(
+    @ColumnInfo(name = "package_name") val packageName: String,
+    @ColumnInfo(name = "component_name") val componentName: String,
+)
+
 fun AppComponentEntity.toComponentInfo() = ComponentInfo(
     packageName = packageName,
     name = componentName,
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Fts4
+import androidx.room.FtsOptions
+
+/**
+ * Full text search index of [AppComponentEntity.componentName].
+ *
+ * The table uses app_component as external content, Room keeps it in sync
+ * through triggers on app_component. Component names are split into tokens
+ * on every non-alphanumeric character, e.g. `com.google.firebase.MessagingService`
+ * is indexed as `com`, `google`, `firebase` and `messagingservice`.
+ */
+@Entity(tableName = "app_component_fts")
+@Fts4(contentEntity = AppComponentEntity::class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+data class AppComponentFtsEntity(
+    @ColumnInfo(name = "component_name") val componentName: String,
+)
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.sqlite.db.SupportSQLiteQuery
+import com.merxury.blocker.core.model.ComponentType
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.DISABLED_COMPONENTS_FIRST
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.ENABLED_COMPONENTS_FIRST
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.NONE
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.ComponentSorting.COMPONENT_NAME
+import com.merxury.blocker.core.model.preference.ComponentSorting.PACKAGE_NAME
+import com.merxury.blocker.core.model.preference.SortingOrder
+import com.merxury.blocker.core.model.preference.SortingOrder.DESCENDING
+
+/**
+ * Builds the query behind [AppComponentDao.pagingSource], so that the components are
+ * filtered and sorted by the database before they're split into pages.
+ */
+object ComponentListQuery {
+    // Class name after the last dot, rtrim() strips everything up to the last dot from the right
+    private const val SIMPLE_NAME =
+        "replace(component_name, rtrim(component_name, replace(component_name, '.', '')), '')"
+    private const val ENABLED = "(pm_blocked = 0 AND ifw_blocked = 0)"
+
+    /**
+     * Creates a query for the components of [packageName] of [type].
+     *
+     * @param keywords component names have to contain one of them, ignoring case.
+     * All components are listed if it's empty.
+     */
+    fun paged(
+        packageName: String,
+        type: ComponentType,
+        keywords: List<String>,
+        sorting: ComponentSorting,
+        order: SortingOrder,
+        priority: ComponentShowPriority,
+    ): SupportSQLiteQuery {
+        val sql = StringBuilder("SELECT * FROM app_component WHERE package_name = ? AND type = ?")
+        if (keywords.isNotEmpty()) {
+            sql.append(" AND (")
+            sql.append(keywords.joinToString(" OR ") { "instr(lower(component_name), lower(?)) > 0" })
+            sql.append(")")
+        }
+        val direction = if (order == DESCENDING) "DESC" else "ASC"
+        val byName = when (sorting) {
+            COMPONENT_NAME -> "lower($SIMPLE_NAME) $direction"
+            PACKAGE_NAME -> "lower(component_name) $direction"
+        }
+        val orderBy = when (priority) {
+            NONE -> byName
+            DISABLED_COMPONENTS_FIRST -> "$ENABLED ASC, $byName"
+            ENABLED_COMPONENTS_FIRST -> "$ENABLED DESC, $byName"
+        }
+        // The name is unique within a package, it keeps the order stable between pages
+        sql.append(" ORDER BY $orderBy, component_name")
+        val args = listOf(packageName, type.name) + keywords
+        return SimpleSQLiteQuery(sql.toString(), args.toTypedArray())
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+/**
+ * Builds MATCH expressions for the [AppComponentFtsEntity] index.
+ *
+ * The index tokenizes component names on every non-alphanumeric character,
+ * the same rule is used here to split the user input into tokens.
+ */
+object ComponentSearchQuery {
+    private val tokenRegex = Regex("[\\p{L}\\p{N}]+")
+
+    /**
+     * Creates a query that matches component names containing a token
+     * starting with every token in [query], e.g. `fire mess` matches
+     * `com.google.firebase.messaging.FirebaseMessagingService`.
+     *
+     * @return the MATCH expression, or null if [query] has no token
+     */
+    fun tokenMatch(query: String): String? = tokenRegex.findAll(query)
+        .joinToString(" ") { "${it.value.lowercase()}*" }
+        .ifEmpty { null }
+
+    /**
+     * Creates a query that narrows down the candidates of a substring search.
+     * The candidates still need to be checked with `LIKE`, as the index can
+     * only tell which rows contain the tokens.
+     *
+     * Every token that follows a separator in [keyword] has to be the start of a
+     * token in the component name, and the tokens between two separators have to
+     * be complete tokens, e.g. `google.firebase` turns into the phrase `"firebase*"`.
+     * The first token might be the tail of a token in the component name, so it's
+     * left to the `LIKE` check.
+     *
+     * A keyword without a separator, e.g. `firebase`, is searched as the start of
+     * a token, see [tokenMatch]. It finds `com.google.firebase.FirebaseApp` and
+     * `FirebaseMessagingService`, but not the `base` in `FirebaseApp`.
+     *
+     * @return the MATCH expression, or null if [keyword] has no token,
+     * in which case the index can't help and the table needs to be scanned
+     */
+    fun substringMatch(keyword: String): String? {
+        val tokens = tokenRegex.findAll(keyword).toList()
+        val anchoredTokens = tokens.filter { it.range.first > 0 }
+        if (anchoredTokens.isEmpty()) return tokenMatch(keyword)
+        val endsWithToken = tokens.last().range.last == keyword.lastIndex
+        val phrase = anchoredTokens.joinToString(" ") { it.value.lowercase() }
+        return if (endsWithToken) "\"$phrase*\"" else "\"$phrase\""
+    }
+}
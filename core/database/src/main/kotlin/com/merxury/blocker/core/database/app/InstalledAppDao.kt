@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.database.app
 
+import androidx.paging.PagingSource
 import androidx.room.Dao
 import androidx.room.Delete
 import androidx.room.Insert
@@ -60,6 +61,9 @@ interface InstalledAppDao {
     @Query("SELECT * FROM installed_app")
     fun getInstalledApps(): Flow<List<InstalledAppEntity>>
 
+    @Query("SELECT * FROM installed_app ORDER BY label COLLATE NOCASE")
+    fun pagingSourceOfInstalledApps(): PagingSource<Int, InstalledAppEntity>
+
     @Query("SELECT * FROM installed_app WHERE package_name = :packageName")
     fun getInstalledApp(packageName: String): Flow<InstalledAppEntity?>
 
@@ -19,11 +19,48 @@ package com.merxury.blocker.core.database.app
 import androidx.room.Database
 import androidx.room.RoomDatabase
 import androidx.room.TypeConverters
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.ComponentDetailEntity
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailDao
+import com.merxury.blocker.core.database.componentdetail.UserComponentDetailEntity
+import com.merxury.blocker.core.database.debloater.DebloatableComponentDao
+import com.merxury.blocker.core.database.debloater.DebloatableComponentEntity
+import com.merxury.blocker.core.database.generalrule.GeneralRuleDao
+import com.merxury.blocker.core.database.generalrule.GeneralRuleEntity
+import com.merxury.blocker.core.database.generalrule.GeneralRuleKeywordEntity
+import com.merxury.blocker.core.database.generalrule.RuleMatchDao
+import com.merxury.blocker.core.database.generalrule.RuleMatchEntity
 import com.merxury.blocker.core.database.util.InstantConverter
+import com.merxury.blocker.core.database.util.IntentFilterInfoConverter
+import com.merxury.blocker.core.database.util.ListConverter
 
-@Database(entities = [InstalledAppEntity::class, AppComponentEntity::class], version = 2)
-@TypeConverters(InstantConverter::class)
+/**
+ * Hosts every table of the app, so that apps, components and rules
+ * can be queried together with joins.
+ */
+@Database(
+    entities = [
+        InstalledAppEntity::class,
+        AppComponentEntity::class,
+        AppComponentFtsEntity::class,
+        AppComponentCountEntity::class,
+        GeneralRuleEntity::class,
+        GeneralRuleKeywordEntity::class,
+        RuleMatchEntity::class,
+        DebloatableComponentEntity::class,
+        ComponentDetailEntity::class,
+        UserComponentDetailEntity::class,
+    ],
+    version = 11,
+)
+@TypeConverters(InstantConverter::class, ListConverter::class, IntentFilterInfoConverter::class)
 internal abstract class InstalledAppDatabase : RoomDatabase() {
     abstract fun installedAppDao(): InstalledAppDao
     abstract fun appComponentDao(): AppComponentDao
+    abstract fun appComponentCountDao(): AppComponentCountDao
+    abstract fun generalRuleDao(): GeneralRuleDao
+    abstract fun ruleMatchDao(): RuleMatchDao
+    abstract fun debloatableComponentDao(): DebloatableComponentDao
+    abstract fun componentDetailDao(): ComponentDetailDao
+    abstract fun userComponentDetailDao(): UserComponentDetailDao
 }
@@ -18,12 +18,11 @@ package com.merxury.blocker.core.database.app
 
 import androidx.room.ColumnInfo
 import androidx.room.Entity
-import androidx.room.Index
 import androidx.room.PrimaryKey
 import com.merxury.blocker.core.model.data.InstalledApp
 import kotlin.time.Instant
 
-@Entity(tableName = "installed_app", indices = [Index(value = ["package_name"])])
+@Entity(tableName = "installed_app")
 data class InstalledAppEntity(
     @PrimaryKey
     @ColumnInfo(name = "package_name")
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.app
+
+import android.content.ContentValues
+import android.content.Context
+import android.database.Cursor
+import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteException
+import androidx.room.RoomDatabase
+import androidx.room.migration.Migration
+import androidx.sqlite.db.SupportSQLiteDatabase
+import com.merxury.blocker.core.database.generalrule.RuleMatchTriggers
+
+/**
+ * Adds the full text search index of component names.
+ */
+internal val MIGRATION_2_3 = object : Migration(2, 3) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE VIRTUAL TABLE IF NOT EXISTS `app_component_fts` USING FTS4(" +
+                "`component_name` TEXT NOT NULL, tokenize=unicode61, content=`app_component`)",
+        )
+        listOf("UPDATE", "DELETE").forEach { event ->
+            db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_app_component_fts_BEFORE_$event " +
+                    "BEFORE $event ON `app_component` BEGIN " +
+                    "DELETE FROM `app_component_fts` WHERE `docid`=OLD.`rowid`; END",
+            )
+        }
+        listOf("UPDATE", "INSERT").forEach { event ->
+            db.execSQL(
+                "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_app_component_fts_AFTER_$event " +
+                    "AFTER $event ON `app_component` BEGIN " +
+                    "INSERT INTO `app_component_fts`(`docid`, `component_name`) " +
+                    "VALUES (NEW.`rowid`, NEW.`component_name`); END",
+            )
+        }
+        // Index the components that are already in the database
+        db.execSQL("INSERT INTO `app_component_fts`(`app_component_fts`) VALUES('rebuild')")
+    }
+}
+
+/**
+ * Replaces the index duplicating the primary key of app_component with the
+ * indices used by the lookups by type and by component name, and drops the
+ * index duplicating the primary key of installed_app.
+ */
+internal val MIGRATION_3_4 = object : Migration(3, 4) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL("DROP INDEX IF EXISTS `index_app_component_package_name_component_name`")
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_app_component_package_name_type` " +
+                "ON `app_component` (`package_name`, `type`)",
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_app_component_component_name` " +
+                "ON `app_component` (`component_name`)",
+        )
+        db.execSQL("DROP INDEX IF EXISTS `index_installed_app_package_name`")
+    }
+}
+
+/**
+ * Moves general rules and debloatable components into this database.
+ * The rows are copied from the databases they used to live in, which are deleted by
+ * [LegacyDatabaseCleaner] once the database is opened.
+ */
+internal class Migration4To5(private val context: Context) : Migration(4, 5) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `general_rules` (`id` INTEGER NOT NULL, `name` TEXT NOT NULL, " +
+                "`iconUrl` TEXT, `company` TEXT, `searchKeyword` TEXT NOT NULL, " +
+                "`networkSignature` TEXT NOT NULL, `useRegexSearch` INTEGER, `description` TEXT, " +
+                "`safeToBlock` INTEGER, `sideEffect` TEXT, `website` TEXT, `contributors` TEXT NOT NULL, " +
+                "`matchedAppCount` INTEGER NOT NULL, PRIMARY KEY(`id`))",
+        )
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `debloatable_component` (`package_name` TEXT NOT NULL, " +
+                "`component_name` TEXT NOT NULL, `simple_name` TEXT NOT NULL, `display_name` TEXT NOT NULL, " +
+                "`ifw_blocked` INTEGER NOT NULL, `pm_blocked` INTEGER NOT NULL, `type` TEXT NOT NULL, " +
+                "`exported` INTEGER NOT NULL, `label` TEXT, `intent_filters` TEXT NOT NULL, " +
+                "`permission` TEXT, `foreground_service_type` TEXT, `grant_uri_permissions` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`package_name`, `component_name`))",
+        )
+        copyLegacyTable(db, GENERAL_RULE_DATABASE, "general_rules")
+        copyLegacyTable(db, DEBLOATER_DATABASE, "debloatable_component")
+    }
+
+    // ATTACH can't be used in the transaction of the migration, the rows are read
+    // through a connection of their own. The columns haven't changed since.
+    private fun copyLegacyTable(db: SupportSQLiteDatabase, databaseName: String, table: String) {
+        val file = context.getDatabasePath(databaseName)
+        if (!file.exists()) return
+        try {
+            SQLiteDatabase.openDatabase(file.path, null, SQLiteDatabase.OPEN_READONLY).use { legacyDb ->
+                legacyDb.rawQuery("SELECT * FROM `$table`", null).use { cursor ->
+                    while (cursor.moveToNext()) {
+                        db.insert(table, SQLiteDatabase.CONFLICT_REPLACE, cursor.toContentValues())
+                    }
+                }
+            }
+        } catch (_: SQLiteException) {
+            // An unreadable table is filled again from the rule files and the installed apps
+        }
+    }
+
+    private fun Cursor.toContentValues() = ContentValues(columnCount).apply {
+        for (index in 0 until columnCount) {
+            val column = getColumnName(index)
+            when (getType(index)) {
+                Cursor.FIELD_TYPE_INTEGER -> put(column, getLong(index))
+                Cursor.FIELD_TYPE_FLOAT -> put(column, getDouble(index))
+                Cursor.FIELD_TYPE_STRING -> put(column, getString(index))
+                Cursor.FIELD_TYPE_BLOB -> put(column, getBlob(index))
+                else -> putNull(column)
+            }
+        }
+    }
+
+    companion object {
+        const val GENERAL_RULE_DATABASE = "general_rule"
+        const val DEBLOATER_DATABASE = "share_target"
+    }
+}
+
+/**
+ * Deletes the databases merged by [Migration4To5]. They are only deleted after the
+ * database is opened, as a failed migration is rolled back and tried again.
+ */
+internal class LegacyDatabaseCleaner(private val context: Context) : RoomDatabase.Callback() {
+    override fun onOpen(db: SupportSQLiteDatabase) {
+        listOf(Migration4To5.GENERAL_RULE_DATABASE, Migration4To5.DEBLOATER_DATABASE)
+            .filter { context.getDatabasePath(it).exists() }
+            .forEach { context.deleteDatabase(it) }
+    }
+}
+
+/**
+ * Adds the component counts of every app, see [AppComponentCountTriggers].
+ */
+internal val MIGRATION_5_6 = object : Migration(5, 6) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `app_component_count` (`package_name` TEXT NOT NULL, " +
+                "`type` TEXT NOT NULL, `total` INTEGER NOT NULL, `ifw_blocked` INTEGER NOT NULL, " +
+                "`pm_blocked` INTEGER NOT NULL, `blocked` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`package_name`, `type`))",
+        )
+        COMPONENT_COUNT_TRIGGERS_V6.forEach(db::execSQL)
+        db.execSQL(
+            "INSERT INTO `app_component_count` SELECT `package_name`, `type`, COUNT(*), " +
+                "SUM(`ifw_blocked`), SUM(`pm_blocked`), SUM(`ifw_blocked` OR `pm_blocked`) " +
+                "FROM `app_component` GROUP BY `package_name`, `type`",
+        )
+    }
+}
+
+/**
+ * Adds the matches between rules and components, see [RuleMatchTriggers].
+ */
+internal val MIGRATION_6_7 = object : Migration(6, 7) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `general_rule_keyword` (`rule_id` INTEGER NOT NULL, " +
+                "`keyword` TEXT NOT NULL, PRIMARY KEY(`rule_id`, `keyword`))",
+        )
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `rule_match` (`rule_id` INTEGER NOT NULL, " +
+                "`package_name` TEXT NOT NULL, `component_name` TEXT NOT NULL, " +
+                "PRIMARY KEY(`rule_id`, `package_name`, `component_name`))",
+        )
+        db.execSQL(
+            "CREATE INDEX IF NOT EXISTS `index_rule_match_package_name_component_name` " +
+                "ON `rule_match` (`package_name`, `component_name`)",
+        )
+        RULE_MATCH_TRIGGERS_V7.forEach(db::execSQL)
+    }
+}
+
+/**
+ * Drops the triggers matching components against keywords,
+ * the matches are added by the data layer now.
+ */
+internal val MIGRATION_7_8 = object : Migration(7, 8) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        listOf(
+            "rule_match_component_AFTER_INSERT",
+            "rule_match_component_AFTER_UPDATE",
+            "rule_match_keyword_AFTER_INSERT",
+        ).forEach { trigger ->
+            db.execSQL("DROP TRIGGER IF EXISTS `$trigger`")
+        }
+    }
+}
+
+/**
+ * Adds the regex flag to the rule keywords, and updates the triggers
+ * to leave the matches of regular expressions to the data layer.
+ */
+internal val MIGRATION_8_9 = object : Migration(8, 9) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "ALTER TABLE `general_rule_keyword` ADD COLUMN `regex` INTEGER NOT NULL DEFAULT 0",
+        )
+        listOf(
+            "rule_match_keyword_AFTER_DELETE",
+            "rule_match_rule_AFTER_DELETE",
+        ).forEach { trigger ->
+            db.execSQL("DROP TRIGGER IF EXISTS `$trigger`")
+        }
+        RULE_MATCH_TRIGGERS_V9.forEach(db::execSQL)
+    }
+}
+
+/**
+ * Adds the packed component details of the rule repository.
+ * The table starts empty, it is filled from the rule files by the data layer.
+ */
+internal val MIGRATION_9_10 = object : Migration(9, 10) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `component_detail` (`language` TEXT NOT NULL, " +
+                "`name` TEXT NOT NULL, `sdk_name` TEXT, `description` TEXT, `disable_effect` TEXT, " +
+                "`contributor` TEXT, `added_version` TEXT, `removed_version` TEXT, " +
+                "`recommend_to_block` INTEGER NOT NULL, `last_update_time` INTEGER, " +
+                "PRIMARY KEY(`language`, `name`))",
+        )
+    }
+}
+
+/**
+ * Adds the component details edited by the user.
+ */
+internal val MIGRATION_10_11 = object : Migration(10, 11) {
+    override fun migrate(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TABLE IF NOT EXISTS `user_component_detail` (`language` TEXT NOT NULL, " +
+                "`name` TEXT NOT NULL, PRIMARY KEY(`language`, `name`))",
+        )
+    }
+}
+
+// The triggers as they were created by each database version. The triggers of the current
+// version are created by AppComponentCountTriggers and RuleMatchTriggers, which change
+// with later versions, so the migrations keep their own copy.
+
+private val COMPONENT_COUNT_TRIGGERS_V6 = listOf(
+    "CREATE TRIGGER IF NOT EXISTS `app_component_count_BEFORE_INSERT` BEFORE INSERT ON " +
+        "`app_component` BEGIN UPDATE `app_component_count` SET `total` = `total` - 1, " +
+        "`ifw_blocked` = `ifw_blocked` - (SELECT `ifw_blocked` FROM `app_component` WHERE " +
+        "`package_name` = NEW.`package_name` AND `component_name` = NEW.`component_name`), " +
+        "`pm_blocked` = `pm_blocked` - (SELECT `pm_blocked` FROM `app_component` WHERE " +
+        "`package_name` = NEW.`package_name` AND `component_name` = NEW.`component_name`), " +
+        "`blocked` = `blocked` - (SELECT (`ifw_blocked` OR `pm_blocked`) FROM `app_component` " +
+        "WHERE `package_name` = NEW.`package_name` AND `component_name` = NEW.`component_name`) " +
+        "WHERE `package_name` = NEW.`package_name` AND `type` = (SELECT `type` FROM " +
+        "`app_component` WHERE `package_name` = NEW.`package_name` AND `component_name` = " +
+        "NEW.`component_name`); END",
+    "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_INSERT` AFTER INSERT ON " +
+        "`app_component` BEGIN INSERT INTO `app_component_count` SELECT NEW.`package_name`, " +
+        "NEW.`type`, 0, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM `app_component_count` WHERE " +
+        "`package_name` = NEW.`package_name` AND `type` = NEW.`type`); UPDATE " +
+        "`app_component_count` SET `total` = `total` + 1, `ifw_blocked` = `ifw_blocked` + " +
+        "NEW.`ifw_blocked`, `pm_blocked` = `pm_blocked` + NEW.`pm_blocked`, `blocked` = `blocked` " +
+        "+ (NEW.`ifw_blocked` OR NEW.`pm_blocked`) WHERE `package_name` = NEW.`package_name` AND " +
+        "`type` = NEW.`type`; DELETE FROM `app_component_count` WHERE `package_name` = " +
+        "NEW.`package_name` AND `total` = 0; END",
+    "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_UPDATE` AFTER UPDATE ON " +
+        "`app_component` BEGIN UPDATE `app_component_count` SET `total` = `total` - 1, " +
+        "`ifw_blocked` = `ifw_blocked` - OLD.`ifw_blocked`, `pm_blocked` = `pm_blocked` - " +
+        "OLD.`pm_blocked`, `blocked` = `blocked` - (OLD.`ifw_blocked` OR OLD.`pm_blocked`) WHERE " +
+        "`package_name` = OLD.`package_name` AND `type` = OLD.`type`; INSERT INTO " +
+        "`app_component_count` SELECT NEW.`package_name`, NEW.`type`, 0, 0, 0, 0 WHERE NOT EXISTS " +
+        "(SELECT 1 FROM `app_component_count` WHERE `package_name` = NEW.`package_name` AND " +
+        "`type` = NEW.`type`); UPDATE `app_component_count` SET `total` = `total` + 1, " +
+        "`ifw_blocked` = `ifw_blocked` + NEW.`ifw_blocked`, `pm_blocked` = `pm_blocked` + " +
+        "NEW.`pm_blocked`, `blocked` = `blocked` + (NEW.`ifw_blocked` OR NEW.`pm_blocked`) WHERE " +
+        "`package_name` = NEW.`package_name` AND `type` = NEW.`type`; DELETE FROM " +
+        "`app_component_count` WHERE `package_name` = OLD.`package_name` AND `total` = 0; END",
+    "CREATE TRIGGER IF NOT EXISTS `app_component_count_AFTER_DELETE` AFTER DELETE ON " +
+        "`app_component` BEGIN UPDATE `app_component_count` SET `total` = `total` - 1, " +
+        "`ifw_blocked` = `ifw_blocked` - OLD.`ifw_blocked`, `pm_blocked` = `pm_blocked` - " +
+        "OLD.`pm_blocked`, `blocked` = `blocked` - (OLD.`ifw_blocked` OR OLD.`pm_blocked`) WHERE " +
+        "`package_name` = OLD.`package_name` AND `type` = OLD.`type`; DELETE FROM " +
+        "`app_component_count` WHERE `package_name` = OLD.`package_name` AND `total` = 0; END",
+)
+
+private val RULE_MATCH_TRIGGERS_V7 = listOf(
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_component_AFTER_INSERT` AFTER INSERT ON " +
+        "`app_component` BEGIN INSERT INTO `rule_match` SELECT DISTINCT `rule_id`, " +
+        "NEW.`package_name`, NEW.`component_name` FROM `general_rule_keyword` WHERE " +
+        "instr(lower(NEW.`component_name`), lower(`keyword`)) > 0 AND NOT EXISTS (SELECT 1 FROM " +
+        "`rule_match` WHERE `rule_match`.`rule_id` = `general_rule_keyword`.`rule_id` AND " +
+        "`rule_match`.`package_name` = NEW.`package_name` AND `rule_match`.`component_name` = " +
+        "NEW.`component_name`); END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_component_AFTER_UPDATE` AFTER UPDATE OF " +
+        "`package_name`, `component_name` ON `app_component` WHEN OLD.`package_name` != " +
+        "NEW.`package_name` OR OLD.`component_name` != NEW.`component_name` BEGIN DELETE FROM " +
+        "`rule_match` WHERE `package_name` = OLD.`package_name` AND `component_name` = " +
+        "OLD.`component_name`; INSERT INTO `rule_match` SELECT DISTINCT `rule_id`, " +
+        "NEW.`package_name`, NEW.`component_name` FROM `general_rule_keyword` WHERE " +
+        "instr(lower(NEW.`component_name`), lower(`keyword`)) > 0 AND NOT EXISTS (SELECT 1 FROM " +
+        "`rule_match` WHERE `rule_match`.`rule_id` = `general_rule_keyword`.`rule_id` AND " +
+        "`rule_match`.`package_name` = NEW.`package_name` AND `rule_match`.`component_name` = " +
+        "NEW.`component_name`); END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_component_AFTER_DELETE` AFTER DELETE ON " +
+        "`app_component` BEGIN DELETE FROM `rule_match` WHERE `package_name` = OLD.`package_name` " +
+        "AND `component_name` = OLD.`component_name`; END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_keyword_AFTER_INSERT` AFTER INSERT ON " +
+        "`general_rule_keyword` BEGIN INSERT INTO `rule_match` SELECT NEW.`rule_id`, " +
+        "`package_name`, `component_name` FROM `app_component` WHERE " +
+        "instr(lower(`component_name`), lower(NEW.`keyword`)) > 0 AND NOT EXISTS (SELECT 1 FROM " +
+        "`rule_match` WHERE `rule_match`.`rule_id` = NEW.`rule_id` AND " +
+        "`rule_match`.`package_name` = `app_component`.`package_name` AND " +
+        "`rule_match`.`component_name` = `app_component`.`component_name`); END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_keyword_AFTER_DELETE` AFTER DELETE ON " +
+        "`general_rule_keyword` BEGIN DELETE FROM `rule_match` WHERE `rule_id` = OLD.`rule_id` " +
+        "AND instr(lower(`component_name`), lower(OLD.`keyword`)) > 0 AND NOT EXISTS (SELECT 1 " +
+        "FROM `general_rule_keyword` WHERE `general_rule_keyword`.`rule_id` = OLD.`rule_id` AND " +
+        "instr(lower(`rule_match`.`component_name`), lower(`general_rule_keyword`.`keyword`)) > " +
+        "0); END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_rule_AFTER_DELETE` AFTER DELETE ON " +
+        "`general_rules` BEGIN DELETE FROM `general_rule_keyword` WHERE `rule_id` = OLD.`id`; END",
+)
+
+private val RULE_MATCH_TRIGGERS_V9 = listOf(
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_keyword_AFTER_DELETE` AFTER DELETE ON " +
+        "`general_rule_keyword` WHEN OLD.`regex` = 0 BEGIN DELETE FROM `rule_match` WHERE " +
+        "`rule_id` = OLD.`rule_id` AND instr(lower(`component_name`), lower(OLD.`keyword`)) > 0 " +
+        "AND NOT EXISTS (SELECT 1 FROM `general_rule_keyword` WHERE " +
+        "`general_rule_keyword`.`rule_id` = OLD.`rule_id` AND `general_rule_keyword`.`regex` = 0 " +
+        "AND instr(lower(`rule_match`.`component_name`), lower(`general_rule_keyword`.`keyword`)) " +
+        "> 0); END",
+    "CREATE TRIGGER IF NOT EXISTS `rule_match_rule_AFTER_DELETE` AFTER DELETE ON " +
+        "`general_rules` BEGIN DELETE FROM `rule_match` WHERE `rule_id` = OLD.`id`; DELETE FROM " +
+        "`general_rule_keyword` WHERE `rule_id` = OLD.`id`; END",
+)
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.componentdetail
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+
+@Dao
+interface ComponentDetailDao {
+    @Query("SELECT * FROM component_detail WHERE language = :language AND name = :name")
+    suspend fun getByName(language: String, name: String): ComponentDetailEntity?
+
+    /**
+     * Details of [names] in [language]. SQLite limits the number of parameters,
+     * callers need to split long lists.
+     */
+    @Query("SELECT * FROM component_detail WHERE language = :language AND name IN (:names)")
+    suspend fun getByNames(language: String, names: List<String>): List<ComponentDetailEntity>
+
+    @Query("SELECT EXISTS(SELECT 1 FROM component_detail WHERE language = :language)")
+    suspend fun hasLanguage(language: String): Boolean
+
+    @Query("DELETE FROM component_detail WHERE language = :language")
+    suspend fun deleteByLanguage(language: String)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertAll(entities: List<ComponentDetailEntity>)
+
+    /**
+     * Replaces the details of [language] with [entities] in one transaction,
+     * so that lookups never see a partially built index.
+     */
+    @Transaction
+    suspend fun replaceLanguage(language: String, entities: List<ComponentDetailEntity>) {
+        deleteByLanguage(language)
+        insertAll(entities)
+    }
+}
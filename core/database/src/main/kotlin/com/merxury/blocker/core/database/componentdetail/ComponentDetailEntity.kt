@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.componentdetail
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import com.merxury.blocker.core.model.data.ComponentDetail
+import kotlin.time.Instant
+
+/**
+ * A component detail of the rule repository, one row per component and language.
+ * The rule repository stores every detail in its own JSON file, they are packed
+ * into this table so that a lookup doesn't need to open a file.
+ */
+@Entity(
+    primaryKeys = ["language", "name"],
+    tableName = "component_detail",
+)
+data class ComponentDetailEntity(
+    val language: String,
+    val name: String,
+    @ColumnInfo(name = "sdk_name") val sdkName: String? = null,
+    val description: String? = null,
+    @ColumnInfo(name = "disable_effect") val disableEffect: String? = null,
+    val contributor: String? = null,
+    @ColumnInfo(name = "added_version") val addedVersion: String? = null,
+    @ColumnInfo(name = "removed_version") val removedVersion: String? = null,
+    @ColumnInfo(name = "recommend_to_block") val recommendToBlock: Boolean = false,
+    @ColumnInfo(name = "last_update_time") val lastUpdateTime: Instant? = null,
+)
+
+fun ComponentDetailEntity.asExternalModel() = ComponentDetail(
+    name = name,
+    sdkName = sdkName,
+    description = description,
+    disableEffect = disableEffect,
+    contributor = contributor,
+    addedVersion = addedVersion,
+    removedVersion = removedVersion,
+    recommendToBlock = recommendToBlock,
+    lastUpdateTime = lastUpdateTime,
+)
+
+fun ComponentDetail.asEntity(language: String) = ComponentDetailEntity(
+    language = language,
+    name = name,
+    sdkName = sdkName,
+    description = description,
+    disableEffect = disableEffect,
+    contributor = contributor,
+    addedVersion = addedVersion,
+    removedVersion = removedVersion,
+    recommendToBlock = recommendToBlock,
+    lastUpdateTime = lastUpdateTime,
+)
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.componentdetail
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+
+@Dao
+interface UserComponentDetailDao {
+    /**
+     * Names of the components of [packageName] that have a user generated detail in [language].
+     */
+    @Query(
+        "SELECT u.name FROM user_component_detail AS u " +
+            "INNER JOIN app_component AS c ON c.component_name = u.name " +
+            "WHERE u.language = :language AND c.package_name = :packageName",
+    )
+    suspend fun getNamesByPackageName(language: String, packageName: String): List<String>
+
+    @Query(
+        "SELECT EXISTS(SELECT 1 FROM user_component_detail AS u " +
+            "INNER JOIN app_component AS c ON c.component_name = u.name " +
+            "WHERE u.language = :language AND c.package_name = :packageName)",
+    )
+    suspend fun hasPackageName(language: String, packageName: String): Boolean
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insert(entity: UserComponentDetailEntity)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertAll(entities: List<UserComponentDetailEntity>)
+
+    @Query("DELETE FROM user_component_detail WHERE language = :language")
+    suspend fun deleteByLanguage(language: String)
+
+    /**
+     * Replaces the index of [language] with [entities] in one transaction.
+     */
+    @Transaction
+    suspend fun replaceLanguage(language: String, entities: List<UserComponentDetailEntity>) {
+        deleteByLanguage(language)
+        insertAll(entities)
+    }
+}
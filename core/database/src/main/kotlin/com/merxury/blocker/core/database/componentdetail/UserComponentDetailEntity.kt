@@ -14,15 +14,20 @@
  * limitations under the License.
  */
 
-package com.merxury.blocker.core.database.debloater
+package com.merxury.blocker.core.database.componentdetail
 
-import androidx.room.Database
-import androidx.room.RoomDatabase
-import androidx.room.TypeConverters
-import com.merxury.blocker.core.database.util.IntentFilterInfoConverter
+import androidx.room.Entity
 
-@Database(entities = [DebloatableComponentEntity::class], version = 3)
-@TypeConverters(IntentFilterInfoConverter::class)
-internal abstract class DebloaterDatabase : RoomDatabase() {
-    abstract fun DebloatableComponentDao(): DebloatableComponentDao
-}
+/**
+ * Index of the component details written by the user, one row per component and language.
+ * The details themselves stay in their JSON files, the index lets lookups by package
+ * join with app_component instead of walking the whole folder.
+ */
+@Entity(
+    primaryKeys = ["language", "name"],
+    tableName = "user_component_detail",
+)
+data class UserComponentDetailEntity(
+    val language: String,
+    val name: String,
+)
@@ -18,7 +18,6 @@ package com.merxury.blocker.core.database.debloater
 
 import androidx.room.ColumnInfo
 import androidx.room.Entity
-import androidx.room.Index
 import androidx.room.TypeConverters
 import com.merxury.blocker.core.database.util.IntentFilterInfoConverter
 import com.merxury.blocker.core.model.ComponentType
@@ -28,7 +27,6 @@ import com.merxury.blocker.core.model.data.IntentFilterInfo
 @Entity(
     primaryKeys = ["package_name", "component_name"],
     tableName = "debloatable_component",
-    indices = [Index(value = ["package_name", "component_name"])],
 )
 @TypeConverters(IntentFilterInfoConverter::class)
 data class DebloatableComponentEntity(
@@ -59,6 +59,12 @@ interface GeneralRuleDao {
     )
     suspend fun deleteGeneralRules(ids: List<Int>)
 
+    /**
+     * Adds [delta] to the matched app count of the rules in [ids], without going below 0.
+     */
+    @Query("UPDATE general_rules SET matchedAppCount = MAX(matchedAppCount + :delta, 0) WHERE id IN (:ids)")
+    suspend fun adjustMatchedAppCount(ids: List<Int>, delta: Int)
+
     @Upsert
     suspend fun upsertGeneralRules(entities: List<GeneralRuleEntity>)
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.generalrule
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+
+/**
+ * A search keyword of a [GeneralRuleEntity], one row per keyword.
+ * The keywords are stored as a JSON list in general_rules, this table makes
+ * them available to the [RuleMatchTriggers].
+ *
+ * [regex] is true if the keyword is a regular expression, copied from
+ * [GeneralRuleEntity.useRegexSearch].
+ */
+@Entity(
+    primaryKeys = ["rule_id", "keyword"],
+    tableName = "general_rule_keyword",
+)
+data class GeneralRuleKeywordEntity(
+    @ColumnInfo(name = "rule_id") val ruleId: Int,
+    val keyword: String,
+    @ColumnInfo(defaultValue = "0") val regex: Boolean = false,
+)
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.generalrule
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.MapColumn
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import com.merxury.blocker.core.database.app.AppComponentEntity
+import kotlinx.coroutines.flow.Flow
+
+@Dao
+interface RuleMatchDao {
+    @Query("SELECT * FROM general_rule_keyword WHERE rule_id = :ruleId")
+    suspend fun getKeywords(ruleId: Int): List<GeneralRuleKeywordEntity>
+
+    @Query("SELECT * FROM general_rule_keyword ORDER BY rule_id, keyword")
+    suspend fun getAllKeywords(): List<GeneralRuleKeywordEntity>
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    suspend fun insertKeywords(keywords: List<GeneralRuleKeywordEntity>)
+
+    @Query("DELETE FROM general_rule_keyword WHERE rule_id = :ruleId AND keyword NOT IN (:keywords)")
+    suspend fun deleteKeywordsExcept(ruleId: Int, keywords: List<String>)
+
+    /**
+     * Replaces the keywords of a rule. The matches of the removed keywords are
+     * removed by [RuleMatchTriggers], the added keywords need to be matched by the caller.
+     */
+    @Transaction
+    suspend fun updateKeywords(ruleId: Int, keywords: List<String>) {
+        deleteKeywordsExcept(ruleId, keywords)
+        insertKeywords(keywords.map { GeneralRuleKeywordEntity(ruleId, it) })
+    }
+
+    @Query("DELETE FROM general_rule_keyword WHERE rule_id = :ruleId")
+    suspend fun deleteKeywords(ruleId: Int)
+
+    @Query("DELETE FROM rule_match WHERE rule_id = :ruleId")
+    suspend fun deleteMatches(ruleId: Int)
+
+    /**
+     * Replaces the keywords of a rule and removes all of its matches,
+     * the keywords need to be matched again by the caller.
+     * Used for regular expressions, as their matches can't be told apart.
+     */
+    @Transaction
+    suspend fun replaceKeywords(ruleId: Int, keywords: List<GeneralRuleKeywordEntity>) {
+        deleteMatches(ruleId)
+        deleteKeywords(ruleId)
+        insertKeywords(keywords)
+    }
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    suspend fun insertMatches(matches: List<RuleMatchEntity>)
+
+    /**
+     * Ids of the rules matching any component of an app.
+     */
+    @Query("SELECT DISTINCT rule_id FROM rule_match WHERE package_name = :packageName")
+    suspend fun getMatchedRuleIds(packageName: String): List<Int>
+
+    /**
+     * Number of apps with a component matching the rule.
+     *
+     * @param includeSystemApps false to skip system apps
+     */
+    @Query(
+        "SELECT COUNT(DISTINCT rule_match.package_name) FROM rule_match " +
+            "JOIN installed_app ON installed_app.package_name = rule_match.package_name " +
+            "WHERE rule_match.rule_id = :ruleId " +
+            "AND (:includeSystemApps OR installed_app.is_system = 0)",
+    )
+    fun getMatchedAppCount(ruleId: Int, includeSystemApps: Boolean): Flow<Int>
+
+    /**
+     * Components matching any rule, each component is listed once.
+     *
+     * @param includeSystemApps false to skip the components of system apps
+     */
+    @Transaction
+    @Query(
+        "SELECT app_component.* FROM " +
+            "(SELECT DISTINCT package_name, component_name FROM rule_match) AS matched " +
+            "JOIN app_component ON app_component.package_name = matched.package_name " +
+            "AND app_component.component_name = matched.component_name " +
+            "JOIN installed_app ON installed_app.package_name = app_component.package_name " +
+            "WHERE (:includeSystemApps OR installed_app.is_system = 0)",
+    )
+    fun getMatchedComponents(includeSystemApps: Boolean): Flow<List<AppComponentEntity>>
+
+    /**
+     * Components of an app matching a rule, grouped by rule id.
+     */
+    @Transaction
+    @Query(
+        "SELECT rule_match.rule_id, app_component.* FROM rule_match " +
+            "JOIN app_component ON app_component.package_name = rule_match.package_name " +
+            "AND app_component.component_name = rule_match.component_name " +
+            "WHERE rule_match.package_name = :packageName",
+    )
+    fun getMatchedComponents(
+        packageName: String,
+    ): Flow<Map<@MapColumn(columnName = "rule_id") Int, List<AppComponentEntity>>>
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.generalrule
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+
+/**
+ * A component whose name contains one of the keywords of a rule.
+ * The table is maintained by triggers, see [RuleMatchTriggers].
+ *
+ * The primary key serves the lookups by rule, the index serves the lookups
+ * by app and the removal of the matches of a component.
+ */
+@Entity(
+    primaryKeys = ["rule_id", "package_name", "component_name"],
+    tableName = "rule_match",
+    indices = [
+        Index(value = ["package_name", "component_name"]),
+    ],
+)
+data class RuleMatchEntity(
+    @ColumnInfo(name = "rule_id") val ruleId: Int,
+    @ColumnInfo(name = "package_name") val packageName: String,
+    @ColumnInfo(name = "component_name") val componentName: String,
+)
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database.generalrule
+
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Removes the matches of deleted components, keywords and rules from rule_match.
+ *
+ * The matches are added by the data layer, which checks the component names against
+ * all keywords in one pass. Checking them here would compare every inserted component
+ * with every keyword, and every inserted keyword with every component.
+ */
+internal object RuleMatchTriggers : RoomDatabase.Callback() {
+    override fun onCreate(db: SupportSQLiteDatabase) {
+        create(db)
+    }
+
+    override fun onDestructiveMigration(db: SupportSQLiteDatabase) {
+        create(db)
+    }
+
+    fun create(db: SupportSQLiteDatabase) {
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `rule_match_component_AFTER_DELETE` " +
+                "AFTER DELETE ON `app_component` BEGIN " +
+                "DELETE FROM `rule_match` WHERE `package_name` = OLD.`package_name` " +
+                "AND `component_name` = OLD.`component_name`; END",
+        )
+        // Keep the matches of the components that still contain another keyword of the rule.
+        // The matches of a regular expression can't be told apart, they are removed by the data layer
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `rule_match_keyword_AFTER_DELETE` " +
+                "AFTER DELETE ON `general_rule_keyword` WHEN OLD.`regex` = 0 BEGIN " +
+                "DELETE FROM `rule_match` WHERE `rule_id` = OLD.`rule_id` " +
+                "AND ${contains("`component_name`", "OLD.`keyword`")} " +
+                "AND NOT EXISTS (SELECT 1 FROM `general_rule_keyword` " +
+                "WHERE `general_rule_keyword`.`rule_id` = OLD.`rule_id` " +
+                "AND `general_rule_keyword`.`regex` = 0 " +
+                "AND ${contains("`rule_match`.`component_name`", "`general_rule_keyword`.`keyword`")}); END",
+        )
+        db.execSQL(
+            "CREATE TRIGGER IF NOT EXISTS `rule_match_rule_AFTER_DELETE` " +
+                "AFTER DELETE ON `general_rules` BEGIN " +
+                "DELETE FROM `rule_match` WHERE `rule_id` = OLD.`id`; " +
+                "DELETE FROM `general_rule_keyword` WHERE `rule_id` = OLD.`id`; END",
+        )
+    }
+
+    // Unlike LIKE, instr() doesn't treat '_' and '%' in the keyword as wildcards
+    private fun contains(value: String, keyword: String) = "instr(lower($value), lower($keyword)) > 0"
+}
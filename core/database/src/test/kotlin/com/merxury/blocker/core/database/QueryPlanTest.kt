@@ -0,0 +1,288 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.database
+
+import android.content.Context
+import androidx.paging.PagingSource
+import androidx.paging.PagingSource.LoadParams
+import androidx.room.Room
+import androidx.sqlite.db.SimpleSQLiteQuery
+import androidx.test.core.app.ApplicationProvider
+import com.merxury.blocker.core.database.app.AppComponentCountTriggers
+import com.merxury.blocker.core.database.app.ComponentListQuery
+import com.merxury.blocker.core.database.app.ComponentSearchQuery
+import com.merxury.blocker.core.database.app.InstalledAppDatabase
+import com.merxury.blocker.core.database.generalrule.RuleMatchTriggers
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.DISABLED_COMPONENTS_FIRST
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.SortingOrder.DESCENDING
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executor
+import kotlin.test.assertTrue
+import kotlin.test.fail
+
+/**
+ * Runs every DAO query and checks its plan with `EXPLAIN QUERY PLAN`.
+ * A query that scans a table fails the test, unless it's expected to
+ * read the whole table, e.g. loading all rows or a `LIKE '%keyword%'` search.
+ */
+@RunWith(RobolectricTestRunner::class)
+class QueryPlanTest {
+    private val statements = CopyOnWriteArrayList<Statement>()
+    private lateinit var db: InstalledAppDatabase
+
+    @Before
+    fun createDb() {
+        db = Room.inMemoryDatabaseBuilder(
+            ApplicationProvider.getApplicationContext<Context>(),
+            InstalledAppDatabase::class.java,
+        )
+            .addCallback(AppComponentCountTriggers)
+            .addCallback(RuleMatchTriggers)
+            .setQueryCallback({ sql, args -> statements.add(Statement(sql, args)) }, Executor { it.run() })
+            .build()
+    }
+
+    @After
+    fun closeDb() {
+        db.close()
+    }
+
+    @Test
+    fun installedAppDao_lookupsUseIndex() = runTest {
+        val dao = db.installedAppDao()
+        assertIndexed { dao.getByPackageName(PACKAGE_NAME) }
+        assertIndexed { dao.getInstalledApp(PACKAGE_NAME).first() }
+        assertIndexed { dao.deleteByPackageName(PACKAGE_NAME) }
+        assertScan { dao.getAll() }
+        assertScan { dao.getInstalledApps().first() }
+        assertScan { dao.getCount() }
+        assertScan { dao.getByPackageNameOrLabelContains(KEYWORD).first() }
+        assertScan { dao.pagingSourceOfInstalledApps().loadFirstPage() }
+    }
+
+    @Test
+    fun appComponentDao_lookupsUseIndex() = runTest {
+        val dao = db.appComponentDao()
+        assertIndexed { dao.getByPackageName(PACKAGE_NAME).first() }
+        assertIndexed {
+            dao.getByPackageNameAndComponentName(PACKAGE_NAME, COMPONENT_NAME).first()
+        }
+        assertIndexed { dao.getByPackageNameAndType(PACKAGE_NAME, ACTIVITY).first() }
+        assertIndexed { dao.getByName(COMPONENT_NAME).first() }
+        assertIndexed { dao.pagingSourceByPackageName(PACKAGE_NAME).loadFirstPage() }
+        assertIndexed { dao.pagingSourceByPackageNameAndType(PACKAGE_NAME, ACTIVITY).loadFirstPage() }
+        assertIndexed { dao.deleteByPackageName(PACKAGE_NAME) }
+        assertIndexed {
+            val query = ComponentListQuery.paged(
+                packageName = PACKAGE_NAME,
+                type = ACTIVITY,
+                keywords = listOf(KEYWORD, COMPONENT_NAME),
+                sorting = ComponentSorting.COMPONENT_NAME,
+                order = DESCENDING,
+                priority = DISABLED_COMPONENTS_FIRST,
+            )
+            dao.pagingSource(query).loadFirstPage()
+        }
+        assertIndexed {
+            dao.searchByToken(requireNotNull(ComponentSearchQuery.tokenMatch(KEYWORD))).first()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(COMPONENT_NAME))
+            dao.searchBySubstring(matchQuery, COMPONENT_NAME).first()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(COMPONENT_NAME))
+            dao.searchBySubstringGroupByApp(matchQuery, COMPONENT_NAME, includeSystemApps = false).first()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(COMPONENT_NAME))
+            dao.pagingSourceBySubstring(matchQuery, COMPONENT_NAME).loadFirstPage()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(KEYWORD))
+            dao.searchBySubstring(matchQuery, KEYWORD).first()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(KEYWORD))
+            dao.searchBySubstringGroupByApp(matchQuery, KEYWORD, includeSystemApps = false).first()
+        }
+        assertIndexed {
+            val matchQuery = requireNotNull(ComponentSearchQuery.substringMatch(KEYWORD))
+            dao.pagingSourceBySubstring(matchQuery, KEYWORD).loadFirstPage()
+        }
+        assertScan { dao.searchByKeyword(KEYWORD).first() }
+        assertScan { dao.pagingSourceByKeyword(KEYWORD).loadFirstPage() }
+        assertScan { dao.searchByKeywordGroupByApp(KEYWORD, includeSystemApps = false).first() }
+        assertScan { dao.getAllKeys() }
+        assertScan { dao.deleteAll() }
+    }
+
+    @Test
+    fun appComponentCountDao_lookupsUseIndex() = runTest {
+        val dao = db.appComponentCountDao()
+        assertIndexed { dao.getByPackageName(PACKAGE_NAME).first() }
+        assertIndexed { dao.getByPackageNameAndType(PACKAGE_NAME, ACTIVITY) }
+        assertScan { dao.getSummaries().first() }
+    }
+
+    @Test
+    fun generalRuleDao_lookupsUseIndex() = runTest {
+        val dao = db.generalRuleDao()
+        assertIndexed { dao.getGeneralRuleEntity(1).first() }
+        assertIndexed { dao.deleteGeneralRules(listOf(1, 2, 3)) }
+        assertIndexed { dao.adjustMatchedAppCount(listOf(1, 2, 3), delta = 1) }
+        assertScan { dao.getGeneralRuleEntities().first() }
+        assertScan { dao.searchGeneralRule(KEYWORD).first() }
+        assertScan { dao.deleteAll() }
+    }
+
+    @Test
+    fun ruleMatchDao_lookupsUseIndex() = runTest {
+        val dao = db.ruleMatchDao()
+        assertIndexed { dao.getKeywords(1) }
+        assertIndexed { dao.deleteKeywordsExcept(1, listOf(KEYWORD)) }
+        assertIndexed { dao.deleteKeywords(1) }
+        assertIndexed { dao.deleteMatches(1) }
+        assertIndexed { dao.getMatchedAppCount(1, includeSystemApps = false).first() }
+        assertIndexed { dao.getMatchedComponents(PACKAGE_NAME).first() }
+        assertIndexed { dao.getMatchedRuleIds(PACKAGE_NAME) }
+        assertScan { dao.getMatchedComponents(includeSystemApps = false).first() }
+        assertScan { dao.getAllKeywords() }
+    }
+
+    @Test
+    fun componentDetailDao_lookupsUseIndex() = runTest {
+        val dao = db.componentDetailDao()
+        assertIndexed { dao.getByName(LANGUAGE, COMPONENT_NAME) }
+        assertIndexed { dao.getByNames(LANGUAGE, listOf(COMPONENT_NAME, KEYWORD)) }
+        assertIndexed { dao.hasLanguage(LANGUAGE) }
+        assertIndexed { dao.deleteByLanguage(LANGUAGE) }
+    }
+
+    @Test
+    fun userComponentDetailDao_lookupsUseIndex() = runTest {
+        val dao = db.userComponentDetailDao()
+        assertIndexed { dao.getNamesByPackageName(LANGUAGE, PACKAGE_NAME) }
+        assertIndexed { dao.hasPackageName(LANGUAGE, PACKAGE_NAME) }
+        assertIndexed { dao.deleteByLanguage(LANGUAGE) }
+    }
+
+    @Test
+    fun debloatableComponentDao_lookupsUseIndex() = runTest {
+        val dao = db.debloatableComponentDao()
+        assertIndexed { dao.getByPackageName(PACKAGE_NAME).first() }
+        assertIndexed {
+            dao.getByPackageNameAndComponentName(PACKAGE_NAME, COMPONENT_NAME).first()
+        }
+        assertIndexed { dao.deleteByPackageName(PACKAGE_NAME) }
+        assertScan { dao.getAll().first() }
+        assertScan { dao.deleteAll() }
+    }
+
+    private suspend fun assertIndexed(query: suspend () -> Unit) {
+        val plans = queryPlans(query)
+        plans.forEach { (statement, plan) ->
+            if (plan.any { it.isTableScan() }) {
+                fail("${statement.sql} scans the table:\n${plan.joinToString("\n")}")
+            }
+        }
+    }
+
+    private suspend fun assertScan(query: suspend () -> Unit) {
+        val plans = queryPlans(query)
+        assertTrue(plans.isNotEmpty(), "No statement was captured")
+        // A bare DELETE is optimized by SQLite to truncate the table, it has no plan
+        plans.filter { (_, plan) -> plan.isNotEmpty() }.forEach { (statement, plan) ->
+            assertTrue(
+                plan.any { it.isTableScan() },
+                "${statement.sql} is expected to scan the table, " +
+                    "remove it from the scan list:\n${plan.joinToString("\n")}",
+            )
+        }
+    }
+
+    /**
+     * Runs [query] and returns the plans of the statements it issued on the app tables.
+     */
+    private suspend fun queryPlans(
+        query: suspend () -> Unit,
+    ): List<Pair<Statement, List<String>>> {
+        statements.clear()
+        query()
+        val captured = statements.filter { it.isAppQuery() }
+        statements.clear()
+        return captured.map { statement ->
+            statement to explain(statement)
+        }
+    }
+
+    private fun explain(statement: Statement): List<String> {
+        val explainQuery = SimpleSQLiteQuery(
+            "EXPLAIN QUERY PLAN ${statement.sql}",
+            statement.args.toTypedArray(),
+        )
+        return db.openHelper.writableDatabase.query(explainQuery).use { cursor ->
+            val detailIndex = cursor.getColumnIndexOrThrow("detail")
+            buildList {
+                while (cursor.moveToNext()) {
+                    add(cursor.getString(detailIndex))
+                }
+            }
+        }
+    }
+
+    private data class Statement(val sql: String, val args: List<Any?>) {
+        // Room's invalidation tracker queries its own tables, skip them
+        fun isAppQuery(): Boolean {
+            val trimmed = sql.trimStart()
+            return queryPrefixes.any { trimmed.startsWith(it, ignoreCase = true) } &&
+                !trimmed.contains("room_")
+        }
+    }
+
+    private suspend fun <T : Any> PagingSource<Int, T>.loadFirstPage() = load(
+        LoadParams.Refresh(key = null, loadSize = PAGE_SIZE, placeholdersEnabled = false),
+    )
+
+    private fun String.isTableScan(): Boolean {
+        // Printed for the outer SELECT of SELECT EXISTS(...), it doesn't read a table
+        if (this == "SCAN CONSTANT ROW") return false
+        val match = scanRegex.find(this) ?: return false
+        return !match.value.endsWith("VIRTUAL TABLE")
+    }
+
+    private companion object {
+        const val PACKAGE_NAME = "com.merxury.blocker"
+        const val COMPONENT_NAME = "com.merxury.blocker.ui.MainActivity"
+        const val KEYWORD = "blocker"
+        const val LANGUAGE = "en"
+        const val PAGE_SIZE = 20
+        val queryPrefixes = listOf("SELECT", "DELETE", "UPDATE")
+
+        // Older SQLite versions print "SCAN TABLE name", newer ones print "SCAN name"
+        val scanRegex = Regex("^SCAN (TABLE )?\\w+( VIRTUAL TABLE)?")
+    }
+}
@@ -30,6 +30,11 @@ class BlockerAppPropertiesDataStore @Inject constructor(
             generalRuleDatabaseInitialized = it.generalRuleDatabaseInitialized,
             lastOpenedAppListHash = it.lastOpenedAppListHash,
             lastOpenedRuleHash = it.lastOpenedRuleHash,
+            packageChangeBootCount = it.packageChangeBootCount,
+            packageChangeSequenceNumber = it.packageChangeSequenceNumber,
+            initializedComponentPackages = it.initializedComponentPackagesList.toSet(),
+            appLabelLocale = it.appLabelLocale,
+            indexedComponentDetailLanguages = it.indexedComponentDetailLanguagesList.toSet(),
         )
     }
 
@@ -37,6 +42,16 @@ class BlockerAppPropertiesDataStore @Inject constructor(
         appProperties.updateData {
             it.copy {
                 componentDatabaseInitialized = true
+                // The checkpoint is no longer needed once everything is initialized
+                initializedComponentPackages.clear()
+            }
+        }
+    }
+
+    suspend fun addInitializedComponentPackages(packageNames: Collection<String>) {
+        appProperties.updateData {
+            it.copy {
+                initializedComponentPackages += packageNames
             }
         }
     }
@@ -64,4 +79,33 @@ class BlockerAppPropertiesDataStore @Inject constructor(
             }
         }
     }
+
+    suspend fun updatePackageChangeSequence(bootCount: Int, sequenceNumber: Int) {
+        appProperties.updateData {
+            it.copy {
+                packageChangeBootCount = bootCount
+                packageChangeSequenceNumber = sequenceNumber
+            }
+        }
+    }
+
+    suspend fun updateAppLabelLocale(locale: String) {
+        appProperties.updateData {
+            it.copy {
+                appLabelLocale = locale
+            }
+        }
+    }
+
+    suspend fun addIndexedComponentDetailLanguage(language: String) {
+        appProperties.updateData {
+            if (language in it.indexedComponentDetailLanguagesList) {
+                it
+            } else {
+                it.copy {
+                    indexedComponentDetailLanguages += language
+                }
+            }
+        }
+    }
 }
@@ -78,6 +78,7 @@ class BlockerPreferencesDataSource @Inject constructor(
             ruleBackupFolder = it.ruleBackupFolder,
             backupSystemApp = it.backupSystemApp,
             restoreSystemApp = it.restoreSystemApp,
+            archiveBackup = it.archiveBackup,
             showSystemApps = it.showSystemApps,
             showServiceInfo = it.showServiceInfo,
             appSorting = when (it.appSorting) {
@@ -208,6 +209,12 @@ class BlockerPreferencesDataSource @Inject constructor(
         }
     }
 
+    suspend fun setArchiveBackup(archive: Boolean) {
+        userPreferences.updateData {
+            it.copy { this.archiveBackup = archive }
+        }
+    }
+
     suspend fun setShowSystemApps(shouldShowSystemApps: Boolean) {
         userPreferences.updateData {
             it.copy { this.showSystemApps = shouldShowSystemApps }
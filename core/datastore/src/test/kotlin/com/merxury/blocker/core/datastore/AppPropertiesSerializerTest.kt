@@ -42,6 +42,10 @@ class AppPropertiesSerializerTest {
         val expectedAppProperties = appProperties {
             generalRuleDatabaseInitialized = true
             componentDatabaseInitialized = true
+            packageChangeBootCount = 3
+            packageChangeSequenceNumber = 42
+            appLabelLocale = "en-US"
+            indexedComponentDetailLanguages += "en"
         }
 
         val outputStream = ByteArrayOutputStream()
@@ -121,6 +121,12 @@ class BlockerPreferencesDataSourceTest {
         assertTrue(subject.userData.first().restoreSystemApp)
     }
 
+    @Test
+    fun userShouldSetArchiveBackupToTrue() = testScope.runTest {
+        subject.setArchiveBackup(true)
+        assertTrue(subject.userData.first().archiveBackup)
+    }
+
     @Test
     fun userShouldSetShowSystemAppsToTrue() = testScope.runTest {
         subject.setShowSystemApps(true)
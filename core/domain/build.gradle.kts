@@ -13,6 +13,9 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
+import com.merxury.blocker.excludeBenchmarksFromTests
+
 plugins {
     alias(libs.plugins.blocker.android.library)
     alias(libs.plugins.blocker.android.library.jacoco)
@@ -23,6 +26,8 @@ android {
     namespace = "com.merxury.blocker.core.domain"
 }
 
+excludeBenchmarksFromTests()
+
 dependencies {
     api(projects.core.data)
     api(projects.core.model)
@@ -40,6 +45,7 @@ dependencies {
     ksp(libs.hilt.compiler)
 
     testImplementation(projects.core.testing)
+    testImplementation(libs.androidx.paging.testing)
     testImplementation(libs.turbine)
     testImplementation(libs.mockito.kotlin)
 }
@@ -16,8 +16,6 @@
 
 package com.merxury.blocker.core.domain
 
-import com.merxury.blocker.core.data.respository.app.AppRepository
-import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
@@ -30,45 +28,25 @@ import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
 import javax.inject.Inject
 
+/**
+ * Returns every component matched by a general rule, each component listed once.
+ *
+ * The matches are kept up to date in the rule_match table by the keyword matcher,
+ * so this is a single query joining the matches with the components and the apps,
+ * without searching the components for each keyword.
+ * The list is emitted in one piece, as callers need the total to report progress.
+ */
 class GatherAllMatchedComponentsUseCase @Inject constructor(
     private val generalRuleRepository: GeneralRuleRepository,
-    private val componentRepository: ComponentRepository,
-    private val appRepository: AppRepository,
     private val userDataRepository: UserDataRepository,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) {
 
     operator fun invoke(): Flow<List<ComponentInfo>> = flow {
         val userData = userDataRepository.userData.first()
-        val rules = generalRuleRepository.getGeneralRules().first()
-        val seenKeys = mutableSetOf<String>()
-        val allComponents = mutableListOf<ComponentInfo>()
-        rules.filter { it.matchedAppCount > 0 }
-            .forEach { rule ->
-                rule.searchKeyword.forEach { keyword ->
-                    val components = componentRepository.searchComponent(keyword).first()
-                    components.forEach { component ->
-                        val key = "${component.packageName}/${component.name}"
-                        if (seenKeys.add(key)) {
-                            allComponents.add(component)
-                        }
-                    }
-                }
-            }
-        if (!userData.showSystemApps) {
-            val packagesToRemove = mutableSetOf<String>()
-            allComponents.map { it.packageName }
-                .distinct()
-                .forEach { packageName ->
-                    val appInfo = appRepository.getApplication(packageName).first()
-                        ?: return@forEach
-                    if (appInfo.isSystem) {
-                        packagesToRemove.add(packageName)
-                    }
-                }
-            allComponents.removeAll { it.packageName in packagesToRemove }
-        }
-        emit(allComponents.toList())
+        val matchedComponents = generalRuleRepository.getMatchedComponents(userData.showSystemApps)
+            .first()
+        emit(matchedComponents)
     }
         .flowOn(ioDispatcher)
 }
@@ -20,17 +20,25 @@ import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.userdata.AppPropertiesRepository
 import com.merxury.blocker.core.domain.model.InitializeState
-import com.merxury.blocker.core.model.ComponentType.ACTIVITY
-import com.merxury.blocker.core.model.ComponentType.PROVIDER
-import com.merxury.blocker.core.model.ComponentType.RECEIVER
-import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentInfo
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.result.Result
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.flow.Flow
-import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.emitAll
 import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.flow
-import kotlinx.coroutines.flow.transform
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import timber.log.Timber
 import javax.inject.Inject
+import kotlin.time.TimeSource
+
+private const val PARALLELISM = 4
+private const val BATCH_SIZE = 32
 
 class InitializeDatabaseUseCase @Inject constructor(
     private val appRepository: AppRepository,
@@ -44,32 +52,107 @@ class InitializeDatabaseUseCase @Inject constructor(
             emit(InitializeState.Done)
         } else {
             Timber.v("Start initializing component database")
-            initComponentDatabaseTask()
-                .collect { emit(it) }
+            emitAll(initComponentDatabaseTask(appProperties.initializedComponentPackages))
         }
     }
 
-    private fun initComponentDatabaseTask() = appRepository.getApplicationList()
-        .transform { installedAppList ->
-            if (installedAppList.isEmpty()) {
-                return@transform
-            }
-            installedAppList.forEach {
-                val packageName = it.packageName
-                emit(InitializeState.Initializing(it.label))
-                combine(
-                    componentRepository.getComponentList(packageName, ACTIVITY),
-                    componentRepository.getComponentList(packageName, SERVICE),
-                    componentRepository.getComponentList(packageName, RECEIVER),
-                    componentRepository.getComponentList(packageName, PROVIDER),
-                ) { activities, services, receivers, providers ->
-                    val components = activities + services + receivers + providers
-                    componentRepository.saveComponents(components)
-                    Timber.v("Initialized $packageName, ${components.size} components")
+    /**
+     * Load the components of all installed apps with a fixed pool of workers, and save them
+     * in batches. The package names of every saved batch are checkpointed, so that an
+     * interrupted initialization resumes from where it stopped.
+     */
+    private fun initComponentDatabaseTask(
+        initializedPackages: Set<String>,
+    ): Flow<InitializeState> = channelFlow {
+        val installedAppList = getInstalledAppList()
+        if (installedAppList.isEmpty()) {
+            // Most likely the app list sync failed, leave the database uninitialized to retry next time
+            Timber.w("No installed app found, skip initializing component database")
+            send(InitializeState.Done)
+            return@channelFlow
+        }
+        val pendingAppList = installedAppList.filterNot { it.packageName in initializedPackages }
+        val total = installedAppList.size
+        Timber.v("Resume initializing, ${pendingAppList.size} of $total apps left")
+        val appChannel = Channel<InstalledApp>(Channel.UNLIMITED)
+        pendingAppList.forEach { appChannel.send(it) }
+        appChannel.close()
+        val progressLock = Mutex()
+        val loadedApps = mutableListOf<LoadedApp>()
+        var processed = total - pendingAppList.size
+        var processedInThisRun = 0
+        val startMark = TimeSource.Monotonic.markNow()
+        coroutineScope {
+            repeat(PARALLELISM) {
+                launch {
+                    // Every worker takes the next app as soon as it's done with the previous one
+                    for (app in appChannel) {
+                        val components = loadComponents(app)
+                        val (state, batch) = progressLock.withLock {
+                            processed++
+                            processedInThisRun++
+                            loadedApps += LoadedApp(app.packageName, components)
+                            val seconds = startMark.elapsedNow().inWholeMilliseconds / 1000f
+                            val state = InitializeState.Initializing(
+                                processingName = app.label,
+                                current = processed,
+                                total = total,
+                                appsPerSecond = if (seconds > 0) processedInThisRun / seconds else 0f,
+                            )
+                            val batch = if (loadedApps.size >= BATCH_SIZE) {
+                                loadedApps.toList().also { loadedApps.clear() }
+                            } else {
+                                null
+                            }
+                            state to batch
+                        }
+                        send(state)
+                        batch?.let { saveBatch(it) }
+                    }
                 }
-                    .first()
             }
-            appPropertiesRepository.markComponentDatabaseInitialized()
-            emit(InitializeState.Done)
         }
+        saveBatch(loadedApps)
+        appPropertiesRepository.markComponentDatabaseInitialized()
+        Timber.i(
+            "Initialized $processedInThisRun apps in ${startMark.elapsedNow()}",
+        )
+        send(InitializeState.Done)
+    }
+
+    /**
+     * Get the cached app list. On the first launch the cache is empty until the app list
+     * is synced, so sync it here instead of initializing an empty database.
+     */
+    private suspend fun getInstalledAppList(): List<InstalledApp> {
+        val cachedAppList = appRepository.getApplicationList().first()
+        if (cachedAppList.isNotEmpty()) {
+            return cachedAppList
+        }
+        Timber.v("App list is empty, wait for the app list sync")
+        val result = appRepository.updateApplicationList().first { it !is Result.Loading }
+        if (result is Result.Error) {
+            Timber.e(result.exception, "Failed to sync the app list")
+        }
+        return appRepository.getApplicationList().first()
+    }
+
+    /**
+     * Save a batch in one transaction, then record it as a checkpoint.
+     */
+    private suspend fun saveBatch(batch: List<LoadedApp>) {
+        if (batch.isEmpty()) return
+        componentRepository.saveComponents(batch.flatMap { it.components })
+        appPropertiesRepository.addInitializedComponentPackages(batch.map { it.packageName })
+    }
+
+    private suspend fun loadComponents(app: InstalledApp) = componentRepository
+        .getComponentList(app.packageName)
+        .first()
+        .also { Timber.v("Loaded ${app.packageName}, ${it.size} components") }
 }
+
+private class LoadedApp(
+    val packageName: String,
+    val components: List<ComponentInfo>,
+)
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.domain
+
+import com.merxury.blocker.core.data.respository.app.AppRepository
+import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
+import com.merxury.blocker.core.data.respository.userdata.AppPropertiesRepository
+import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
+import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
+import com.merxury.blocker.core.dispatchers.Dispatcher
+import com.merxury.blocker.core.result.Result
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import timber.log.Timber
+import javax.inject.Inject
+
+/**
+ * Syncs an installed, updated or removed app, and adjusts the matched app count
+ * of the rules matching it, instead of counting the matched apps of every rule again.
+ * Only the components of the app are matched against the rules.
+ */
+class UpdatePackageRuleMatchesUseCase @Inject constructor(
+    private val appRepository: AppRepository,
+    private val generalRuleRepository: GeneralRuleRepository,
+    private val userDataRepository: UserDataRepository,
+    private val appPropertiesRepository: AppPropertiesRepository,
+    @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
+) {
+
+    operator fun invoke(packageName: String): Flow<Unit> = flow {
+        val showSystemApps = userDataRepository.userData.first().showSystemApps
+        val lastAppListHash = appPropertiesRepository.appProperties.first().lastOpenedAppListHash
+        val countsUpToDate = lastAppListHash.isNotEmpty() && lastAppListHash == getAppListHash()
+        val matchedBefore = getCountedRuleIds(packageName, showSystemApps)
+        val result = appRepository.updateApplication(packageName)
+            .first { it !is Result.Loading }
+        if (result is Result.Error) {
+            Timber.w(result.exception, "Failed to update rule matches of $packageName")
+            return@flow
+        }
+        val matchedAfter = getCountedRuleIds(packageName, showSystemApps)
+        val addedRuleIds = (matchedAfter - matchedBefore).toList()
+        val removedRuleIds = (matchedBefore - matchedAfter).toList()
+        Timber.v("$packageName changed, ${addedRuleIds.size} rules matched, ${removedRuleIds.size} unmatched")
+        generalRuleRepository.adjustMatchedAppCount(addedRuleIds, delta = 1)
+        generalRuleRepository.adjustMatchedAppCount(removedRuleIds, delta = -1)
+        // The rule screen recounts all rules if the app list changed since it was opened
+        if (countsUpToDate) {
+            appPropertiesRepository.updateLastOpenedAppListHash(getAppListHash())
+        }
+        emit(Unit)
+    }
+        .flowOn(ioDispatcher)
+
+    // Rules matching the app, if the app counts towards the matched app count
+    private suspend fun getCountedRuleIds(packageName: String, showSystemApps: Boolean): Set<Int> {
+        val app = appRepository.getApplication(packageName).first() ?: return emptySet()
+        if (app.isSystem && !showSystemApps) return emptySet()
+        return generalRuleRepository.getMatchedRuleIds(packageName).toSet()
+    }
+
+    // Same as the hash saved by the rule screen
+    private suspend fun getAppListHash(): String = appRepository.getApplicationList()
+        .first()
+        .hashCode()
+        .toString()
+}
@@ -16,13 +16,10 @@
 
 package com.merxury.blocker.core.domain
 
-import com.merxury.blocker.core.data.respository.app.AppRepository
-import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
-import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.Flow
@@ -35,32 +32,14 @@ import javax.inject.Inject
 class UpdateRuleMatchedAppUseCase @Inject constructor(
     private val generalRuleRepository: GeneralRuleRepository,
     private val userDataRepository: UserDataRepository,
-    private val componentRepository: ComponentRepository,
-    private val appRepository: AppRepository,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
 ) {
 
     operator fun invoke(rule: GeneralRule): Flow<Unit> = flow {
         val userData = userDataRepository.userData.first()
-        val matchedComponents = mutableListOf<ComponentInfo>()
-        rule.searchKeyword.forEach { keyword ->
-            val components = componentRepository.searchComponent(keyword).first()
-            matchedComponents.addAll(components)
-        }
-        val matchedGroup = matchedComponents.groupBy { it.packageName }
-            .toMutableMap()
-        // Copy one list to avoid concurrent modification
-        val matchedPackages = matchedGroup.keys.toMutableList()
-        if (!userData.showSystemApps) {
-            matchedPackages.forEach { packageName ->
-                val appInfo = appRepository.getApplication(packageName).first()
-                    ?: return@forEach
-                if (appInfo.isSystem) {
-                    matchedGroup.remove(packageName)
-                }
-            }
-        }
-        val updatedRule = rule.copy(matchedAppCount = matchedGroup.keys.size)
+        val matchedAppCount = generalRuleRepository.getMatchedAppCount(rule.id, userData.showSystemApps)
+            .first()
+        val updatedRule = rule.copy(matchedAppCount = matchedAppCount)
         Timber.v("Updated rule: ${updatedRule.name}, count = ${updatedRule.matchedAppCount}")
         generalRuleRepository.saveGeneralRule(updatedRule)
         emit(Unit)
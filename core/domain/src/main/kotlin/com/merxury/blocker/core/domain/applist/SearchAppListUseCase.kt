@@ -16,16 +16,16 @@
 
 package com.merxury.blocker.core.domain.applist
 
-import android.content.pm.PackageManager
 import com.merxury.blocker.core.data.appstate.IAppStateCache
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
 import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.DEFAULT
 import com.merxury.blocker.core.dispatchers.Dispatcher
 import com.merxury.blocker.core.domain.controller.GetAppControllerUseCase
 import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
-import com.merxury.blocker.core.extension.getPackageInfoCompat
 import com.merxury.blocker.core.model.data.AppItem
+import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.model.preference.AppSorting
 import com.merxury.blocker.core.model.preference.AppSorting.FIRST_INSTALL_TIME
 import com.merxury.blocker.core.model.preference.AppSorting.LAST_UPDATE_TIME
@@ -36,16 +36,23 @@ import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.combineTransform
 import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.map
 import timber.log.Timber
+import java.text.CollationKey
+import java.text.Collator
 import javax.inject.Inject
 
 /**
  * A use case which returns the application list.
  * The invoke method accepts a query string and returns a flow of application list.
+ *
+ * The collation keys of the labels are computed once per update of the app list,
+ * and the package info comes from [IPackageInfoCache], so sorting or filtering
+ * the list again after a preference change doesn't query the package manager.
  */
 
 class SearchAppListUseCase @Inject constructor(
-    private val pm: PackageManager,
+    private val packageInfoCache: IPackageInfoCache,
     private val userDataRepository: UserDataRepository,
     private val appRepository: AppRepository,
     private val appStateCache: IAppStateCache,
@@ -55,7 +62,7 @@ class SearchAppListUseCase @Inject constructor(
 ) {
     operator fun invoke(query: String): Flow<List<AppItem>> = combineTransform(
         userDataRepository.userData,
-        appRepository.getApplicationList(),
+        appRepository.getApplicationList().map { appList -> appList.toSortableApps() },
         getAppController(),
         getServiceController(),
     ) { userData, appList, appController, serviceController ->
@@ -71,11 +78,13 @@ class SearchAppListUseCase @Inject constructor(
         val finalList = if (userData.showSystemApps) {
             appList
         } else {
-            appList.filterNot { it.isSystem }
+            appList.filterNot { it.app.isSystem }
         }.filter {
-            it.label.contains(query, true) ||
-                it.packageName.contains(query, true)
-        }.map { installedApp ->
+            it.app.label.contains(query, true) ||
+                it.app.packageName.contains(query, true)
+        }.sortedWith(
+            appComparator(sortType, sortOrder),
+        ).map { (installedApp) ->
             val packageName = installedApp.packageName
             val cachedServiceStatus = if (userData.showServiceInfo) {
                 appStateCache.getOrNull(packageName)
@@ -93,11 +102,9 @@ class SearchAppListUseCase @Inject constructor(
                 firstInstallTime = installedApp.firstInstallTime,
                 lastUpdateTime = installedApp.lastUpdateTime,
                 appServiceStatus = cachedServiceStatus,
-                packageInfo = pm.getPackageInfoCompat(packageName, 0),
+                packageInfo = packageInfoCache.get(packageName, installedApp.lastUpdateTime),
             )
-        }.sortedWith(
-            appComparator(sortType, sortOrder),
-        ).let { sortedList ->
+        }.let { sortedList ->
             when (userData.topAppType) {
                 TopAppType.NONE -> sortedList
                 TopAppType.RUNNING -> sortedList.sortedByDescending { it.isRunning }
@@ -117,17 +124,30 @@ class SearchAppListUseCase @Inject constructor(
     }
         .flowOn(cpuDispatcher)
 
-    private fun appComparator(sortType: AppSorting, sortOrder: SortingOrder): Comparator<AppItem> = if (sortOrder == SortingOrder.ASCENDING) {
+    private fun List<InstalledApp>.toSortableApps(): List<SortableApp> {
+        // Collator is not thread safe, create a new one for every update
+        val collator = Collator.getInstance().apply {
+            strength = Collator.SECONDARY
+        }
+        return map { SortableApp(it, collator.getCollationKey(it.label)) }
+    }
+
+    private fun appComparator(sortType: AppSorting, sortOrder: SortingOrder): Comparator<SortableApp> = if (sortOrder == SortingOrder.ASCENDING) {
         when (sortType) {
-            NAME -> compareBy { it.label.lowercase() }
-            FIRST_INSTALL_TIME -> compareBy { it.firstInstallTime }
-            LAST_UPDATE_TIME -> compareBy { it.lastUpdateTime }
+            NAME -> compareBy { it.labelKey }
+            FIRST_INSTALL_TIME -> compareBy { it.app.firstInstallTime }
+            LAST_UPDATE_TIME -> compareBy { it.app.lastUpdateTime }
         }
     } else {
         when (sortType) {
-            NAME -> compareByDescending { it.label.lowercase() }
-            FIRST_INSTALL_TIME -> compareByDescending { it.firstInstallTime }
-            LAST_UPDATE_TIME -> compareByDescending { it.lastUpdateTime }
+            NAME -> compareByDescending { it.labelKey }
+            FIRST_INSTALL_TIME -> compareByDescending { it.app.firstInstallTime }
+            LAST_UPDATE_TIME -> compareByDescending { it.app.lastUpdateTime }
         }
     }
+
+    private data class SortableApp(
+        val app: InstalledApp,
+        val labelKey: CollationKey,
+    )
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.domain.components
+
+import androidx.paging.PagingData
+import com.merxury.blocker.core.data.respository.component.ComponentRepository
+import com.merxury.blocker.core.data.respository.componentdetail.ComponentDetailRepository
+import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
+import com.merxury.blocker.core.dispatchers.BlockerDispatchers.DEFAULT
+import com.merxury.blocker.core.dispatchers.Dispatcher
+import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
+import com.merxury.blocker.core.model.ComponentType
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentInfo
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.emitAll
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import javax.inject.Inject
+
+/**
+ * Paged version of [SearchComponentsUseCase] for one component type, sorted by the user preferences.
+ * The database filters and sorts the components, descriptions and service states are
+ * only looked up for the loaded pages.
+ */
+class GetPagedComponentsUseCase @Inject constructor(
+    private val userDataRepository: UserDataRepository,
+    private val componentRepository: ComponentRepository,
+    private val componentDetailRepository: ComponentDetailRepository,
+    private val getServiceController: GetServiceControllerUseCase,
+    @Dispatcher(DEFAULT) private val cpuDispatcher: CoroutineDispatcher,
+) {
+    operator fun invoke(
+        packageName: String,
+        type: ComponentType,
+        keyword: String = "",
+    ): Flow<PagingData<ComponentInfo>> = flow {
+        val userData = userDataRepository.userData.first()
+        val serviceController = getServiceController().first()
+        val searchKeywords = keyword.split(",")
+            .map { it.trim() }
+            .filterNot { it.isEmpty() }
+        val pagedComponents = componentRepository.getPagedComponentList(
+            packageName = packageName,
+            type = type,
+            keywords = searchKeywords,
+            sorting = userData.componentSorting,
+            order = userData.componentSortingOrder,
+            priority = userData.componentShowPriority,
+        ) { page ->
+            // One lookup for the descriptions of the whole page
+            val details = componentDetailRepository.getLocalComponentDetails(page.map { it.name }).first()
+            page.map { component ->
+                component.copy(
+                    description = details[component.name]?.description,
+                    isRunning = type == SERVICE &&
+                        serviceController.isServiceRunning(component.packageName, component.name),
+                )
+            }
+        }
+        emitAll(pagedComponents)
+    }
+        .flowOn(cpuDispatcher)
+}
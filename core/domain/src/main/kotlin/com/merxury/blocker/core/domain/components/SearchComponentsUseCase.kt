@@ -30,6 +30,7 @@ import com.merxury.blocker.core.model.ComponentType.ACTIVITY
 import com.merxury.blocker.core.model.ComponentType.PROVIDER
 import com.merxury.blocker.core.model.ComponentType.RECEIVER
 import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentDetail
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.toAppItem
 import com.merxury.blocker.core.model.preference.ComponentShowPriority
@@ -40,17 +41,31 @@ import com.merxury.blocker.core.model.preference.ComponentSorting
 import com.merxury.blocker.core.model.preference.ComponentSorting.COMPONENT_NAME
 import com.merxury.blocker.core.model.preference.ComponentSorting.PACKAGE_NAME
 import com.merxury.blocker.core.model.preference.SortingOrder
-import com.merxury.blocker.core.model.preference.SortingOrder.ASCENDING
 import com.merxury.blocker.core.model.preference.SortingOrder.DESCENDING
-import com.merxury.blocker.core.model.preference.UserPreferenceData
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.Flow
-import kotlinx.coroutines.flow.combineTransform
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.emitAll
 import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.merge
+import kotlinx.coroutines.flow.transform
 import timber.log.Timber
 import javax.inject.Inject
 
+/**
+ * Loads the components of an app, grouped by type and sorted by the user preferences.
+ *
+ * The work is split into stages that only run again when their own input changes:
+ * the component list is filtered and grouped once per emission of the repository,
+ * the list is only sorted again when the sorting preferences change, and the
+ * running state of services is applied last, as it changes the most often.
+ * Descriptions are read once per component while the flow is collected, and
+ * replaced when the user edits the detail of a component.
+ */
 class SearchComponentsUseCase @Inject constructor(
     private val userDataRepository: UserDataRepository,
     private val appRepository: AppRepository,
@@ -61,127 +76,151 @@ class SearchComponentsUseCase @Inject constructor(
 ) {
     operator fun invoke(packageName: String, keyword: String = ""): Flow<ComponentSearchResult> {
         Timber.v("Search components for package $packageName with keyword $keyword")
-        return combineTransform(
-            userDataRepository.userData,
-            getServiceController(),
-            appRepository.getApplication(packageName),
-            componentRepository.getComponentList(packageName),
-        ) { userData, serviceController, app, components ->
-            Timber.v("Received ${components.size} components for package $packageName")
-            if (app == null) {
-                Timber.w("Cannot find app with package name $packageName, return empty result")
-                emit(ComponentSearchResult(app = null))
-                return@combineTransform
-            }
-            val receiver = filterAndSortComponentList(components, userData, RECEIVER)
-            val service =
-                filterAndSortComponentList(components, userData, SERVICE, serviceController)
-            val activity = filterAndSortComponentList(components, userData, ACTIVITY)
-            val provider = filterAndSortComponentList(components, userData, PROVIDER)
-            val searchKeywords = keyword.split(",")
-                .map { it.trim() }
-                .filterNot { it.isEmpty() }
-            if (searchKeywords.isEmpty()) {
-                emit(
-                    ComponentSearchResult(
-                        app = app.toAppItem(),
-                        activity = activity.getComponentDescription(),
-                        service = service.getComponentDescription(),
-                        receiver = receiver.getComponentDescription(),
-                        provider = provider.getComponentDescription(),
-                    ),
-                )
-                return@combineTransform
-            }
-            // Search keyword is not empty, filter components
-            val filteredReceiver = searchMatchedComponent(receiver, searchKeywords)
-            val filteredService = searchMatchedComponent(service, searchKeywords)
-            val filteredActivity = searchMatchedComponent(activity, searchKeywords)
-            val filteredProvider = searchMatchedComponent(provider, searchKeywords)
-            emit(
-                ComponentSearchResult(
-                    app = app.toAppItem(),
-                    activity = filteredActivity.getComponentDescription(),
-                    service = filteredService.getComponentDescription()
-                        .getServiceStatus(serviceController),
-                    receiver = filteredReceiver.getComponentDescription(),
-                    provider = filteredProvider.getComponentDescription(),
-                ),
+        val searchKeywords = keyword.split(",")
+            .map { it.trim() }
+            .filterNot { it.isEmpty() }
+        return flow {
+            // Scoped to a single collection, so that concurrent collectors don't share it
+            val descriptions = HashMap<String, String?>()
+            var latestComponents: List<ComponentInfo>? = null
+            // Both sources are handled in one sequential stage, as they share the cache
+            val groupedComponents = merge(
+                componentRepository.getComponentList(packageName)
+                    .distinctUntilChanged()
+                    .map { ComponentListChange.Loaded(it) },
+                componentDetailRepository.updatedComponent
+                    .map { ComponentListChange.DetailUpdated(it) },
             )
-        }
-            .flowOn(cpuDispatcher)
-    }
+                .transform { change ->
+                    when (change) {
+                        is ComponentListChange.Loaded -> {
+                            Timber.v("Received ${change.components.size} components for package $packageName")
+                            latestComponents = change.components
+                            emit(groupComponents(change.components, searchKeywords, descriptions))
+                        }
 
-    private fun filterAndSortComponentList(
-        list: List<ComponentInfo>,
-        userData: UserPreferenceData,
-        type: ComponentType,
-        serviceController: IServiceController? = null,
-    ): List<ComponentInfo> {
-        val componentSorting = userData.componentSorting
-        val componentSortingOrder = userData.componentSortingOrder
-        val componentShowPriority = userData.componentShowPriority
-        return list.filter { it.type == type }
-            .sortBy(componentSorting, componentSortingOrder)
-            .sortByPriority(componentShowPriority)
-            .let {
-                if (type == SERVICE) {
-                    it.map { service ->
-                        val packageName = service.packageName
-                        val name = service.name
-                        val isRunning = serviceController?.isServiceRunning(packageName, name)
-                            ?: false
-                        service.copy(isRunning = isRunning)
-                    }.sortedByDescending { service ->
-                        service.isRunning
+                        is ComponentListChange.DetailUpdated -> {
+                            val detail = change.detail
+                            // User generated details take priority, so the event holds the latest description
+                            descriptions[detail.name] = detail.description
+                            val components = latestComponents ?: return@transform
+                            if (components.any { it.name == detail.name }) {
+                                emit(groupComponents(components, searchKeywords, descriptions))
+                            }
+                        }
                     }
-                } else {
-                    it
+                }
+            val componentOrder = userDataRepository.userData
+                .map {
+                    ComponentOrder(
+                        sorting = it.componentSorting,
+                        order = it.componentSortingOrder,
+                        priority = it.componentShowPriority,
+                    )
+                }
+                .distinctUntilChanged()
+            val sortedComponents = combine(groupedComponents, componentOrder) { grouped, order ->
+                val comparator = order.comparator()
+                grouped.mapValues { (_, components) ->
+                    components.sortedWith(comparator).map { it.component }
                 }
             }
+            // The controller is emitted again on every change of the user data
+            val serviceController = getServiceController().distinctUntilChanged()
+            val app = appRepository.getApplication(packageName)
+                .map { it?.toAppItem() }
+                .distinctUntilChanged()
+            emitAll(
+                combine(sortedComponents, serviceController, app) { sorted, controller, appItem ->
+                    if (appItem == null) {
+                        Timber.w("Cannot find app with package name $packageName, return empty result")
+                        return@combine ComponentSearchResult(app = null)
+                    }
+                    ComponentSearchResult(
+                        app = appItem,
+                        activity = sorted[ACTIVITY].orEmpty(),
+                        service = sorted[SERVICE].orEmpty().withServiceStatus(controller),
+                        receiver = sorted[RECEIVER].orEmpty(),
+                        provider = sorted[PROVIDER].orEmpty(),
+                    )
+                },
+            )
+        }
+            .flowOn(cpuDispatcher)
     }
 
-    private fun searchMatchedComponent(
+    /**
+     * Filters [components] by [keywords] and groups them by type, with the sort keys
+     * computed once per component. Descriptions missing from [descriptions] are
+     * read from the repository in one batch and added to it.
+     */
+    private suspend fun groupComponents(
         components: List<ComponentInfo>,
         keywords: List<String>,
-    ): List<ComponentInfo> = components.filter { component ->
-        keywords.any { keyword ->
-            component.name.contains(keyword, ignoreCase = true)
+        descriptions: MutableMap<String, String?>,
+    ): Map<ComponentType, List<SortableComponent>> {
+        val matchedComponents = components.filter { component -> matchesKeywords(component, keywords) }
+        // Most components have no description, they're cached as null to avoid reading them again
+        val missingNames = matchedComponents.map { it.name }
+            .filterNot { descriptions.containsKey(it) }
+        if (missingNames.isNotEmpty()) {
+            val details = componentDetailRepository.getLocalComponentDetails(missingNames).first()
+            missingNames.forEach { name -> descriptions[name] = details[name]?.description }
         }
+        return matchedComponents
+            .map { component ->
+                SortableComponent(component.copy(description = descriptions[component.name]))
+            }
+            .groupBy { it.component.type }
     }
 
-    private suspend inline fun List<ComponentInfo>.getComponentDescription(): List<ComponentInfo> = map {
-        val componentDetail = componentDetailRepository.getLocalComponentDetail(it.name)
-            .first()
-        it.copy(description = componentDetail?.description)
+    private fun matchesKeywords(
+        component: ComponentInfo,
+        keywords: List<String>,
+    ): Boolean = keywords.isEmpty() || keywords.any { keyword ->
+        component.name.contains(keyword, ignoreCase = true)
     }
 
-    private fun List<ComponentInfo>.getServiceStatus(
+    /**
+     * Sets the running state of the services and moves the running ones to the top,
+     * keeping the order of the rest.
+     */
+    private fun List<ComponentInfo>.withServiceStatus(
         serviceController: IServiceController,
     ): List<ComponentInfo> = map {
         it.copy(isRunning = serviceController.isServiceRunning(it.packageName, it.name))
-    }
+    }.sortedByDescending { it.isRunning }
 
-    private fun List<ComponentInfo>.sortBy(
-        sortBy: ComponentSorting,
-        order: SortingOrder,
-    ): List<ComponentInfo> = when (sortBy) {
-        COMPONENT_NAME -> when (order) {
-            ASCENDING -> sortedBy { it.simpleName.lowercase() }
-            DESCENDING -> sortedByDescending { it.simpleName.lowercase() }
-        }
+    private sealed interface ComponentListChange {
+        class Loaded(val components: List<ComponentInfo>) : ComponentListChange
+        class DetailUpdated(val detail: ComponentDetail) : ComponentListChange
+    }
 
-        PACKAGE_NAME -> when (order) {
-            ASCENDING -> sortedBy { it.name.lowercase() }
-            DESCENDING -> sortedByDescending { it.name.lowercase() }
-        }
+    private class SortableComponent(val component: ComponentInfo) {
+        val simpleNameKey = component.simpleName.lowercase()
+        val nameKey = component.name.lowercase()
+        val enabled = component.enabled()
     }
 
-    private fun List<ComponentInfo>.sortByPriority(
-        priority: ComponentShowPriority,
-    ): List<ComponentInfo> = when (priority) {
-        NONE -> this
-        DISABLED_COMPONENTS_FIRST -> sortedBy { it.enabled() }
-        ENABLED_COMPONENTS_FIRST -> sortedByDescending { it.enabled() }
+    private data class ComponentOrder(
+        val sorting: ComponentSorting,
+        val order: SortingOrder,
+        val priority: ComponentShowPriority,
+    ) {
+        fun comparator(): Comparator<SortableComponent> {
+            val byName: Comparator<SortableComponent> = when (sorting) {
+                COMPONENT_NAME -> compareBy { it.simpleNameKey }
+                PACKAGE_NAME -> compareBy { it.nameKey }
+            }
+            val sortedByName = if (order == DESCENDING) byName.reversed() else byName
+            return when (priority) {
+                NONE -> sortedByName
+                DISABLED_COMPONENTS_FIRST -> compareBy<SortableComponent> { it.enabled }
+                    .then(sortedByName)
+
+                ENABLED_COMPONENTS_FIRST -> compareByDescending<SortableComponent> { it.enabled }
+                    .then(sortedByName)
+            }
+        }
     }
 }
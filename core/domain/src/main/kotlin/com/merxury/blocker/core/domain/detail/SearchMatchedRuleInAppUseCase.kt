@@ -17,21 +17,14 @@
 package com.merxury.blocker.core.domain.detail
 
 import com.merxury.blocker.core.data.di.RuleBaseFolder
-import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.componentdetail.ComponentDetailRepository
 import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
 import com.merxury.blocker.core.di.FilesDir
-import com.merxury.blocker.core.dispatchers.BlockerDispatchers.DEFAULT
-import com.merxury.blocker.core.dispatchers.Dispatcher
 import com.merxury.blocker.core.domain.model.MatchedHeaderData
 import com.merxury.blocker.core.domain.model.MatchedItem
-import com.merxury.blocker.core.model.data.ComponentInfo
-import com.merxury.blocker.core.model.data.GeneralRule
-import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.first
-import kotlinx.coroutines.withContext
 import java.io.File
 import javax.inject.Inject
 
@@ -39,19 +32,23 @@ import javax.inject.Inject
  * A use case to search matched rules in an app
  */
 class SearchMatchedRuleInAppUseCase @Inject constructor(
-    private val componentRepository: ComponentRepository,
     private val componentDetailRepository: ComponentDetailRepository,
     private val ruleRepository: GeneralRuleRepository,
     @FilesDir private val filesDir: File,
     @RuleBaseFolder private val ruleBaseFolder: String,
-    @Dispatcher(DEFAULT) private val dispatcher: CoroutineDispatcher,
 ) {
     operator fun invoke(packageName: String): Flow<List<MatchedItem>> = combine(
         ruleRepository.getGeneralRules(),
-        componentRepository.getComponentList(packageName),
-    ) { rules, components ->
+        ruleRepository.getMatchedComponents(packageName),
+    ) { rules, matches ->
+        val names = matches.values.flatMapTo(HashSet()) { components -> components.map { it.name } }
+        val details = if (names.isEmpty()) {
+            emptyMap()
+        } else {
+            componentDetailRepository.getLocalComponentDetails(names).first()
+        }
         rules.mapNotNull { rule ->
-            findMatchedComponents(rule, components)
+            matches[rule.id]?.let { matchedComponents -> rule to matchedComponents }
         }.map { (rule, matchedComponents) ->
             val iconUrl = rule.iconUrl?.let { url ->
                 filesDir
@@ -59,9 +56,7 @@ class SearchMatchedRuleInAppUseCase @Inject constructor(
                     .resolve(url)
             }
             val componentsWithDescription = matchedComponents.map { component ->
-                val desc = componentDetailRepository.getLocalComponentDetail(component.name)
-                    .first()
-                    ?.description
+                val desc = details[component.name]?.description
                 if (desc != null) {
                     component.copy(description = desc)
                 } else {
@@ -78,24 +73,4 @@ class SearchMatchedRuleInAppUseCase @Inject constructor(
             )
         }
     }
-
-    private suspend fun findMatchedComponents(
-        rule: GeneralRule,
-        components: List<ComponentInfo>,
-    ): Pair<GeneralRule, List<ComponentInfo>>? = withContext(dispatcher) {
-        val matchedItem = components.filter { item ->
-            // Check if the component name matched the keyword in the list
-            val keywords = rule.searchKeyword
-            keywords.forEach { keyword ->
-                if (item.name.contains(keyword, true)) {
-                    return@filter true
-                }
-            }
-            return@filter false
-        }
-        if (matchedItem.isEmpty()) {
-            return@withContext null
-        }
-        return@withContext rule to matchedItem
-    }
 }
@@ -17,6 +17,11 @@
 package com.merxury.blocker.core.domain.model
 
 sealed class InitializeState {
-    data class Initializing(val processingName: String) : InitializeState()
+    data class Initializing(
+        val processingName: String,
+        val current: Int = 0,
+        val total: Int = 0,
+        val appsPerSecond: Float = 0f,
+    ) : InitializeState()
     data object Done : InitializeState()
 }
@@ -22,8 +22,6 @@ import com.merxury.blocker.core.model.ComponentType.SERVICE
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
 import com.merxury.blocker.core.model.data.InstalledApp
-import com.merxury.blocker.core.testing.repository.TestAppRepository
-import com.merxury.blocker.core.testing.repository.TestComponentRepository
 import com.merxury.blocker.core.testing.repository.TestGeneralRuleRepository
 import com.merxury.blocker.core.testing.repository.TestUserDataRepository
 import com.merxury.blocker.core.testing.repository.defaultUserData
@@ -38,14 +36,10 @@ class GatherAllMatchedComponentsUseCaseTest {
     val mainDispatcherRule = MainDispatcherRule()
 
     private val generalRuleRepository = TestGeneralRuleRepository()
-    private val componentRepository = TestComponentRepository()
-    private val appRepository = TestAppRepository()
     private val userDataRepository = TestUserDataRepository()
 
     private val useCase = GatherAllMatchedComponentsUseCase(
         generalRuleRepository = generalRuleRepository,
-        componentRepository = componentRepository,
-        appRepository = appRepository,
         userDataRepository = userDataRepository,
         ioDispatcher = mainDispatcherRule.testDispatcher,
     )
@@ -54,8 +48,8 @@ class GatherAllMatchedComponentsUseCaseTest {
     fun emptyRules_returnsEmptyList() = runTest {
         userDataRepository.sendUserData(defaultUserData)
         generalRuleRepository.sendRuleList(emptyList())
-        componentRepository.sendComponentList(emptyList())
-        appRepository.sendAppList(emptyList())
+        generalRuleRepository.sendComponentList(emptyList())
+        generalRuleRepository.sendAppList(emptyList())
         useCase().test {
             assertEquals(emptyList(), awaitItem())
             awaitComplete()
@@ -79,8 +73,8 @@ class GatherAllMatchedComponentsUseCaseTest {
                 type = SERVICE,
             ),
         )
-        componentRepository.sendComponentList(components)
-        appRepository.sendAppList(
+        generalRuleRepository.sendComponentList(components)
+        generalRuleRepository.sendAppList(
             listOf(InstalledApp(packageName = "com.example.app", label = "Example")),
         )
         generalRuleRepository.sendRuleList(
@@ -117,8 +111,8 @@ class GatherAllMatchedComponentsUseCaseTest {
                 type = SERVICE,
             ),
         )
-        componentRepository.sendComponentList(components)
-        appRepository.sendAppList(
+        generalRuleRepository.sendComponentList(components)
+        generalRuleRepository.sendAppList(
             listOf(InstalledApp(packageName = "com.example.app", label = "Example")),
         )
         generalRuleRepository.sendRuleList(
@@ -161,8 +155,8 @@ class GatherAllMatchedComponentsUseCaseTest {
                 type = SERVICE,
             ),
         )
-        componentRepository.sendComponentList(components)
-        appRepository.sendAppList(
+        generalRuleRepository.sendComponentList(components)
+        generalRuleRepository.sendAppList(
             listOf(
                 InstalledApp(packageName = "com.user.app", label = "User App", isSystem = false),
                 InstalledApp(packageName = "com.system.app", label = "System App", isSystem = true),
@@ -197,8 +191,8 @@ class GatherAllMatchedComponentsUseCaseTest {
                 type = ACTIVITY,
             ),
         )
-        componentRepository.sendComponentList(components)
-        appRepository.sendAppList(
+        generalRuleRepository.sendComponentList(components)
+        generalRuleRepository.sendAppList(
             listOf(InstalledApp(packageName = "com.example.app", label = "Example")),
         )
         generalRuleRepository.sendRuleList(
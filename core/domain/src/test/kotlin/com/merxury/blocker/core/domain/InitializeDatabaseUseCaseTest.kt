@@ -31,10 +31,14 @@ import com.merxury.blocker.core.testing.repository.TestComponentRepository
 import com.merxury.blocker.core.testing.repository.TestUserDataRepository
 import com.merxury.blocker.core.testing.repository.defaultUserData
 import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.test.runTest
 import org.junit.Rule
 import kotlin.test.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertIs
+import kotlin.test.assertTrue
 
 class InitializeDatabaseUseCaseTest {
     @get:Rule
@@ -68,9 +72,61 @@ class InitializeDatabaseUseCaseTest {
         appPropertiesRepository.sendAppProperties(AppPropertiesData())
         componentRepository.sendComponentList(sampleComponentList)
         initializeDatabaseUseCase().test {
-            sampleAppList.forEach {
-                assertEquals(InitializeState.Initializing(it.label), awaitItem())
+            val labels = sampleAppList.map {
+                val state = awaitItem()
+                assertIs<InitializeState.Initializing>(state)
+                assertEquals(sampleAppList.size, state.total)
+                state.processingName
             }
+            assertEquals(sampleAppList.map { it.label }.toSet(), labels.toSet())
+            assertEquals(InitializeState.Done, awaitItem())
+        }
+    }
+
+    @Test
+    fun givenEmptyAppList_returnDoneWithoutMarkingInitialized() = runTest {
+        appRepository.sendAppList(emptyList())
+        appPropertiesRepository.sendAppProperties(AppPropertiesData())
+        initializeDatabaseUseCase().test {
+            assertEquals(InitializeState.Done, awaitItem())
+            awaitComplete()
+        }
+        assertFalse(appPropertiesRepository.appProperties.first().componentDatabaseInitialized)
+    }
+
+    @Test
+    fun givenEmptyAppListBeforeSync_syncAppListThenInitialize() = runTest {
+        appRepository.sendAppList(emptyList())
+        appRepository.setSyncedAppList(sampleAppList)
+        appPropertiesRepository.sendAppProperties(AppPropertiesData())
+        componentRepository.sendComponentList(sampleComponentList)
+        initializeDatabaseUseCase().test {
+            repeat(sampleAppList.size) {
+                val state = awaitItem()
+                assertIs<InitializeState.Initializing>(state)
+                assertEquals(sampleAppList.size, state.total)
+            }
+            assertEquals(InitializeState.Done, awaitItem())
+            awaitComplete()
+        }
+        assertTrue(appPropertiesRepository.appProperties.first().componentDatabaseInitialized)
+    }
+
+    @Test
+    fun givenInterruptedInitialization_resumeFromCheckpoint() = runTest {
+        appRepository.sendAppList(sampleAppList)
+        appPropertiesRepository.sendAppProperties(
+            AppPropertiesData(
+                initializedComponentPackages = setOf("com.merxury.test1", "com.merxury.test2"),
+            ),
+        )
+        componentRepository.sendComponentList(sampleComponentList)
+        initializeDatabaseUseCase().test {
+            val state = awaitItem()
+            assertIs<InitializeState.Initializing>(state)
+            assertEquals("App3", state.processingName)
+            assertEquals(3, state.current)
+            assertEquals(3, state.total)
             assertEquals(InitializeState.Done, awaitItem())
         }
     }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.domain
+
+import com.merxury.blocker.core.data.respository.app.AppRepository
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentInfo
+import com.merxury.blocker.core.model.data.GeneralRule
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.AppPropertiesData
+import com.merxury.blocker.core.result.Result
+import com.merxury.blocker.core.testing.repository.TestAppPropertiesRepository
+import com.merxury.blocker.core.testing.repository.TestGeneralRuleRepository
+import com.merxury.blocker.core.testing.repository.TestUserDataRepository
+import com.merxury.blocker.core.testing.repository.defaultUserData
+import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.test.runTest
+import org.junit.Rule
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doAnswer
+import org.mockito.kotlin.mock
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class UpdatePackageRuleMatchesUseCaseTest {
+    @get:Rule
+    val mainDispatcherRule = MainDispatcherRule()
+
+    private val userDataRepository = TestUserDataRepository()
+    private val generalRuleRepository = TestGeneralRuleRepository()
+    private val appPropertiesRepository = TestAppPropertiesRepository()
+
+    // The app as it's saved in the database, changed by updateApplication()
+    private var installedApp: InstalledApp? = null
+    private var appAfterUpdate: InstalledApp? = null
+    private var componentsAfterUpdate: List<ComponentInfo> = emptyList()
+    private var updateResult: Result<Unit> = Result.Success(Unit)
+    private val appRepository: AppRepository = mock {
+        on { getApplication(any()) } doAnswer { flowOf(installedApp) }
+        on { getApplicationList() } doAnswer { flowOf(listOfNotNull(installedApp)) }
+        on { updateApplication(any()) } doAnswer {
+            flow {
+                emit(Result.Loading)
+                if (updateResult is Result.Success) {
+                    installedApp = appAfterUpdate
+                    generalRuleRepository.sendComponentList(componentsAfterUpdate)
+                }
+                emit(updateResult)
+            }
+        }
+    }
+
+    private val updatePackageRuleMatches = UpdatePackageRuleMatchesUseCase(
+        appRepository = appRepository,
+        generalRuleRepository = generalRuleRepository,
+        userDataRepository = userDataRepository,
+        appPropertiesRepository = appPropertiesRepository,
+        ioDispatcher = mainDispatcherRule.testDispatcher,
+    )
+
+    @Test
+    fun givenAppInstalled_whenUpdateRuleMatches_thenIncreaseCountOfMatchedRules() = runTest {
+        givenState(app = null, components = emptyList(), counts = listOf(0, 0, 0))
+
+        updateApp(app = sampleApp, components = listOf(firebaseService, tpushService))
+
+        assertEquals(listOf(1, 1, 0), matchedAppCounts())
+    }
+
+    @Test
+    fun givenAppUpdated_whenUpdateRuleMatches_thenMoveCountToNewlyMatchedRules() = runTest {
+        givenState(app = sampleApp, components = listOf(firebaseService, tpushService), counts = listOf(1, 1, 0))
+
+        updateApp(app = sampleApp, components = listOf(tpushService, umengService))
+
+        assertEquals(listOf(0, 1, 1), matchedAppCounts())
+    }
+
+    @Test
+    fun givenAppUninstalled_whenUpdateRuleMatches_thenDecreaseCountOfMatchedRules() = runTest {
+        givenState(app = sampleApp, components = listOf(firebaseService), counts = listOf(2, 0, 0))
+
+        updateApp(app = null, components = emptyList())
+
+        assertEquals(listOf(1, 0, 0), matchedAppCounts())
+    }
+
+    @Test
+    fun givenHiddenSystemApp_whenUpdateRuleMatches_thenCountsAreUnchanged() = runTest {
+        val systemApp = sampleApp.copy(isSystem = true)
+        givenState(app = null, components = emptyList(), counts = listOf(0, 0, 0))
+
+        updateApp(app = systemApp, components = listOf(firebaseService))
+
+        assertEquals(listOf(0, 0, 0), matchedAppCounts())
+    }
+
+    @Test
+    fun givenUpdateFailed_whenUpdateRuleMatches_thenCountsAreUnchanged() = runTest {
+        givenState(app = sampleApp, components = listOf(firebaseService), counts = listOf(1, 0, 0))
+        updateResult = Result.Error(IllegalStateException("Cannot read package"))
+
+        updateApp(app = null, components = emptyList())
+
+        assertEquals(listOf(1, 0, 0), matchedAppCounts())
+    }
+
+    @Test
+    fun givenCountsUpToDate_whenUpdateRuleMatches_thenSaveNewAppListHash() = runTest {
+        givenState(app = null, components = emptyList(), counts = listOf(0, 0, 0))
+        val currentHash = emptyList<InstalledApp>().hashCode().toString()
+        appPropertiesRepository.sendAppProperties(AppPropertiesData(lastOpenedAppListHash = currentHash))
+
+        updateApp(app = sampleApp, components = listOf(firebaseService))
+
+        assertEquals(
+            listOf(sampleApp).hashCode().toString(),
+            appPropertiesRepository.appProperties.first().lastOpenedAppListHash,
+        )
+    }
+
+    @Test
+    fun givenCountsOutdated_whenUpdateRuleMatches_thenKeepAppListHash() = runTest {
+        givenState(app = null, components = emptyList(), counts = listOf(0, 0, 0))
+        appPropertiesRepository.sendAppProperties(AppPropertiesData(lastOpenedAppListHash = "outdated"))
+
+        updateApp(app = sampleApp, components = listOf(firebaseService))
+
+        assertEquals("outdated", appPropertiesRepository.appProperties.first().lastOpenedAppListHash)
+    }
+
+    private fun givenState(app: InstalledApp?, components: List<ComponentInfo>, counts: List<Int>) {
+        userDataRepository.sendUserData(defaultUserData.copy(showSystemApps = false))
+        appPropertiesRepository.sendAppProperties(AppPropertiesData())
+        installedApp = app
+        generalRuleRepository.sendComponentList(components)
+        generalRuleRepository.sendRuleList(
+            rules.mapIndexed { index, rule -> rule.copy(matchedAppCount = counts[index]) },
+        )
+    }
+
+    private suspend fun updateApp(app: InstalledApp?, components: List<ComponentInfo>) {
+        appAfterUpdate = app
+        componentsAfterUpdate = components
+        updatePackageRuleMatches(PACKAGE_NAME).collect()
+    }
+
+    private suspend fun matchedAppCounts(): List<Int> = generalRuleRepository.getGeneralRules()
+        .first()
+        .map { it.matchedAppCount }
+}
+
+private const val PACKAGE_NAME = "com.example.app"
+
+private val sampleApp = InstalledApp(packageName = PACKAGE_NAME, label = "Example")
+
+private val rules = listOf(
+    GeneralRule(id = 1, name = "Firebase", searchKeyword = listOf("com.google.firebase")),
+    GeneralRule(id = 2, name = "Tencent Push", searchKeyword = listOf("tpush")),
+    GeneralRule(id = 3, name = "Umeng", searchKeyword = listOf("com.umeng")),
+)
+
+private fun service(name: String) = ComponentInfo(
+    packageName = PACKAGE_NAME,
+    simpleName = name.substringAfterLast('.'),
+    name = name,
+    type = SERVICE,
+)
+
+private val firebaseService = service("com.google.firebase.messaging.FirebaseMessagingService")
+private val tpushService = service("com.tencent.android.tpush.service.XGPushServiceV4")
+private val umengService = service("com.umeng.message.UmengIntentService")
@@ -17,7 +17,6 @@
 package com.merxury.blocker.core.domain.applist
 
 import android.content.pm.PackageInfo
-import android.content.pm.PackageManager
 import app.cash.turbine.test
 import com.merxury.blocker.core.domain.controller.GetAppControllerUseCase
 import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
@@ -30,13 +29,13 @@ import com.merxury.blocker.core.model.preference.TopAppType
 import com.merxury.blocker.core.testing.controller.FakeAppController
 import com.merxury.blocker.core.testing.controller.FakeServiceController
 import com.merxury.blocker.core.testing.data.TestAppStateCache
+import com.merxury.blocker.core.testing.data.TestPackageInfoCache
 import com.merxury.blocker.core.testing.repository.TestAppRepository
 import com.merxury.blocker.core.testing.repository.TestUserDataRepository
 import com.merxury.blocker.core.testing.repository.defaultUserData
 import com.merxury.blocker.core.testing.util.MainDispatcherRule
 import kotlinx.coroutines.test.runTest
 import org.junit.Rule
-import org.mockito.kotlin.any
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 import kotlin.test.Test
@@ -49,14 +48,8 @@ class SearchAppListUseCaseTest {
     private val packageInfo = mock<PackageInfo> {
         on { toString() } doReturn "MockedPackageInfo"
     }
-    private val pm = mock<PackageManager> {
-        on { getPackageInfo(any<String>(), any<Int>()) } doReturn packageInfo
-        on {
-            getPackageInfo(
-                any<String>(),
-                any<PackageManager.PackageInfoFlags>(),
-            )
-        } doReturn packageInfo
+    private val packageInfoCache = TestPackageInfoCache().apply {
+        sendPackageInfo(packageInfo)
     }
     private val userDataRepository = TestUserDataRepository()
     private val appRepository = TestAppRepository()
@@ -68,7 +61,7 @@ class SearchAppListUseCaseTest {
     private val getServiceControllerUseCase =
         GetServiceControllerUseCase(userDataRepository, serviceController, serviceController)
     private val searchAppListUseCase = SearchAppListUseCase(
-        pm,
+        packageInfoCache,
         userDataRepository,
         appRepository,
         appStateCache,
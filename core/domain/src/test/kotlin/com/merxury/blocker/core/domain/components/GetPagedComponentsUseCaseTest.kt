@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.domain.components
+
+import androidx.paging.testing.asSnapshot
+import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentDetail
+import com.merxury.blocker.core.model.data.ComponentInfo
+import com.merxury.blocker.core.model.preference.SortingOrder.DESCENDING
+import com.merxury.blocker.core.testing.controller.FakeServiceController
+import com.merxury.blocker.core.testing.repository.TestComponentDetailRepository
+import com.merxury.blocker.core.testing.repository.TestComponentRepository
+import com.merxury.blocker.core.testing.repository.TestUserDataRepository
+import com.merxury.blocker.core.testing.repository.defaultUserData
+import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.test.runTest
+import org.junit.Rule
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class GetPagedComponentsUseCaseTest {
+    @get:Rule
+    val mainDispatcherRule = MainDispatcherRule()
+
+    private val userDataRepository = TestUserDataRepository()
+    private val componentRepository = TestComponentRepository()
+    private val componentDetailRepository = TestComponentDetailRepository()
+    private val serviceController = FakeServiceController()
+    private val getPagedComponentsUseCase = GetPagedComponentsUseCase(
+        userDataRepository,
+        componentRepository,
+        componentDetailRepository,
+        GetServiceControllerUseCase(userDataRepository, serviceController, serviceController),
+        mainDispatcherRule.testDispatcher,
+    )
+    private val packageName = "com.merxury.blocker.test"
+    private val components = (0 until 8).map {
+        ComponentInfo(
+            packageName = packageName,
+            simpleName = "$it",
+            name = "$packageName.$it",
+            type = if (it % 2 == 0) ACTIVITY else SERVICE,
+        )
+    }
+
+    @Test
+    fun givenComponentList_whenGetPagedComponents_thenGetComponentsOfType() = runTest {
+        userDataRepository.sendUserData(defaultUserData)
+        componentRepository.sendComponentList(components)
+        componentDetailRepository.sendComponentDetail(
+            listOf(ComponentDetail(name = "$packageName.2", description = "Description")),
+        )
+        val snapshot = getPagedComponentsUseCase(packageName, ACTIVITY).asSnapshot()
+        val expected = components.filter { it.type == ACTIVITY }
+            .map {
+                if (it.name == "$packageName.2") it.copy(description = "Description") else it
+            }
+        assertEquals(expected, snapshot)
+    }
+
+    @Test
+    fun givenRunningService_whenGetPagedComponents_thenServiceIsRunning() = runTest {
+        userDataRepository.sendUserData(defaultUserData)
+        componentRepository.sendComponentList(components)
+        componentDetailRepository.sendComponentDetail(emptyList())
+        serviceController.sendRunningServices("$packageName.3")
+        val snapshot = getPagedComponentsUseCase(packageName, SERVICE, "3, 5").asSnapshot()
+        val expected = listOf(
+            components[3].copy(isRunning = true),
+            components[5],
+        )
+        assertEquals(expected, snapshot)
+    }
+
+    @Test
+    fun givenDescendingOrder_whenGetPagedComponentsWithKeyword_thenGetSortedMatches() = runTest {
+        userDataRepository.sendUserData(defaultUserData.copy(componentSortingOrder = DESCENDING))
+        componentRepository.sendComponentList(components)
+        componentDetailRepository.sendComponentDetail(
+            listOf(ComponentDetail(name = "$packageName.4", description = "Description")),
+        )
+        val snapshot = getPagedComponentsUseCase(packageName, ACTIVITY, "2, 4").asSnapshot()
+        val expected = listOf(
+            components[4].copy(description = "Description"),
+            components[2],
+        )
+        assertEquals(expected, snapshot)
+    }
+}
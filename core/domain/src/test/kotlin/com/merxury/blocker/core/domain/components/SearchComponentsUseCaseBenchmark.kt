@@ -0,0 +1,200 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.domain.components
+
+import app.cash.turbine.test
+import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
+import com.merxury.blocker.core.domain.model.ComponentSearchResult
+import com.merxury.blocker.core.model.ComponentType
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import com.merxury.blocker.core.model.ComponentType.PROVIDER
+import com.merxury.blocker.core.model.ComponentType.RECEIVER
+import com.merxury.blocker.core.model.ComponentType.SERVICE
+import com.merxury.blocker.core.model.data.ComponentDetail
+import com.merxury.blocker.core.model.data.ComponentInfo
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.data.toAppItem
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.SortingOrder
+import com.merxury.blocker.core.model.preference.UserPreferenceData
+import com.merxury.blocker.core.testing.controller.FakeServiceController
+import com.merxury.blocker.core.testing.repository.TestAppRepository
+import com.merxury.blocker.core.testing.repository.TestComponentDetailRepository
+import com.merxury.blocker.core.testing.repository.TestComponentRepository
+import com.merxury.blocker.core.testing.repository.TestUserDataRepository
+import com.merxury.blocker.core.testing.repository.defaultUserData
+import com.merxury.blocker.core.testing.util.MainDispatcherRule
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.test.runTest
+import org.junit.Rule
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.time.measureTime
+import kotlin.time.measureTimedValue
+
+private const val PACKAGE_NAME = "com.example.app"
+private const val COMPONENT_COUNT = 3_000
+
+/**
+ * Compares the staged pipeline with sorting and loading the descriptions again on
+ * every change of the sorting preferences, using an app with 3,000 synthetic
+ * components. Results are printed to the test output.
+ *
+ * Only runs with `-PrunBenchmarks=true`.
+ */
+class SearchComponentsUseCaseBenchmark {
+    @get:Rule
+    val mainDispatcherRule = MainDispatcherRule()
+
+    private val userDataRepository = TestUserDataRepository()
+    private val appRepository = TestAppRepository()
+    private val componentRepository = TestComponentRepository()
+    private val componentDetailRepository = TestComponentDetailRepository()
+    private val serviceController = FakeServiceController()
+    private val searchComponentsUseCase = SearchComponentsUseCase(
+        userDataRepository,
+        appRepository,
+        componentRepository,
+        componentDetailRepository,
+        GetServiceControllerUseCase(userDataRepository, serviceController, serviceController),
+        mainDispatcherRule.testDispatcher,
+    )
+
+    @Test
+    fun pipeline_returnsSameResultAsSortingOnEveryChange() = runTest {
+        val app = InstalledApp(packageName = PACKAGE_NAME)
+        val components = syntheticComponents()
+        appRepository.sendAppList(listOf(app))
+        componentRepository.sendComponentList(components)
+        componentDetailRepository.sendComponentDetail(
+            components.filterIndexed { index, _ -> index % 3 == 0 }
+                .map { ComponentDetail(name = it.name, description = "Description of ${it.simpleName}") },
+        )
+        serviceController.sendRunningServices(
+            *components.filter { it.type == SERVICE }.take(50).map { it.name }.toTypedArray(),
+        )
+        val preferences = preferenceChanges()
+
+        var actual: ComponentSearchResult? = null
+        val pipelineTime = measureTime {
+            searchComponentsUseCase(PACKAGE_NAME).test {
+                preferences.forEach { userData ->
+                    userDataRepository.sendUserData(userData)
+                    testScheduler.advanceUntilIdle()
+                    actual = expectMostRecentItem()
+                }
+                cancelAndIgnoreRemainingEvents()
+            }
+        }
+        val (expected, sortTime) = measureTimedValue {
+            preferences.map { userData ->
+                ComponentSearchResult(
+                    app = app.toAppItem(),
+                    activity = sortOnEveryChange(components, userData, ACTIVITY),
+                    service = sortOnEveryChange(components, userData, SERVICE),
+                    receiver = sortOnEveryChange(components, userData, RECEIVER),
+                    provider = sortOnEveryChange(components, userData, PROVIDER),
+                )
+            }.last()
+        }
+        println(
+            "${components.size} components, ${preferences.size} changes: " +
+                "pipeline $pipelineTime, sort on every change $sortTime",
+        )
+        assertEquals(expected, actual)
+    }
+
+    /**
+     * The previous implementation, which read the descriptions and sorted with
+     * keys computed inside the comparator for every emission.
+     */
+    private suspend fun sortOnEveryChange(
+        components: List<ComponentInfo>,
+        userData: UserPreferenceData,
+        type: ComponentType,
+    ): List<ComponentInfo> {
+        val sortedByName = components.filter { it.type == type }.let { list ->
+            when (userData.componentSorting) {
+                ComponentSorting.COMPONENT_NAME -> when (userData.componentSortingOrder) {
+                    SortingOrder.ASCENDING -> list.sortedBy { it.simpleName.lowercase() }
+                    SortingOrder.DESCENDING -> list.sortedByDescending { it.simpleName.lowercase() }
+                }
+
+                ComponentSorting.PACKAGE_NAME -> when (userData.componentSortingOrder) {
+                    SortingOrder.ASCENDING -> list.sortedBy { it.name.lowercase() }
+                    SortingOrder.DESCENDING -> list.sortedByDescending { it.name.lowercase() }
+                }
+            }
+        }
+        val sorted = when (userData.componentShowPriority) {
+            ComponentShowPriority.NONE -> sortedByName
+            ComponentShowPriority.DISABLED_COMPONENTS_FIRST -> sortedByName.sortedBy { it.enabled() }
+            ComponentShowPriority.ENABLED_COMPONENTS_FIRST -> sortedByName.sortedByDescending { it.enabled() }
+        }.let { list ->
+            if (type != SERVICE) return@let list
+            list.map { it.copy(isRunning = serviceController.isServiceRunning(it.packageName, it.name)) }
+                .sortedByDescending { it.isRunning }
+        }
+        return sorted.map {
+            val detail = componentDetailRepository.getLocalComponentDetail(it.name).first()
+            it.copy(description = detail?.description)
+        }
+    }
+
+    private fun preferenceChanges(): List<UserPreferenceData> = buildList {
+        repeat(5) {
+            ComponentSorting.entries.forEach { sorting ->
+                SortingOrder.entries.forEach { order ->
+                    add(
+                        defaultUserData.copy(
+                            componentSorting = sorting,
+                            componentSortingOrder = order,
+                            componentShowPriority = ComponentShowPriority.entries[size % 3],
+                        ),
+                    )
+                }
+            }
+        }
+    }
+
+    private fun syntheticComponents(): List<ComponentInfo> {
+        val random = Random(1)
+        val libraries = listOf(
+            "com.google.firebase.messaging",
+            "com.google.android.gms.ads",
+            "com.tencent.android.tpush",
+            "androidx.work.impl",
+        )
+        val words = listOf(
+            "Messaging", "Service", "Receiver", "Activity", "Job", "Worker",
+            "Init", "Push", "Sync", "Alarm", "Boot", "Core", "Manager",
+        )
+        return List(COMPONENT_COUNT) { index ->
+            val prefix = if (random.nextBoolean()) libraries.random(random) else "$PACKAGE_NAME.ui"
+            val simpleName = words.random(random) + words.random(random) + index
+            ComponentInfo(
+                packageName = PACKAGE_NAME,
+                simpleName = simpleName,
+                name = "$prefix.$simpleName",
+                type = ComponentType.entries.random(random),
+                pmBlocked = random.nextInt(5) == 0,
+            )
+        }
+    }
+}
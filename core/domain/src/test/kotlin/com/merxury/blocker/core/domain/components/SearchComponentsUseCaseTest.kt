@@ -20,12 +20,14 @@ import app.cash.turbine.test
 import com.merxury.blocker.core.domain.controller.GetServiceControllerUseCase
 import com.merxury.blocker.core.domain.model.ComponentSearchResult
 import com.merxury.blocker.core.model.ComponentType
+import com.merxury.blocker.core.model.data.ComponentDetail
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.model.data.toAppItem
 import com.merxury.blocker.core.model.preference.ComponentShowPriority
 import com.merxury.blocker.core.model.preference.ComponentSorting
 import com.merxury.blocker.core.model.preference.SortingOrder
+import com.merxury.blocker.core.model.preference.UserPreferenceData
 import com.merxury.blocker.core.testing.controller.FakeServiceController
 import com.merxury.blocker.core.testing.repository.TestAppRepository
 import com.merxury.blocker.core.testing.repository.TestComponentDetailRepository
@@ -348,4 +350,84 @@ class SearchComponentsUseCaseTest {
             assertEquals(expectedList, awaitItem())
         }
     }
+
+    @Test
+    fun givenCachedDescription_whenComponentDetailUpdated_thenEmitNewDescription() = runTest {
+        userDataRepository.sendUserData(defaultUserData)
+        appRepository.sendAppList(listOf(app1))
+        componentRepository.sendComponentList(components1)
+        val component = components1[15]
+        componentDetailRepository.sendComponentDetail(
+            listOf(ComponentDetail(name = component.name, description = "Old description")),
+        )
+        searchComponentsUseCase(app1PackageName, "15").test {
+            assertEquals(
+                listOf(component.copy(description = "Old description")),
+                awaitItem().provider,
+            )
+
+            componentDetailRepository.sendUpdatedComponent(
+                ComponentDetail(name = component.name, description = "New description"),
+            )
+
+            assertEquals(
+                listOf(component.copy(description = "New description")),
+                awaitItem().provider,
+            )
+        }
+    }
+
+    @Test
+    fun givenPreferenceChanges_whenCollecting_thenEveryResultIsSortedAgain() = runTest {
+        val components = components1.mapIndexed { index, component ->
+            component.copy(pmBlocked = index % 3 == 0, description = "Description $index")
+        }
+        appRepository.sendAppList(listOf(app1))
+        componentRepository.sendComponentList(components.map { it.copy(description = null) })
+        componentDetailRepository.sendComponentDetail(
+            components.map { ComponentDetail(name = it.name, description = it.description) },
+        )
+        val preferences = ComponentSorting.entries.flatMap { sorting ->
+            SortingOrder.entries.map { order ->
+                defaultUserData.copy(
+                    componentSorting = sorting,
+                    componentSortingOrder = order,
+                    componentShowPriority = ComponentShowPriority.entries[order.ordinal + 1],
+                )
+            }
+        }
+
+        searchComponentsUseCase(app1PackageName, "").test {
+            preferences.forEach { userData ->
+                userDataRepository.sendUserData(userData)
+                testScheduler.advanceUntilIdle()
+
+                val expected = ComponentSearchResult(
+                    app = app1.toAppItem(),
+                    activity = sortedComponents(components, ComponentType.ACTIVITY, userData),
+                    service = sortedComponents(components, ComponentType.SERVICE, userData),
+                    receiver = sortedComponents(components, ComponentType.RECEIVER, userData),
+                    provider = sortedComponents(components, ComponentType.PROVIDER, userData),
+                )
+                assertEquals(expected, expectMostRecentItem())
+            }
+        }
+    }
+
+    private fun sortedComponents(
+        components: List<ComponentInfo>,
+        type: ComponentType,
+        userData: UserPreferenceData,
+    ): List<ComponentInfo> {
+        val ofType = components.filter { it.type == type }
+        val sortedByName = when (userData.componentSorting) {
+            ComponentSorting.COMPONENT_NAME -> ofType.sortedBy { it.simpleName.lowercase() }
+            ComponentSorting.PACKAGE_NAME -> ofType.sortedBy { it.name.lowercase() }
+        }.let { if (userData.componentSortingOrder == SortingOrder.DESCENDING) it.reversed() else it }
+        return when (userData.componentShowPriority) {
+            ComponentShowPriority.NONE -> sortedByName
+            ComponentShowPriority.DISABLED_COMPONENTS_FIRST -> sortedByName.sortedBy { it.enabled() }
+            ComponentShowPriority.ENABLED_COMPONENTS_FIRST -> sortedByName.sortedByDescending { it.enabled() }
+        }
+    }
 }
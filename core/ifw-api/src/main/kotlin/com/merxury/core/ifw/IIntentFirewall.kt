@@ -89,6 +89,16 @@ interface IIntentFirewall {
         callback: suspend (ComponentName) -> Unit = {},
     )
 
+    /**
+     * Add component-filter rules for [add] and remove them for [remove],
+     * writing the rules of every package once.
+     */
+    suspend fun updateComponentFilters(
+        add: List<ComponentName>,
+        remove: List<ComponentName>,
+        callback: suspend (ComponentName) -> Unit = {},
+    )
+
     /**
      * Check whether a component is enabled (not blocked by IFW).
      *
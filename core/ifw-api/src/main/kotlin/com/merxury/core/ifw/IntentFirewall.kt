@@ -136,49 +136,34 @@ internal class IntentFirewall @Inject constructor(
     override suspend fun addAllComponentFilters(
         list: List<ComponentName>,
         callback: suspend (ComponentName) -> Unit,
-    ) {
-        if (!rootChecker.isRootAvailable()) {
-            throw RootUnavailableException()
-        }
-        Timber.i("Add component filters for ${list.size} components")
-        val groupedMap = list.groupBy { it.packageName }
-        groupedMap.keys.forEach { packageName ->
-            var rules = getRules(packageName)
-            groupedMap[packageName]?.forEach componentLoop@{ component ->
-                val type = componentTypeResolver.getComponentType(packageName, component.className)
-                if (type == PROVIDER) {
-                    Timber.d("Cannot add IFW rule for $component")
-                    return@componentLoop
-                }
-                val ifwType = type.toIfwComponentType() ?: return@componentLoop
-                val formattedName = component.flattenToString()
-                rules = rules.addComponentFilter(ifwType, formattedName)
-                callback(component)
-            }
-            saveRules(packageName, rules)
-        }
-    }
+    ) = updateComponentFilters(add = list, remove = emptyList(), callback = callback)
 
     override suspend fun removeAllComponentFilters(
         list: List<ComponentName>,
         callback: suspend (ComponentName) -> Unit,
+    ) = updateComponentFilters(add = emptyList(), remove = list, callback = callback)
+
+    override suspend fun updateComponentFilters(
+        add: List<ComponentName>,
+        remove: List<ComponentName>,
+        callback: suspend (ComponentName) -> Unit,
     ) {
         if (!rootChecker.isRootAvailable()) {
             throw RootUnavailableException()
         }
-        Timber.i("Remove component filters for ${list.size} components")
-        val groupedMap = list.groupBy { it.packageName }
-        groupedMap.keys.forEach { packageName ->
+        Timber.i("Add component filters for ${add.size} components, remove for ${remove.size} components")
+        val addedMap = add.groupBy { it.packageName }
+        val removedMap = remove.groupBy { it.packageName }
+        (addedMap.keys + removedMap.keys).forEach { packageName ->
             var rules = getRules(packageName)
-            groupedMap[packageName]?.forEach componentLoop@{ component ->
-                val type = componentTypeResolver.getComponentType(packageName, component.className)
-                if (type == PROVIDER) {
-                    Timber.d("Cannot remove IFW rule for $component")
-                    return@componentLoop
-                }
-                val ifwType = type.toIfwComponentType() ?: return@componentLoop
-                val formattedName = component.flattenToString()
-                rules = rules.removeComponentFilter(ifwType, formattedName)
+            addedMap[packageName]?.forEach componentLoop@{ component ->
+                val ifwType = resolveFilterType(component) ?: return@componentLoop
+                rules = rules.addComponentFilter(ifwType, component.flattenToString())
+                callback(component)
+            }
+            removedMap[packageName]?.forEach componentLoop@{ component ->
+                val ifwType = resolveFilterType(component) ?: return@componentLoop
+                rules = rules.removeComponentFilter(ifwType, component.flattenToString())
                 callback(component)
             }
             saveRules(packageName, rules)
@@ -210,6 +195,15 @@ internal class IntentFirewall @Inject constructor(
 
     // ── Private Helpers ────────────────────────────────────────────────
 
+    private suspend fun resolveFilterType(component: ComponentName): IfwComponentType? {
+        val type = componentTypeResolver.getComponentType(component.packageName, component.className)
+        if (type == PROVIDER) {
+            Timber.d("Cannot change IFW rule for $component")
+            return null
+        }
+        return type.toIfwComponentType()
+    }
+
     private fun cacheEmpty(packageName: String): IfwRules {
         val empty = IfwRules.empty()
         cache[packageName] = empty
@@ -183,6 +183,24 @@ class IntentFirewallTest {
         assertTrue(intentFirewall.getComponentEnableState(testPackage, testService))
     }
 
+    @Test
+    fun givenAddedAndRemovedComponents_whenUpdate_thenRulesAreWrittenOnce() = runTest {
+        intentFirewall.addComponentFilter(testPackage, testReceiver)
+        val writeCount = fileSystem.writeCount
+
+        val callbackComponents = mutableListOf<ComponentName>()
+        intentFirewall.updateComponentFilters(
+            add = listOf(ComponentName(testPackage, testService), ComponentName(testPackage, testProvider)),
+            remove = listOf(ComponentName(testPackage, testReceiver)),
+        ) { callbackComponents.add(it) }
+
+        assertEquals(2, callbackComponents.size)
+        assertEquals(writeCount + 1, fileSystem.writeCount)
+        assertTrue(intentFirewall.getComponentEnableState(testPackage, testReceiver))
+        assertFalse(intentFirewall.getComponentEnableState(testPackage, testService))
+        assertTrue(intentFirewall.getComponentEnableState(testPackage, testProvider))
+    }
+
     @Test
     fun givenBlockedComponents_whenClear_thenAllRulesAreRemoved() = runTest {
         intentFirewall.addComponentFilter(testPackage, testReceiver)
@@ -29,6 +29,7 @@ data class UserEditableSettings(
     val ruleBackupFolder: String = "",
     val backupSystemApp: Boolean = false,
     val restoreSystemApp: Boolean = false,
+    val archiveBackup: Boolean = false,
     val showSystemApps: Boolean = false,
     val showServiceInfo: Boolean = false,
     val darkThemeConfig: DarkThemeConfig,
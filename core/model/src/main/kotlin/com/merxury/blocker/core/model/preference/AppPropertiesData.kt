@@ -21,4 +21,9 @@ data class AppPropertiesData(
     val generalRuleDatabaseInitialized: Boolean = false,
     val lastOpenedAppListHash: String = "",
     val lastOpenedRuleHash: String = "",
+    val packageChangeBootCount: Int = 0,
+    val packageChangeSequenceNumber: Int = 0,
+    val initializedComponentPackages: Set<String> = emptySet(),
+    val appLabelLocale: String = "",
+    val indexedComponentDetailLanguages: Set<String> = emptySet(),
 )
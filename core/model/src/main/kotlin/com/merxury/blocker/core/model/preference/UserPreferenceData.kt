@@ -26,6 +26,7 @@ data class UserPreferenceData(
     val ruleBackupFolder: String,
     val backupSystemApp: Boolean,
     val restoreSystemApp: Boolean,
+    val archiveBackup: Boolean,
     val showSystemApps: Boolean,
     val showServiceInfo: Boolean,
     val appSorting: AppSorting,
@@ -43,6 +43,7 @@ dependencies {
     ksp(libs.hilt.compiler)
     ksp(libs.hilt.ext.compiler)
 
+    testImplementation(libs.kotlinx.coroutines.test)
     testImplementation(projects.core.testing)
 
     androidTestImplementation(projects.core.testing)
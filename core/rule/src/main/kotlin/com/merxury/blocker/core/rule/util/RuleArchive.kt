@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.rule.util
+
+import com.merxury.blocker.core.model.rule.BlockerRule
+import com.merxury.blocker.core.rule.EXTENSION
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import java.io.Closeable
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.zip.ZipEntry
+import java.util.zip.ZipInputStream
+import java.util.zip.ZipOutputStream
+
+internal const val RULE_ARCHIVE_NAME = "blocker-rules.zip"
+internal const val RULE_ARCHIVE_MIME = "application/zip"
+
+// A full backup is written here first, then swapped with RULE_ARCHIVE_NAME
+internal const val RULE_ARCHIVE_PENDING_NAME = "blocker-rules-pending.zip"
+internal const val RULE_ARCHIVE_OLD_NAME = "blocker-rules-old.zip"
+private const val TOC_ENTRY_NAME = "blocker-rules.toc"
+private const val ARCHIVE_VERSION = 1
+
+/**
+ * Name of an increment archive written at [timestamp], increments sort by the time they were written.
+ */
+internal fun ruleIncrementName(timestamp: Long) = "blocker-rules-$timestamp.zip"
+
+/**
+ * Table of contents of a rule archive, stored as its first entry so that
+ * readers know the number of packages before streaming the rules.
+ *
+ * @property packageNames the packages covered by the backup. Packages without
+ * any component have no entry in the archive, nor have unchanged packages in an increment.
+ * @property deletedPackageNames packages of earlier backups that are no longer installed
+ */
+@Serializable
+internal data class RuleArchiveToc(
+    val version: Int = ARCHIVE_VERSION,
+    val packageNames: List<String>,
+    val deletedPackageNames: List<String> = emptyList(),
+)
+
+/**
+ * Writes Blocker rules into a single zip archive through one output stream.
+ *
+ * Every rule is stored as `<packageName>.json`, the same layout as a folder backup,
+ * so an extracted archive can still be imported as a folder.
+ */
+internal class RuleArchiveWriter(output: OutputStream, private val json: Json) : Closeable {
+    private val zip = ZipOutputStream(output.buffered())
+
+    /**
+     * Writes the table of contents, needs to be called before any [writeRule].
+     */
+    fun writeToc(toc: RuleArchiveToc) {
+        writeEntry(TOC_ENTRY_NAME, json.encodeToString(toc))
+    }
+
+    fun writeRule(packageName: String, content: String) {
+        writeEntry(packageName + EXTENSION, content)
+    }
+
+    private fun writeEntry(name: String, content: String) {
+        zip.putNextEntry(ZipEntry(name))
+        zip.write(content.toByteArray())
+        zip.closeEntry()
+    }
+
+    override fun close() {
+        zip.close()
+    }
+}
+
+/**
+ * Reads a rule archive written by [RuleArchiveWriter] entry by entry,
+ * without extracting it or loading every rule into memory.
+ */
+internal class RuleArchiveReader(input: InputStream, private val json: Json) : Closeable {
+    private val zip = ZipInputStream(input.buffered())
+    private var entry: ZipEntry? = zip.nextEntry
+
+    /**
+     * Returns the table of contents, or null if the archive doesn't start with one.
+     * Needs to be called before [forEachRule].
+     */
+    fun readToc(): RuleArchiveToc? {
+        if (entry?.name != TOC_ENTRY_NAME) return null
+        val toc = json.decodeFromString<RuleArchiveToc>(zip.readBytes().decodeToString())
+        entry = zip.nextEntry
+        return toc
+    }
+
+    suspend fun forEachRule(action: suspend (BlockerRule) -> Unit) {
+        var current = entry
+        while (current != null) {
+            if (!current.isDirectory && current.name.endsWith(EXTENSION)) {
+                action(json.decodeFromString<BlockerRule>(zip.readBytes().decodeToString()))
+            }
+            current = zip.nextEntry
+        }
+        entry = null
+    }
+
+    override fun close() {
+        zip.close()
+    }
+}
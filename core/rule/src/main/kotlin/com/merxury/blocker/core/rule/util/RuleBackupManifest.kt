@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.rule.util
+
+import android.content.Context
+import androidx.documentfile.provider.DocumentFile
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import timber.log.Timber
+import java.io.IOException
+import java.security.MessageDigest
+
+internal const val RULE_MANIFEST_NAME = "blocker-rules.manifest"
+
+/**
+ * Manifest of the archive mode. The folder mode keeps its own [RULE_MANIFEST_NAME], as
+ * the hashes of one mode don't describe the files written by the other.
+ */
+internal const val RULE_ARCHIVE_MANIFEST_NAME = "blocker-rules-archive.manifest"
+private const val RULE_MANIFEST_MIME = "application/octet-stream"
+private const val MANIFEST_VERSION = 1
+
+/**
+ * State of the last Blocker rule backup in a folder, used to only write
+ * the rules that changed since then.
+ *
+ * @property hashes the [ruleHash] of every backed up rule, keyed by package name
+ * @property deletedPackageNames packages that were backed up before, but are no longer installed
+ * @property increments in the archive manifest, the archives written on top of [RULE_ARCHIVE_NAME], oldest first
+ */
+@Serializable
+internal data class RuleBackupManifest(
+    val version: Int = MANIFEST_VERSION,
+    val hashes: Map<String, String> = emptyMap(),
+    val deletedPackageNames: Set<String> = emptySet(),
+    val increments: List<String> = emptyList(),
+) {
+    fun isUnchanged(packageName: String, hash: String): Boolean = hashes[packageName] == hash
+
+    /**
+     * Packages in this manifest that are missing from [packageNames] and no longer installed.
+     * Packages that are still installed were only left out, e.g. system apps.
+     */
+    fun findDeleted(
+        packageNames: Collection<String>,
+        isInstalled: (String) -> Boolean,
+    ): Set<String> {
+        val backedUp = packageNames.toHashSet()
+        return hashes.keys.filterTo(HashSet()) { it !in backedUp && !isInstalled(it) }
+    }
+
+    /**
+     * Returns the manifest after a backup that produced [newHashes] and found [deleted] packages.
+     * Hashes of packages left out of the backup are kept, as their rules are still in the folder.
+     */
+    fun update(
+        newHashes: Map<String, String>,
+        deleted: Set<String>,
+        increments: List<String> = this.increments,
+    ): RuleBackupManifest = copy(
+        hashes = hashes - deleted + newHashes,
+        deletedPackageNames = deletedPackageNames - newHashes.keys + deleted,
+        increments = increments,
+    )
+}
+
+/**
+ * Hash of an encoded rule, two backups of an unchanged app produce the same hash.
+ */
+internal fun ruleHash(content: String): String = MessageDigest.getInstance("SHA-256")
+    .digest(content.toByteArray())
+    .joinToString("") { "%02x".format(it) }
+
+/**
+ * Reads the manifest stored in [file].
+ *
+ * @return the manifest, or null if [file] doesn't exist or can't be read
+ */
+internal fun readRuleBackupManifest(context: Context, file: DocumentFile?, json: Json): RuleBackupManifest? {
+    if (file == null) return null
+    return try {
+        context.contentResolver.openInputStream(file.uri)?.use {
+            json.decodeFromString<RuleBackupManifest>(it.readBytes().decodeToString())
+        }
+    } catch (e: IOException) {
+        Timber.e(e, "Cannot read ${file.uri}")
+        null
+    } catch (e: SerializationException) {
+        Timber.e(e, "Invalid backup manifest ${file.uri}")
+        null
+    }
+}
+
+/**
+ * Writes [manifest] to [file], or to a new file named [name] in [dir] if [file] is null.
+ */
+internal fun writeRuleBackupManifest(
+    context: Context,
+    dir: DocumentFile,
+    file: DocumentFile?,
+    name: String,
+    manifest: RuleBackupManifest,
+    json: Json,
+) {
+    val target = file ?: dir.createFile(RULE_MANIFEST_MIME, name)
+        ?: throw IOException("Cannot create $name")
+    context.contentResolver.openOutputStream(target.uri, "rwt")?.use {
+        it.write(json.encodeToString(manifest).toByteArray())
+    } ?: throw IOException("Cannot open ${target.uri}")
+}
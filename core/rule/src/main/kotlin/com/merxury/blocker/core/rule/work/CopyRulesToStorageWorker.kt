@@ -23,6 +23,7 @@ import androidx.work.OneTimeWorkRequestBuilder
 import androidx.work.OutOfQuotaPolicy
 import androidx.work.WorkerParameters
 import com.merxury.blocker.core.data.di.RuleBaseFolder
+import com.merxury.blocker.core.data.respository.componentdetail.ComponentDetailRepository
 import com.merxury.blocker.core.di.FilesDir
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
@@ -44,6 +45,7 @@ class CopyRulesToStorageWorker @AssistedInject constructor(
     @Assisted private val context: Context,
     @Assisted params: WorkerParameters,
     private val assetManager: AssetManager,
+    private val componentDetailRepository: ComponentDetailRepository,
     @FilesDir private val filesDir: File,
     @RuleBaseFolder private val ruleBaseFolder: String,
     @Dispatcher(IO) private val ioDispatcher: CoroutineDispatcher,
@@ -65,6 +67,10 @@ class CopyRulesToStorageWorker @AssistedInject constructor(
             assetManager.copyAssetFolder(ruleBaseFolder, workingFolder.absolutePath)
         }
         Timber.i("Used $copyTimeCost to copy rules from assets")
+        val indexTimeCost = measureTime {
+            componentDetailRepository.updateComponentDetailIndex()
+        }
+        Timber.i("Used $indexTimeCost to index component details")
         return@withContext Result.success()
     }
 
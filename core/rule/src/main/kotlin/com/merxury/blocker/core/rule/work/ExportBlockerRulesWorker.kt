@@ -18,7 +18,7 @@ package com.merxury.blocker.core.rule.work
 
 import android.content.ComponentName
 import android.content.Context
-import android.net.Uri
+import android.content.pm.ComponentInfo
 import androidx.core.content.pm.PackageInfoCompat
 import androidx.core.net.toUri
 import androidx.documentfile.provider.DocumentFile
@@ -29,6 +29,7 @@ import androidx.work.WorkerParameters
 import androidx.work.workDataOf
 import com.merxury.blocker.core.dispatchers.BlockerDispatchers.IO
 import com.merxury.blocker.core.dispatchers.Dispatcher
+import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.ComponentType.ACTIVITY
 import com.merxury.blocker.core.model.ComponentType.PROVIDER
 import com.merxury.blocker.core.model.ComponentType.RECEIVER
@@ -41,17 +42,40 @@ import com.merxury.blocker.core.rule.EXTENSION
 import com.merxury.blocker.core.rule.R
 import com.merxury.blocker.core.rule.entity.RuleWorkResult
 import com.merxury.blocker.core.rule.entity.RuleWorkResult.PARAM_WORK_RESULT
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_MANIFEST_NAME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_MIME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_NAME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_OLD_NAME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_PENDING_NAME
+import com.merxury.blocker.core.rule.util.RULE_MANIFEST_NAME
+import com.merxury.blocker.core.rule.util.RuleArchiveToc
+import com.merxury.blocker.core.rule.util.RuleArchiveWriter
+import com.merxury.blocker.core.rule.util.RuleBackupManifest
 import com.merxury.blocker.core.rule.util.StorageUtil
+import com.merxury.blocker.core.rule.util.readRuleBackupManifest
+import com.merxury.blocker.core.rule.util.ruleHash
+import com.merxury.blocker.core.rule.util.ruleIncrementName
+import com.merxury.blocker.core.rule.util.writeRuleBackupManifest
 import com.merxury.blocker.core.utils.PackageInfoDataSource
 import com.merxury.core.ifw.IIntentFirewall
+import com.merxury.core.ifw.model.IfwComponentType
+import com.merxury.core.ifw.model.IfwRules
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
 import kotlinx.coroutines.CoroutineDispatcher
-import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.joinAll
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.Json
 import timber.log.Timber
+import java.io.IOException
+import java.util.Locale
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.DurationUnit.SECONDS
+import kotlin.time.TimeSource
 
 @HiltWorker
 class ExportBlockerRulesWorker @AssistedInject constructor(
@@ -78,11 +102,18 @@ class ExportBlockerRulesWorker @AssistedInject constructor(
                 workDataOf(PARAM_WORK_RESULT to RuleWorkResult.MISSING_STORAGE_PERMISSION),
             )
         }
+        val dir = DocumentFile.fromTreeUri(context, backupPath.toUri())
+        if (dir == null) {
+            Timber.e("Cannot open $backupPath")
+            return Result.failure(
+                workDataOf(PARAM_WORK_RESULT to RuleWorkResult.MISSING_STORAGE_PERMISSION),
+            )
+        }
         // Check backing up one application or all applications
         val packageName = inputData.getString(PARAM_BACKUP_APP_PACKAGE_NAME)
         if (!packageName.isNullOrEmpty()) {
             try {
-                backupSingleApp(packageName, backupPath)
+                backupSingleApp(packageName, dir)
             } catch (e: Exception) {
                 Timber.e(e, "Failed to export blocker rule for $packageName")
                 return Result.failure(
@@ -96,20 +127,25 @@ class ExportBlockerRulesWorker @AssistedInject constructor(
         setForeground(updateNotification("", 0, 0))
         // Backup logic
         val shouldBackupSystemApp = inputData.getBoolean(PARAM_BACKUP_SYSTEM_APPS, false)
+        val archive = inputData.getBoolean(PARAM_ARCHIVE, false)
         return withContext(ioDispatcher) {
-            var current = 1
-            try {
+            val count = try {
                 val list = if (shouldBackupSystemApp) {
                     packageInfoDataSource.getApplicationList()
                 } else {
                     packageInfoDataSource.getThirdPartyApplicationList()
                 }
-                val total = list.count()
-                list.forEach {
-                    setForeground(updateNotification(it.packageName, current, total))
-                    export(it.packageName, backupPath.toUri())
-                    current++
+                val packageNames = list.map { it.packageName }
+                if (archive) {
+                    exportToArchive(packageNames, dir)
+                } else {
+                    exportToFolder(packageNames, dir)
                 }
+            } catch (e: IOException) {
+                Timber.e(e, "Failed to write blocker rules")
+                return@withContext Result.failure(
+                    workDataOf(PARAM_WORK_RESULT to RuleWorkResult.MISSING_STORAGE_PERMISSION),
+                )
             } catch (e: Exception) {
                 Timber.e(e, "Failed to export blocker rules")
                 return@withContext Result.failure(
@@ -119,18 +155,201 @@ class ExportBlockerRulesWorker @AssistedInject constructor(
             // Success, show a toast then cancel notifications
             Timber.i("Backup app rules finished.")
             return@withContext Result.success(
-                workDataOf(PARAM_BACKUP_COUNT to current),
+                workDataOf(PARAM_BACKUP_COUNT to count),
             )
         }
     }
 
-    private suspend fun backupSingleApp(packageName: String, backupPath: String) {
+    private suspend fun backupSingleApp(packageName: String, dir: DocumentFile) {
         Timber.d("Start to backup app rules for $packageName")
         setForeground(updateNotification(packageName, 1, 1))
-        export(packageName, backupPath.toUri())
+        val blockedByIfw = blockedComponents(intentFirewall.getRules(packageName))
+        val content = encodeRule(packageName, blockedByIfw) ?: return
+        withContext(ioDispatcher) {
+            saveRuleToStorage(dir, dir.findFile(packageName + EXTENSION), packageName, content)
+        }
     }
 
-    private suspend fun export(packageName: String, destUri: Uri): Boolean {
+    /**
+     * Writes one file per app. Apps whose rule didn't change since the last backup,
+     * according to the [RuleBackupManifest] of the folder, are skipped.
+     */
+    private suspend fun exportToFolder(packageNames: List<String>, dir: DocumentFile): Int {
+        // Listing the folder once is much cheaper than calling findFile for every app
+        val existingFiles = dir.listFiles().associateBy { it.name }
+        val manifestFile = existingFiles[RULE_MANIFEST_NAME]
+        val manifest = readRuleBackupManifest(context, manifestFile, json) ?: RuleBackupManifest()
+        val deleted = manifest.findDeleted(packageNames, packageInfoDataSource::isAppInstalled)
+        val hashes = HashMap<String, String>()
+        var written = 0
+        val count = exportAll(packageNames) { packageName, content, hash ->
+            val existingFile = existingFiles[packageName + EXTENSION]
+            if (existingFile != null && manifest.isUnchanged(packageName, hash)) {
+                hashes[packageName] = hash
+            } else if (saveRuleToStorage(dir, existingFile, packageName, content)) {
+                hashes[packageName] = hash
+                written++
+            }
+        }
+        writeRuleBackupManifest(
+            context,
+            dir,
+            manifestFile,
+            RULE_MANIFEST_NAME,
+            manifest.update(hashes, deleted),
+            json,
+        )
+        Timber.i("Wrote $written changed rules, ${deleted.size} apps were deleted since the last backup")
+        return count
+    }
+
+    /**
+     * Writes the rules into a single [RULE_ARCHIVE_NAME] file, so that a full backup
+     * costs one document instead of one per app.
+     *
+     * Once a full backup exists, later backups write an increment archive that only contains
+     * the rules changed since then. A full backup replaces the increments once there are
+     * [MAX_INCREMENTS] of them.
+     */
+    private suspend fun exportToArchive(packageNames: List<String>, dir: DocumentFile): Int {
+        val existingFiles = dir.listFiles().associateBy { it.name }
+        // Left behind by an interrupted backup
+        existingFiles[RULE_ARCHIVE_PENDING_NAME]?.delete()
+        val manifestFile = existingFiles[RULE_ARCHIVE_MANIFEST_NAME]
+        val baseFile = existingFiles[RULE_ARCHIVE_NAME]
+            ?.also { existingFiles[RULE_ARCHIVE_OLD_NAME]?.delete() }
+            ?: existingFiles[RULE_ARCHIVE_OLD_NAME]
+        val previous = baseFile?.let { readRuleBackupManifest(context, manifestFile, json) }
+        val isIncrement = previous != null && previous.increments.size < MAX_INCREMENTS
+        val manifest = if (isIncrement) requireNotNull(previous) else RuleBackupManifest()
+        val deleted = manifest.findDeleted(packageNames, packageInfoDataSource::isAppInstalled)
+        // A full backup never overwrites the previous one until it's complete
+        val name = if (isIncrement) ruleIncrementName(System.currentTimeMillis()) else RULE_ARCHIVE_PENDING_NAME
+        val file = dir.createFile(RULE_ARCHIVE_MIME, name)
+            ?: throw IOException("Cannot create $name")
+        val hashes = HashMap<String, String>()
+        var written = 0
+        val count = try {
+            val output = context.contentResolver.openOutputStream(file.uri, "rwt")
+                ?: throw IOException("Cannot open ${file.uri}")
+            RuleArchiveWriter(output, json).use { writer ->
+                writer.writeToc(RuleArchiveToc(packageNames = packageNames, deletedPackageNames = deleted.toList()))
+                exportAll(packageNames) { packageName, content, hash ->
+                    hashes[packageName] = hash
+                    if (!manifest.isUnchanged(packageName, hash)) {
+                        writer.writeRule(packageName, content)
+                        written++
+                    }
+                }
+            }
+        } catch (e: Exception) {
+            // The previous archives and the manifest are still untouched
+            file.delete()
+            throw e
+        }
+        val increments = when {
+            !isIncrement -> {
+                // The increments are only dropped once the new full backup is in place
+                replaceArchive(baseFile, file)
+                previous?.increments?.forEach { existingFiles[it]?.delete() }
+                emptyList()
+            }
+            // Nothing to restore from an empty increment
+            written == 0 && deleted.isEmpty() -> {
+                file.delete()
+                manifest.increments
+            }
+            else -> manifest.increments + file.name.orEmpty()
+        }
+        // Written last, so that the manifest only ever lists complete archives
+        writeRuleBackupManifest(
+            context,
+            dir,
+            manifestFile,
+            RULE_ARCHIVE_MANIFEST_NAME,
+            manifest.update(hashes, deleted, increments),
+            json,
+        )
+        Timber.i("Wrote $written rules to ${file.name}, ${deleted.size} apps were deleted since the last backup")
+        return count
+    }
+
+    /**
+     * Makes [newFile] the [RULE_ARCHIVE_NAME] of the folder. [oldFile] is renamed out of the way
+     * first and only deleted once [newFile] is in place, so that one of them always holds a full backup.
+     */
+    private fun replaceArchive(oldFile: DocumentFile?, newFile: DocumentFile) {
+        if (oldFile != null && oldFile.name != RULE_ARCHIVE_OLD_NAME && !oldFile.renameTo(RULE_ARCHIVE_OLD_NAME)) {
+            throw IOException("Cannot rename ${oldFile.uri}")
+        }
+        if (!newFile.renameTo(RULE_ARCHIVE_NAME)) {
+            oldFile?.renameTo(RULE_ARCHIVE_NAME)
+            throw IOException("Cannot rename ${newFile.uri}")
+        }
+        oldFile?.delete()
+    }
+
+    /**
+     * Exports the rules of [packageNames] through [write] and returns the number of apps processed.
+     *
+     * IFW states are loaded once for every package up front. Rules are then built and
+     * encoded by [EXPORT_CONCURRENCY] coroutines, while [write] is called from a single
+     * coroutine, so that reading states overlaps with writing files.
+     */
+    private suspend fun exportAll(
+        packageNames: List<String>,
+        write: (packageName: String, content: String, hash: String) -> Unit,
+    ): Int = coroutineScope {
+        val start = TimeSource.Monotonic.markNow()
+        val total = packageNames.size
+        val ifwRules = intentFirewall.getAllRules()
+        val packages = Channel<String>(Channel.UNLIMITED)
+        packageNames.forEach { packages.trySend(it) }
+        packages.close()
+        val encodedRules = Channel<EncodedRule>(WRITE_QUEUE_SIZE)
+        val encoders = List(EXPORT_CONCURRENCY) {
+            launch {
+                for (packageName in packages) {
+                    val blockedByIfw = blockedComponents(ifwRules[packageName])
+                    val content = encodeRule(packageName, blockedByIfw)
+                    encodedRules.send(EncodedRule(packageName, content, content?.let(::ruleHash)))
+                }
+            }
+        }
+        launch {
+            encoders.joinAll()
+            encodedRules.close()
+        }
+        var current = 0
+        var lastNotification = TimeSource.Monotonic.markNow() - NOTIFICATION_INTERVAL
+        for (rule in encodedRules) {
+            if (rule.content != null && rule.hash != null) {
+                write(rule.packageName, rule.content, rule.hash)
+            }
+            current++
+            if (lastNotification.elapsedNow() >= NOTIFICATION_INTERVAL || current == total) {
+                setForeground(updateNotification(rule.packageName, current, total))
+                lastNotification = TimeSource.Monotonic.markNow()
+            }
+        }
+        val elapsed = start.elapsedNow()
+        val rate = current / elapsed.toDouble(SECONDS).coerceAtLeast(0.001)
+        Timber.i("Exported rules of $current apps in $elapsed, ${String.format(Locale.ROOT, "%.1f", rate)} apps/s")
+        current
+    }
+
+    private fun blockedComponents(rules: IfwRules?): Set<String> {
+        if (rules == null) return emptySet()
+        return IfwComponentType.entries.flatMapTo(HashSet()) { rules.componentFiltersFor(it) }
+    }
+
+    /**
+     * Builds the rule of [packageName] and encodes it to JSON.
+     *
+     * @param blockedByIfw the components blocked by IFW, in `packageName/componentName` form
+     * @return the encoded rule, or null if the app has no component or the export failed
+     */
+    private suspend fun encodeRule(packageName: String, blockedByIfw: Set<String>): String? {
         Timber.i("Export Blocker rules for $packageName")
         val applicationInfo = packageInfoDataSource.getApplicationComponents(packageName)
         val rule = BlockerRule(
@@ -138,158 +357,90 @@ class ExportBlockerRulesWorker @AssistedInject constructor(
             versionName = applicationInfo.versionName,
             versionCode = PackageInfoCompat.getLongVersionCode(applicationInfo),
         )
-        try {
-            applicationInfo.receivers?.forEach {
-                val stateIFW = intentFirewall.getComponentEnableState(it.packageName, it.name)
-                val statePM = packageInfoDataSource.checkComponentIsEnabled(
-                    ComponentName(it.packageName, it.name),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        stateIFW,
-                        RECEIVER,
-                        IFW,
-                    ),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        statePM,
-                        RECEIVER,
-                        PM,
-                    ),
-                )
-            }
-            applicationInfo.services?.forEach {
-                val stateIFW = intentFirewall.getComponentEnableState(it.packageName, it.name)
-                val statePM = packageInfoDataSource.checkComponentIsEnabled(
-                    ComponentName(it.packageName, it.name),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        stateIFW,
-                        SERVICE,
-                        IFW,
-                    ),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        statePM,
-                        SERVICE,
-                        PM,
-                    ),
-                )
-            }
-            applicationInfo.activities?.forEach {
-                val stateIFW = intentFirewall.getComponentEnableState(it.packageName, it.name)
-                val statePM = packageInfoDataSource.checkComponentIsEnabled(
-                    ComponentName(it.packageName, it.name),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        stateIFW,
-                        ACTIVITY,
-                        IFW,
-                    ),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        statePM,
-                        ACTIVITY,
-                        PM,
-                    ),
-                )
-            }
-            applicationInfo.providers?.forEach {
-                val statePM = packageInfoDataSource.checkComponentIsEnabled(
-                    ComponentName(it.packageName, it.name),
-                )
-                rule.components.add(
-                    ComponentRule(
-                        it.packageName,
-                        it.name,
-                        statePM,
-                        PROVIDER,
-                        PM,
-                    ),
-                )
-            }
-            val result = if (rule.components.isNotEmpty()) {
-                saveRuleToStorage(context, rule, packageName, destUri, ioDispatcher)
+        return try {
+            rule.addComponents(applicationInfo.receivers, RECEIVER, blockedByIfw)
+            rule.addComponents(applicationInfo.services, SERVICE, blockedByIfw)
+            rule.addComponents(applicationInfo.activities, ACTIVITY, blockedByIfw)
+            rule.addComponents(applicationInfo.providers, PROVIDER, blockedByIfw)
+            if (rule.components.isNotEmpty()) {
+                json.encodeToString(rule)
             } else {
-                // No components exported, return true
-                true
+                // No components exported
+                null
             }
-            return result
         } catch (e: RuntimeException) {
             Timber.e(e, "Failed to export $packageName")
-            return false
+            null
         }
     }
 
-    private suspend fun saveRuleToStorage(
-        context: Context,
-        rule: BlockerRule,
+    private fun BlockerRule.addComponents(
+        components: Array<out ComponentInfo>?,
+        type: ComponentType,
+        blockedByIfw: Set<String>,
+    ) {
+        components?.forEach {
+            // IFW can't block providers
+            if (type != PROVIDER) {
+                val stateIFW = "${it.packageName}/${it.name}" !in blockedByIfw
+                this.components.add(ComponentRule(it.packageName, it.name, stateIFW, type, IFW))
+            }
+            val statePM = packageInfoDataSource.checkComponentIsEnabled(
+                ComponentName(it.packageName, it.name),
+            )
+            this.components.add(ComponentRule(it.packageName, it.name, statePM, type, PM))
+        }
+    }
+
+    private fun saveRuleToStorage(
+        dir: DocumentFile,
+        existingFile: DocumentFile?,
         packageName: String,
-        destUri: Uri,
-        dispatcher: CoroutineDispatcher = Dispatchers.IO,
+        content: String,
     ): Boolean {
-        val dir = DocumentFile.fromTreeUri(context, destUri)
-        if (dir == null) {
-            Timber.e("Cannot open $destUri")
-            return false
-        }
         // Create blocker rule file
-        var file = dir.findFile(packageName + EXTENSION)
-        if (file == null) {
-            file = dir.createFile(BLOCKER_RULE_MIME, packageName)
-        }
+        val file = existingFile ?: dir.createFile(BLOCKER_RULE_MIME, packageName)
         if (file == null) {
             Timber.w("Cannot create rule $packageName")
             return false
         }
-        return withContext(dispatcher) {
-            try {
-                context.contentResolver.openOutputStream(file.uri, "rwt")?.use {
-                    val text = json.encodeToString(rule)
-                    it.write(text.toByteArray())
-                }
-                return@withContext true
-            } catch (e: Exception) {
-                Timber.e(e, "Cannot write rules for $packageName")
-                return@withContext false
+        return try {
+            context.contentResolver.openOutputStream(file.uri, "rwt")?.use {
+                it.write(content.toByteArray())
             }
+            true
+        } catch (e: Exception) {
+            Timber.e(e, "Cannot write rules for $packageName")
+            false
         }
     }
 
+    private class EncodedRule(val packageName: String, val content: String?, val hash: String?)
+
     companion object {
         const val PARAM_BACKUP_COUNT = "param_backup_count"
         private const val PARAM_FOLDER_PATH = "param_folder_path"
         private const val PARAM_BACKUP_SYSTEM_APPS = "param_backup_system_apps"
         private const val PARAM_BACKUP_APP_PACKAGE_NAME = "param_backup_app_package_name"
+        private const val PARAM_ARCHIVE = "param_archive"
         private const val BLOCKER_RULE_MIME = "application/json"
+        private const val EXPORT_CONCURRENCY = 4
+        private const val WRITE_QUEUE_SIZE = 16
+        private const val MAX_INCREMENTS = 14
+        private val NOTIFICATION_INTERVAL = 500.milliseconds
 
         fun exportWork(
             folderPath: String?,
             backupSystemApps: Boolean,
             backupPackageName: String? = null,
+            archive: Boolean = false,
         ) = OneTimeWorkRequestBuilder<ExportBlockerRulesWorker>()
             .setInputData(
                 workDataOf(
                     PARAM_FOLDER_PATH to folderPath,
                     PARAM_BACKUP_SYSTEM_APPS to backupSystemApps,
                     PARAM_BACKUP_APP_PACKAGE_NAME to backupPackageName,
+                    PARAM_ARCHIVE to archive,
                 ),
             )
             .setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST)
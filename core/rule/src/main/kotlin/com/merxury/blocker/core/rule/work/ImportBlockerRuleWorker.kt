@@ -37,11 +37,17 @@ import com.merxury.blocker.core.model.data.ControllerType
 import com.merxury.blocker.core.model.data.ControllerType.IFW
 import com.merxury.blocker.core.model.data.ControllerType.SHIZUKU
 import com.merxury.blocker.core.model.rule.BlockerRule
+import com.merxury.blocker.core.model.rule.ComponentRule
 import com.merxury.blocker.core.rule.EXTENSION
 import com.merxury.blocker.core.rule.R
 import com.merxury.blocker.core.rule.entity.RuleWorkResult
 import com.merxury.blocker.core.rule.entity.RuleWorkResult.PARAM_WORK_RESULT
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_MANIFEST_NAME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_NAME
+import com.merxury.blocker.core.rule.util.RULE_ARCHIVE_OLD_NAME
+import com.merxury.blocker.core.rule.util.RuleArchiveReader
 import com.merxury.blocker.core.rule.util.StorageUtil
+import com.merxury.blocker.core.rule.util.readRuleBackupManifest
 import com.merxury.blocker.core.utils.PackageInfoDataSource
 import dagger.assisted.Assisted
 import dagger.assisted.AssistedInject
@@ -51,6 +57,7 @@ import kotlinx.serialization.ExperimentalSerializationApi
 import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.decodeFromStream
 import timber.log.Timber
+import java.io.IOException
 
 @HiltWorker
 class ImportBlockerRuleWorker @AssistedInject constructor(
@@ -87,6 +94,7 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
         val packageManager = context.packageManager
         val backupPackageName = inputData.getString(PARAM_BACKUP_PACKAGE_NAME)
         val shouldRestoreSystemApp = inputData.getBoolean(PARAM_RESTORE_SYS_APPS, false)
+        val fromArchive = inputData.getBoolean(PARAM_ARCHIVE, false)
         val documentDir = DocumentFile.fromTreeUri(context, backupPath.toUri())
         if (documentDir == null) {
             Timber.e("Cannot create DocumentFile")
@@ -103,36 +111,48 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
         Timber.i("Start to import app rules")
         var successCount = 0
         try {
-            val files = documentDir.listFiles()
-                .filter { it.name?.endsWith(EXTENSION) == true }
-            val total = files.count()
             var current = 1
-            files.forEach {
-                Timber.i("Import ${it.uri}")
-                context.contentResolver.openInputStream(it.uri)?.use { input ->
-                    val rule = json.decodeFromStream<BlockerRule>(input)
-                    val appInstalled =
-                        packageInfoDataSource.isAppInstalled(rule.packageName)
-                    val isSystemApp = packageInfoDataSource.isSystemApp(rule.packageName)
-                    if (!appInstalled) {
-                        Timber.w("App ${rule.packageName} is not installed, skipping")
-                        current++
-                        return@forEach
-                    }
-                    if (!shouldRestoreSystemApp && isSystemApp) {
-                        Timber.d("App ${rule.packageName} is a system app, skipping")
-                        current++
-                        return@forEach
+            val restore: suspend (BlockerRule, Int) -> Unit = { rule, total ->
+                if (restoreRule(rule, current, total, shouldRestoreSystemApp, controllerType)) {
+                    successCount++
+                }
+                current++
+            }
+            if (fromArchive) {
+                val archives = findArchives(documentDir.listFiles())
+                if (archives.isEmpty()) {
+                    Timber.w("No $RULE_ARCHIVE_NAME in $backupPath")
+                }
+                // Every package is restored from the newest archive that contains it
+                val restored = HashSet<String>()
+                var total = 0
+                archives.forEachIndexed { index, archive ->
+                    readArchive(archive) { reader ->
+                        val toc = reader.readToc()
+                        if (index == 0) total = toc?.packageNames?.size ?: 0
+                        toc?.deletedPackageNames?.let(restored::addAll)
+                        reader.forEachRule { rule ->
+                            if (restored.add(rule.packageName.orEmpty())) restore(rule, total)
+                        }
                     }
-                    setForeground(updateNotification(rule.packageName ?: "", current, total))
-                    val restoredComponentCount = import(rule, controllerType)
-                    if (restoredComponentCount > 0) {
-                        successCount++
+                }
+            } else {
+                val files = documentDir.listFiles()
+                    .filter { it.name?.endsWith(EXTENSION) == true }
+                val total = files.count()
+                files.forEach {
+                    Timber.i("Import ${it.uri}")
+                    context.contentResolver.openInputStream(it.uri)?.use { input ->
+                        restore(json.decodeFromStream<BlockerRule>(input), total)
                     }
-                    current++
                 }
             }
             Timber.i("Import rules finished.")
+        } catch (e: IOException) {
+            Timber.e(e, "Failed to read blocker rules")
+            return@withContext Result.failure(
+                workDataOf(PARAM_WORK_RESULT to RuleWorkResult.MISSING_STORAGE_PERMISSION),
+            )
         } catch (e: RuntimeException) {
             Timber.e(e, "Failed to import blocker rules")
             return@withContext Result.failure(
@@ -145,6 +165,53 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
         )
     }
 
+    /**
+     * Restores [rule] if its app is installed and allowed to be restored.
+     *
+     * @return true if any component was restored
+     */
+    private suspend fun restoreRule(
+        rule: BlockerRule,
+        current: Int,
+        total: Int,
+        shouldRestoreSystemApp: Boolean,
+        controllerType: ControllerType,
+    ): Boolean {
+        val appInstalled = packageInfoDataSource.isAppInstalled(rule.packageName)
+        if (!appInstalled) {
+            Timber.w("App ${rule.packageName} is not installed, skipping")
+            return false
+        }
+        val isSystemApp = packageInfoDataSource.isSystemApp(rule.packageName)
+        if (!shouldRestoreSystemApp && isSystemApp) {
+            Timber.d("App ${rule.packageName} is a system app, skipping")
+            return false
+        }
+        setForeground(updateNotification(rule.packageName ?: "", current, total))
+        return import(rule, controllerType) > 0
+    }
+
+    /**
+     * Returns the rule archives in [files], the newest increment first and the full backup last.
+     */
+    private fun findArchives(files: Array<DocumentFile>): List<DocumentFile> {
+        val filesByName = files.associateBy { it.name }
+        // An interrupted backup may have left the previous archive renamed
+        val base = filesByName[RULE_ARCHIVE_NAME] ?: filesByName[RULE_ARCHIVE_OLD_NAME] ?: return emptyList()
+        val manifest = readRuleBackupManifest(context, filesByName[RULE_ARCHIVE_MANIFEST_NAME], json)
+        val increments = manifest?.increments.orEmpty()
+            .asReversed()
+            .mapNotNull { filesByName[it] }
+        return increments + base
+    }
+
+    private suspend fun readArchive(file: DocumentFile, block: suspend (RuleArchiveReader) -> Unit) {
+        Timber.i("Import ${file.uri}")
+        val input = context.contentResolver.openInputStream(file.uri)
+            ?: throw IOException("Cannot open ${file.uri}")
+        RuleArchiveReader(input, json).use { block(it) }
+    }
+
     @OptIn(ExperimentalSerializationApi::class)
     private suspend fun importSingleRule(
         pm: PackageManager,
@@ -158,17 +225,35 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
             return Result.failure()
         }
         try {
+            var imported = false
             val files = documentDir.listFiles()
-                .filter { it.name?.endsWith(EXTENSION) == true }
-            files.forEach {
-                Timber.i("Import ${it.uri}")
-                context.contentResolver.openInputStream(it.uri)?.use { input ->
-                    val rule = json.decodeFromStream<BlockerRule>(input)
-                    if (rule.packageName != packageName) {
-                        return@forEach
+            files.filter { it.name?.endsWith(EXTENSION) == true }
+                .forEach {
+                    Timber.i("Import ${it.uri}")
+                    context.contentResolver.openInputStream(it.uri)?.use { input ->
+                        val rule = json.decodeFromStream<BlockerRule>(input)
+                        if (rule.packageName != packageName) {
+                            return@forEach
+                        }
+                        setForeground(updateNotification(rule.packageName ?: "", 1, 1))
+                        import(rule, controllerType)
+                        imported = true
+                    }
+                }
+            // Full backups might be stored as archives, the newest one has the latest rule
+            for (archive in findArchives(files)) {
+                if (imported) break
+                readArchive(archive) { reader ->
+                    if (reader.readToc()?.deletedPackageNames?.contains(packageName) == true) {
+                        imported = true
+                        return@readArchive
+                    }
+                    reader.forEachRule { rule ->
+                        if (imported || rule.packageName != packageName) return@forEachRule
+                        setForeground(updateNotification(packageName, 1, 1))
+                        import(rule, controllerType)
+                        imported = true
                     }
-                    setForeground(updateNotification(rule.packageName ?: "", 1, 1))
-                    import(rule, controllerType)
                 }
             }
         } catch (e: Exception) {
@@ -182,50 +267,36 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
         )
     }
 
+    /**
+     * Applies [rule] with one batch per controller. Only the components whose state
+     * in a snapshot of the device differs from the rule are switched.
+     *
+     * @return the number of components switched
+     */
     private suspend fun import(rule: BlockerRule, type: ControllerType): Int {
         val fallbackController = if (type == SHIZUKU) {
             shizukuController
         } else {
             rootController
         }
-        var count = 0
-        rule.components.forEach {
-            if (it.method == IFW) {
-                if (it.type == PROVIDER) {
-                    // IFW controller did not support disabling provider
-                    // Fallback to other controller
-                    if (!it.state) {
-                        fallbackController.enable(it.toComponentInfo())
-                    } else {
-                        fallbackController.disable(it.toComponentInfo())
-                    }
-                } else {
-                    val currentState = ifwController.checkComponentEnableState(
-                        it.packageName,
-                        it.name,
-                    )
-                    if (currentState == it.state) return@forEach
-                    if (it.state) {
-                        ifwController.enable(it.toComponentInfo())
-                    } else {
-                        ifwController.disable(it.toComponentInfo())
-                    }
-                }
-                count++
-            } else {
-                val currentState = packageInfoDataSource.checkComponentIsEnabled(
-                    ComponentName(it.packageName, it.name),
-                )
-                if (currentState == it.state) return@forEach
-                if (it.state) {
-                    fallbackController.enable(it.toComponentInfo())
-                } else {
-                    fallbackController.disable(it.toComponentInfo())
-                }
-                count++
-            }
+        // IFW controller did not support disabling provider, fallback to other controller
+        val (ifwComponents, pmComponents) = rule.components.partition {
+            it.method == IFW && it.type != PROVIDER
         }
-        return count
+        return applyComponentStates(ifwController, ifwComponents) +
+            applyComponentStates(fallbackController, pmComponents)
+    }
+
+    private suspend fun applyComponentStates(controller: IController, components: List<ComponentRule>): Int {
+        if (components.isEmpty()) return 0
+        val infoList = components.map { it.toComponentInfo() }
+        val currentStates = controller.checkComponentEnableState(infoList)
+        val (enableList, disableList) = components.zip(infoList)
+            .filter { (component, info) ->
+                currentStates[ComponentName(info.packageName, info.name)] != component.state
+            }
+            .partition { (component, _) -> component.state }
+        return controller.batchSwitch(enableList.map { it.second }, disableList.map { it.second }) {}
     }
 
     companion object {
@@ -234,12 +305,14 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
         private const val PARAM_RESTORE_SYS_APPS = "param_restore_sys_apps"
         private const val PARAM_CONTROLLER_TYPE = "param_controller_type"
         private const val PARAM_BACKUP_PACKAGE_NAME = "param_backup_package_name"
+        private const val PARAM_ARCHIVE = "param_archive"
 
         fun importWork(
             backupPath: String?,
             restoreSystemApps: Boolean,
             controllerType: ControllerType,
             backupPackageName: String? = null,
+            fromArchive: Boolean = false,
         ) = OneTimeWorkRequestBuilder<ImportBlockerRuleWorker>()
             .setInputData(
                 workDataOf(
@@ -247,6 +320,7 @@ class ImportBlockerRuleWorker @AssistedInject constructor(
                     PARAM_RESTORE_SYS_APPS to restoreSystemApps,
                     PARAM_CONTROLLER_TYPE to controllerType.ordinal,
                     PARAM_BACKUP_PACKAGE_NAME to backupPackageName,
+                    PARAM_ARCHIVE to fromArchive,
                 ),
             )
             .setExpedited(OutOfQuotaPolicy.RUN_AS_NON_EXPEDITED_WORK_REQUEST)
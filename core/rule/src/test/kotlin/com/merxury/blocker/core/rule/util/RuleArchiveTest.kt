@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.rule.util
+
+import com.merxury.blocker.core.model.ComponentType.ACTIVITY
+import com.merxury.blocker.core.model.ComponentType.RECEIVER
+import com.merxury.blocker.core.model.data.ControllerType.IFW
+import com.merxury.blocker.core.model.data.ControllerType.PM
+import com.merxury.blocker.core.model.rule.BlockerRule
+import com.merxury.blocker.core.model.rule.ComponentRule
+import kotlinx.coroutines.test.runTest
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.util.zip.ZipInputStream
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class RuleArchiveTest {
+    private val json = Json { ignoreUnknownKeys = true }
+
+    private val rules = listOf(
+        BlockerRule(
+            packageName = "com.example.a",
+            components = mutableListOf(
+                ComponentRule("com.example.a", "com.example.a.MainActivity", false, ACTIVITY, IFW),
+            ),
+        ),
+        BlockerRule(
+            packageName = "com.example.b",
+            components = mutableListOf(
+                ComponentRule("com.example.b", "com.example.b.BootReceiver", true, RECEIVER, PM),
+            ),
+        ),
+    )
+
+    @Test
+    fun givenWrittenArchive_whenRead_thenReturnTocAndRules() = runTest {
+        val archive = writeArchive(packageNames = listOf("com.example.a", "com.example.b", "com.example.empty"))
+
+        val read = mutableListOf<BlockerRule>()
+        val toc = RuleArchiveReader(ByteArrayInputStream(archive), json).use { reader ->
+            val toc = reader.readToc()
+            reader.forEachRule { read.add(it) }
+            toc
+        }
+
+        assertEquals(listOf("com.example.a", "com.example.b", "com.example.empty"), toc?.packageNames)
+        assertEquals(rules, read)
+    }
+
+    @Test
+    fun givenWrittenArchive_whenListEntries_thenUseFolderLayout() {
+        val archive = writeArchive(packageNames = listOf("com.example.a", "com.example.b"))
+
+        val names = ZipInputStream(ByteArrayInputStream(archive)).use { zip ->
+            generateSequence { zip.nextEntry }.map { it.name }.toList()
+        }
+
+        assertEquals(listOf("blocker-rules.toc", "com.example.a.json", "com.example.b.json"), names)
+    }
+
+    @Test
+    fun givenArchiveWithoutToc_whenRead_thenReturnRules() = runTest {
+        val output = ByteArrayOutputStream()
+        RuleArchiveWriter(output, json).use { writer ->
+            rules.forEach { writer.writeRule(requireNotNull(it.packageName), json.encodeToString(it)) }
+        }
+
+        val read = mutableListOf<BlockerRule>()
+        RuleArchiveReader(ByteArrayInputStream(output.toByteArray()), json).use { reader ->
+            assertNull(reader.readToc())
+            reader.forEachRule { read.add(it) }
+        }
+
+        assertEquals(rules, read)
+    }
+
+    private fun writeArchive(packageNames: List<String>): ByteArray {
+        val output = ByteArrayOutputStream()
+        RuleArchiveWriter(output, json).use { writer ->
+            writer.writeToc(RuleArchiveToc(packageNames = packageNames))
+            rules.forEach { writer.writeRule(requireNotNull(it.packageName), json.encodeToString(it)) }
+        }
+        return output.toByteArray()
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.rule.util
+
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotEquals
+import kotlin.test.assertTrue
+
+class RuleBackupManifestTest {
+    private val manifest = RuleBackupManifest(
+        hashes = mapOf(
+            "com.example.a" to "a1",
+            "com.example.b" to "b1",
+            "com.example.system" to "s1",
+        ),
+    )
+
+    @Test
+    fun givenSameContent_whenHash_thenReturnSameHash() {
+        assertEquals(ruleHash("{\"packageName\":\"a\"}"), ruleHash("{\"packageName\":\"a\"}"))
+        assertNotEquals(ruleHash("{\"packageName\":\"a\"}"), ruleHash("{\"packageName\":\"b\"}"))
+    }
+
+    @Test
+    fun givenStoredHash_whenCheckUnchanged_thenCompareHash() {
+        assertTrue(manifest.isUnchanged("com.example.a", "a1"))
+        assertFalse(manifest.isUnchanged("com.example.a", "a2"))
+        assertFalse(manifest.isUnchanged("com.example.new", "n1"))
+    }
+
+    @Test
+    fun givenMissingPackages_whenFindDeleted_thenSkipInstalledPackages() {
+        val deleted = manifest.findDeleted(listOf("com.example.a")) { it == "com.example.system" }
+
+        assertEquals(setOf("com.example.b"), deleted)
+    }
+
+    @Test
+    fun givenBackupResult_whenUpdate_thenMergeHashesAndDeletedPackages() {
+        val updated = manifest.copy(deletedPackageNames = setOf("com.example.c"))
+            .update(
+                newHashes = mapOf("com.example.a" to "a2", "com.example.c" to "c1"),
+                deleted = setOf("com.example.b"),
+                increments = listOf("blocker-rules-1.zip"),
+            )
+
+        assertEquals(
+            mapOf("com.example.a" to "a2", "com.example.system" to "s1", "com.example.c" to "c1"),
+            updated.hashes,
+        )
+        assertEquals(setOf("com.example.b"), updated.deletedPackageNames)
+        assertEquals(listOf("blocker-rules-1.zip"), updated.increments)
+    }
+
+    @Test
+    fun givenIncrements_whenUpdateWithoutIncrements_thenKeepIncrements() {
+        val updated = manifest.copy(increments = listOf("blocker-rules-1.zip"))
+            .update(newHashes = mapOf("com.example.a" to "a2"), deleted = emptySet())
+
+        assertEquals(listOf("blocker-rules-1.zip"), updated.increments)
+    }
+}
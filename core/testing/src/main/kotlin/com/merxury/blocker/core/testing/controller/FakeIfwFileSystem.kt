@@ -20,11 +20,14 @@ import com.merxury.core.ifw.IfwFileSystem
 
 class FakeIfwFileSystem : IfwFileSystem {
     private val files = mutableMapOf<String, String>()
+    var writeCount = 0
+        private set
 
     override suspend fun readRules(packageName: String): String? = files[packageName]
 
     override suspend fun writeRules(packageName: String, content: String) {
         files[packageName] = content
+        writeCount++
     }
 
     override suspend fun deleteRules(packageName: String): Boolean = files.remove(packageName) != null
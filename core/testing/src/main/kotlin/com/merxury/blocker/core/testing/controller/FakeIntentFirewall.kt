@@ -89,6 +89,15 @@ class FakeIntentFirewall : IIntentFirewall {
         }
     }
 
+    override suspend fun updateComponentFilters(
+        add: List<ComponentName>,
+        remove: List<ComponentName>,
+        callback: suspend (ComponentName) -> Unit,
+    ) {
+        addAllComponentFilters(add, callback)
+        removeAllComponentFilters(remove, callback)
+    }
+
     override suspend fun getComponentEnableState(
         packageName: String,
         componentName: String,
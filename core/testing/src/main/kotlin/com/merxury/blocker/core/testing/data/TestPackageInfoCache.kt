@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.core.testing.data
+
+import android.content.pm.PackageInfo
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
+import javax.inject.Inject
+import kotlin.time.Instant
+
+class TestPackageInfoCache @Inject constructor() : IPackageInfoCache {
+    private var packageInfo: PackageInfo? = null
+
+    override fun get(packageName: String, lastUpdateTime: Instant?): PackageInfo? = packageInfo
+
+    override fun invalidate(packageName: String) = Unit
+
+    /**
+     * Sets the [PackageInfo] returned for every package.
+     */
+    fun sendPackageInfo(packageInfo: PackageInfo?) {
+        this.packageInfo = packageInfo
+    }
+}
@@ -40,6 +40,15 @@ class TestAppPropertiesRepository : AppPropertiesRepository {
         )
     }
 
+    override suspend fun addInitializedComponentPackages(packageNames: Collection<String>) {
+        val current = appPropertiesFlow.replayCache.firstOrNull() ?: AppPropertiesData()
+        appPropertiesFlow.tryEmit(
+            current.copy(
+                initializedComponentPackages = current.initializedComponentPackages + packageNames,
+            ),
+        )
+    }
+
     override suspend fun markGeneralRuleDatabaseInitialized() {
         appPropertiesFlow.tryEmit(
             AppPropertiesData(
@@ -73,6 +82,27 @@ class TestAppPropertiesRepository : AppPropertiesRepository {
         )
     }
 
+    override suspend fun updatePackageChangeSequence(bootCount: Int, sequenceNumber: Int) {
+        appPropertiesFlow.tryEmit(
+            AppPropertiesData(
+                packageChangeBootCount = bootCount,
+                packageChangeSequenceNumber = sequenceNumber,
+            ),
+        )
+    }
+
+    override suspend fun updateAppLabelLocale(locale: String) {
+        val current = appPropertiesFlow.replayCache.firstOrNull() ?: AppPropertiesData()
+        appPropertiesFlow.tryEmit(current.copy(appLabelLocale = locale))
+    }
+
+    override suspend fun addIndexedComponentDetailLanguage(language: String) {
+        val current = appPropertiesFlow.replayCache.firstOrNull() ?: AppPropertiesData()
+        appPropertiesFlow.tryEmit(
+            current.copy(indexedComponentDetailLanguages = current.indexedComponentDetailLanguages + language),
+        )
+    }
+
     fun sendAppProperties(appPropertiesData: AppPropertiesData) {
         this.appPropertiesFlow.tryEmit(appPropertiesData)
     }
@@ -16,6 +16,7 @@
 
 package com.merxury.blocker.core.testing.repository
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.result.Result
@@ -23,17 +24,26 @@ import com.merxury.blocker.core.result.Result.Success
 import kotlinx.coroutines.channels.BufferOverflow.DROP_OLDEST
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
 
 class TestAppRepository : AppRepository {
     private val appListFlow = MutableSharedFlow<List<InstalledApp>>(replay = 1, onBufferOverflow = DROP_OLDEST)
+    private var syncedAppList: List<InstalledApp>? = null
 
     override fun getApplicationList(): Flow<List<InstalledApp>> = appListFlow
 
+    override fun getPagedApplicationList(): Flow<PagingData<InstalledApp>> = appListFlow.map {
+        PagingData.from(it.sortedBy { app -> app.label.lowercase() })
+    }
+
     override fun updateApplication(packageName: String): Flow<Result<Unit>> = flowOf(Success(Unit))
 
-    override fun updateApplicationList(): Flow<Result<Unit>> = flowOf(Success(Unit))
+    override fun updateApplicationList(): Flow<Result<Unit>> = flow {
+        syncedAppList?.let { appListFlow.emit(it) }
+        emit(Success(Unit))
+    }
 
     override fun searchInstalledApplications(keyword: String): Flow<List<InstalledApp>> = appListFlow.map {
         it.filter { app -> app.packageName.contains(keyword) }
@@ -46,4 +56,11 @@ class TestAppRepository : AppRepository {
     fun sendAppList(appList: List<InstalledApp>) {
         appListFlow.tryEmit(appList)
     }
+
+    /**
+     * Set the app list that [updateApplicationList] loads into the cache.
+     */
+    fun setSyncedAppList(appList: List<InstalledApp>) {
+        syncedAppList = appList
+    }
 }
@@ -25,8 +25,10 @@ import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
 
 class TestComponentDetailRepository : ComponentDetailRepository {
+    private val updatedComponentFlow = MutableSharedFlow<ComponentDetail>(extraBufferCapacity = 1)
+
     override val updatedComponent: Flow<ComponentDetail>
-        get() = flowOf(ComponentDetail(""))
+        get() = updatedComponentFlow
 
     private val componentDetail: MutableSharedFlow<List<ComponentDetail>> =
         MutableSharedFlow(replay = 1, onBufferOverflow = DROP_OLDEST)
@@ -41,9 +43,21 @@ class TestComponentDetailRepository : ComponentDetailRepository {
         it.find { componentDetail -> componentDetail.name == name }
     }
 
+    override fun getLocalComponentDetails(names: Collection<String>): Flow<Map<String, ComponentDetail>> = componentDetail.map {
+        val nameSet = names.toSet()
+        it.filter { componentDetail -> componentDetail.name in nameSet }
+            .associateBy { componentDetail -> componentDetail.name }
+    }
+
     override fun saveComponentDetail(componentDetail: ComponentDetail): Flow<Boolean> = flowOf(true)
 
+    override suspend fun updateComponentDetailIndex(onlyIfMissing: Boolean) = Unit
+
     fun sendComponentDetail(componentDetail: List<ComponentDetail>) {
         this.componentDetail.tryEmit(componentDetail)
     }
+
+    fun sendUpdatedComponent(componentDetail: ComponentDetail) {
+        updatedComponentFlow.tryEmit(componentDetail)
+    }
 }
@@ -16,14 +16,27 @@
 
 package com.merxury.blocker.core.testing.repository
 
+import androidx.paging.PagingData
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.model.ComponentType
 import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.ControllerType
+import com.merxury.blocker.core.model.data.InstalledApp
+import com.merxury.blocker.core.model.preference.ComponentShowPriority
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.DISABLED_COMPONENTS_FIRST
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.ENABLED_COMPONENTS_FIRST
+import com.merxury.blocker.core.model.preference.ComponentShowPriority.NONE
+import com.merxury.blocker.core.model.preference.ComponentSorting
+import com.merxury.blocker.core.model.preference.ComponentSorting.COMPONENT_NAME
+import com.merxury.blocker.core.model.preference.ComponentSorting.PACKAGE_NAME
+import com.merxury.blocker.core.model.preference.SortingOrder
+import com.merxury.blocker.core.model.preference.SortingOrder.DESCENDING
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.channels.BufferOverflow.DROP_OLDEST
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
 
@@ -32,6 +45,8 @@ class TestComponentRepository : ComponentRepository {
     private val componentList: MutableSharedFlow<List<ComponentInfo>> =
         MutableSharedFlow(replay = 1, onBufferOverflow = DROP_OLDEST)
 
+    private val appList = MutableStateFlow<List<InstalledApp>>(emptyList())
+
     override fun getComponent(name: String): Flow<ComponentInfo?> = componentList.map {
         it.find { componentInfo -> componentInfo.name == name }
     }
@@ -47,6 +62,33 @@ class TestComponentRepository : ComponentRepository {
         it.filter { componentInfo -> componentInfo.packageName == packageName && componentInfo.type == type }
     }
 
+    override fun getPagedComponentList(
+        packageName: String,
+        type: ComponentType,
+        keywords: List<String>,
+        sorting: ComponentSorting,
+        order: SortingOrder,
+        priority: ComponentShowPriority,
+        transformPage: suspend (List<ComponentInfo>) -> List<ComponentInfo>,
+    ): Flow<PagingData<ComponentInfo>> = getComponentList(packageName, type).map { list ->
+        val byName: Comparator<ComponentInfo> = when (sorting) {
+            COMPONENT_NAME -> compareBy { it.simpleName.lowercase() }
+            PACKAGE_NAME -> compareBy { it.name.lowercase() }
+        }
+        val sortedByName = if (order == DESCENDING) byName.reversed() else byName
+        val comparator = when (priority) {
+            NONE -> sortedByName
+            DISABLED_COMPONENTS_FIRST -> compareBy<ComponentInfo> { it.enabled() }.then(sortedByName)
+            ENABLED_COMPONENTS_FIRST -> compareByDescending<ComponentInfo> { it.enabled() }.then(sortedByName)
+        }
+        val components = list
+            .filter { component ->
+                keywords.isEmpty() || keywords.any { component.name.contains(it, ignoreCase = true) }
+            }
+            .sortedWith(comparator)
+        PagingData.from(transformPage(components))
+    }
+
     override fun updateComponentList(packageName: String, type: ComponentType): Flow<Result<Unit>> = flowOf(Result.Success(Unit))
 
     override fun updateComponentList(packageName: String): Flow<Result<Unit>> = flowOf(Result.Success(Unit))
@@ -67,6 +109,21 @@ class TestComponentRepository : ComponentRepository {
         it.filter { componentInfo -> componentInfo.name.contains(keyword) }
     }
 
+    override fun searchPagedComponent(keyword: String): Flow<PagingData<ComponentInfo>> = searchComponent(keyword).map {
+        PagingData.from(it.sortedWith(compareBy(ComponentInfo::packageName, ComponentInfo::name)))
+    }
+
+    override fun searchComponentGroupByApp(
+        keyword: String,
+        includeSystemApps: Boolean,
+    ): Flow<Map<InstalledApp, List<ComponentInfo>>> = combine(componentList, appList) { components, apps ->
+        val appsByName = apps.filter { includeSystemApps || !it.isSystem }
+            .associateBy { it.packageName }
+        components.filter { it.name.contains(keyword) }
+            .mapNotNull { component -> appsByName[component.packageName]?.let { it to component } }
+            .groupBy(keySelector = { it.first }, valueTransform = { it.second })
+    }
+
     override suspend fun saveComponents(components: List<ComponentInfo>) {
         componentList.emit(components)
     }
@@ -78,4 +135,11 @@ class TestComponentRepository : ComponentRepository {
     fun sendComponentList(componentList: List<ComponentInfo>) {
         this.componentList.tryEmit(componentList)
     }
+
+    /**
+     * Sets the apps the components are grouped by in [searchComponentGroupByApp].
+     */
+    fun sendAppList(appList: List<InstalledApp>) {
+        this.appList.value = appList
+    }
 }
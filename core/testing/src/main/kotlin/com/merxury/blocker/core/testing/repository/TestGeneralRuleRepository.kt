@@ -17,11 +17,15 @@
 package com.merxury.blocker.core.testing.repository
 
 import com.merxury.blocker.core.data.respository.generalrule.GeneralRuleRepository
+import com.merxury.blocker.core.model.data.ComponentInfo
 import com.merxury.blocker.core.model.data.GeneralRule
+import com.merxury.blocker.core.model.data.InstalledApp
 import com.merxury.blocker.core.result.Result
 import kotlinx.coroutines.channels.BufferOverflow.DROP_OLDEST
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.combine
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
 
@@ -32,6 +36,10 @@ class TestGeneralRuleRepository : GeneralRuleRepository {
     private val rulesFlow: MutableSharedFlow<List<GeneralRule>> =
         MutableSharedFlow(replay = 1, onBufferOverflow = DROP_OLDEST)
 
+    private val componentList = MutableStateFlow<List<ComponentInfo>>(emptyList())
+
+    private val appList = MutableStateFlow<List<InstalledApp>>(emptyList())
+
     override fun getGeneralRules(): Flow<List<GeneralRule>> = rulesFlow
 
     override fun getGeneralRule(id: Int): Flow<GeneralRule> = rulesFlow.map { rules -> rules.find { it.id == id }!! }
@@ -53,7 +61,72 @@ class TestGeneralRuleRepository : GeneralRuleRepository {
         }
     }
 
+    override fun getMatchedAppCount(
+        ruleId: Int,
+        includeSystemApps: Boolean,
+    ): Flow<Int> = combine(rulesFlow, matchedComponents(includeSystemApps)) { rules, components ->
+        val rule = rules.find { it.id == ruleId } ?: return@combine 0
+        components.filter { rule.matches(it) }
+            .distinctBy { it.packageName }
+            .size
+    }
+
+    override fun getMatchedComponents(
+        includeSystemApps: Boolean,
+    ): Flow<List<ComponentInfo>> = combine(rulesFlow, matchedComponents(includeSystemApps)) { rules, components ->
+        components.filter { component -> rules.any { it.matches(component) } }
+    }
+
+    override fun getMatchedComponents(
+        packageName: String,
+    ): Flow<Map<Int, List<ComponentInfo>>> = combine(rulesFlow, componentList) { rules, components ->
+        val appComponents = components.filter { it.packageName == packageName }
+        rules.associate { rule -> rule.id to appComponents.filter { rule.matches(it) } }
+            .filterValues { it.isNotEmpty() }
+    }
+
+    override suspend fun getMatchedRuleIds(packageName: String): List<Int> {
+        val rules = rulesFlow.replayCache.firstOrNull().orEmpty()
+        val appComponents = componentList.value.filter { it.packageName == packageName }
+        return rules.filter { rule -> appComponents.any { rule.matches(it) } }
+            .map { it.id }
+    }
+
+    override suspend fun adjustMatchedAppCount(ruleIds: List<Int>, delta: Int) {
+        val rules = rulesFlow.replayCache.firstOrNull() ?: return
+        rulesFlow.tryEmit(
+            rules.map { rule ->
+                if (rule.id in ruleIds) {
+                    rule.copy(matchedAppCount = (rule.matchedAppCount + delta).coerceAtLeast(0))
+                } else {
+                    rule
+                }
+            },
+        )
+    }
+
     fun sendRuleList(ruleList: List<GeneralRule>) {
         this.rulesFlow.tryEmit(ruleList)
     }
+
+    /**
+     * Components the rules are matched against
+     */
+    fun sendComponentList(componentList: List<ComponentInfo>) {
+        this.componentList.value = componentList
+    }
+
+    fun sendAppList(appList: List<InstalledApp>) {
+        this.appList.value = appList
+    }
+
+    private fun matchedComponents(includeSystemApps: Boolean) = combine(componentList, appList) { components, apps ->
+        val packageNames = apps.filter { includeSystemApps || !it.isSystem }
+            .mapTo(mutableSetOf()) { it.packageName }
+        components.filter { it.packageName in packageNames }
+    }
+
+    private fun GeneralRule.matches(component: ComponentInfo) = searchKeyword.any { keyword ->
+        component.name.contains(keyword, ignoreCase = true)
+    }
 }
@@ -38,6 +38,7 @@ val defaultUserData = UserPreferenceData(
     ruleBackupFolder = "",
     backupSystemApp = false,
     restoreSystemApp = false,
+    archiveBackup = false,
     showSystemApps = false,
     showServiceInfo = false,
     appSorting = AppSorting.NAME,
@@ -90,6 +91,10 @@ class TestUserDataRepository : UserDataRepository {
         _userData.tryEmit(currentUserData.copy(restoreSystemApp = shouldRestore))
     }
 
+    override suspend fun setArchiveBackup(archive: Boolean) {
+        _userData.tryEmit(currentUserData.copy(archiveBackup = archive))
+    }
+
     override suspend fun setShowSystemApps(shouldShowSystemApps: Boolean) {
         _userData.tryEmit(currentUserData.copy(showSystemApps = shouldShowSystemApps))
     }
@@ -140,10 +140,8 @@ class AppDetailViewModelTest {
             shizukuServiceController = serviceController,
         )
         val searchMatchedRuleInAppUseCase = SearchMatchedRuleInAppUseCase(
-            componentRepository = componentRepository,
             componentDetailRepository = componentDetailRepository,
             ruleRepository = generalRuleRepository,
-            dispatcher = mainDispatcherRule.testDispatcher,
             filesDir = tempFolder.newFolder(),
             ruleBaseFolder = "blocker-general-rule",
         )
@@ -210,6 +208,7 @@ class AppDetailViewModelTest {
         val packageInfo = pm.getPackageInfoCompat(packageName, 0)
         viewModel.loadAppInfo()
         componentRepository.sendComponentList(sampleComponentList)
+        generalRuleRepository.sendComponentList(sampleComponentList)
         componentDetailRepository.sendComponentDetail(sampleComponentDetailList)
         viewModel.loadComponentList()
         viewModel.updateComponentList()
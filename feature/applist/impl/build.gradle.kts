@@ -27,6 +27,8 @@ android {
 }
 
 dependencies {
+    ksp(libs.hilt.ext.compiler)
+
     implementation(projects.core.componentController)
     implementation(projects.core.data)
     implementation(projects.core.domain)
@@ -36,12 +38,16 @@ dependencies {
     implementation(projects.feature.settings.api)
     implementation(libs.androidx.compose.material)
     implementation(libs.androidx.compose.material3.adaptive.navigation3)
+    implementation(libs.androidx.work.ktx)
+    implementation(libs.hilt.ext.work)
     implementation(libs.kotlinx.datetime)
 
+    testImplementation(libs.androidx.test.core)
     testImplementation(libs.hilt.android.testing)
     testImplementation(libs.mockito.kotlin)
     testImplementation(libs.robolectric)
     testImplementation(libs.turbine)
+    testImplementation(libs.work.testing)
     testImplementation(projects.core.testing)
     testImplementation(projects.core.screenshotTesting)
 
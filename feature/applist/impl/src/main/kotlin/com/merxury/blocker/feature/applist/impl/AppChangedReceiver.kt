@@ -19,20 +19,53 @@ package com.merxury.blocker.feature.applist.impl
 import android.content.BroadcastReceiver
 import android.content.Context
 import android.content.Intent
+import android.content.IntentFilter
+import androidx.work.ExistingWorkPolicy
+import androidx.work.WorkManager
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
+import com.merxury.blocker.feature.applist.impl.UpdatePackageRuleMatchesWorker.Companion.updatePackageRuleMatchesWork
+import com.merxury.blocker.feature.applist.impl.UpdatePackageRuleMatchesWorker.Companion.workName
 import timber.log.Timber
+import javax.inject.Inject
+import javax.inject.Singleton
 
-class AppChangedReceiver : BroadcastReceiver() {
-    override fun onReceive(context: Context?, intent: Intent?) {
-        Timber.i("AppChangedReceiver onReceive")
-        if (Intent.ACTION_PACKAGE_ADDED == intent?.action) {
-            val data = intent.data
-            val packageName = data?.schemeSpecificPart
-            Timber.i("AppChangedReceiver onReceive ACTION_PACKAGE_ADDED $packageName")
+/**
+ * Updates the rule matches of an app when it is installed, updated or removed.
+ *
+ * Package broadcasts aren't delivered to receivers declared in the manifest since Android 8.0,
+ * so the receiver is registered by [register] while the app is running. Apps changed in the
+ * meantime are synced by the app list sync, after which the rule screen counts the matches again.
+ */
+@Singleton
+class AppChangedReceiver @Inject constructor(
+    private val packageInfoCache: IPackageInfoCache,
+) : BroadcastReceiver() {
+
+    fun register(context: Context) {
+        val filter = IntentFilter().apply {
+            addAction(Intent.ACTION_PACKAGE_ADDED)
+            addAction(Intent.ACTION_PACKAGE_REMOVED)
+            addAction(Intent.ACTION_PACKAGE_REPLACED)
+            addDataScheme("package")
         }
-        if (Intent.ACTION_PACKAGE_REMOVED == intent?.action) {
-            val data = intent.data
-            val packageName = data?.schemeSpecificPart
-            Timber.i("AppChangedReceiver onReceive ACTION_PACKAGE_REMOVED $packageName")
+        context.registerReceiver(this, filter)
+    }
+
+    override fun onReceive(context: Context?, intent: Intent?) {
+        if (context == null) return
+        val action = intent?.action ?: return
+        val packageName = intent.data?.schemeSpecificPart ?: return
+        Timber.i("AppChangedReceiver onReceive $action $packageName")
+        packageInfoCache.invalidate(packageName)
+        // An update sends PACKAGE_REMOVED and PACKAGE_ADDED before PACKAGE_REPLACED, only handle the last one
+        if (intent.getBooleanExtra(Intent.EXTRA_REPLACING, false) && action != Intent.ACTION_PACKAGE_REPLACED) {
+            return
         }
+        // Syncing the app can outlast the broadcast, changes of the same package are handled in order
+        WorkManager.getInstance(context).enqueueUniqueWork(
+            workName(packageName),
+            ExistingWorkPolicy.APPEND_OR_REPLACE,
+            updatePackageRuleMatchesWork(packageName),
+        )
     }
 }
@@ -119,20 +119,23 @@ class AppListViewModel @AssistedInject constructor(
         _errorState.tryEmit(throwable.toErrorMessage())
     }
 
+    private var loadAppListJob: Job? = null
+    private var updateAppListJob: Job? = null
+
     init {
         listenPermissionChanges()
-        loadData()
         updateInstalledAppList()
+        loadData()
         listenSortingChanges()
         listenTopAppTypeChanges()
         listenShowSystemAppsChanges()
     }
 
-    private var loadAppListJob: Job? = null
-
     fun loadData(query: String = "") {
         loadAppListJob?.cancel()
         loadAppListJob = viewModelScope.launch(exceptionHandler) {
+            // The component database is built from the app list, wait for the running sync
+            updateAppListJob?.join()
             // Init DB first to get correct data
             initializeDatabase()
                 .takeWhile { it is InitializeState.Initializing }
@@ -220,7 +223,6 @@ class AppListViewModel @AssistedInject constructor(
         }
     }
 
-    private var updateAppListJob: Job? = null
     fun updateInstalledAppList() {
         updateAppListJob?.cancel()
         updateAppListJob = viewModelScope.launch {
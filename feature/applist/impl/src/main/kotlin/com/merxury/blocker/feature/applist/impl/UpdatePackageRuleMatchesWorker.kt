@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.feature.applist.impl
+
+import android.content.Context
+import androidx.hilt.work.HiltWorker
+import androidx.work.CoroutineWorker
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkerParameters
+import androidx.work.workDataOf
+import com.merxury.blocker.core.domain.UpdatePackageRuleMatchesUseCase
+import dagger.assisted.Assisted
+import dagger.assisted.AssistedInject
+import kotlinx.coroutines.flow.collect
+import timber.log.Timber
+
+/**
+ * Runs [UpdatePackageRuleMatchesUseCase] for a changed package outside of the
+ * broadcast, as rescanning the components of a large app can take longer than
+ * a receiver is allowed to run.
+ */
+@HiltWorker
+class UpdatePackageRuleMatchesWorker @AssistedInject constructor(
+    @Assisted context: Context,
+    @Assisted params: WorkerParameters,
+    private val updatePackageRuleMatches: UpdatePackageRuleMatchesUseCase,
+) : CoroutineWorker(context, params) {
+
+    override suspend fun doWork(): Result {
+        val packageName = inputData.getString(PARAM_PACKAGE_NAME)
+        if (packageName.isNullOrEmpty()) {
+            Timber.w("No package name given, skip updating rule matches")
+            return Result.failure()
+        }
+        updatePackageRuleMatches(packageName).collect()
+        return Result.success()
+    }
+
+    companion object {
+        private const val PARAM_PACKAGE_NAME = "param_package_name"
+
+        /**
+         * Name of the unique work of [packageName], so that its changes are handled in order.
+         */
+        fun workName(packageName: String) = "UpdatePackageRuleMatches:$packageName"
+
+        fun updatePackageRuleMatchesWork(packageName: String) = OneTimeWorkRequestBuilder<UpdatePackageRuleMatchesWorker>()
+            .setInputData(workDataOf(PARAM_PACKAGE_NAME to packageName))
+            .build()
+    }
+}
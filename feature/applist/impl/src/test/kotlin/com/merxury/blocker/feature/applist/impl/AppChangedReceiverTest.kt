@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.feature.applist.impl
+
+import android.content.Context
+import android.content.Intent
+import android.net.Uri
+import android.os.Looper
+import androidx.test.core.app.ApplicationProvider
+import androidx.work.WorkManager
+import androidx.work.testing.WorkManagerTestInitHelper
+import com.merxury.blocker.core.testing.data.TestPackageInfoCache
+import com.merxury.blocker.feature.applist.impl.UpdatePackageRuleMatchesWorker.Companion.workName
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.Shadows.shadowOf
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class AppChangedReceiverTest {
+    private val context = ApplicationProvider.getApplicationContext<Context>()
+
+    @Before
+    fun setup() {
+        WorkManagerTestInitHelper.initializeTestWorkManager(context)
+        AppChangedReceiver(TestPackageInfoCache()).register(context)
+    }
+
+    @Test
+    fun givenRegisteredReceiver_whenPackageAdded_thenWorkIsEnqueued() {
+        sendPackageBroadcast(Intent.ACTION_PACKAGE_ADDED)
+
+        val workInfo = getWorkInfos().single()
+        assertTrue(UpdatePackageRuleMatchesWorker::class.java.name in workInfo.tags)
+    }
+
+    @Test
+    fun givenRegisteredReceiver_whenPackageUpdated_thenOnlyReplacedIsHandled() {
+        sendPackageBroadcast(Intent.ACTION_PACKAGE_REMOVED, replacing = true)
+        sendPackageBroadcast(Intent.ACTION_PACKAGE_ADDED, replacing = true)
+        assertEquals(emptyList(), getWorkInfos())
+
+        sendPackageBroadcast(Intent.ACTION_PACKAGE_REPLACED, replacing = true)
+        assertEquals(1, getWorkInfos().size)
+    }
+
+    private fun sendPackageBroadcast(action: String, replacing: Boolean = false) {
+        val intent = Intent(action, Uri.fromParts("package", PACKAGE_NAME, null))
+            .putExtra(Intent.EXTRA_REPLACING, replacing)
+        context.sendBroadcast(intent)
+        shadowOf(Looper.getMainLooper()).idle()
+    }
+
+    private fun getWorkInfos() = WorkManager.getInstance(context)
+        .getWorkInfosForUniqueWork(workName(PACKAGE_NAME))
+        .get()
+
+    private companion object {
+        const val PACKAGE_NAME = "com.merxury.test"
+    }
+}
@@ -17,8 +17,6 @@
 package com.merxury.blocker.feature.applist.impl
 
 import android.content.pm.PackageInfo
-import android.content.pm.PackageManager
-import android.content.pm.PackageManager.PackageInfoFlags
 import androidx.lifecycle.SavedStateHandle
 import app.cash.turbine.test
 import com.merxury.blocker.core.data.util.PermissionStatus.SHELL_USER
@@ -37,6 +35,7 @@ import com.merxury.blocker.core.testing.controller.FakeAppController
 import com.merxury.blocker.core.testing.controller.FakePackageInfoDataSource
 import com.merxury.blocker.core.testing.controller.FakeServiceController
 import com.merxury.blocker.core.testing.data.TestAppStateCache
+import com.merxury.blocker.core.testing.data.TestPackageInfoCache
 import com.merxury.blocker.core.testing.repository.TestAppPropertiesRepository
 import com.merxury.blocker.core.testing.repository.TestAppRepository
 import com.merxury.blocker.core.testing.repository.TestComponentRepository
@@ -52,7 +51,6 @@ import kotlinx.coroutines.test.runTest
 import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
-import org.mockito.kotlin.any
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 import kotlin.test.assertEquals
@@ -75,14 +73,8 @@ class AppListViewModelTest {
     private val packageInfo = mock<PackageInfo> {
         on { toString() } doReturn "MockedPackageInfo"
     }
-    private val pm = mock<PackageManager> {
-        on { getPackageInfo(any<String>(), any<Int>()) } doReturn packageInfo
-        on {
-            getPackageInfo(
-                any<String>(),
-                any<PackageInfoFlags>(),
-            )
-        } doReturn packageInfo
+    private val packageInfoCache = TestPackageInfoCache().apply {
+        sendPackageInfo(packageInfo)
     }
     private val savedStateHandle = SavedStateHandle()
     private lateinit var viewModel: AppListViewModel
@@ -105,7 +97,7 @@ class AppListViewModelTest {
             shizukuServiceController = serviceController,
         )
         val searchAppListUseCase = SearchAppListUseCase(
-            pm = pm,
+            packageInfoCache = packageInfoCache,
             userDataRepository = userDataRepository,
             appRepository = appRepository,
             appStateCache = appStateCache,
@@ -96,15 +96,11 @@ class GeneralRuleViewModelTest {
         )
         val updateRule = UpdateRuleMatchedAppUseCase(
             generalRuleRepository = generalRuleRepository,
-            appRepository = appRepository,
             userDataRepository = userDataRepository,
-            componentRepository = componentRepository,
             ioDispatcher = dispatcher,
         )
         val gatherAllMatchedComponents = GatherAllMatchedComponentsUseCase(
             generalRuleRepository = generalRuleRepository,
-            componentRepository = componentRepository,
-            appRepository = appRepository,
             userDataRepository = userDataRepository,
             ioDispatcher = dispatcher,
         )
@@ -140,8 +136,10 @@ class GeneralRuleViewModelTest {
                 ),
             )
             appRepository.sendAppList(sampleAppList)
+            generalRuleRepository.sendAppList(sampleAppList)
             userDataRepository.sendUserData(defaultUserData)
             componentRepository.sendComponentList(sampleComponentList)
+            generalRuleRepository.sendComponentList(sampleComponentList)
             generalRuleRepository.sendRuleList(sampleRuleList)
             val matchedRules = sampleRuleList.filter { it.matchedAppCount > 0 }
                 .sortedByDescending { it.matchedAppCount }
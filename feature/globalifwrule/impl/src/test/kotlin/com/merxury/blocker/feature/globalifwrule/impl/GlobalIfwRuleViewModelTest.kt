@@ -129,6 +129,12 @@ private class StableFakeIntentFirewall : IIntentFirewall {
         callback: suspend (ComponentName) -> Unit,
     ) = Unit
 
+    override suspend fun updateComponentFilters(
+        add: List<ComponentName>,
+        remove: List<ComponentName>,
+        callback: suspend (ComponentName) -> Unit,
+    ) = Unit
+
     override suspend fun getComponentEnableState(
         packageName: String,
         componentName: String,
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Blocker
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.merxury.blocker.feature.search.impl
+
+import com.merxury.blocker.core.model.data.ComponentInfo
+
+/**
+ * Narrows down the results to the ones containing [keyword], which extends the
+ * keyword of these results. Uses the same conditions as the database search,
+ * apart from the `LIKE` wildcards, which are matched literally until the
+ * database results arrive.
+ */
+internal fun LocalSearchUiState.Success.narrowTo(keyword: String): LocalSearchUiState.Success {
+    fun ComponentInfo.matches() = name.contains(keyword, ignoreCase = true)
+    return copy(
+        searchKeyword = keyword.split(","),
+        appTabUiState = appTabUiState.copy(
+            list = appTabUiState.list.filter {
+                it.label.contains(keyword, ignoreCase = true) ||
+                    it.packageName.contains(keyword, ignoreCase = true)
+            },
+        ),
+        componentTabUiState = componentTabUiState.copy(
+            list = componentTabUiState.list.mapNotNull { group ->
+                group.copy(
+                    activity = group.activity.filter { it.matches() },
+                    service = group.service.filter { it.matches() },
+                    receiver = group.receiver.filter { it.matches() },
+                    provider = group.provider.filter { it.matches() },
+                ).takeIf {
+                    it.activity.isNotEmpty() || it.service.isNotEmpty() ||
+                        it.receiver.isNotEmpty() || it.provider.isNotEmpty()
+                }
+            },
+        ),
+        ruleTabUiState = ruleTabUiState.copy(
+            matchedRules = ruleTabUiState.matchedRules.filter { it.name.contains(keyword, ignoreCase = true) },
+            unmatchedRules = ruleTabUiState.unmatchedRules.filter { it.name.contains(keyword, ignoreCase = true) },
+        ),
+    )
+}
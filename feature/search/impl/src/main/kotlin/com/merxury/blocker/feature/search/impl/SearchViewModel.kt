@@ -16,12 +16,12 @@
 
 package com.merxury.blocker.feature.search.impl
 
-import android.content.pm.PackageManager
 import androidx.annotation.VisibleForTesting
 import androidx.lifecycle.SavedStateHandle
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
 import com.merxury.blocker.core.analytics.AnalyticsHelper
+import com.merxury.blocker.core.data.appstate.IPackageInfoCache
 import com.merxury.blocker.core.data.respository.app.AppRepository
 import com.merxury.blocker.core.data.respository.component.ComponentRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
@@ -32,7 +32,6 @@ import com.merxury.blocker.core.domain.SearchGeneralRuleUseCase
 import com.merxury.blocker.core.domain.applist.SearchAppListUseCase
 import com.merxury.blocker.core.domain.controller.GetAppControllerUseCase
 import com.merxury.blocker.core.domain.model.InitializeState
-import com.merxury.blocker.core.extension.getPackageInfoCompat
 import com.merxury.blocker.core.extension.getVersionCode
 import com.merxury.blocker.core.model.ComponentType.ACTIVITY
 import com.merxury.blocker.core.model.ComponentType.PROVIDER
@@ -56,27 +55,34 @@ import dagger.assisted.AssistedInject
 import dagger.hilt.android.lifecycle.HiltViewModel
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineExceptionHandler
+import kotlinx.coroutines.FlowPreview
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.flow.catch
-import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.collectLatest
+import kotlinx.coroutines.flow.debounce
+import kotlinx.coroutines.flow.emitAll
+import kotlinx.coroutines.flow.filterNotNull
 import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onCompletion
-import kotlinx.coroutines.flow.onStart
 import kotlinx.coroutines.flow.takeWhile
 import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
 import timber.log.Timber
 import com.merxury.blocker.core.ui.R.string as uiString
 
+private const val SEARCH_DEBOUNCE_MILLIS = 300L
+
 @HiltViewModel(assistedFactory = SearchViewModel.Factory::class)
 class SearchViewModel @AssistedInject constructor(
-    private val pm: PackageManager,
+    private val packageInfoCache: IPackageInfoCache,
     private val packageInfoDataSource: PackageInfoDataSource,
     private val appRepository: AppRepository,
     private val componentRepository: ComponentRepository,
@@ -106,6 +112,10 @@ class SearchViewModel @AssistedInject constructor(
         _errorState.tryEmit(throwable.toErrorMessage())
     }
     private var searchJob: Job? = null
+    private val searchKeyword = MutableStateFlow<String?>(null)
+
+    // Keyword of the results in localSearchUiState, null if there are no results
+    private var resultKeyword: String? = null
     private var loadAppJob: Job? = null
     private val selectedPackageNameKey = "selectedPackageNameKey"
     private val selectedRuleIdKey = "selectedRuleIdKey"
@@ -132,6 +142,7 @@ class SearchViewModel @AssistedInject constructor(
 
     init {
         load()
+        observeSearchKeyword()
     }
 
     @VisibleForTesting
@@ -185,96 +196,76 @@ class SearchViewModel @AssistedInject constructor(
         }
     }
 
+    /**
+     * Searches apps, components and rules containing [keyword].
+     *
+     * If [keyword] extends the keyword of the current results, the results are narrowed
+     * down in memory right away. The database is only queried once the keyword stops
+     * changing for [SEARCH_DEBOUNCE_MILLIS], cancelling the search of the previous keyword.
+     */
     fun search(keyword: String) {
         Timber.d("Search components: $keyword")
         if (keyword == _searchUiState.value.keyword) {
             return
         }
         _searchUiState.update { it.copy(keyword = keyword) }
-        val searchAppFlow = searchAppList(keyword)
-        val searchComponentFlow: Flow<List<FilteredComponent>> =
-            componentRepository.searchComponent(keyword)
-                .map { list ->
-                    list.groupBy { it.packageName }
-                        .toSortedMap()
-                        .map MapToUiModel@{ (packageName, componentList) ->
-                            // Map to UI model
-                            val app = appRepository.getApplication(packageName).first()
-                                ?: return@MapToUiModel null
-                            if (!userDataRepository.userData.first().showSystemApps) {
-                                if (app.isSystem) {
-                                    // If user doesn't want to show system apps, skip it
-                                    return@MapToUiModel null
-                                }
-                            }
-                            Timber.v("Found ${componentList.size} components for $packageName")
-                            FilteredComponent(
-                                app = app.toAppItem(
-                                    packageInfo = pm.getPackageInfoCompat(packageName, 0),
-                                ),
-                                activity = componentList
-                                    .filter { it.type == ACTIVITY },
-                                service = componentList
-                                    .filter { it.type == SERVICE },
-                                receiver = componentList
-                                    .filter { it.type == RECEIVER },
-                                provider = componentList
-                                    .filter { it.type == PROVIDER },
-                            )
-                        }
-                        .filterNotNull()
-                }
-
-        val searchGeneralRuleFlow = searchRule(keyword)
-        val searchFlow = combine(
-            searchAppFlow,
-            searchComponentFlow,
-            searchGeneralRuleFlow,
-        ) { apps, components, rules ->
-            filterComponentList.clear()
-            filterComponentList.addAll(components)
-            Timber.v("Find ${apps.size} apps, ${components.size} components, ${rules.size} rules")
-            val matchedRules = rules.filter { it.matchedAppCount > 0 }
-            val unmatchedRules = rules.filter { it.matchedAppCount == 0 }
-            LocalSearchUiState.Success(
-                searchKeyword = keyword.split(","),
-                appTabUiState = AppTabUiState(
-                    list = apps,
-                    selectedPackageName = selectedPackageName.value,
-                ),
-                componentTabUiState = ComponentTabUiState(
-                    list = components,
-                    selectedPackageName = selectedPackageName.value,
-                ),
-                ruleTabUiState = RuleTabUiState(
-                    matchedRules = matchedRules,
-                    unmatchedRules = unmatchedRules,
-                    selectedRuleId = selectedRuleId.value,
-                ),
-            )
+        val currentResult = _localSearchUiState.value
+        val lastKeyword = resultKeyword
+        if (currentResult is LocalSearchUiState.Success &&
+            lastKeyword != null &&
+            keyword.contains(lastKeyword, ignoreCase = true)
+        ) {
+            showResult(keyword, currentResult.narrowTo(keyword))
+        } else {
+            resultKeyword = null
+            _localSearchUiState.value = LocalSearchUiState.Loading
         }
+        searchKeyword.value = keyword
+    }
+
+    @OptIn(FlowPreview::class)
+    private fun observeSearchKeyword() {
         searchJob?.cancel()
         searchJob = viewModelScope.launch {
-            searchFlow.flowOn(ioDispatcher)
-                .onStart {
-                    _localSearchUiState.emit(LocalSearchUiState.Loading)
+            searchKeyword.filterNotNull()
+                .debounce(SEARCH_DEBOUNCE_MILLIS)
+                .collectLatest { keyword -> searchAllTabs(keyword) }
+        }
+    }
+
+    // Every tab is updated as soon as its results are loaded, and keeps following data changes
+    private suspend fun searchAllTabs(keyword: String) = coroutineScope {
+        launch {
+            searchAppList(keyword)
+                .flowOn(ioDispatcher)
+                .catch { _errorState.emit(it.toErrorMessage()) }
+                .collect { apps ->
+                    Timber.v("Find ${apps.size} apps")
+                    updateResult(keyword) { it.copy(appTabUiState = it.appTabUiState.copy(list = apps)) }
+                }
+        }
+        launch {
+            searchComponents(keyword)
+                .flowOn(ioDispatcher)
+                .catch { _errorState.emit(it.toErrorMessage()) }
+                .collect { components ->
+                    Timber.v("Find ${components.size} apps with matching components")
+                    updateResult(keyword) {
+                        it.copy(componentTabUiState = it.componentTabUiState.copy(list = components))
+                    }
                 }
-                .collect { searchResult ->
-                    _localSearchUiState.emit(searchResult)
-                    val ruleCount = searchResult.ruleTabUiState.matchedRules.size +
-                        searchResult.ruleTabUiState.unmatchedRules.size
-                    _tabState.update {
+        }
+        launch {
+            searchRule(keyword)
+                .flowOn(ioDispatcher)
+                .catch { _errorState.emit(it.toErrorMessage()) }
+                .collect { rules ->
+                    Timber.v("Find ${rules.size} rules")
+                    updateResult(keyword) {
                         it.copy(
-                            items = listOf(
-                                SearchScreenTabs.App(
-                                    count = searchResult.appTabUiState.list.size,
-                                ),
-                                SearchScreenTabs.Component(
-                                    count = searchResult.componentTabUiState.list.size,
-                                ),
-                                SearchScreenTabs.Rule(
-                                    count = ruleCount,
-                                ),
+                            ruleTabUiState = it.ruleTabUiState.copy(
+                                matchedRules = rules.filter { rule -> rule.matchedAppCount > 0 },
+                                unmatchedRules = rules.filter { rule -> rule.matchedAppCount == 0 },
                             ),
                         )
                     }
@@ -282,6 +273,76 @@ class SearchViewModel @AssistedInject constructor(
         }
     }
 
+    private fun searchComponents(keyword: String): Flow<List<FilteredComponent>> = flow {
+        val showSystemApps = userDataRepository.userData.first().showSystemApps
+        emitAll(componentRepository.searchComponentGroupByApp(keyword, showSystemApps))
+    }
+        .map { groups ->
+            groups.entries
+                .sortedBy { (app, _) -> app.packageName }
+                .map { (app, componentList) ->
+                    // Map to UI model
+                    Timber.v("Found ${componentList.size} components for ${app.packageName}")
+                    FilteredComponent(
+                        app = app.toAppItem(
+                            packageInfo = packageInfoCache.get(app.packageName, app.lastUpdateTime),
+                        ),
+                        activity = componentList
+                            .filter { it.type == ACTIVITY },
+                        service = componentList
+                            .filter { it.type == SERVICE },
+                        receiver = componentList
+                            .filter { it.type == RECEIVER },
+                        provider = componentList
+                            .filter { it.type == PROVIDER },
+                    )
+                }
+        }
+
+    private fun updateResult(
+        keyword: String,
+        transform: (LocalSearchUiState.Success) -> LocalSearchUiState.Success,
+    ) {
+        // The keyword changed, a newer search will replace the results
+        if (keyword != _searchUiState.value.keyword) return
+        val currentResult = _localSearchUiState.value
+        val result = if (currentResult is LocalSearchUiState.Success && resultKeyword == keyword) {
+            currentResult
+        } else {
+            LocalSearchUiState.Success(
+                searchKeyword = keyword.split(","),
+                appTabUiState = AppTabUiState(selectedPackageName = selectedPackageName.value),
+                componentTabUiState = ComponentTabUiState(selectedPackageName = selectedPackageName.value),
+                ruleTabUiState = RuleTabUiState(selectedRuleId = selectedRuleId.value),
+            )
+        }
+        showResult(keyword, transform(result))
+    }
+
+    private fun showResult(keyword: String, result: LocalSearchUiState.Success) {
+        resultKeyword = keyword
+        filterComponentList.clear()
+        filterComponentList.addAll(result.componentTabUiState.list)
+        _localSearchUiState.value = result
+        val ruleCount = result.ruleTabUiState.matchedRules.size +
+            result.ruleTabUiState.unmatchedRules.size
+        _tabState.update {
+            it.copy(
+                items = listOf(
+                    SearchScreenTabs.App(
+                        count = result.appTabUiState.list.size,
+                    ),
+                    SearchScreenTabs.Component(
+                        count = result.componentTabUiState.list.size,
+                    ),
+                    SearchScreenTabs.Rule(
+                        count = ruleCount,
+                    ),
+                ),
+            )
+        }
+    }
+
     fun controlAllSelectedComponents(enable: Boolean, action: (Int, Int) -> Unit) {
         viewModelScope.launch(ioDispatcher + exceptionHandler) {
             var current = 0
@@ -17,8 +17,6 @@
 package com.merxury.blocker.feature.search.impl
 
 import android.content.pm.PackageInfo
-import android.content.pm.PackageManager
-import android.content.pm.PackageManager.PackageInfoFlags
 import androidx.lifecycle.SavedStateHandle
 import app.cash.turbine.test
 import com.merxury.blocker.core.domain.InitializeDatabaseUseCase
@@ -40,6 +38,7 @@ import com.merxury.blocker.core.testing.controller.FakeAppController
 import com.merxury.blocker.core.testing.controller.FakePackageInfoDataSource
 import com.merxury.blocker.core.testing.controller.FakeServiceController
 import com.merxury.blocker.core.testing.data.TestAppStateCache
+import com.merxury.blocker.core.testing.data.TestPackageInfoCache
 import com.merxury.blocker.core.testing.repository.TestAppPropertiesRepository
 import com.merxury.blocker.core.testing.repository.TestAppRepository
 import com.merxury.blocker.core.testing.repository.TestComponentRepository
@@ -55,12 +54,12 @@ import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.flow.collect
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.test.UnconfinedTestDispatcher
+import kotlinx.coroutines.test.advanceUntilIdle
 import kotlinx.coroutines.test.runTest
 import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 import org.junit.rules.TemporaryFolder
-import org.mockito.kotlin.any
 import org.mockito.kotlin.doReturn
 import org.mockito.kotlin.mock
 
@@ -86,14 +85,8 @@ class SearchViewModelTest {
     private val packageInfo = mock<PackageInfo> {
         on { toString() } doReturn "MockedPackageInfo"
     }
-    private val pm = mock<PackageManager> {
-        on { getPackageInfo(any<String>(), any<Int>()) } doReturn packageInfo
-        on {
-            getPackageInfo(
-                any<String>(),
-                any<PackageInfoFlags>(),
-            )
-        } doReturn packageInfo
+    private val packageInfoCache = TestPackageInfoCache().apply {
+        sendPackageInfo(packageInfo)
     }
     private val savedStateHandle = SavedStateHandle()
     private lateinit var viewModel: SearchViewModel
@@ -116,7 +109,7 @@ class SearchViewModelTest {
             shizukuServiceController = serviceController,
         )
         val searchAppList = SearchAppListUseCase(
-            pm = pm,
+            packageInfoCache = packageInfoCache,
             appRepository = appRepository,
             userDataRepository = userDataRepository,
             appStateCache = appStateCache,
@@ -135,7 +128,7 @@ class SearchViewModelTest {
             userDataRepository = userDataRepository,
             appRepository = appRepository,
             componentRepository = componentRepository,
-            pm = pm,
+            packageInfoCache = packageInfoCache,
             packageInfoDataSource = FakePackageInfoDataSource(),
             initializeDatabase = initializeDatabase,
             searchAppList = searchAppList,
@@ -190,6 +183,7 @@ class SearchViewModelTest {
         viewModel.localSearchUiState.test {
             userDataRepository.sendUserData(defaultUserData)
             appRepository.sendAppList(sampleAppList)
+            componentRepository.sendAppList(sampleAppList)
             componentRepository.sendComponentList(sampleComponentList)
             generalRuleRepository.sendRuleList(sampleRuleList)
             viewModel.search("blocker")
@@ -209,6 +203,8 @@ class SearchViewModelTest {
             val searchedRuleList = sampleRuleList.filter { it.name.contains("blocker") }
             assertEquals(LocalSearchUiState.Idle, awaitItem())
             assertEquals(LocalSearchUiState.Loading, awaitItem())
+            // Tabs are updated one by one as their results arrive
+            advanceUntilIdle()
             assertEquals(
                 LocalSearchUiState.Success(
                     searchKeyword = listOf("blocker"),
@@ -223,20 +219,49 @@ class SearchViewModelTest {
                         unmatchedRules = searchedRuleList.filter { it.matchedAppCount == 0 },
                     ),
                 ),
-                awaitItem(),
+                expectMostRecentItem(),
             )
         }
     }
 
+    @Test
+    fun localSearchUiState_whenKeywordExtended_thenNarrowResultsBeforeSearch() = runTest {
+        val collectJob = launch(UnconfinedTestDispatcher()) { viewModel.localSearchUiState.collect() }
+        userDataRepository.sendUserData(defaultUserData)
+        appRepository.sendAppList(sampleAppList)
+        componentRepository.sendAppList(sampleAppList)
+        componentRepository.sendComponentList(sampleComponentList)
+        generalRuleRepository.sendRuleList(sampleRuleList)
+        viewModel.search(SEARCH_KEYWORD)
+        // The search waits for the keyword to settle
+        assertEquals(LocalSearchUiState.Loading, viewModel.localSearchUiState.value)
+        advanceUntilIdle()
+        viewModel.search("$SEARCH_KEYWORD.test1")
+        val narrowedResult = viewModel.localSearchUiState.value as LocalSearchUiState.Success
+        assertEquals(
+            listOf(sampleAppList[0].packageName),
+            narrowedResult.appTabUiState.list.map { it.packageName },
+        )
+        assertEquals(
+            listOf("com.merxury.blocker.test1.activity1"),
+            narrowedResult.componentTabUiState.list.single().activity.map { it.name },
+        )
+        assertEquals(emptyList(), narrowedResult.ruleTabUiState.matchedRules)
+        assertEquals(listOf("$SEARCH_KEYWORD.test1"), narrowedResult.searchKeyword)
+        collectJob.cancel()
+    }
+
     @Test
     fun tabState_whenSearch_thenUpdateItems() = runTest {
         val collectJob = launch(UnconfinedTestDispatcher()) { viewModel.searchUiState.collect() }
         userDataRepository.sendUserData(defaultUserData)
         appRepository.sendAppList(sampleAppList)
+        componentRepository.sendAppList(sampleAppList)
         componentRepository.sendComponentList(sampleComponentList)
         generalRuleRepository.sendRuleList(sampleRuleList)
         viewModel.search(SEARCH_KEYWORD)
         viewModel.load()
+        advanceUntilIdle()
         val matchedAppList: List<AppItem> =
             sampleAppList.filter { it.label.contains(SEARCH_KEYWORD) }
                 .map { it.toAppItem().copy(packageInfo = packageInfo) }
@@ -310,6 +335,7 @@ class SearchViewModelTest {
 
         userDataRepository.sendUserData(defaultUserData)
         appRepository.sendAppList(sampleAppList)
+        componentRepository.sendAppList(sampleAppList)
         componentRepository.sendComponentList(sampleComponentList)
         generalRuleRepository.sendRuleList(sampleRuleList)
 
@@ -343,6 +369,7 @@ class SearchViewModelTest {
 
         userDataRepository.sendUserData(defaultUserData)
         appRepository.sendAppList(sampleAppList)
+        componentRepository.sendAppList(sampleAppList)
         componentRepository.sendComponentList(sampleComponentList)
         generalRuleRepository.sendRuleList(sampleRuleList)
 
@@ -387,11 +414,13 @@ class SearchViewModelTest {
 
         userDataRepository.sendUserData(defaultUserData)
         appRepository.sendAppList(sampleAppList)
+        componentRepository.sendAppList(sampleAppList)
         componentRepository.sendComponentList(sampleComponentList)
         generalRuleRepository.sendRuleList(sampleRuleList)
 
         viewModel.search(SEARCH_KEYWORD)
         viewModel.load()
+        advanceUntilIdle()
         val matchedAppList = listOf(
             FilteredComponent(
                 app = sampleAppList[0].toAppItem().copy(packageInfo = packageInfo),
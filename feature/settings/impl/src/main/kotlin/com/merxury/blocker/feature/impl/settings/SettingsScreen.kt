@@ -109,6 +109,7 @@ fun SettingsScreen(
         onChangeShowServiceInfo = viewModel::updateShowServiceInfo,
         onChangeBackupSystemApp = viewModel::updateBackupSystemApp,
         onChangeRestoreSystemApp = viewModel::updateRestoreSystemApp,
+        onChangeArchiveBackup = viewModel::updateArchiveBackup,
         onChangeRuleBackupFolder = viewModel::updateRuleBackupFolder,
         onChangeCheckedStatistics = viewModel::updateCheckedStatistics,
         importRules = viewModel::importBlockerRules,
@@ -183,6 +184,7 @@ fun SettingsScreen(
     onChangeShowServiceInfo: (Boolean) -> Unit = { },
     onChangeBackupSystemApp: (Boolean) -> Unit = { },
     onChangeRestoreSystemApp: (Boolean) -> Unit = { },
+    onChangeArchiveBackup: (Boolean) -> Unit = { },
     onChangeRuleBackupFolder: (Uri?) -> Unit = { },
     onChangeCheckedStatistics: (Boolean) -> Unit = { },
     exportRules: () -> Unit = { },
@@ -223,6 +225,7 @@ fun SettingsScreen(
                     onChangeShowServiceInfo = onChangeShowServiceInfo,
                     onChangeBackupSystemApp = onChangeBackupSystemApp,
                     onChangeRestoreSystemApp = onChangeRestoreSystemApp,
+                    onChangeArchiveBackup = onChangeArchiveBackup,
                     onChangeRuleBackupFolder = onChangeRuleBackupFolder,
                     onChangeCheckedStatistics = onChangeCheckedStatistics,
                     exportRules = exportRules,
@@ -254,6 +257,7 @@ fun SettingsContent(
     onChangeShowServiceInfo: (Boolean) -> Unit = { },
     onChangeBackupSystemApp: (Boolean) -> Unit = { },
     onChangeRestoreSystemApp: (Boolean) -> Unit = { },
+    onChangeArchiveBackup: (Boolean) -> Unit = { },
     onChangeRuleBackupFolder: (Uri?) -> Unit = { },
     onChangeCheckedStatistics: (Boolean) -> Unit = { },
     exportRules: () -> Unit = { },
@@ -301,10 +305,12 @@ fun SettingsContent(
         BackupSettings(
             backupSystemApps = settings.backupSystemApp,
             restoreSystemApp = settings.restoreSystemApp,
+            archiveBackup = settings.archiveBackup,
             ruleBackupFolder = settings.ruleBackupFolder,
             snackbarHostState = snackbarHostState,
             onChangeBackupSystemApp = onChangeBackupSystemApp,
             onChangeRestoreSystemApp = onChangeRestoreSystemApp,
+            onChangeArchiveBackup = onChangeArchiveBackup,
             onChangeRuleBackupFolder = onChangeRuleBackupFolder,
         )
         HorizontalDivider()
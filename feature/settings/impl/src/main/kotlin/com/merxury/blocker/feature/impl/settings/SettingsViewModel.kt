@@ -100,6 +100,7 @@ class SettingsViewModel @Inject constructor(
                         ruleBackupFolder = getPathFromUriString(userData.ruleBackupFolder),
                         backupSystemApp = userData.backupSystemApp,
                         restoreSystemApp = userData.restoreSystemApp,
+                        archiveBackup = userData.archiveBackup,
                         showSystemApps = userData.showSystemApps,
                         showServiceInfo = userData.showServiceInfo,
                         darkThemeConfig = userData.darkThemeConfig,
@@ -224,6 +225,12 @@ class SettingsViewModel @Inject constructor(
         }
     }
 
+    fun updateArchiveBackup(archive: Boolean) {
+        viewModelScope.launch {
+            userDataRepository.setArchiveBackup(archive)
+        }
+    }
+
     fun updateCheckedStatistics(checked: Boolean) {
         viewModelScope.launch {
             userDataRepository.setEnableStatistics(checked)
@@ -254,6 +261,7 @@ class SettingsViewModel @Inject constructor(
                     backupPath = userData.ruleBackupFolder,
                     restoreSystemApps = userData.restoreSystemApp,
                     controllerType = userData.controllerType,
+                    fromArchive = userData.archiveBackup,
                 ),
             )
             getWorkInfosForUniqueWorkLiveData(taskName)
@@ -276,6 +284,7 @@ class SettingsViewModel @Inject constructor(
                 ExportBlockerRulesWorker.exportWork(
                     folderPath = userData.ruleBackupFolder,
                     backupSystemApps = userData.backupSystemApp,
+                    archive = userData.archiveBackup,
                 ),
             )
             getWorkInfosForUniqueWorkLiveData(taskName)
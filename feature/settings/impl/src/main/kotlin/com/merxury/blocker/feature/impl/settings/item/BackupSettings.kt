@@ -46,10 +46,12 @@ import timber.log.Timber
 fun BackupSettings(
     backupSystemApps: Boolean,
     restoreSystemApp: Boolean,
+    archiveBackup: Boolean,
     ruleBackupFolder: String,
     snackbarHostState: SnackbarHostState,
     onChangeBackupSystemApp: (Boolean) -> Unit,
     onChangeRestoreSystemApp: (Boolean) -> Unit,
+    onChangeArchiveBackup: (Boolean) -> Unit,
     onChangeRuleBackupFolder: (Uri?) -> Unit,
     modifier: Modifier = Modifier,
 ) {
@@ -100,6 +102,12 @@ fun BackupSettings(
             checked = restoreSystemApp,
             onCheckedChange = onChangeRestoreSystemApp,
         )
+        SwitchSettingItem(
+            itemRes = string.feature_settings_api_archive_backup,
+            itemSummaryRes = string.feature_settings_api_archive_backup_summary,
+            checked = archiveBackup,
+            onCheckedChange = onChangeArchiveBackup,
+        )
     }
 }
 
@@ -112,10 +120,12 @@ private fun BackupSettingsPreview() {
             BackupSettings(
                 backupSystemApps = false,
                 restoreSystemApp = true,
+                archiveBackup = false,
                 ruleBackupFolder = "/emulated/0/Blocker",
                 snackbarHostState = SnackbarHostState(),
                 onChangeBackupSystemApp = {},
                 onChangeRestoreSystemApp = {},
+                onChangeArchiveBackup = {},
                 onChangeRuleBackupFolder = {},
             )
         }
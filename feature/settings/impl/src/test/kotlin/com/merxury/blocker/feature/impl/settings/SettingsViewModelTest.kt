@@ -126,6 +126,7 @@ private fun UserPreferenceData.toUserEditableSettings() = UserEditableSettings(
     ruleBackupFolder = ruleBackupFolder,
     backupSystemApp = backupSystemApp,
     restoreSystemApp = restoreSystemApp,
+    archiveBackup = archiveBackup,
     showSystemApps = showSystemApps,
     showServiceInfo = showServiceInfo,
     darkThemeConfig = darkThemeConfig,
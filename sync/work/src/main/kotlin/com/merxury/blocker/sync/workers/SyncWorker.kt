@@ -30,6 +30,7 @@ import androidx.work.WorkManager
 import androidx.work.WorkerParameters
 import com.merxury.blocker.core.analytics.AnalyticsHelper
 import com.merxury.blocker.core.data.Synchronizer
+import com.merxury.blocker.core.data.respository.componentdetail.ComponentDetailRepository
 import com.merxury.blocker.core.data.respository.userdata.UserDataRepository
 import com.merxury.blocker.core.datastore.BlockerPreferencesDataSource
 import com.merxury.blocker.core.datastore.ChangeListVersions
@@ -68,6 +69,7 @@ internal class SyncWorker @AssistedInject constructor(
     @Assisted private val appContext: Context,
     @Assisted workerParams: WorkerParameters,
     private val userDataRepository: UserDataRepository,
+    private val componentDetailRepository: ComponentDetailRepository,
     @FilesDir private val filesDir: File,
     private val network: BlockerNetworkDataSource,
     private val blockerPreferences: BlockerPreferencesDataSource,
@@ -118,6 +120,8 @@ internal class SyncWorker @AssistedInject constructor(
             .ruleCommitId
         if (localCommitId.isNotBlank() && localCommitId == latestCommitId) {
             Timber.i("Local rule is up to date, skip syncing rules.")
+            // The index is missing if it was added after the last sync
+            componentDetailRepository.updateComponentDetailIndex(onlyIfMissing = true)
             return true
         }
         Timber.i(
@@ -169,6 +173,7 @@ internal class SyncWorker @AssistedInject constructor(
             Timber.e(e, "Failed to sync rules from remote")
             return false
         }
+        componentDetailRepository.updateComponentDetailIndex()
         // write latest commit id to preference
         updateChangeListVersions {
             copy(ruleCommitId = latestCommitId)